@@ -0,0 +1,48 @@
+package com.ahnis.journalai.analysis.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the daily journal summaries that mood reports are written from.
+ * <p>
+ * Each journaling day is summarized once by a cheap model. A report combines the summaries of its period, and
+ * when they exceed {@code reportInputTokens}, runs of consecutive summaries of up to {@code reduceGroupTokens}
+ * are condensed into one until they fit.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "report.summaries")
+public class DailySummaryProperties {
+
+    /**
+     * Chat model writing the daily and condensed summaries.
+     */
+    private String model = "gpt-4o-mini";
+
+    /**
+     * Target length of a summary in words.
+     */
+    private int summaryWords = 120;
+
+    /**
+     * Hard limit on the completion tokens of a summary.
+     */
+    private int maxSummaryTokens = 300;
+
+    /**
+     * Token budget of the summaries handed to the report prompt.
+     */
+    private int reportInputTokens = 4000;
+
+    /**
+     * Token budget of the summaries condensed by one call when a period exceeds the report budget.
+     */
+    private int reduceGroupTokens = 3000;
+}
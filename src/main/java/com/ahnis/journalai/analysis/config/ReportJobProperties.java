@@ -0,0 +1,64 @@
+package com.ahnis.journalai.analysis.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the report job engine.
+ * <p>
+ * The report scheduler enqueues one job per due user and a bounded pool of workers generates the reports.
+ * The report's chat completion takes {@code estimatedTokensPerReport} from the cluster wide LLM rate limit.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "report.jobs")
+public class ReportJobProperties {
+
+    /**
+     * Number of reports generated in parallel.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Maximum number of jobs a node leases at once.
+     */
+    private int claimBatchSize = 8;
+
+    /**
+     * Tokens reserved per report, prompt and completion together.
+     */
+    private int estimatedTokensPerReport = 3_000;
+
+    /**
+     * How long a running job stays locked before another worker may take it over.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(10);
+
+    /**
+     * How often the lease of a job is extended while its report is generated, well below {@code leaseDuration}.
+     */
+    private Duration heartbeatInterval = Duration.ofMinutes(2);
+
+    /**
+     * Attempts after which a report is marked as failed and no longer retried.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Delay before the first retry, doubled on every further attempt.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound for the retry delay.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(30);
+}
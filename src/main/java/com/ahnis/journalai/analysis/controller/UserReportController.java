@@ -1,15 +1,21 @@
 package com.ahnis.journalai.analysis.controller;
 
+import com.ahnis.journalai.analysis.dto.EmotionTrendPoint;
 import com.ahnis.journalai.analysis.dto.MoodReportApiResponse;
+import com.ahnis.journalai.analysis.enums.TrendGranularity;
+import com.ahnis.journalai.analysis.service.EmotionTrendService;
 import com.ahnis.journalai.analysis.service.ReportService;
 import com.ahnis.journalai.common.dto.ApiResponse;
+import com.ahnis.journalai.common.dto.CursorPage;
 import com.ahnis.journalai.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +23,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserReportController {
     private final ReportService reportService;
+    private final EmotionTrendService emotionTrendService;
 
     // View all reports for the authenticated user
     @GetMapping
@@ -29,6 +36,28 @@ public class UserReportController {
         return ResponseEntity.ok(ApiResponse.success(reports));
     }
 
+    // Scroll through reports with a cursor, newest first
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<MoodReportApiResponse>>> scrollReports(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<MoodReportApiResponse> reports = reportService.scrollReportsByUserId(user.getId(), cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(reports));
+    }
+
+    // Average emotion scores of the authenticated user's journals per day, week or month
+    @GetMapping("/trends")
+    public ResponseEntity<ApiResponse<List<EmotionTrendPoint>>> getEmotionTrends(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") TrendGranularity granularity
+    ) {
+        List<EmotionTrendPoint> trend = emotionTrendService.trendFor(user, from, to, granularity);
+        return ResponseEntity.ok(ApiResponse.success(trend));
+    }
 
     // View a specific report for the authenticated user
     @GetMapping("/{reportId}")
@@ -0,0 +1,19 @@
+package com.ahnis.journalai.analysis.dto;
+
+import com.ahnis.journalai.journal.entity.EmotionScores;
+
+import java.time.Instant;
+
+/**
+ * Average emotion scores of the journals written in one period of an emotion trend.
+ *
+ * @param periodStart  Start of the day, week or month in the user's timezone
+ * @param journalCount Number of scored journals written in the period
+ * @param averages     Mean of each emotion over those journals
+ */
+public record EmotionTrendPoint(
+        Instant periodStart,
+        long journalCount,
+        EmotionScores averages
+) {
+}
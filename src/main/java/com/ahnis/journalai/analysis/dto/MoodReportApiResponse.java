@@ -1,5 +1,7 @@
 package com.ahnis.journalai.analysis.dto;
 
+import com.ahnis.journalai.journal.entity.EmotionScores;
+
 import java.time.Instant;
 import java.util.Map;
 import java.util.List;
@@ -14,6 +16,7 @@ import java.util.List;
  * @param insights
  * @param recommendations
  * @param quote
+ * @param emotionScores
  * @param createdAt
  */
 public record MoodReportApiResponse(
@@ -24,6 +27,7 @@ public record MoodReportApiResponse(
         List<String> insights,
         List<String> recommendations,
         String quote,
+        EmotionScores emotionScores,
 
         Instant createdAt
 ) {
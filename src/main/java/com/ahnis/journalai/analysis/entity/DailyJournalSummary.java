@@ -0,0 +1,44 @@
+package com.ahnis.journalai.analysis.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Compact summary of the journals one user wrote on one UTC day.
+ * <p>
+ * Reports read these instead of the raw journals. {@code journalCount} and {@code lastModifiedAt} describe the
+ * journals the summary was written from, so a summary is regenerated once a journal of its day is added,
+ * edited or deleted.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "daily_journal_summaries")
+@CompoundIndex(name = "user_day_idx", def = "{'userId': 1, 'day': 1}")
+public class DailyJournalSummary {
+    @Id
+    private String id;
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String userId;
+    private LocalDate day;
+    private String summary;
+    private int journalCount;
+    private Instant lastModifiedAt;
+    private String model;
+    private Instant generatedAt;
+
+    public static String idOf(String userId, LocalDate day) {
+        return userId + ":" + day;
+    }
+}
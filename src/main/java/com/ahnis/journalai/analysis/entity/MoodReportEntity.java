@@ -1,10 +1,12 @@
 package com.ahnis.journalai.analysis.entity;
 
+import com.ahnis.journalai.journal.entity.EmotionScores;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -22,6 +24,7 @@ import java.util.Map;
 @EqualsAndHashCode
 @Builder
 @Document(collection = "mood_reports")
+@CompoundIndex(name = "user_created_id_idx", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
 @EnableMongoAuditing
 public class MoodReportEntity {
     @Id
@@ -35,6 +38,8 @@ public class MoodReportEntity {
     private List<String> insights;
     private List<String> recommendations;
     private String quote;
+    // Averages of the journals' stored scores, keyEmotions is derived from them when present
+    private EmotionScores emotionScores;
     @CreatedDate
     private Instant createdAt;
 }
@@ -0,0 +1,61 @@
+package com.ahnis.journalai.analysis.entity;
+
+import com.ahnis.journalai.analysis.enums.ReportJobStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+
+/**
+ * A scheduled mood report of one user for one period.
+ * <p>
+ * The id is derived from the user and the end of the period, so the scheduler can enqueue the reports of a day
+ * as often as it likes without producing a second report. {@code runId} is the day the report was due on and
+ * groups the jobs of one scheduler run for metrics. {@code nextReportOn} is stored with the job and written
+ * to the user once the report was sent.
+ * </p>
+ * <p>
+ * Workers lease jobs in batches. A lease is identified by {@code claimId}, so a node whose lease ran out and
+ * was taken over cannot complete or fail the job of its successor.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "report_jobs")
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class ReportJob {
+    @Id
+    private String id;
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String userId;
+    @Indexed
+    private String runId;
+    private Instant periodStart;
+    private Instant periodEnd;
+    private Instant nextReportOn;
+    private ReportJobStatus status;
+    private int attempts;
+    private Instant nextAttemptAt;
+    // Node holding the lease and the claim it was taken with
+    private String lockedBy;
+    private String claimId;
+    private Instant lockedUntil;
+    private String lastError;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private Long durationMillis;
+
+    public static String idOf(String userId, Instant periodEnd) {
+        return userId + ":" + periodEnd;
+    }
+}
@@ -0,0 +1,5 @@
+package com.ahnis.journalai.analysis.enums;
+
+public enum ReportJobStatus {
+    QUEUED, RUNNING, DONE, FAILED
+}
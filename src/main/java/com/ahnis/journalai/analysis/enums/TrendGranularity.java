@@ -0,0 +1,8 @@
+package com.ahnis.journalai.analysis.enums;
+
+/**
+ * Period an emotion trend point averages over, weeks start on Monday.
+ */
+public enum TrendGranularity {
+    DAY, WEEK, MONTH
+}
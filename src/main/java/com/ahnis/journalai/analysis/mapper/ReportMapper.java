@@ -23,6 +23,7 @@ public interface ReportMapper {
     @Mapping(target = "insights", source = "moodReport.insights") // Map insights
     @Mapping(target = "recommendations", source = "moodReport.recommendations") // Map recommendations
     @Mapping(target = "quote", source = "moodReport.quote")
+    @Mapping(target = "emotionScores", ignore = true)
     MoodReportEntity toMoodReportEntity(User user, MoodReportEmailResponse moodReport);
 
     @Mapping(target = "reportId", source = "id") // Map the entity's ID to reportId
@@ -32,6 +33,7 @@ public interface ReportMapper {
     @Mapping(target = "insights", source = "insights")
     @Mapping(target = "recommendations", source = "recommendations")
     @Mapping(target = "quote", source = "quote")
+    @Mapping(target = "emotionScores", source = "emotionScores")
     @Mapping(target = "createdAt", source = "createdAt")
     MoodReportApiResponse toApiResponse(MoodReportEntity entity);
 
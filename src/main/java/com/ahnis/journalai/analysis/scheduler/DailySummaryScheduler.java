@@ -0,0 +1,35 @@
+package com.ahnis.journalai.analysis.scheduler;
+
+import com.ahnis.journalai.analysis.service.DailySummaryService;
+import com.ahnis.journalai.common.scheduling.ShardedRunService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Summarizes the previous UTC day of every user who journaled on it, so reports find their summaries cached.
+ * Days missed here, or edited later, are summarized when a report needs them.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DailySummaryScheduler {
+    static final String JOB_NAME = "summarizeJournalDays";
+
+    private final DailySummaryService dailySummaryService;
+    private final ShardedRunService shardedRunService;
+
+    @Scheduled(cron = "${scheduler.daily-summaries.cron}", zone = "${scheduler.daily-summaries.zone:UTC}")
+    public void summarizePreviousDay() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        log.info("Summarizing the journals written on {}", yesterday);
+        shardedRunService.run(JOB_NAME, yesterday.toString(), (shard, lease) -> {
+            int users = dailySummaryService.summarizeDay(yesterday, shard, lease);
+            log.debug("Checked the daily summaries of {} users in shard {}", users, shard);
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.ahnis.journalai.analysis.scheduler;
+
+import com.ahnis.journalai.analysis.config.ReportJobProperties;
+import com.ahnis.journalai.analysis.entity.ReportJob;
+import com.ahnis.journalai.analysis.service.ReportJobService;
+import com.ahnis.journalai.analysis.service.ReportService;
+import com.ahnis.journalai.common.ratelimit.LlmRateLimiter;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the queued reports.
+ * <p>
+ * Every tick leases batches of jobs for this node and runs them on virtual threads, with at most
+ * {@code concurrency} reports in flight. Before its chat completion, every report takes one request and its
+ * estimated tokens from the {@link LlmRateLimiter} shared by all nodes, so a day with many due reports is
+ * spread out under the OpenAI rate limits instead of failing with 429s.
+ * </p>
+ * <p>
+ * Waiting for the rate limit can take longer than a lease, so the lease of a job is renewed by a heartbeat
+ * while its report is generated, and ownership is checked once more right before the report is saved and
+ * emailed. A job another node took over in the meantime is left to that node and never sent twice.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ReportJobWorker {
+    private final ReportJobService reportJobService;
+    private final ReportService reportService;
+    private final UserRepository userRepository;
+    private final ReportJobProperties properties;
+    private final LlmRateLimiter llmRateLimiter;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("report-job-heartbeat").factory());
+
+    public ReportJobWorker(ReportJobService reportJobService, ReportService reportService,
+                           UserRepository userRepository, ReportJobProperties properties,
+                           LlmRateLimiter llmRateLimiter) {
+        this.reportJobService = reportJobService;
+        this.reportService = reportService;
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.llmRateLimiter = llmRateLimiter;
+    }
+
+    @Scheduled(fixedDelayString = "${report.jobs.poll-interval:PT30S}")
+    public void drain() {
+        int concurrency = properties.getConcurrency();
+        var inFlight = new Semaphore(concurrency);
+        try {
+            List<ReportJob> batch;
+            while (!(batch = reportJobService.claimBatch()).isEmpty()) {
+                for (ReportJob job : batch) {
+                    inFlight.acquire();
+                    executor.execute(() -> {
+                        try {
+                            run(job);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            // Wait for the reports in flight, so the metrics below include them
+            inFlight.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        reportJobService.refreshMetrics();
+    }
+
+    void run(ReportJob job) {
+        long started = System.nanoTime();
+        long interval = properties.getHeartbeatInterval().toMillis();
+        var heartbeat = heartbeats.scheduleAtFixedRate(() -> renewLease(job), interval, interval,
+                TimeUnit.MILLISECONDS);
+        try {
+            User user = userRepository.findById(job.getUserId())
+                    .orElseThrow(() -> new NoSuchElementException("User " + job.getUserId() + " no longer exists"));
+            llmRateLimiter.acquire(properties.getEstimatedTokensPerReport());
+            if (!reportService.generateReport(user, job.getPeriodStart(), job.getPeriodEnd(),
+                    () -> reportJobService.renewLease(job))) {
+                log.warn("Report job {} was taken over by another node, leaving the report to it", job.getId());
+                return;
+            }
+            userRepository.updateReportDatesById(user.getId(), job.getPeriodEnd(), job.getNextReportOn());
+            reportJobService.complete(job, Duration.ofNanos(System.nanoTime() - started));
+            log.info("Report job {} generated the report of user {}", job.getId(), user.getUsername());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Left running, another worker takes it over once the lease runs out
+        } catch (Exception e) {
+            log.warn("Report job {} failed: {}", job.getId(), e.getMessage());
+            reportJobService.fail(job, Duration.ofNanos(System.nanoTime() - started), e,
+                    !(e instanceof NoSuchElementException));
+        } finally {
+            heartbeat.cancel(false);
+        }
+    }
+
+    private void renewLease(ReportJob job) {
+        try {
+            if (!reportJobService.renewLease(job))
+                log.warn("Lost the lease of report job {} to another node", job.getId());
+        } catch (Exception e) {
+            // The lease stays valid until it runs out, the next heartbeat tries again
+            log.warn("Failed to renew the lease of report job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        heartbeats.shutdown();
+    }
+}
@@ -1,8 +1,9 @@
 package com.ahnis.journalai.analysis.scheduler;
 
-import com.ahnis.journalai.analysis.service.ReportService;
-import com.ahnis.journalai.user.entity.User;
-import com.ahnis.journalai.user.repository.UserRepository;
+import com.ahnis.journalai.analysis.service.ReportJobService;
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.ShardedRunService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,16 +13,15 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.util.List;
-
-import static com.ahnis.journalai.user.util.UserUtils.calculateNextReportOn;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class ReportScheduler {
-    private final UserRepository userRepository;
-    private final ReportService reportService;
+    static final String JOB_NAME = "checkForReports";
+
+    private final ReportJobService reportJobService;
+    private final ShardedRunService shardedRunService;
 
     //todo next asap PROFILING dev and prod
     //todo in prod and dev have cron expression in yaml
@@ -29,44 +29,22 @@ public class ReportScheduler {
     @Scheduled(cron = "${scheduler.check-reports.cron}", zone = "${scheduler.check-reports.zone}")
     public void checkForReports() {
         log.info("Scheduler running {} and is virtual : {} ", Thread.currentThread().getName(), Thread.currentThread().isVirtual());
-        // Get the current date in UTC
-        ZonedDateTime nowInUTC = ZonedDateTime.now(ZoneOffset.UTC);
-        LocalDate todayInUTC = nowInUTC.toLocalDate();
+        // Every node fires the cron and enqueues the reports of the user shards it gets
+        LocalDate todayInUTC = ZonedDateTime.now(ZoneOffset.UTC).toLocalDate();
+        shardedRunService.run(JOB_NAME, todayInUTC.toString(), (shard, lease) -> checkForReports(todayInUTC, shard, lease));
+    }
 
+    private void checkForReports(LocalDate todayInUTC, Shard shard, SchedulerLease lease) {
         // Convert today's date to the start of the day in UTC
         Instant startOfDayInUTC = todayInUTC.atStartOfDay(ZoneOffset.UTC).toInstant();
         Instant endOfDayInUTC = todayInUTC.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
 
-        log.info("Checking for reports due between: {} and {} (UTC)", startOfDayInUTC, endOfDayInUTC);
-
-        // Fetch users who have nextReportAt equal to today
-        List<User> usersDueToday = userRepository.findByNextReportOn(startOfDayInUTC, endOfDayInUTC);
-        log.info("Users have report today: {}", usersDueToday);
-
-        if (usersDueToday.isEmpty()) {
-            log.info("No users found with reports due today.");
-            return;
-        }
-
-        usersDueToday.forEach(user -> {
-            try {
-                Instant lastReportAt = user.getLastReportAt();
-                Instant nextReportOn = user.getNextReportOn();
-
-                Instant newNextReportOn = calculateNextReportOn(nextReportOn, user.getPreferences().getReportFrequency());
-                //EDGE CASES
-                //Existing user with last report generated
-                var startDate = (lastReportAt != null) ? lastReportAt : user.getCreatedAt();
-                reportService.generateReport(user, startDate, nextReportOn);
-                log.info("Report generated and dates updated for user: {}", user.getUsername());
-                //update last reportAt to today(nextReportOn)
-                userRepository.updateLastReportAtById(user.getId(), nextReportOn);
-                userRepository.updateNextReportOnById(user.getId(), newNextReportOn);
-                log.info("LastReportAt and NextReportAt fields updated for user {} ", user.getUsername());
+        log.debug("Checking shard {} for reports due between: {} and {} (UTC) with fencing token {}",
+                shard, startOfDayInUTC, endOfDayInUTC, lease.getFencingToken());
 
-            } catch (Exception e) {
-                log.error("Failed to generate report for user: {}", user.getUsername(), e);
-            }
-        });
+        // Reports are generated by the report job workers, within their concurrency and rate limits
+        long dueUsers = reportJobService.enqueueDueReports(startOfDayInUTC, endOfDayInUTC, shard);
+        if (dueUsers > 0)
+            log.info("Enqueued report jobs for {} users of shard {}", dueUsers, shard);
     }
 }
@@ -0,0 +1,260 @@
+package com.ahnis.journalai.analysis.service;
+
+import com.ahnis.journalai.analysis.config.DailySummaryProperties;
+import com.ahnis.journalai.analysis.entity.DailyJournalSummary;
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.ratelimit.LlmRateLimiter;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Maintains the daily journal summaries and combines them into the input of a mood report.
+ * <p>
+ * A day is summarized from its raw journals only when it has no summary yet or its journals changed since,
+ * which a single aggregation over the period detects. Reports therefore send the model a few lines per
+ * journaling day instead of the raw text, and cover every day of the period instead of the best matching
+ * chunks. Long periods are reduced map-reduce style: consecutive summaries are condensed into one until the
+ * report budget is met. Every summary and condense call is charged to the cluster wide LLM rate limit.
+ * </p>
+ */
+@Slf4j
+@Service
+public class DailySummaryService {
+    private final MongoTemplate mongoTemplate;
+    private final ChatModel chatModel;
+    private final DailySummaryProperties properties;
+    private final LlmRateLimiter llmRateLimiter;
+    private final ToIntFunction<String> tokenCounter;
+
+    public DailySummaryService(MongoTemplate mongoTemplate, ChatModel chatModel, DailySummaryProperties properties,
+                               LlmRateLimiter llmRateLimiter) {
+        this(mongoTemplate, chatModel, properties, llmRateLimiter,
+                Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    private DailySummaryService(MongoTemplate mongoTemplate, ChatModel chatModel, DailySummaryProperties properties,
+                                LlmRateLimiter llmRateLimiter, Encoding encoding) {
+        this(mongoTemplate, chatModel, properties, llmRateLimiter, encoding::countTokens);
+    }
+
+    DailySummaryService(MongoTemplate mongoTemplate, ChatModel chatModel, DailySummaryProperties properties,
+                        LlmRateLimiter llmRateLimiter, ToIntFunction<String> tokenCounter) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatModel = chatModel;
+        this.properties = properties;
+        this.llmRateLimiter = llmRateLimiter;
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * The summaries of every UTC day the user wrote on from {@code from} until before {@code to}, oldest first.
+     * Missing and outdated summaries are written first. Summaries always cover whole days, including the days
+     * the period starts and ends in.
+     */
+    public List<DailyJournalSummary> summariesFor(String userId, Instant from, Instant to) {
+        LocalDate firstDay = LocalDate.ofInstant(from, ZoneOffset.UTC);
+        LocalDate lastDay = LocalDate.ofInstant(to.minusMillis(1), ZoneOffset.UTC);
+        if (lastDay.isBefore(firstDay))
+            return List.of();
+        List<DayActivity> activeDays = activeDays(userId, firstDay, lastDay);
+        if (activeDays.isEmpty())
+            return List.of();
+
+        Map<LocalDate, DailyJournalSummary> cached = mongoTemplate.find(query(where("_id").in(activeDays.stream()
+                        .map(day -> DailyJournalSummary.idOf(userId, day.day()))
+                        .toList())), DailyJournalSummary.class).stream()
+                .collect(Collectors.toMap(DailyJournalSummary::getDay, Function.identity()));
+
+        var summaries = new ArrayList<DailyJournalSummary>(activeDays.size());
+        int written = 0;
+        for (DayActivity activity : activeDays) {
+            DailyJournalSummary summary = cached.get(activity.day());
+            if (summary == null || !activity.matches(summary)) {
+                summary = summarizeDay(userId, activity);
+                written++;
+            }
+            summaries.add(summary);
+        }
+        if (written > 0)
+            log.info("Wrote {} of {} daily summaries of user {}", written, activeDays.size(), userId);
+        summaries.sort(Comparator.comparing(DailyJournalSummary::getDay));
+        return summaries;
+    }
+
+    /**
+     * Brings the summaries of {@code day} up to date for the users of the shard who wrote on it.
+     *
+     * @return Number of users whose summaries were checked.
+     */
+    public int summarizeDay(LocalDate day, Shard shard, SchedulerLease lease) {
+        Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        AggregationOperation writtenOnDay = _ -> new Document("$match", new Document("createdAt",
+                new Document("$gte", Date.from(start)).append("$lt", Date.from(end))));
+        AggregationOperation inShard = _ -> new Document("$match", new Document("$expr", shard.idExpression("userId")));
+        AggregationOperation byUser = _ -> new Document("$group", new Document("_id", "$userId"));
+        List<Document> writers = mongoTemplate.aggregate(Aggregation.newAggregation(writtenOnDay, inShard, byUser),
+                Journal.class, Document.class).getMappedResults();
+
+        int users = 0;
+        for (Document writer : writers) {
+            // Stop once the lease is lost, the node that took the shard over continues
+            if (!lease.isHeld())
+                break;
+            summariesFor(writer.getObjectId("_id").toHexString(), start, end);
+            users++;
+        }
+        return users;
+    }
+
+    /**
+     * Joins the summaries into the journal section of a report prompt, condensing runs of consecutive days while
+     * they exceed the report budget.
+     */
+    public String combine(List<DailyJournalSummary> summaries) {
+        List<Section> sections = summaries.stream()
+                .map(summary -> new Section(summary.getDay(), summary.getDay(), summary.getSummary()))
+                .toList();
+        while (sections.size() > 1 && tokens(sections) > properties.getReportInputTokens()) {
+            sections = condense(sections);
+        }
+        return sections.stream().map(Section::render).collect(Collectors.joining("\n"));
+    }
+
+    private List<DayActivity> activeDays(String userId, LocalDate firstDay, LocalDate lastDay) {
+        AggregationOperation writtenInPeriod = _ -> new Document("$match", new Document("userId", new ObjectId(userId))
+                .append("createdAt", new Document("$gte", Date.from(firstDay.atStartOfDay(ZoneOffset.UTC).toInstant()))
+                        .append("$lt", Date.from(lastDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()))));
+        AggregationOperation byDay = _ -> new Document("$group", new Document()
+                .append("_id", new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$createdAt")))
+                .append("journalCount", new Document("$sum", 1))
+                .append("lastModifiedAt", new Document("$max", "$modifiedAt")));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(writtenInPeriod, byDay), Journal.class, Document.class)
+                .getMappedResults().stream()
+                .map(day -> new DayActivity(LocalDate.parse(day.getString("_id")), day.getInteger("journalCount"),
+                        Optional.ofNullable(day.getDate("lastModifiedAt")).map(Date::toInstant).orElse(null)))
+                .sorted(Comparator.comparing(DayActivity::day))
+                .toList();
+    }
+
+    private DailyJournalSummary summarizeDay(String userId, DayActivity activity) {
+        Instant start = activity.day().atStartOfDay(ZoneOffset.UTC).toInstant();
+        var dayQuery = query(where("userId").is(userId).and("createdAt").gte(start).lt(start.plusSeconds(86400)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        dayQuery.fields().include("title", "content", "createdAt");
+        String entries = mongoTemplate.find(dayQuery, Journal.class).stream()
+                .map(journal -> journal.getTitle() + "\n" + journal.getContent())
+                .collect(Collectors.joining("\n\n"));
+
+        String summary = summarize(String.format("""
+                Summarize the following journal entries written on %s in at most %d words.
+                Keep the events, the people involved and how the writer felt. Name emotions only from happiness, sadness, anger, fear, surprise and disgust.
+                Write plain prose in the third person, without headings or lists.
+                Entries:
+                %s
+                """, activity.day(), properties.getSummaryWords(), entries));
+        return mongoTemplate.save(DailyJournalSummary.builder()
+                .id(DailyJournalSummary.idOf(userId, activity.day()))
+                .userId(userId)
+                .day(activity.day())
+                .summary(summary)
+                .journalCount(activity.journalCount())
+                .lastModifiedAt(activity.lastModifiedAt())
+                .model(properties.getModel())
+                .generatedAt(Instant.now())
+                .build());
+    }
+
+    private List<Section> condense(List<Section> sections) {
+        var condensed = new ArrayList<Section>();
+        var group = new ArrayList<Section>();
+        int groupTokens = 0;
+        for (Section section : sections) {
+            int sectionTokens = tokenCounter.applyAsInt(section.render());
+            // At least two sections per group, so every round shortens the list
+            if (group.size() >= 2 && groupTokens + sectionTokens > properties.getReduceGroupTokens()) {
+                condensed.add(condenseGroup(group));
+                group = new ArrayList<>();
+                groupTokens = 0;
+            }
+            group.add(section);
+            groupTokens += sectionTokens;
+        }
+        condensed.add(group.size() == 1 ? group.getFirst() : condenseGroup(group));
+        log.debug("Condensed {} summaries into {}", sections.size(), condensed.size());
+        return condensed;
+    }
+
+    private Section condenseGroup(List<Section> group) {
+        Section first = group.getFirst();
+        Section last = group.getLast();
+        String summary = summarize(String.format("""
+                Condense the following journal summaries from %s to %s into one summary of at most %d words.
+                Keep the main events, recurring themes and how the writer's mood changed over the period.
+                Write plain prose in the third person, without headings or lists.
+                Summaries:
+                %s
+                """, first.from(), last.to(), properties.getSummaryWords(),
+                group.stream().map(Section::render).collect(Collectors.joining("\n"))));
+        return new Section(first.from(), last.to(), summary);
+    }
+
+    private String summarize(String promptText) {
+        try {
+            llmRateLimiter.acquire(tokenCounter.applyAsInt(promptText) + properties.getMaxSummaryTokens());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the LLM rate limit", e);
+        }
+        var options = ChatOptions.builder()
+                .model(properties.getModel())
+                .maxTokens(properties.getMaxSummaryTokens())
+                .temperature(0.2)
+                .build();
+        return chatModel.call(new Prompt(promptText, options)).getResult().getOutput().getText().strip();
+    }
+
+    private int tokens(List<Section> sections) {
+        return sections.stream().mapToInt(section -> tokenCounter.applyAsInt(section.render())).sum();
+    }
+
+    record DayActivity(LocalDate day, int journalCount, Instant lastModifiedAt) {
+        boolean matches(DailyJournalSummary summary) {
+            return summary.getJournalCount() == journalCount && Objects.equals(summary.getLastModifiedAt(), lastModifiedAt);
+        }
+    }
+
+    /**
+     * Summary of the days from {@code from} to {@code to}, a single day before condensing.
+     */
+    private record Section(LocalDate from, LocalDate to, String summary) {
+        String render() {
+            return (from.equals(to) ? from.toString() : from + " to " + to) + ": " + summary;
+        }
+    }
+}
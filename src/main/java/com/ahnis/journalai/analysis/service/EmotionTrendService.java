@@ -0,0 +1,96 @@
+package com.ahnis.journalai.analysis.service;
+
+import com.ahnis.journalai.analysis.dto.EmotionTrendPoint;
+import com.ahnis.journalai.analysis.enums.TrendGranularity;
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.util.UserUtils;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aggregates the emotion scores stored on journals into trends and report totals.
+ * <p>
+ * Journals are scored when they are written, so a trend is a single {@code $group} over the user's journals
+ * of the period, served by the {@code userId, createdAt} index, without reading any content or calling a
+ * model. Journals that are not scored yet are left out until the backfill reaches them.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class EmotionTrendService {
+    private static final List<String> EMOTIONS = List.of("happiness", "sadness", "anger", "fear", "surprise", "disgust");
+    private static final int DEFAULT_DAYS = 30;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Average emotion scores per day, week or month from {@code from} to {@code to}, both inclusive, in the
+     * user's timezone. Defaults to the last 30 days. Periods without scored journals are left out.
+     */
+    public List<EmotionTrendPoint> trendFor(User user, LocalDate from, LocalDate to, TrendGranularity granularity) {
+        ZoneId zone = UserUtils.zoneOf(user.getTimezone());
+        LocalDate lastDay = to != null ? to : LocalDate.now(zone);
+        LocalDate firstDay = from != null ? from : lastDay.minusDays(DEFAULT_DAYS - 1);
+        if (firstDay.isAfter(lastDay))
+            throw new IllegalArgumentException("Trend start %s is after its end %s".formatted(firstDay, lastDay));
+
+        var period = new Document("date", "$createdAt")
+                .append("unit", granularity.name().toLowerCase(Locale.ROOT))
+                .append("timezone", zone.getId());
+        if (granularity == TrendGranularity.WEEK)
+            period.append("startOfWeek", "monday");
+        AggregationOperation byPeriod = _ -> new Document("$group", averages(new Document("$dateTrunc", period)));
+        AggregationOperation oldestFirst = _ -> new Document("$sort", new Document("_id", 1));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(scoredJournals(user.getId(),
+                                firstDay.atStartOfDay(zone).toInstant(), lastDay.plusDays(1).atStartOfDay(zone).toInstant()),
+                        byPeriod, oldestFirst), Journal.class, Document.class)
+                .getMappedResults().stream()
+                .map(point -> new EmotionTrendPoint(point.getDate("_id").toInstant(),
+                        ((Number) point.get("journalCount")).longValue(), toScores(point)))
+                .toList();
+    }
+
+    /**
+     * Average emotion scores of the user's journals written from {@code from} until before {@code to}, or
+     * {@code null} when none of them is scored.
+     */
+    public EmotionScores averages(String userId, Instant from, Instant to) {
+        AggregationOperation all = _ -> new Document("$group", averages(null));
+        Document totals = mongoTemplate.aggregate(Aggregation.newAggregation(scoredJournals(userId, from, to), all),
+                Journal.class, Document.class).getUniqueMappedResult();
+        return totals != null ? toScores(totals) : null;
+    }
+
+    private static AggregationOperation scoredJournals(String userId, Instant from, Instant to) {
+        return _ -> new Document("$match", new Document("userId", new ObjectId(userId))
+                .append("createdAt", new Document("$gte", Date.from(from)).append("$lt", Date.from(to)))
+                .append("emotions", new Document("$ne", null)));
+    }
+
+    private static Document averages(Object groupKey) {
+        var group = new Document("_id", groupKey).append("journalCount", new Document("$sum", 1));
+        EMOTIONS.forEach(emotion -> group.append(emotion, new Document("$avg", "$emotions." + emotion)));
+        return group;
+    }
+
+    private static EmotionScores toScores(Document averages) {
+        double[] values = EMOTIONS.stream()
+                .mapToDouble(emotion -> averages.get(emotion) instanceof Number average ? average.doubleValue() : 0)
+                .toArray();
+        return new EmotionScores(values[0], values[1], values[2], values[3], values[4], values[5]);
+    }
+}
@@ -0,0 +1,271 @@
+package com.ahnis.journalai.analysis.service;
+
+import com.ahnis.journalai.analysis.config.ReportJobProperties;
+import com.ahnis.journalai.analysis.entity.ReportJob;
+import com.ahnis.journalai.analysis.enums.ReportJobStatus;
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.repository.DueReportProjection;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.ahnis.journalai.user.util.UserUtils.calculateNextReportOn;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Mongo backed queue of scheduled mood reports.
+ * <p>
+ * Due users are streamed through a cursor as lean projections and turned into jobs with bulk upserts, so
+ * memory stays bounded however many reports are due. Every node leases batches of jobs under a time limited
+ * lock, so a run spreads over all nodes and a crashed node only delays its reports until the lease runs out.
+ * Failed reports are retried with exponential backoff and jitter, and marked as failed after
+ * {@code maxAttempts}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+    private static final int ENQUEUE_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReportJobProperties properties;
+    private final NodeIdentity nodeIdentity;
+    private final Map<ReportJobStatus, AtomicLong> runJobs = new EnumMap<>(ReportJobStatus.class);
+    private final Timer succeededTimer;
+    private final Timer failedTimer;
+    private String reportedRunId;
+
+    public ReportJobService(MongoTemplate mongoTemplate, ReportJobProperties properties, NodeIdentity nodeIdentity,
+                            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.nodeIdentity = nodeIdentity;
+
+        for (ReportJobStatus status : ReportJobStatus.values()) {
+            var count = new AtomicLong();
+            runJobs.put(status, count);
+            Gauge.builder("report.jobs", count, AtomicLong::get)
+                    .description("Report jobs of the latest scheduler run")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        this.succeededTimer = durationTimer(meterRegistry, "done");
+        this.failedTimer = durationTimer(meterRegistry, "failed");
+    }
+
+    private static Timer durationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("report.job.duration")
+                .description("Time to generate and send one report")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues a job for every user of the shard whose report is due in the given window. Jobs that already
+     * exist are left untouched, so running the scheduler twice on a day does not reset or repeat reports.
+     *
+     * @return The number of due users.
+     */
+    public long enqueueDueReports(Instant from, Instant to, Shard shard) {
+        var dueUsers = new BasicQuery(new Document("nextReportOn", new Document("$gte", from).append("$lte", to))
+                .append("$expr", shard.idExpression()));
+        String runId = LocalDate.ofInstant(from, ZoneOffset.UTC).toString();
+        Instant now = Instant.now();
+
+        long due = 0;
+        BulkOperations bulkOps = null;
+        try (var users = mongoTemplate.query(User.class).as(DueReportProjection.class).matching(dueUsers).stream()) {
+            for (var iterator = users.iterator(); iterator.hasNext(); due++) {
+                if (bulkOps == null)
+                    bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReportJob.class);
+                DueReportProjection user = iterator.next();
+                bulkOps.upsert(query(where("_id").is(ReportJob.idOf(user.getId(), user.getNextReportOn()))),
+                        newJob(user, runId, now));
+                if ((due + 1) % ENQUEUE_BATCH_SIZE == 0) {
+                    bulkOps.execute();
+                    bulkOps = null;
+                }
+            }
+        }
+        if (bulkOps != null)
+            bulkOps.execute();
+        return due;
+    }
+
+    private static Update newJob(DueReportProjection user, String runId, Instant now) {
+        // Existing users start where their last report ended, new users at sign up
+        Instant periodStart = user.getLastReportAt() != null ? user.getLastReportAt() : user.getCreatedAt();
+        return new Update()
+                .setOnInsert("userId", user.getId())
+                .setOnInsert("runId", runId)
+                .setOnInsert("periodStart", periodStart)
+                .setOnInsert("periodEnd", user.getNextReportOn())
+                .setOnInsert("nextReportOn", calculateNextReportOn(user.getNextReportOn(), user.getPreferences().getReportFrequency()))
+                .setOnInsert("status", ReportJobStatus.QUEUED)
+                .setOnInsert("attempts", 0)
+                .setOnInsert("nextAttemptAt", now)
+                .setOnInsert("createdAt", now);
+    }
+
+    /**
+     * Leases up to {@code claimBatchSize} due jobs for this node, including running jobs whose lease ran out.
+     *
+     * @return The claimed jobs, all locked with the same claim id.
+     */
+    public List<ReportJob> claimBatch() {
+        Instant now = Instant.now();
+        var candidates = query(claimableCriteria(now))
+                .with(Sort.by("nextAttemptAt"))
+                .limit(properties.getClaimBatchSize());
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, ReportJob.class).stream()
+                .map(ReportJob::getId)
+                .toList();
+        if (ids.isEmpty())
+            return List.of();
+
+        // Re-checked on update, a job another node claimed in the meantime is skipped
+        String claimId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                query(new Criteria().andOperator(where("_id").in(ids), claimableCriteria(now))),
+                new Update()
+                        .set("status", ReportJobStatus.RUNNING)
+                        .set("lockedBy", nodeIdentity.getId())
+                        .set("claimId", claimId)
+                        .set("lockedUntil", now.plus(properties.getLeaseDuration()))
+                        .set("startedAt", now),
+                ReportJob.class);
+        return mongoTemplate.find(query(where("claimId").is(claimId)), ReportJob.class);
+    }
+
+    /**
+     * Extends the lease of a running job.
+     *
+     * @return Whether this node still holds the job, false once it was taken over or finished.
+     */
+    public boolean renewLease(ReportJob job) {
+        return mongoTemplate.updateFirst(leased(job),
+                new Update().set("lockedUntil", Instant.now().plus(properties.getLeaseDuration())),
+                ReportJob.class).getMatchedCount() == 1;
+    }
+
+    private static Criteria claimableCriteria(Instant now) {
+        return new Criteria().orOperator(
+                where("status").is(ReportJobStatus.QUEUED).and("nextAttemptAt").lte(now),
+                where("status").is(ReportJobStatus.RUNNING).and("lockedUntil").lt(now));
+    }
+
+    public void complete(ReportJob job, Duration duration) {
+        mongoTemplate.updateFirst(leased(job),
+                new Update()
+                        .set("status", ReportJobStatus.DONE)
+                        .set("completedAt", Instant.now())
+                        .set("durationMillis", duration.toMillis())
+                        .unset("lockedBy")
+                        .unset("claimId")
+                        .unset("lockedUntil")
+                        .unset("lastError"),
+                ReportJob.class);
+        succeededTimer.record(duration);
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or marks the job as failed once it ran out of attempts or the
+     * error cannot be fixed by retrying.
+     */
+    public void fail(ReportJob job, Duration duration, Exception error, boolean retryable) {
+        int attempts = job.getAttempts() + 1;
+        String message = String.valueOf(error.getMessage());
+        var update = new Update()
+                .set("attempts", attempts)
+                .set("lastError", message)
+                .unset("lockedBy")
+                .unset("claimId")
+                .unset("lockedUntil");
+        if (!retryable || attempts >= properties.getMaxAttempts()) {
+            update.set("status", ReportJobStatus.FAILED).set("completedAt", Instant.now());
+            log.error("Report job {} failed after {} attempts: {}", job.getId(), attempts, message);
+        } else {
+            update.set("status", ReportJobStatus.QUEUED).set("nextAttemptAt", Instant.now().plus(backoff(attempts)));
+        }
+        mongoTemplate.updateFirst(leased(job), update, ReportJob.class);
+        failedTimer.record(duration);
+    }
+
+    private static Query leased(ReportJob job) {
+        return query(where("_id").is(job.getId()).and("claimId").is(job.getClaimId()));
+    }
+
+    Duration backoff(int attempts) {
+        long initialMillis = properties.getInitialBackoff().toMillis();
+        long maxMillis = properties.getMaxBackoff().toMillis();
+        long exponential = initialMillis << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxMillis);
+        // Full jitter on the upper half, so reports that hit a rate limit together do not retry together
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    /**
+     * Refreshes the per status gauges of the latest run and logs its summary once all of its jobs finished.
+     */
+    public void refreshMetrics() {
+        var latest = new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(1);
+        latest.fields().include("runId");
+        ReportJob latestJob = mongoTemplate.findOne(latest, ReportJob.class);
+        if (latestJob == null)
+            return;
+        String runId = latestJob.getRunId();
+        for (ReportJobStatus status : ReportJobStatus.values()) {
+            runJobs.get(status).set(mongoTemplate.count(query(where("runId").is(runId).and("status").is(status)), ReportJob.class));
+        }
+
+        boolean finished = runJobs.get(ReportJobStatus.QUEUED).get() == 0 && runJobs.get(ReportJobStatus.RUNNING).get() == 0;
+        if (finished && !runId.equals(reportedRunId)) {
+            reportedRunId = runId;
+            var doneJobs = query(where("runId").is(runId).and("status").is(ReportJobStatus.DONE));
+            doneJobs.fields().include("durationMillis");
+            List<Long> durations = mongoTemplate.find(doneJobs, ReportJob.class).stream()
+                    .map(ReportJob::getDurationMillis)
+                    .toList();
+            log.info("Report run {} finished: {} done, {} failed, p95 duration {} ms", runId,
+                    runJobs.get(ReportJobStatus.DONE).get(), runJobs.get(ReportJobStatus.FAILED).get(),
+                    percentile(durations, 0.95));
+        }
+    }
+
+    /**
+     * Nearest rank percentile, 0 for no values.
+     */
+    static long percentile(List<Long> values, double percentile) {
+        if (values.isEmpty())
+            return 0;
+        List<Long> sorted = values.stream().sorted().toList();
+        int rank = (int) Math.ceil(percentile * sorted.size());
+        return sorted.get(Math.clamp(rank - 1, 0, sorted.size() - 1));
+    }
+}
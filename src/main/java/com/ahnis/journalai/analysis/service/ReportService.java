@@ -6,6 +6,9 @@ import com.ahnis.journalai.analysis.entity.MoodReportEntity;
 import com.ahnis.journalai.analysis.exception.ReportNotFoundException;
 import com.ahnis.journalai.analysis.mapper.ReportMapper;
 import com.ahnis.journalai.analysis.repository.ReportRepository;
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.common.util.KeysetPagination;
+import com.ahnis.journalai.journal.entity.EmotionScores;
 import com.ahnis.journalai.notification.service.NotificationService;
 import com.ahnis.journalai.user.entity.User;
 import lombok.extern.slf4j.Slf4j;
@@ -14,12 +17,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @Slf4j
 @Service
@@ -28,13 +35,17 @@ public class ReportService {
     private final ReportRepository reportRepository;
     private final NotificationService notificationService;
     private final ReportMapper reportMapper;
+    private final MongoTemplate mongoTemplate;
+    private final EmotionTrendService emotionTrendService;
 
     public ReportService(JournalAnalysisService journalAnalysisService, ReportRepository reportRepository, NotificationService notificationService,
-                         ReportMapper reportMapper) {
+                         ReportMapper reportMapper, MongoTemplate mongoTemplate, EmotionTrendService emotionTrendService) {
         this.journalAnalysisService = journalAnalysisService;
         this.reportRepository = reportRepository;
         this.notificationService = notificationService;
         this.reportMapper = reportMapper;
+        this.mongoTemplate = mongoTemplate;
+        this.emotionTrendService = emotionTrendService;
     }
 
     @Async
@@ -43,32 +54,60 @@ public class ReportService {
         notificationService.sendEmailReport(user.getEmail(), report);
     }
 
-    @Async
+    /**
+     * Writes, saves and emails the report of a period.
+     *
+     * @param stillOwned Asked right before the report is saved, a report whose job was taken over by another
+     *                   node in the meantime is left to that node.
+     * @return Whether the report was saved and sent.
+     */
     @Transactional
-    public void generateReport(User user, Instant startDate, Instant endDate) {
+    public boolean generateReport(User user, Instant startDate, Instant endDate, BooleanSupplier stillOwned) {
         try {
             // Analyze journals between startDate and endDate
             MoodReportEmailResponse moodReport = journalAnalysisService.analyzeUserMood(user.getId(), user.getUsername(), user.getPreferences(), startDate, endDate).join();
 
+            // Key emotions come from the stored journal scores rather than the model's estimate when available
+            EmotionScores emotionScores = emotionTrendService.averages(user.getId(), startDate, endDate);
+            if (emotionScores != null && !emotionScores.normalized().equals(EmotionScores.NONE))
+                moodReport = withKeyEmotions(moodReport, emotionScores);
+
+            if (!stillOwned.getAsBoolean())
+                return false;
+
             // Save the report
             var reportEntity = reportMapper.toMoodReportEntity(user, moodReport);
+            reportEntity.setEmotionScores(emotionScores);
             reportRepository.save(reportEntity);
 
 
             this.sendReport(user, moodReport);
             log.info("Report generated by method2 of reportService and saved for user: {}", user.getUsername());
+            return true;
         } catch (Exception e) {
             log.error("Failed to generate report for user: {}", user.getUsername(), e);
             throw new RuntimeException("Failed to generate report", e);
         }
     }
 
+    private static MoodReportEmailResponse withKeyEmotions(MoodReportEmailResponse moodReport, EmotionScores emotionScores) {
+        return new MoodReportEmailResponse(moodReport.moodSummary(), emotionScores.normalized().asPercentages(),
+                moodReport.insights(), moodReport.recommendations(), moodReport.quote());
+    }
+
     public Page<MoodReportApiResponse> getAllReportsByUserId(String userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")); // Optional sort
         Page<MoodReportEntity> reportPage = reportRepository.findByUserId(userId, pageable);
         return reportPage.map(reportMapper::toApiResponse);
     }
 
+    public CursorPage<MoodReportApiResponse> scrollReportsByUserId(String userId, String cursor, int size) {
+        return KeysetPagination.find(mongoTemplate, where("userId").is(userId), MoodReportEntity.class,
+                        "createdAt", Sort.Direction.DESC, cursor, size,
+                        MoodReportEntity::getCreatedAt, MoodReportEntity::getId)
+                .map(reportMapper::toApiResponse);
+    }
+
 
     public MoodReportApiResponse getReportById(String userId, String reportId) {
         return reportRepository.findByIdAndUserId(reportId, userId)
@@ -9,6 +9,7 @@ import com.ahnis.journalai.chatbot.service.ChatService;
 import com.ahnis.journalai.chatbot.service.ChatSessionService;
 import com.ahnis.journalai.chatbot.dto.ChatRequest;
 import com.ahnis.journalai.common.dto.ApiResponse;
+import com.ahnis.journalai.common.dto.CursorPage;
 import com.ahnis.journalai.user.entity.User;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
@@ -64,6 +65,15 @@ public class ChatBotBetaController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/sessions/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<ChatSession>>> scrollUserSessions(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<ChatSession> sessions = chatSessionService.scrollUserSessions(user.getId(), cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(sessions));
+    }
+
     @DeleteMapping("/s/{sessionId}")
     public ResponseEntity<Void> deleteSession(
             @PathVariable String sessionId,
@@ -5,6 +5,7 @@ import com.ahnis.journalai.chatbot.dto.ChatResponse;
 import com.ahnis.journalai.chatbot.dto.ChatStreamRequest;
 import com.ahnis.journalai.chatbot.entity.ChatSession;
 import com.ahnis.journalai.chatbot.exception.InvalidSessionException;
+import com.ahnis.journalai.common.config.vectorstore.InstrumentedVectorStoreConfig;
 import com.ahnis.journalai.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +16,7 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
@@ -31,6 +33,7 @@ import java.util.function.Consumer;
 @RequiredArgsConstructor
 public class ChatServiceBetaImpl implements ChatService {
     private final ChatClient chatClient;
+    @Qualifier(InstrumentedVectorStoreConfig.CHAT)
     private final VectorStore vectorStore;
     private final ChatSessionService chatSessionService;
     @Value("classpath:/templates/chatbot/system-template.st")
@@ -4,6 +4,7 @@ import com.ahnis.journalai.chatbot.dto.ChatResponse;
 import com.ahnis.journalai.chatbot.dto.ChatRequest;
 import com.ahnis.journalai.chatbot.dto.ChatStreamRequest;
 import com.ahnis.journalai.chatbot.tools.SuicidePreventionTool;
+import com.ahnis.journalai.common.config.vectorstore.InstrumentedVectorStoreConfig;
 import com.ahnis.journalai.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.Resource;
@@ -52,6 +54,7 @@ import java.util.function.Consumer;
 @RequiredArgsConstructor
 public class ChatServiceImpl implements ChatService {
     private final ChatClient chatClient;
+    @Qualifier(InstrumentedVectorStoreConfig.CHAT)
     private final VectorStore vectorStore;
 
     @Value("classpath:/templates/chatbot/system-template.st")
@@ -5,19 +5,26 @@ import com.ahnis.journalai.chatbot.entity.ChatSession;
 import com.ahnis.journalai.chatbot.dto.ChatMessage;
 import com.ahnis.journalai.chatbot.exception.InvalidSessionException;
 import com.ahnis.journalai.chatbot.repository.ChatSessionRepository;
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.common.util.KeysetPagination;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatSessionService {
     private final ChatSessionRepository chatSessionRepository;
+    private final MongoTemplate mongoTemplate;
 
     public ChatSession createNewSession(String userId) {
         ChatSession session = ChatSession.builder()
@@ -38,6 +45,12 @@ public class ChatSessionService {
         return chatSessionRepository.findByUserIdOrderByUpdatedAtDesc(userId,pageable);
     }
 
+    public CursorPage<ChatSession> scrollUserSessions(String userId, String cursor, int size) {
+        return KeysetPagination.find(mongoTemplate, where("userId").is(userId), ChatSession.class,
+                "updatedAt", Sort.Direction.DESC, cursor, size,
+                ChatSession::getUpdatedAt, ChatSession::getId);
+    }
+
     public ChatSession addUserMessage(String sessionId, String userId, String message) {
         ChatSession session = getSession(sessionId, userId);
         session.addMessage(ChatMessage.builder()
@@ -0,0 +1,24 @@
+package com.ahnis.journalai.common.cluster;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A running application instance, kept alive by its heartbeat.
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "cluster_members")
+public class ClusterMember {
+    @Id
+    private String nodeId;
+    private Instant joinedAt;
+    private Instant heartbeatAt;
+}
@@ -0,0 +1,72 @@
+package com.ahnis.journalai.common.cluster;
+
+import com.ahnis.journalai.common.config.ShardingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Tracks the live nodes of the cluster in the {@code cluster_members} collection.
+ * <p>
+ * Every node upserts its own member document on a fixed delay and removes it on shutdown. A node that dies
+ * without shutting down drops out of {@link #liveNodes()} once its heartbeat is older than the member timeout;
+ * its document stays behind and is pruned by the next heartbeat of any node.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusterMembershipService {
+    private final MongoTemplate mongoTemplate;
+    private final NodeIdentity nodeIdentity;
+    private final ShardingProperties properties;
+
+    @Scheduled(fixedDelayString = "${scheduler.shards.heartbeat-interval:PT10S}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.upsert(query(where("_id").is(nodeIdentity.getId())),
+                    new Update().set("heartbeatAt", now).setOnInsert("joinedAt", now),
+                    ClusterMember.class);
+            // Long dead members would otherwise pile up with every deploy
+            mongoTemplate.remove(query(where("heartbeatAt").lt(now.minus(properties.getMemberTimeout().multipliedBy(10)))),
+                    ClusterMember.class);
+        } catch (Exception e) {
+            log.warn("Failed to renew cluster membership of {}: {}", nodeIdentity.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Ids of the nodes with a recent heartbeat, always including this one, in a stable order.
+     */
+    public List<String> liveNodes() {
+        Instant cutoff = Instant.now().minus(properties.getMemberTimeout());
+        return Stream.concat(
+                        mongoTemplate.find(query(where("heartbeatAt").gt(cutoff)), ClusterMember.class).stream()
+                                .map(ClusterMember::getNodeId),
+                        Stream.of(nodeIdentity.getId()))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    @PreDestroy
+    void leave() {
+        try {
+            mongoTemplate.remove(query(where("_id").is(nodeIdentity.getId())), ClusterMember.class);
+        } catch (Exception e) {
+            log.warn("Failed to leave the cluster, membership of {} times out instead: {}", nodeIdentity.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ahnis.journalai.common.cluster;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identifies this application instance in leases and locks it holds in Mongo.
+ * <p>
+ * The id combines host name and process id, which tells operators where a lease is held, with a random suffix
+ * that keeps a restarted process from mistaking the leases of its predecessor for its own.
+ * </p>
+ */
+@Getter
+@Component
+public class NodeIdentity {
+    private final String id;
+
+    public NodeIdentity() {
+        this.id = hostName() + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
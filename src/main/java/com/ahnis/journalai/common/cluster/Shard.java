@@ -0,0 +1,61 @@
+package com.ahnis.journalai.common.cluster;
+
+import org.bson.Document;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * One of {@code count} hash shards of Mongo object ids.
+ * <p>
+ * The last byte of an object id comes from a counter that starts at a random value in every process, so it is
+ * spread evenly over 256 buckets no matter when or where ids were generated. Bucket {@code b} belongs to shard
+ * {@code b % count}, which Mongo evaluates from the hex string of {@code _id} without any extra field on the
+ * documents.
+ * </p>
+ */
+public record Shard(int index, int count) {
+    private static final int BUCKETS = 256;
+
+    public Shard {
+        if (count < 1 || count > BUCKETS || index < 0 || index >= count)
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count);
+    }
+
+    /**
+     * The shard of a hex object id.
+     */
+    public static Shard of(String id, int count) {
+        return new Shard(Integer.parseInt(id.substring(id.length() - 2), 16) % count, count);
+    }
+
+    /**
+     * The last two hex digits of the ids in this shard.
+     */
+    public List<String> idSuffixes() {
+        return IntStream.range(0, BUCKETS)
+                .filter(bucket -> bucket % count == index)
+                .mapToObj(bucket -> "%02x".formatted(bucket))
+                .toList();
+    }
+
+    /**
+     * A {@code $expr} matching the documents whose {@code _id} falls into this shard.
+     */
+    public Document idExpression() {
+        return idExpression("_id");
+    }
+
+    /**
+     * A {@code $expr} matching the documents whose object id in {@code field} falls into this shard.
+     */
+    public Document idExpression(String field) {
+        var idSuffix = new Document("$substrCP", List.of(new Document("$toString", "$" + field), 22, 2));
+        return new Document("$in", List.of(idSuffix, idSuffixes()));
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ahnis.journalai.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the rate limit of chat model calls.
+ * <p>
+ * The limits are shared by every node of the cluster and should stay below the limits of the OpenAI account,
+ * which apply to the account as a whole however many nodes call it.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "llm.rate-limit")
+public class LlmRateLimitProperties {
+
+    /**
+     * Chat completions the cluster may start per minute.
+     */
+    private int requestsPerMinute = 30;
+
+    /**
+     * Tokens the cluster may use per minute, prompt and completion together.
+     */
+    private int tokensPerMinute = 60_000;
+}
@@ -0,0 +1,34 @@
+package com.ahnis.journalai.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the cluster wide locks of scheduled jobs.
+ * <p>
+ * A lock is leased for {@code ttl} and renewed every {@code heartbeatInterval} while its job runs, so a node
+ * that dies holding a lock blocks the job for at most one ttl.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "scheduler.locks")
+public class SchedulerLockProperties {
+
+    /**
+     * How long a lock stays held without a heartbeat.
+     */
+    private Duration ttl = Duration.ofMinutes(2);
+
+    /**
+     * How often a running job renews its lock, well below the ttl.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+}
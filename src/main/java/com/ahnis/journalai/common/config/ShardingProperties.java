@@ -0,0 +1,51 @@
+package com.ahnis.journalai.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for splitting scheduled runs into hash shards of user ids.
+ * <p>
+ * Live nodes announce themselves with a heartbeat every {@code heartbeatInterval} and count as members for
+ * {@code memberTimeout} after the last one. Each run first works through the shards this node owns among the
+ * members, then keeps retrying the remaining shards every {@code retryInterval} for up to {@code runTimeout},
+ * which picks up the shards of nodes that died mid-run once their locks run out.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "scheduler.shards")
+public class ShardingProperties {
+
+    /**
+     * Number of shards per run, at most 256. More shards than nodes keep the split even when nodes come and go.
+     */
+    private int count = 64;
+
+    /**
+     * How often this node renews its cluster membership.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+
+    /**
+     * How long a node stays a member without a heartbeat.
+     */
+    private Duration memberTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long to wait before retrying shards held by other nodes.
+     */
+    private Duration retryInterval = Duration.ofSeconds(10);
+
+    /**
+     * How long a node keeps retrying shards of a run before leaving them to the next run.
+     */
+    private Duration runTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,48 @@
+package com.ahnis.journalai.common.config.vectorstore;
+
+import com.ahnis.journalai.common.vectorstore.InstrumentedVectorStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the instrumented views of the vector store.
+ * <p>
+ * Every caller of the vector store injects its own {@link InstrumentedVectorStore} by qualifier, so latency and
+ * document counts can be told apart per caller under the {@code /monitor/metrics} actuator endpoint. The
+ * undecorated store stays the primary {@link VectorStore} bean.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Configuration
+public class InstrumentedVectorStoreConfig {
+    public static final String CHAT = "chatVectorStore";
+    public static final String EMBEDDING = "embeddingVectorStore";
+    public static final String SEARCH = "searchVectorStore";
+
+    /**
+     * The vector store used for retrieval while answering chat messages.
+     */
+    @Bean(CHAT)
+    public VectorStore chatVectorStore(VectorStore vectorStore, MeterRegistry meterRegistry) {
+        return new InstrumentedVectorStore(vectorStore, "chat", meterRegistry);
+    }
+
+    /**
+     * The vector store journal chunks are written to and deleted from.
+     */
+    @Bean(EMBEDDING)
+    public VectorStore embeddingVectorStore(VectorStore vectorStore, MeterRegistry meterRegistry) {
+        return new InstrumentedVectorStore(vectorStore, "embedding", meterRegistry);
+    }
+
+    /**
+     * The vector store used by journal search.
+     */
+    @Bean(SEARCH)
+    public VectorStore searchVectorStore(VectorStore vectorStore, MeterRegistry meterRegistry) {
+        return new InstrumentedVectorStore(vectorStore, "search", meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ahnis.journalai.common.config.vectorstore;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.LocalVectorStoreProperties;
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.common.vectorstore.QueryEmbeddingCache;
+import com.ahnis.journalai.common.vectorstore.hnsw.HnswVectorStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration class for the in-process vector store.
+ * <p>
+ * Selected with {@code vector.store.type=local}, it replaces Milvus with an {@link HnswVectorStore} kept in
+ * memory-mapped files under {@code vector.store.local.directory}, for development, tests and single node
+ * deployments.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Configuration
+@ConditionalOnProperty(name = "vector.store.type", havingValue = "local")
+public class LocalVectorStoreConfig {
+
+    /**
+     * Creates the local {@link HnswVectorStore} bean, which is closed with the context to snapshot its graph.
+     *
+     * @param embeddingModel        The {@link EmbeddingModel} used to generate embeddings.
+     * @param vectorStoreProperties The {@link VectorStoreProperties} providing the embedding dimension.
+     * @param localProperties       The {@link LocalVectorStoreProperties} with the directory, graph and storage settings.
+     * @param batchingStrategy      The {@link BatchingStrategy} deciding how many chunks go into one embedding request.
+     * @param objectMapper          The {@link ObjectMapper} used for the chunk log.
+     * @param queryEmbeddingCache   The {@link QueryEmbeddingCache} answering repeated search queries without the model.
+     * @return A configured {@link HnswVectorStore} instance.
+     */
+    @Bean
+    @Primary
+    public HnswVectorStore vectorStore(EmbeddingModel embeddingModel,
+                                       VectorStoreProperties vectorStoreProperties,
+                                       LocalVectorStoreProperties localProperties,
+                                       ObjectProvider<BatchingStrategy> batchingStrategy,
+                                       ObjectMapper objectMapper,
+                                       QueryEmbeddingCache queryEmbeddingCache) {
+        return HnswVectorStore
+                .builder(queryEmbeddingCache.wrap(embeddingModel), Path.of(localProperties.getDirectory()), vectorStoreProperties.getEmbeddingDimension())
+                .m(localProperties.getM())
+                .efConstruction(localProperties.getEfConstruction())
+                .efSearch(localProperties.getEfSearch())
+                .exactSearchThreshold(localProperties.getExactSearchThreshold())
+                .quantized(localProperties.isQuantized())
+                .compactionThreshold(localProperties.getCompactionThreshold())
+                .objectMapper(objectMapper)
+                .batchingStrategy(batchingStrategy.getIfAvailable(TokenCountBatchingStrategy::new))
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package com.ahnis.journalai.common.config.vectorstore;
 import com.ahnis.journalai.common.config.vectorstore.properties.MilvusCloudProperties;
 import io.milvus.client.MilvusServiceClient;
 import io.milvus.param.ConnectParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,6 +17,7 @@ import org.springframework.context.annotation.Configuration;
  * @author Ahnis Singh Aneja
  */
 @Configuration
+@ConditionalOnProperty(name = "vector.store.type", havingValue = "milvus", matchIfMissing = true)
 public class MilvusCloudConfig {
 
     /**
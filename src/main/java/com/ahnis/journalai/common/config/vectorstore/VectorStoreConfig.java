@@ -1,26 +1,36 @@
 package com.ahnis.journalai.common.config.vectorstore;
 
 import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.common.vectorstore.QueryEmbeddingCache;
+import com.ahnis.journalai.common.vectorstore.milvus.PartitionedMilvusVectorStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.milvus.client.MilvusServiceClient;
 import io.milvus.param.IndexType;
 import io.milvus.param.MetricType;
 import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.milvus.MilvusVectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 /**
  * Configuration class for setting up a vector store.
  * <p>
  * This class defines a Spring bean for {@link VectorStore}, which is used to store and retrieve embeddings.
  * The vector store is configured using properties from {@link VectorStoreProperties} and a Milvus client.
+ * With {@code vector.store.partitioning.enabled} it is a {@link PartitionedMilvusVectorStore}, which keeps
+ * every user's chunks in their own partition.
  * </p>
  *
  * @author Ahnis Singh Aneja
  */
 @Configuration
+@ConditionalOnProperty(name = "vector.store.type", havingValue = "milvus", matchIfMissing = true)
 public class VectorStoreConfig {
 
 
@@ -30,20 +40,43 @@ public class VectorStoreConfig {
      * @param milvusServiceClient   The {@link MilvusServiceClient} used to connect to the Milvus instance.
      * @param embeddingModel        The {@link EmbeddingModel} used to generate embeddings.
      * @param vectorStoreProperties The {@link VectorStoreProperties} containing the vector store configuration.
+     * @param batchingStrategy      The {@link BatchingStrategy} deciding how many chunks go into one embedding request,
+     *                              falls back to the default token budget when no custom strategy is enabled.
+     * @param objectMapper          The {@link ObjectMapper} writing chunk metadata of the partitioned store.
+     * @param queryEmbeddingCache   The {@link QueryEmbeddingCache} answering repeated search queries without the model.
      * @return A configured {@link VectorStore} instance.
      */
     @Bean
+    @Primary
     public VectorStore vectorStore(MilvusServiceClient milvusServiceClient,
                                    EmbeddingModel embeddingModel,
-                                   VectorStoreProperties vectorStoreProperties) {
+                                   VectorStoreProperties vectorStoreProperties,
+                                   ObjectProvider<BatchingStrategy> batchingStrategy,
+                                   ObjectMapper objectMapper,
+                                   QueryEmbeddingCache queryEmbeddingCache) {
+        var partitioning = vectorStoreProperties.getPartitioning();
+        if (partitioning.isEnabled())
+            return PartitionedMilvusVectorStore
+                    .builder(milvusServiceClient, queryEmbeddingCache.wrap(embeddingModel))
+                    .databaseName(vectorStoreProperties.getDatabaseName())
+                    .collectionName(partitioning.getCollectionName())
+                    .numPartitions(partitioning.getNumPartitions())
+                    .metricType(MetricType.valueOf(vectorStoreProperties.getMetricType()))
+                    .indexType(IndexType.valueOf(vectorStoreProperties.getIndexType()))
+                    .embeddingDimension(vectorStoreProperties.getEmbeddingDimension())
+                    .initializeSchema(vectorStoreProperties.isInitializeSchema())
+                    .objectMapper(objectMapper)
+                    .batchingStrategy(batchingStrategy.getIfAvailable(TokenCountBatchingStrategy::new))
+                    .build();
         return MilvusVectorStore
-                .builder(milvusServiceClient, embeddingModel)
+                .builder(milvusServiceClient, queryEmbeddingCache.wrap(embeddingModel))
                 .databaseName(vectorStoreProperties.getDatabaseName())
                 .collectionName(vectorStoreProperties.getCollectionName())
                 .metricType(MetricType.valueOf(vectorStoreProperties.getMetricType()))
                 .indexType(IndexType.valueOf(vectorStoreProperties.getIndexType()))
                 .embeddingDimension(vectorStoreProperties.getEmbeddingDimension())
                 .initializeSchema(vectorStoreProperties.isInitializeSchema())
+                .batchingStrategy(batchingStrategy.getIfAvailable(TokenCountBatchingStrategy::new))
                 .build();
     }
 }
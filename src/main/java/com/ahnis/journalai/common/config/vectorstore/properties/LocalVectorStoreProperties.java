@@ -0,0 +1,57 @@
+package com.ahnis.journalai.common.config.vectorstore.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the in-process HNSW vector store, used when {@code vector.store.type} is
+ * {@code local}.
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "vector.store.local")
+public class LocalVectorStoreProperties {
+
+    /**
+     * Directory holding the memory-mapped vector and graph files.
+     */
+    private String directory = "./data/vector-store";
+
+    /**
+     * Neighbours per node on the upper graph layers, the bottom layer keeps twice as many.
+     */
+    private int m = 16;
+
+    /**
+     * Size of the candidate list while inserting, higher builds a better graph more slowly.
+     */
+    private int efConstruction = 200;
+
+    /**
+     * Size of the candidate list while searching, raised to topK when that is larger.
+     */
+    private int efSearch = 64;
+
+    /**
+     * Filtered searches whose {@code userId} owns at most this many chunks are answered by an exact scan of
+     * those chunks instead of a graph traversal.
+     */
+    private int exactSearchThreshold = 2000;
+
+    /**
+     * Whether vectors are stored as int8 instead of floats, which takes a quarter of the memory. Switching an
+     * existing store requires deleting its directory and running a vector store backfill.
+     */
+    private boolean quantized;
+
+    /**
+     * Fraction of deleted chunks at which the store rewrites its live chunks and rebuilds the graph, once at
+     * least a thousand chunks are deleted.
+     */
+    private double compactionThreshold = 0.3;
+}
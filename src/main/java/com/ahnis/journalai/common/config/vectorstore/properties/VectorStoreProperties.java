@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Configuration properties for the vector store.
  * <p>
@@ -20,6 +22,11 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "vector.store")
 public class VectorStoreProperties {
 
+    /**
+     * Which vector store backs the application: {@code milvus}, or {@code local} for the in-process HNSW store.
+     */
+    private String type = "milvus";
+
     /**
      * The name of the database used for the vector store.
      */
@@ -49,4 +56,108 @@ public class VectorStoreProperties {
      * Whether to initialize the schema for the vector store.
      */
     private boolean initializeSchema;
+
+    /**
+     * How chunks of different users are laid out in Milvus.
+     */
+    private Partitioning partitioning = new Partitioning();
+
+    /**
+     * Cache of query embeddings in front of the embedding model used for similarity searches.
+     */
+    private QueryCache queryCache = new QueryCache();
+
+    /**
+     * Copy of a collection with full size embeddings into the active collection at {@code embedding-dimension}.
+     */
+    private Reindex reindex = new Reindex();
+
+    /**
+     * The collection searches and writes go to: the partitioned collection once partitioning is enabled.
+     */
+    public String activeCollectionName() {
+        return partitioning.isEnabled() ? partitioning.getCollectionName() : collectionName;
+    }
+
+    @Setter
+    @Getter
+    public static class Partitioning {
+
+        /**
+         * Whether chunks are written to a collection with a {@code user_id} partition key, so that searches
+         * filtered on one user only visit that user's partition.
+         */
+        private boolean enabled;
+
+        /**
+         * The partitioned collection, kept apart from {@code collection-name} so existing data can be migrated.
+         */
+        private String collectionName;
+
+        /**
+         * Number of partitions user ids are hashed into.
+         */
+        private int numPartitions = 64;
+
+        /**
+         * Whether to copy the chunks of {@code collection-name} into the partitioned collection after startup.
+         */
+        private boolean migrate;
+
+        /**
+         * Number of chunks copied per page during the migration.
+         */
+        private int migrationPageSize = 500;
+    }
+
+    @Setter
+    @Getter
+    public static class QueryCache {
+
+        /**
+         * Whether query texts that were embedded before reuse their vector instead of calling the model again.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of query embeddings kept, rarely used ones are evicted first.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long a query embedding is kept after it was computed.
+         */
+        private Duration expireAfterWrite = Duration.ofHours(24);
+    }
+
+    @Setter
+    @Getter
+    public static class Reindex {
+
+        /**
+         * Whether to copy {@code source-collection-name} into the active collection after startup, truncating
+         * every vector to {@code embedding-dimension}.
+         */
+        private boolean enabled;
+
+        /**
+         * The collection holding the full size embeddings.
+         */
+        private String sourceCollectionName;
+
+        /**
+         * Number of chunks copied per page.
+         */
+        private int pageSize = 500;
+
+        /**
+         * Number of source chunks used as queries when comparing the truncated collection with the source.
+         */
+        private int recallSamples = 100;
+
+        /**
+         * Number of nearest neighbours compared per query.
+         */
+        private int recallTopK = 10;
+    }
 }
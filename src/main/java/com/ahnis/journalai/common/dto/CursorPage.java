@@ -0,0 +1,36 @@
+package com.ahnis.journalai.common.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of results addressed by an opaque cursor instead of a page number.
+ * <p>
+ * Pass {@code nextCursor} back to fetch the following page. No total count is computed, which keeps the cost
+ * of a page constant no matter how deep the client has scrolled.
+ * </p>
+ *
+ * @param content    The items of this page.
+ * @param nextCursor The cursor of the following page, {@code null} on the last page.
+ * @param hasNext    Whether another page exists.
+ * @param size       The requested page size.
+ *
+ * @author Ahnis Singh Aneja
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext,
+        int size
+) {
+
+    /**
+     * Maps the content of this page, keeping the cursor.
+     *
+     * @param mapper The function applied to every item.
+     * @return A page with the mapped content.
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor, hasNext, size);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ahnis.journalai.common.dto;
+
+import java.time.Instant;
+
+/**
+ * State of a scheduled job lock. {@code lockedBy} is the current holder while {@code held}, the last one
+ * otherwise.
+ */
+public record SchedulerLockStatus(
+        String name,
+        String lockedBy,
+        long fencingToken,
+        boolean held,
+        Instant lockedAt,
+        Instant heartbeatAt,
+        Instant lockedUntil,
+        Instant releasedAt,
+        String completedRun
+) {
+}
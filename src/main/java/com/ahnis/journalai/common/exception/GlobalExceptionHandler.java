@@ -5,7 +5,10 @@ import com.ahnis.journalai.chatbot.exception.InvalidSessionException;
 import com.ahnis.journalai.common.dto.ApiResponse;
 import com.ahnis.journalai.common.dto.ErrorDetails;
 import com.ahnis.journalai.common.dto.ValidationErrorDetails;
+import com.ahnis.journalai.journal.exception.JournalImportNotFoundException;
 import com.ahnis.journalai.journal.exception.JournalNotFoundException;
+import com.ahnis.journalai.journal.exception.JournalRevisionConflictException;
+import com.ahnis.journalai.journal.exception.VectorStoreBackfillNotFoundException;
 import com.ahnis.journalai.user.exception.EmailAlreadyExistsException;
 import com.ahnis.journalai.user.exception.InvalidCredentialsException;
 import com.ahnis.journalai.user.exception.UserNotFoundException;
@@ -139,6 +142,24 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(HttpStatus.BAD_REQUEST, ex.getMessage()));
     }
 
+    @ExceptionHandler(JournalImportNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleJournalImportNotFoundException(JournalImportNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+
+    @ExceptionHandler(VectorStoreBackfillNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleVectorStoreBackfillNotFoundException(VectorStoreBackfillNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+
+    @ExceptionHandler(JournalRevisionConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleJournalRevisionConflictException(JournalRevisionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(HttpStatus.CONFLICT, ex.getMessage()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex) {
         Map<String, Object> errorResponse = new HashMap<>();
@@ -0,0 +1,97 @@
+package com.ahnis.journalai.common.ratelimit;
+
+import com.ahnis.journalai.common.config.LlmRateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Cluster wide rate limit of chat model calls, counted in Mongo.
+ * <p>
+ * Every call takes one request and its tokens from per minute windows shared by all nodes, so adding nodes
+ * does not multiply the load on the OpenAI account. Permits are taken with an upserting find-and-modify that
+ * only matches while the window has room; when it is full, the upsert collides with the existing window and
+ * the caller waits for the next one. Fixed windows can let up to twice the limit through around a window
+ * boundary, so the limits should keep some headroom below the account's.
+ * </p>
+ */
+@Slf4j
+@Service
+public class LlmRateLimiter {
+    static final String REQUESTS = "llm-requests";
+    static final String TOKENS = "llm-tokens";
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final LlmRateLimitProperties properties;
+    private final Clock clock;
+
+    public LlmRateLimiter(MongoTemplate mongoTemplate, LlmRateLimitProperties properties) {
+        this(mongoTemplate, properties, Clock.systemUTC());
+    }
+
+    LlmRateLimiter(MongoTemplate mongoTemplate, LlmRateLimitProperties properties, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Blocks until one request and {@code tokens} tokens are available to this call. A call estimated above
+     * the token limit waits for a fresh window and takes all of it.
+     */
+    public void acquire(long tokens) throws InterruptedException {
+        acquire(REQUESTS, properties.getRequestsPerMinute(), 1);
+        acquire(TOKENS, properties.getTokensPerMinute(), tokens);
+    }
+
+    private void acquire(String limit, long capacity, long permits) throws InterruptedException {
+        Instant now;
+        while (!tryAcquire(limit, capacity, permits, now = clock.instant())) {
+            Instant windowEnd = windowStart(now).plus(WINDOW);
+            // Spread the waiting callers over the start of the next window
+            Duration wait = Duration.between(now, windowEnd).plusMillis(ThreadLocalRandom.current().nextLong(1000));
+            log.debug("Rate limit {} exhausted, waiting {}", limit, wait);
+            Thread.sleep(wait);
+        }
+    }
+
+    /**
+     * Takes the permits from the window {@code now} falls into if it has room for them.
+     */
+    boolean tryAcquire(String limit, long capacity, long permits, Instant now) {
+        long requested = Math.min(permits, capacity);
+        Instant windowStart = windowStart(now);
+        String id = limit + ":" + windowStart.getEpochSecond();
+        // A second attempt, when two nodes opened the window at the same time and one upsert lost
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                mongoTemplate.findAndModify(
+                        query(where("_id").is(id).and("used").lte(capacity - requested)),
+                        new Update().inc("used", requested).setOnInsert("expiresAt", windowStart.plus(WINDOW.multipliedBy(2))),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        RateLimitWindow.class);
+                return true;
+            } catch (DuplicateKeyException e) {
+                // The window exists and is full, or was created concurrently
+            }
+        }
+        return false;
+    }
+
+    private static Instant windowStart(Instant now) {
+        long windowSeconds = WINDOW.toSeconds();
+        return Instant.ofEpochSecond(now.getEpochSecond() / windowSeconds * windowSeconds);
+    }
+}
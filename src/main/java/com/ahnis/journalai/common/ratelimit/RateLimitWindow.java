@@ -0,0 +1,29 @@
+package com.ahnis.journalai.common.ratelimit;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Permits of one shared rate limit used in one window, named {@code limit:windowStartEpochSecond}.
+ * <p>
+ * Windows are only read while they are current and expire shortly after they end.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rate_limit_windows")
+public class RateLimitWindow {
+    @Id
+    private String id;
+    private long used;
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -0,0 +1,46 @@
+package com.ahnis.journalai.common.scheduling;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * A lock held by this node, handed to the job running under it.
+ * <p>
+ * Jobs with side effects check {@link #isHeld()} between units of work and stop once the lease is lost, for
+ * instance because heartbeats could not reach Mongo and another node took the lock over. Writes that must not
+ * come from a stale holder can carry the {@code fencingToken}.
+ * </p>
+ */
+public class SchedulerLease {
+    @Getter
+    private final String name;
+    @Getter
+    private final long fencingToken;
+    /**
+     * The last run completed under this lock when it was acquired, {@code null} for unsharded jobs.
+     */
+    @Getter
+    private final String completedRun;
+    private volatile Instant lockedUntil;
+    private volatile boolean lost;
+
+    SchedulerLease(String name, long fencingToken, Instant lockedUntil, String completedRun) {
+        this.name = name;
+        this.fencingToken = fencingToken;
+        this.completedRun = completedRun;
+        this.lockedUntil = lockedUntil;
+    }
+
+    public boolean isHeld() {
+        return !lost && Instant.now().isBefore(lockedUntil);
+    }
+
+    void renewed(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    void lost() {
+        this.lost = true;
+    }
+}
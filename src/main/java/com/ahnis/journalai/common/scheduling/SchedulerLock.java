@@ -0,0 +1,35 @@
+package com.ahnis.journalai.common.scheduling;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Cluster wide lock of one scheduled job, named by its id.
+ * <p>
+ * The document is never deleted: releasing a lock only ends its lease, so {@code fencingToken} keeps growing
+ * with every acquisition and a holder can always be told apart from the ones before it. Sharded jobs record the
+ * last run a shard finished in {@code completedRun}, so nodes picking up shards later in the run skip it.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scheduler_locks")
+public class SchedulerLock {
+    @Id
+    private String name;
+    private String lockedBy;
+    private long fencingToken;
+    private Instant lockedAt;
+    private Instant lockedUntil;
+    private Instant heartbeatAt;
+    private Instant releasedAt;
+    private String completedRun;
+    private Instant completedAt;
+}
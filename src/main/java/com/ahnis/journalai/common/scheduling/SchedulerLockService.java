@@ -0,0 +1,158 @@
+package com.ahnis.journalai.common.scheduling;
+
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.config.SchedulerLockProperties;
+import com.ahnis.journalai.common.dto.SchedulerLockStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Mongo backed locks that make a scheduled job run on one node of the cluster at a time.
+ * <p>
+ * A lock is acquired with an upserting find-and-modify that only matches when the previous lease has run out;
+ * when another node holds it, the upsert collides with the existing document and the job is skipped on this
+ * node. Every acquisition increments the fencing token. While the job runs, a heartbeat extends the lease,
+ * and the lease is released when the job returns.
+ * </p>
+ */
+@Slf4j
+@Service
+public class SchedulerLockService {
+    private final MongoTemplate mongoTemplate;
+    private final NodeIdentity nodeIdentity;
+    private final SchedulerLockProperties properties;
+    private final ScheduledExecutorService heartbeats =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("scheduler-lock-heartbeat").factory());
+
+    public SchedulerLockService(MongoTemplate mongoTemplate, NodeIdentity nodeIdentity, SchedulerLockProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.nodeIdentity = nodeIdentity;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs the task if this node gets the lock, renewing it until the task returns.
+     *
+     * @return Whether the task ran on this node.
+     */
+    public boolean runLocked(String name, Consumer<SchedulerLease> task) {
+        Optional<SchedulerLease> acquired = tryAcquire(name);
+        if (acquired.isEmpty()) {
+            log.info("Skipping {}, its lock is held by another node", name);
+            return false;
+        }
+        SchedulerLease lease = acquired.get();
+        long interval = properties.getHeartbeatInterval().toMillis();
+        var heartbeat = heartbeats.scheduleAtFixedRate(() -> renew(lease), interval, interval, TimeUnit.MILLISECONDS);
+        try {
+            task.accept(lease);
+        } finally {
+            heartbeat.cancel(false);
+            release(lease);
+        }
+        return true;
+    }
+
+    Optional<SchedulerLease> tryAcquire(String name) {
+        Instant now = Instant.now();
+        try {
+            SchedulerLock lock = mongoTemplate.findAndModify(
+                    query(where("_id").is(name).and("lockedUntil").lte(now)),
+                    new Update()
+                            .set("lockedBy", nodeIdentity.getId())
+                            .set("lockedAt", now)
+                            .set("lockedUntil", now.plus(properties.getTtl()))
+                            .set("heartbeatAt", now)
+                            .unset("releasedAt")
+                            .inc("fencingToken", 1),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    SchedulerLock.class);
+            log.debug("Acquired lock {} with fencing token {}", name, lock.getFencingToken());
+            return Optional.of(new SchedulerLease(name, lock.getFencingToken(), lock.getLockedUntil(), lock.getCompletedRun()));
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    void renew(SchedulerLease lease) {
+        try {
+            Instant now = Instant.now();
+            Instant lockedUntil = now.plus(properties.getTtl());
+            long renewed = mongoTemplate.updateFirst(owned(lease),
+                    new Update().set("lockedUntil", lockedUntil).set("heartbeatAt", now),
+                    SchedulerLock.class).getModifiedCount();
+            if (renewed == 1) {
+                lease.renewed(lockedUntil);
+            } else {
+                lease.lost();
+                log.error("Lock {} with fencing token {} was taken over by another node", lease.getName(), lease.getFencingToken());
+            }
+        } catch (Exception e) {
+            // The lease stays valid until it runs out, the next heartbeat tries again
+            log.warn("Failed to renew lock {}: {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    void release(SchedulerLease lease) {
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.updateFirst(owned(lease),
+                    new Update().set("lockedUntil", now).set("releasedAt", now),
+                    SchedulerLock.class);
+        } catch (Exception e) {
+            log.warn("Failed to release lock {}, it expires on its own: {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Records that the holder of the lease finished {@code run}, unless another node took the lock over.
+     */
+    public void complete(SchedulerLease lease, String run) {
+        mongoTemplate.updateFirst(owned(lease),
+                new Update().set("completedRun", run).set("completedAt", Instant.now()),
+                SchedulerLock.class);
+    }
+
+    private static Query owned(SchedulerLease lease) {
+        return query(where("_id").is(lease.getName()).and("fencingToken").is(lease.getFencingToken()));
+    }
+
+    public List<SchedulerLockStatus> getLocks() {
+        Instant now = Instant.now();
+        return mongoTemplate.find(new Query().with(Sort.by("_id")), SchedulerLock.class).stream()
+                .map(lock -> new SchedulerLockStatus(
+                        lock.getName(),
+                        lock.getLockedBy(),
+                        lock.getFencingToken(),
+                        lock.getLockedUntil() != null && lock.getLockedUntil().isAfter(now),
+                        lock.getLockedAt(),
+                        lock.getHeartbeatAt(),
+                        lock.getLockedUntil(),
+                        lock.getReleasedAt(),
+                        lock.getCompletedRun()))
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdown();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ahnis.journalai.common.scheduling;
+
+import com.ahnis.journalai.common.dto.SchedulerLockStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint at {@code /monitor/schedulerlocks} showing which node holds each scheduled job lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "schedulerlocks")
+public class SchedulerLocksEndpoint {
+    private final SchedulerLockService schedulerLockService;
+
+    @ReadOperation
+    public List<SchedulerLockStatus> locks() {
+        return schedulerLockService.getLocks();
+    }
+}
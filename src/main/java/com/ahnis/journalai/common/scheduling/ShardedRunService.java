@@ -0,0 +1,138 @@
+package com.ahnis.journalai.common.scheduling;
+
+import com.ahnis.journalai.common.cluster.ClusterMembershipService;
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.config.ShardingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Splits a scheduled run into hash shards and spreads them over the live nodes.
+ * <p>
+ * Every node fires the cron and ranks the shards by rendezvous hashing against the current members: a shard
+ * belongs to the node with the highest weight for it, so each node starts on a disjoint share and a member
+ * joining or leaving only moves the shards it wins or held. Each shard runs under its own scheduler lock and
+ * is marked completed for the run key, so a node that finishes early takes over shards nobody started yet, and
+ * the shards of a node that dies mid-run are picked up once their locks run out.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShardedRunService {
+    private final SchedulerLockService schedulerLockService;
+    private final ClusterMembershipService clusterMembershipService;
+    private final NodeIdentity nodeIdentity;
+    private final ShardingProperties properties;
+
+    /**
+     * Runs {@code work} for every shard of the run that no node completed yet.
+     *
+     * @param job    Name of the job, prefix of its shard locks.
+     * @param runKey Identifies the run, e.g. its date; shards completed for it are skipped.
+     * @param work   Processes one shard, checking the lease between units of work.
+     * @return Number of shards this node processed.
+     */
+    public int run(String job, String runKey, BiConsumer<Shard, SchedulerLease> work) {
+        List<String> liveNodes = clusterMembershipService.liveNodes();
+        List<Shard> shards = preferredOrder(nodeIdentity.getId(), liveNodes, properties.getCount());
+        long owned = shards.stream().filter(shard -> owner(shard, liveNodes).equals(nodeIdentity.getId())).count();
+        log.info("Running {} for {} on {} of {} nodes, starting with {} of {} shards",
+                job, runKey, nodeIdentity.getId(), liveNodes.size(), owned, shards.size());
+
+        Instant deadline = Instant.now().plus(properties.getRunTimeout());
+        var pending = new LinkedHashSet<>(shards);
+        int processed = 0;
+        while (true) {
+            for (var iterator = pending.iterator(); iterator.hasNext(); ) {
+                Shard shard = iterator.next();
+                ShardOutcome outcome = runShard(job, runKey, shard, work);
+                if (outcome == ShardOutcome.PROCESSED)
+                    processed++;
+                if (outcome == ShardOutcome.PROCESSED || outcome == ShardOutcome.ALREADY_COMPLETED)
+                    iterator.remove();
+            }
+            if (pending.isEmpty() || !Instant.now().plus(properties.getRetryInterval()).isBefore(deadline))
+                break;
+            // The rest is held by other nodes; wait for them to finish or for their locks to run out
+            try {
+                Thread.sleep(properties.getRetryInterval());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (pending.isEmpty())
+            log.info("Finished {} for {}, this node processed {} shards", job, runKey, processed);
+        else
+            log.warn("Stopped waiting for {} shards of {} for {}, this node processed {}", pending.size(), job, runKey, processed);
+        return processed;
+    }
+
+    private ShardOutcome runShard(String job, String runKey, Shard shard, BiConsumer<Shard, SchedulerLease> work) {
+        var outcome = new AtomicReference<>(ShardOutcome.ALREADY_COMPLETED);
+        try {
+            boolean locked = schedulerLockService.runLocked(lockName(job, shard), lease -> {
+                if (runKey.equals(lease.getCompletedRun()))
+                    return;
+                work.accept(shard, lease);
+                outcome.set(ShardOutcome.PROCESSED);
+                // A lease lost mid-shard leaves the shard to the node that took the lock over
+                if (lease.isHeld())
+                    schedulerLockService.complete(lease, runKey);
+            });
+            return locked ? outcome.get() : ShardOutcome.HELD_ELSEWHERE;
+        } catch (Exception e) {
+            log.error("Shard {} of {} failed for {}, retrying later", shard, job, runKey, e);
+            return ShardOutcome.HELD_ELSEWHERE;
+        }
+    }
+
+    static String lockName(String job, Shard shard) {
+        return job + ":shard-" + shard.index();
+    }
+
+    /**
+     * The shards this node owns among {@code liveNodes} first, then the others ordered by this node's weight
+     * so that nodes taking over work go after different shards.
+     */
+    static List<Shard> preferredOrder(String nodeId, List<String> liveNodes, int count) {
+        var owned = new ArrayList<Shard>();
+        var others = new ArrayList<Shard>();
+        for (int index = 0; index < count; index++) {
+            var shard = new Shard(index, count);
+            (owner(shard, liveNodes).equals(nodeId) ? owned : others).add(shard);
+        }
+        others.sort(Comparator.comparingLong((Shard shard) -> weight(nodeId, shard)).reversed());
+        owned.addAll(others);
+        return owned;
+    }
+
+    static String owner(Shard shard, List<String> liveNodes) {
+        return liveNodes.stream()
+                .max(Comparator.comparingLong((String node) -> weight(node, shard)).thenComparing(Comparator.naturalOrder()))
+                .orElseThrow();
+    }
+
+    // SplitMix64 finalizer, spreads similar node ids and consecutive shards over the whole range
+    private static long weight(String nodeId, Shard shard) {
+        long z = nodeId.hashCode() * 0x9E3779B97F4A7C15L + shard.index();
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private enum ShardOutcome {
+        PROCESSED, ALREADY_COMPLETED, HELD_ELSEWHERE
+    }
+}
@@ -0,0 +1,78 @@
+package com.ahnis.journalai.common.util;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Page-wise backfill of documents that still lack a derived field.
+ * <p>
+ * Documents are read in {@code _id} order, one page per query starting after the last id of the previous page,
+ * so no cursor stays open while the documents are processed and a slow visitor cannot run into the server's
+ * cursor timeout. The updates a visitor queues for a page are written with one unordered bulk write.
+ * Documents the visitor leaves pending are not visited again in the same run.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+public final class BatchedBackfill {
+    private static final String ID_FIELD = "_id";
+
+    private BatchedBackfill() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * Visits every document matching {@code pending}.
+     *
+     * @param mongoTemplate The template used to read and write.
+     * @param type          The entity type.
+     * @param pending       Criteria selecting the documents still to backfill.
+     * @param pageSize      Number of documents read and written per page.
+     * @param id            Extracts the id from an entity.
+     * @param proceed       Checked before every page, the backfill stops once it returns {@code false}.
+     * @param visitor       Queues the update of a document on the page's bulk operations and returns whether it
+     *                      queued one.
+     * @param fields        Fields to load, all fields when empty. The id is always loaded.
+     * @return The number of documents for which an update was queued.
+     */
+    public static <T> long run(MongoTemplate mongoTemplate, Class<T> type, Criteria pending, int pageSize,
+                               Function<T, String> id, BooleanSupplier proceed,
+                               BiPredicate<T, BulkOperations> visitor, String... fields) {
+        long updated = 0;
+        String lastId = null;
+        while (proceed.getAsBoolean()) {
+            var page = new Query(pending).with(Sort.by(Sort.Direction.ASC, ID_FIELD)).limit(pageSize);
+            if (lastId != null)
+                page.addCriteria(where(ID_FIELD).gt(lastId));
+            if (fields.length > 0)
+                page.fields().include(fields).include(ID_FIELD);
+            List<T> documents = mongoTemplate.find(page, type);
+            if (documents.isEmpty())
+                break;
+
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            int queued = 0;
+            for (T document : documents) {
+                if (visitor.test(document, bulkOps))
+                    queued++;
+            }
+            if (queued > 0)
+                bulkOps.execute();
+            updated += queued;
+            lastId = id.apply(documents.getLast());
+            if (documents.size() < pageSize)
+                break;
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ahnis.journalai.common.util;
+
+import com.ahnis.journalai.common.dto.CursorPage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keyset (seek) pagination over Mongo collections.
+ * <p>
+ * Pages are ordered by a sort field plus {@code _id} as tie breaker, and the next page starts strictly after the
+ * last item of the previous one. With a compound index on {@code (filter fields, sortField, _id)} every page is
+ * a bounded index range scan, independent of how many pages came before. One extra row is fetched to find out
+ * whether another page exists, so no count query is needed.
+ * </p>
+ * <p>
+ * Cursors are opaque to clients: a URL safe Base64 encoding of the last sort value and id.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+public final class KeysetPagination {
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String ID_FIELD = "_id";
+
+    private KeysetPagination() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * Fetches one page.
+     *
+     * @param mongoTemplate The template used to run the query.
+     * @param filter        Criteria selecting the items to page through, e.g. the owner.
+     * @param type          The entity type.
+     * @param sortField     The field to order by, or {@code _id} to order by id only.
+     * @param direction     The sort direction, applied to the sort field and the id.
+     * @param cursor        The cursor returned with the previous page, {@code null} for the first page.
+     * @param size          The requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @param sortValue     Extracts the sort field value from an entity. Must be an {@link Instant} or a
+     *                      {@link String}.
+     * @param id            Extracts the id from an entity.
+     * @param fields        Fields to load, all fields when empty. The sort field and id are always loaded.
+     * @return The page.
+     */
+    public static <T> CursorPage<T> find(MongoTemplate mongoTemplate, Criteria filter, Class<T> type,
+                                         String sortField, Sort.Direction direction,
+                                         String cursor, int size,
+                                         Function<T, Object> sortValue, Function<T, String> id,
+                                         String... fields) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        var criteria = new ArrayList<Criteria>();
+        criteria.add(filter);
+        if (cursor != null && !cursor.isBlank())
+            criteria.add(after(decode(cursor), sortField, direction));
+
+        var query = Query.query(new Criteria().andOperator(criteria))
+                .limit(pageSize + 1);
+        query.with(ID_FIELD.equals(sortField)
+                ? Sort.by(direction, ID_FIELD)
+                : Sort.by(direction, sortField).and(Sort.by(direction, ID_FIELD)));
+        if (fields.length > 0)
+            query.fields().include(fields).include(sortField, ID_FIELD);
+
+        List<T> rows = mongoTemplate.find(query, type);
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+                ? encode(sortValue.apply(content.getLast()), id.apply(content.getLast()))
+                : null;
+        return new CursorPage<>(List.copyOf(content), nextCursor, hasNext, pageSize);
+    }
+
+    private static Criteria after(Cursor cursor, String sortField, Sort.Direction direction) {
+        boolean descending = direction.isDescending();
+        if (ID_FIELD.equals(sortField))
+            return descending ? where(ID_FIELD).lt(cursor.id()) : where(ID_FIELD).gt(cursor.id());
+        return new Criteria().orOperator(
+                descending ? where(sortField).lt(cursor.value()) : where(sortField).gt(cursor.value()),
+                new Criteria().andOperator(
+                        where(sortField).is(cursor.value()),
+                        descending ? where(ID_FIELD).lt(cursor.id()) : where(ID_FIELD).gt(cursor.id())));
+    }
+
+    static String encode(Object value, String id) {
+        String raw = switch (value) {
+            case Instant instant -> "t:" + instant.toEpochMilli();
+            case String string -> "s:" + string;
+            case null -> "n:";
+            default -> throw new IllegalArgumentException("Unsupported cursor value " + value.getClass().getSimpleName());
+        };
+        // The id is a hex ObjectId and never contains the separator
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + "|" + raw).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String id = raw.substring(0, separator);
+            String value = raw.substring(separator + 1);
+            return switch (value.substring(0, 2)) {
+                case "t:" -> new Cursor(Instant.ofEpochMilli(Long.parseLong(value.substring(2))), id);
+                case "s:" -> new Cursor(value.substring(2), id);
+                case "n:" -> new Cursor(null, id);
+                default -> throw new IllegalArgumentException();
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    record Cursor(Object value, String id) {
+    }
+}
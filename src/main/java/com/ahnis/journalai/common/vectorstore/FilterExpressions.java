@@ -0,0 +1,42 @@
+package com.ahnis.journalai.common.vectorstore;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * Helpers for inspecting Spring AI filter expressions, used by the vector stores to route filtered requests.
+ */
+public final class FilterExpressions {
+    public static final String USER_ID_KEY = "userId";
+
+    private FilterExpressions() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * The value a key must equal for the whole expression to match, when the expression requires one: a plain
+     * {@code key == value} or such a comparison joined to the rest with {@code &&}.
+     *
+     * @return The required value, or null when the expression can match other values of the key.
+     */
+    public static String requiredValue(Filter.Expression expression, String key) {
+        if (expression == null)
+            return null;
+        return switch (expression.type()) {
+            case EQ -> expression.left() instanceof Filter.Key(String k) && k.equals(key)
+                    && expression.right() instanceof Filter.Value(Object value) ? String.valueOf(value) : null;
+            case AND -> {
+                String left = requiredValue(operand(expression.left()), key);
+                yield left != null ? left : requiredValue(operand(expression.right()), key);
+            }
+            default -> null;
+        };
+    }
+
+    private static Filter.Expression operand(Filter.Operand operand) {
+        return switch (operand) {
+            case Filter.Expression expression -> expression;
+            case Filter.Group group -> group.content();
+            default -> null;
+        };
+    }
+}
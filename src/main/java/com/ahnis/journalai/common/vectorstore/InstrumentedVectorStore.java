@@ -0,0 +1,113 @@
+package com.ahnis.journalai.common.vectorstore;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link VectorStore} decorator that records how long every call takes and how many documents it moves.
+ * <p>
+ * Each caller gets its own instance, so the metrics are tagged with the caller next to the operation:
+ * {@code vector.store.operation} times every call with an {@code outcome} of {@code success} or
+ * {@code error} and the exception type, and {@code vector.store.documents} records the batch size of adds
+ * and deletes and the number of documents a search returned.
+ * </p>
+ */
+public class InstrumentedVectorStore implements VectorStore {
+    static final String OPERATION_TIMER = "vector.store.operation";
+    static final String DOCUMENTS_SUMMARY = "vector.store.documents";
+
+    private final VectorStore delegate;
+    private final String caller;
+    private final MeterRegistry meterRegistry;
+
+    public InstrumentedVectorStore(VectorStore delegate, String caller, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.caller = caller;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        record("add", documents.size(), () -> {
+            delegate.add(documents);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        record("delete", idList.size(), () -> {
+            delegate.delete(idList);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        record("delete", null, () -> {
+            delegate.delete(filterExpression);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        List<Document> documents = record("search", null, () -> delegate.similaritySearch(request));
+        documents("search").record(documents == null ? 0 : documents.size());
+        return documents;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public <T> Optional<T> getNativeClient() {
+        return delegate.getNativeClient();
+    }
+
+    private <T> T record(String operation, Integer batchSize, Supplier<T> call) {
+        if (batchSize != null)
+            documents(operation).record(batchSize);
+        long start = System.nanoTime();
+        String outcome = "success";
+        String exception = "none";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder(OPERATION_TIMER)
+                    .description("Duration of vector store calls")
+                    .tag("operation", operation)
+                    .tag("caller", caller)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private DistributionSummary documents(String operation) {
+        return DistributionSummary.builder(DOCUMENTS_SUMMARY)
+                .description("Documents written, deleted or returned per vector store call")
+                .tag("operation", operation)
+                .tag("caller", caller)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
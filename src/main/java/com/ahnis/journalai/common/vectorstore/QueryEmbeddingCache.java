@@ -0,0 +1,104 @@
+package com.ahnis.journalai.common.vectorstore;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Bounded cache of query embeddings keyed by model, dimensions and query text.
+ * <p>
+ * Vector stores embed the query of every similarity search with {@link EmbeddingModel#embed(String)}. Many of
+ * those queries repeat: the mood report searches every user's journals with the same constant query, and chat
+ * retries send the same message again. {@link #wrap} puts this cache in front of that call only; documents are
+ * always embedded by the model. Hits and misses are published as the {@code cache.gets} metric of the
+ * {@code queryEmbeddings} cache.
+ * </p>
+ */
+@Slf4j
+@Component
+public class QueryEmbeddingCache {
+    static final String CACHE_NAME = "queryEmbeddings";
+
+    private final Cache<Key, float[]> cache;
+    private final boolean enabled;
+    private final String model;
+    private final int dimensions;
+
+    public QueryEmbeddingCache(VectorStoreProperties vectorStoreProperties,
+                               MeterRegistry meterRegistry,
+                               @Value("${spring.ai.openai.embedding.options.model:text-embedding-ada-002}") String model) {
+        var properties = vectorStoreProperties.getQueryCache();
+        this.enabled = properties.isEnabled();
+        this.model = model;
+        this.dimensions = vectorStoreProperties.getEmbeddingDimension();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns an embedding model answering {@link EmbeddingModel#embed(String)} from this cache and delegating
+     * everything else, or the model itself when the cache is disabled.
+     */
+    public EmbeddingModel wrap(EmbeddingModel embeddingModel) {
+        if (!enabled)
+            return embeddingModel;
+        log.info("Caching query embeddings of model {}", model);
+        return new CachingEmbeddingModel(embeddingModel);
+    }
+
+    float[] get(String text, EmbeddingModel embeddingModel) {
+        // Concurrent misses on the same text wait for one model call instead of each making their own
+        float[] embedding = cache.get(new Key(model, dimensions, text), key -> embeddingModel.embed(key.text()));
+        // Callers may scale the vector in place
+        return embedding.clone();
+    }
+
+    private record Key(String model, int dimensions, String text) {
+    }
+
+    private class CachingEmbeddingModel implements EmbeddingModel {
+        private final EmbeddingModel delegate;
+
+        CachingEmbeddingModel(EmbeddingModel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public float[] embed(String text) {
+            return get(text, delegate);
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            return delegate.call(request);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return delegate.embed(document);
+        }
+
+        @Override
+        public List<float[]> embed(List<Document> documents, EmbeddingOptions options, BatchingStrategy batchingStrategy) {
+            return delegate.embed(documents, options, batchingStrategy);
+        }
+
+        @Override
+        public int dimensions() {
+            return dimensions;
+        }
+    }
+}
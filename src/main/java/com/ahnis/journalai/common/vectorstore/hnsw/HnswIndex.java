@@ -0,0 +1,317 @@
+package com.ahnis.journalai.common.vectorstore.hnsw;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph over unit length vectors, ranked by dot product.
+ * <p>
+ * Vectors and the neighbour lists of the bottom layer, which hold nearly all links, live in memory-mapped
+ * files, the vectors optionally quantized by {@link VectorFile}. The few nodes on upper layers keep their links
+ * on the heap and are written to a snapshot by {@link #save}. Nodes are numbered densely in insertion order and
+ * are never removed; callers hide deleted nodes through the {@code accept} predicate of {@link #search}, so the
+ * graph stays navigable through them, and drop them by building a new index over the live nodes.
+ * </p>
+ * <p>
+ * The index is not thread safe, callers serialize writes against reads.
+ * </p>
+ */
+class HnswIndex {
+    private static final int MAGIC = 0x484E5357;
+    private static final int FORMAT_VERSION = 1;
+    private static final IntPredicate ANY = _ -> true;
+    private static final Comparator<Candidate> BY_SIMILARITY = Comparator.comparingDouble(Candidate::similarity);
+
+    private final int dimensions;
+    private final int m;
+    private final int baseM;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final VectorFile vectors;
+    private final MappedRecordFile baseLinks;
+    private final Random random;
+
+    private int[] levels = new int[1024];
+    // Per node, null below level 1; upperLinks.get(node)[level - 1] are its neighbours on that level
+    private final List<int[][]> upperLinks = new ArrayList<>();
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    HnswIndex(int dimensions, int m, int efConstruction, VectorFile vectors, MappedRecordFile baseLinks, Random random) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.baseM = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.vectors = vectors;
+        this.baseLinks = baseLinks;
+        this.random = random;
+    }
+
+    /**
+     * Size of a {@link #baseLinks} record: the neighbour count followed by the neighbour slots.
+     */
+    static int baseLinkBytes(int m) {
+        return (1 + 2 * m) * Integer.BYTES;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeVector(int node, float[] vector) {
+        vectors.write(node, vector);
+    }
+
+    /**
+     * Links the node whose vector was written last into the graph. Nodes must be inserted in order.
+     */
+    void insert(int node) {
+        if (node != size)
+            throw new IllegalStateException("Expected node " + size + " but got " + node);
+        int level = randomLevel();
+        if (node == levels.length)
+            levels = Arrays.copyOf(levels, levels.length * 2);
+        levels[node] = level;
+        int[][] upper = level == 0 ? null : new int[level][];
+        if (upper != null)
+            Arrays.fill(upper, new int[0]);
+        upperLinks.add(upper);
+        baseLinks.putInt(node, 0, 0);
+
+        if (entryPoint >= 0) {
+            float[] vector = vector(node);
+            int current = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                current = searchLayer(vector, List.of(candidate(vector, current)), 1, l, ANY).getFirst().node();
+            }
+            List<Candidate> entries = List.of(candidate(vector, current));
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Candidate> found = searchLayer(vector, entries, efConstruction, l, ANY);
+                int[] neighbours = selectNeighbours(found, maxLinks(l));
+                setNeighbours(node, l, neighbours);
+                for (int neighbour : neighbours) {
+                    link(neighbour, node, l);
+                }
+                entries = found;
+            }
+        }
+        size++;
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Approximate nearest neighbours of a unit length query among the accepted nodes, best first.
+     */
+    List<Candidate> search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0)
+            return List.of();
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = searchLayer(query, List.of(candidate(query, current)), 1, l, ANY).getFirst().node();
+        }
+        List<Candidate> found = searchLayer(query, List.of(candidate(query, current)), Math.max(ef, k), 0, accept);
+        return found.subList(0, Math.min(k, found.size()));
+    }
+
+    float similarity(float[] query, int node) {
+        return vectors.dot(query, node);
+    }
+
+    /**
+     * Writes the graph layout to {@code file}, after forcing the mapped files so the snapshot never refers
+     * to links that are not on disk.
+     */
+    void save(Path file) throws IOException {
+        vectors.force();
+        baseLinks.force();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < size; node++) {
+                out.writeInt(levels[node]);
+                for (int l = 1; l <= levels[node]; l++) {
+                    int[] neighbours = upperLinks.get(node)[l - 1];
+                    out.writeInt(neighbours.length);
+                    for (int neighbour : neighbours) {
+                        out.writeInt(neighbour);
+                    }
+                }
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the graph layout saved by {@link #save}. Nodes added after that snapshot are inserted again by
+     * the caller; their stale links in the mapped file are ignored until then because they are past {@link #size}.
+     */
+    void load(Path file) throws IOException {
+        if (!Files.exists(file))
+            return;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+                throw new IllegalStateException("Unsupported vector index snapshot " + file);
+            int savedDimensions = in.readInt();
+            int savedM = in.readInt();
+            if (savedDimensions != dimensions || savedM != m)
+                throw new IllegalStateException("Vector index at " + file.getParent() + " was built with " + savedDimensions
+                        + " dimensions and m " + savedM + ", delete the directory and run a vector store backfill"
+                        + " to rebuild it");
+            int savedSize = in.readInt();
+            entryPoint = in.readInt();
+            maxLevel = in.readInt();
+            levels = new int[Math.max(1024, Integer.highestOneBit(Math.max(1, savedSize)) * 2)];
+            for (int node = 0; node < savedSize; node++) {
+                int level = in.readInt();
+                levels[node] = level;
+                int[][] upper = level == 0 ? null : new int[level][];
+                for (int l = 1; l <= level; l++) {
+                    int[] neighbours = new int[in.readInt()];
+                    for (int i = 0; i < neighbours.length; i++) {
+                        neighbours[i] = in.readInt();
+                    }
+                    upper[l - 1] = neighbours;
+                }
+                upperLinks.add(upper);
+            }
+            size = savedSize;
+        }
+    }
+
+    private List<Candidate> searchLayer(float[] query, List<Candidate> entries, int ef, int level, IntPredicate accept) {
+        var visited = new BitSet(size + 1);
+        var candidates = new PriorityQueue<>(BY_SIMILARITY.reversed());
+        var results = new PriorityQueue<>(BY_SIMILARITY);
+        for (Candidate entry : entries) {
+            visited.set(entry.node());
+            candidates.add(entry);
+            if (accept.test(entry.node()))
+                results.add(entry);
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.similarity() < results.peek().similarity())
+                break;
+            for (int neighbour : neighbours(current.node(), level)) {
+                // Links to nodes past the size were written before a crash and are rebuilt later
+                if (neighbour >= size || visited.get(neighbour))
+                    continue;
+                visited.set(neighbour);
+                float similarity = similarity(query, neighbour);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    candidates.add(new Candidate(neighbour, similarity));
+                    if (accept.test(neighbour)) {
+                        results.add(new Candidate(neighbour, similarity));
+                        if (results.size() > ef)
+                            results.poll();
+                    }
+                }
+            }
+        }
+        var sorted = new ArrayList<>(results);
+        sorted.sort(BY_SIMILARITY.reversed());
+        return sorted;
+    }
+
+    /**
+     * Keeps candidates that are closer to the base node than to any neighbour selected before them, which spreads
+     * the links in all directions, then fills the remaining slots with the closest skipped candidates.
+     */
+    private int[] selectNeighbours(List<Candidate> candidates, int max) {
+        var selected = new ArrayList<Candidate>(max);
+        var skipped = new ArrayList<Candidate>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() == max)
+                break;
+            boolean diverse = selected.stream()
+                    .noneMatch(other -> similarityBetween(candidate.node(), other.node()) > candidate.similarity());
+            (diverse ? selected : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected.stream().mapToInt(Candidate::node).toArray();
+    }
+
+    private void link(int from, int to, int level) {
+        int[] current = neighbours(from, level);
+        int max = maxLinks(level);
+        if (current.length < max) {
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = to;
+            setNeighbours(from, level, extended);
+            return;
+        }
+        float[] base = vector(from);
+        var candidates = new ArrayList<Candidate>(current.length + 1);
+        for (int neighbour : current) {
+            candidates.add(candidate(base, neighbour));
+        }
+        candidates.add(candidate(base, to));
+        candidates.sort(BY_SIMILARITY.reversed());
+        setNeighbours(from, level, selectNeighbours(candidates, max));
+    }
+
+    private int[] neighbours(int node, int level) {
+        if (level > 0)
+            return upperLinks.get(node)[level - 1];
+        int count = baseLinks.getInt(node, 0);
+        var neighbours = new int[Math.clamp(count, 0, baseM)];
+        for (int i = 0; i < neighbours.length; i++) {
+            neighbours[i] = baseLinks.getInt(node, i + 1);
+        }
+        return neighbours;
+    }
+
+    private void setNeighbours(int node, int level, int[] neighbours) {
+        if (level > 0) {
+            upperLinks.get(node)[level - 1] = neighbours;
+            return;
+        }
+        for (int i = 0; i < neighbours.length; i++) {
+            baseLinks.putInt(node, i + 1, neighbours[i]);
+        }
+        baseLinks.putInt(node, 0, neighbours.length);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? baseM : m;
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private float[] vector(int node) {
+        return vectors.read(node);
+    }
+
+    private float similarityBetween(int a, int b) {
+        return similarity(vector(a), b);
+    }
+
+    private Candidate candidate(float[] query, int node) {
+        return new Candidate(node, similarity(query, node));
+    }
+
+    record Candidate(int node, float similarity) {
+    }
+}
@@ -0,0 +1,586 @@
+package com.ahnis.journalai.common.vectorstore.hnsw;
+
+import com.ahnis.journalai.common.vectorstore.FilterExpressions;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-process {@link org.springframework.ai.vectorstore.VectorStore} backed by an {@link HnswIndex}.
+ * <p>
+ * Everything lives in one directory: {@code vectors.bin} and {@code links.bin} are memory-mapped and hold the
+ * unit length vectors and the bottom graph layer, {@code index.snapshot} holds the upper graph layers, and
+ * {@code chunks.ndjson} is an append-only log of added and deleted chunks with their text and metadata.
+ * Quantized stores keep their vectors in {@code vectors.int8.bin} instead.
+ * A restart replays the log and maps the files instead of re-embedding anything; chunks logged after the last
+ * snapshot are linked into the graph again.
+ * </p>
+ * <p>
+ * Searches filtered on a {@code userId} that owns few chunks scan exactly those chunks, which is both exact and
+ * faster than a graph traversal that has to skip the chunks of every other user. Deleted chunks stay in the
+ * graph as hidden waypoints until they make up {@code compactionThreshold} of the nodes. The store is then
+ * compacted: the live chunks are rewritten into fresh files in a {@code compaction} subdirectory, the graph is
+ * rebuilt over them, and the files are moved into place. A marker written once the new files are complete
+ * tells a restart whether to finish or discard a compaction that was interrupted.
+ * </p>
+ * <p>
+ * The chunk registry in Mongo still lists the chunks of a deleted directory as embedded, so a store whose
+ * directory was removed stays empty until a vector store backfill re-embeds every journal.
+ * </p>
+ */
+@Slf4j
+public class HnswVectorStore extends AbstractObservationVectorStore implements Closeable {
+    private static final String VECTORS_FILE = "vectors.bin";
+    private static final String QUANTIZED_VECTORS_FILE = "vectors.int8.bin";
+    private static final String LINKS_FILE = "links.bin";
+    private static final String SNAPSHOT_FILE = "index.snapshot";
+    private static final String LOG_FILE = "chunks.ndjson";
+    private static final String COMPACTION_DIRECTORY = "compaction";
+    private static final String COMPACTED_MARKER = "compacted";
+    private static final int SNAPSHOT_INTERVAL = 1000;
+    // Below this many deleted nodes a compaction costs more than the hidden waypoints do
+    private static final int MIN_COMPACTION_DELETES = 1000;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final Path directory;
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int exactSearchThreshold;
+    private final double compactionThreshold;
+    private final long seed;
+    private final boolean quantized;
+    private final String vectorsFile;
+    private final ObjectMapper objectMapper;
+    // Replaced by a compaction
+    private VectorFile vectors;
+    private MappedRecordFile links;
+    private HnswIndex index;
+    private Writer chunkLog;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held by writers around the write lock, so a compaction can rebuild the graph while searches go on
+    private final ReentrantLock writes = new ReentrantLock();
+
+    // Indexed by node, null once deleted
+    private final List<StoredChunk> chunks = new ArrayList<>();
+    private final Map<String, Integer> nodeById = new HashMap<>();
+    private final Map<String, Set<Integer>> nodesByUser = new HashMap<>();
+    private int insertsSinceSnapshot;
+
+    protected HnswVectorStore(Builder builder) {
+        super(builder);
+        this.directory = builder.directory;
+        this.dimensions = builder.dimensions;
+        this.m = builder.m;
+        this.efConstruction = builder.efConstruction;
+        this.efSearch = builder.efSearch;
+        this.exactSearchThreshold = builder.exactSearchThreshold;
+        this.compactionThreshold = builder.compactionThreshold;
+        this.seed = builder.seed;
+        this.quantized = builder.quantized;
+        this.vectorsFile = quantized ? QUANTIZED_VECTORS_FILE : VECTORS_FILE;
+        this.objectMapper = builder.objectMapper;
+        try {
+            Files.createDirectories(directory);
+            recoverCompaction();
+            String otherVectorsFile = quantized ? VECTORS_FILE : QUANTIZED_VECTORS_FILE;
+            if (Files.exists(directory.resolve(otherVectorsFile)))
+                throw new IllegalStateException("Vector store at " + directory + " holds " + otherVectorsFile
+                        + ", delete the directory and run a vector store backfill to rebuild it "
+                        + (quantized ? "quantized" : "unquantized"));
+            replayLog(directory.resolve(LOG_FILE));
+            openFiles();
+            for (int node = index.size(); node < chunks.size(); node++) {
+                index.insert(node);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open vector store at " + directory, e);
+        }
+        log.info("Opened local vector store at {} with {} live chunks", directory, nodeById.size());
+    }
+
+    public static Builder builder(EmbeddingModel embeddingModel, Path directory, int dimensions) {
+        return new Builder(embeddingModel, directory, dimensions);
+    }
+
+    @Override
+    public void doAdd(List<Document> documents) {
+        if (documents.isEmpty())
+            return;
+        List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(), this.batchingStrategy);
+        writes.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                int firstNode = chunks.size();
+                for (int i = 0; i < documents.size(); i++) {
+                    Document document = documents.get(i);
+                    Integer previous = nodeById.get(document.getId());
+                    if (previous != null)
+                        remove(previous);
+                    int node = chunks.size();
+                    var chunk = new StoredChunk(document.getId(), document.getText(),
+                            objectMapper.convertValue(document.getMetadata(), METADATA_TYPE));
+                    // The vector goes first, so every logged chunk has one after a crash
+                    index.writeVector(node, normalize(embeddings.get(i)));
+                    append(LogEntry.added(node, chunk));
+                    register(node, chunk);
+                }
+                chunkLog.flush();
+                for (int node = firstNode; node < chunks.size(); node++) {
+                    index.insert(node);
+                }
+                insertsSinceSnapshot += chunks.size() - firstNode;
+                if (insertsSinceSnapshot >= SNAPSHOT_INTERVAL)
+                    snapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write to vector store at " + directory, e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Chunks written again replace their previous node
+            compactIfNeeded();
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    @Override
+    public void doDelete(List<String> idList) {
+        removeAll(() -> idList.stream().distinct().map(nodeById::get).filter(Objects::nonNull).toList());
+    }
+
+    @Override
+    protected void doDelete(Filter.Expression filterExpression) {
+        Predicate<Map<String, Object>> filter = MetadataFilter.of(filterExpression);
+        removeAll(() -> nodeById.values().stream()
+                .filter(node -> filter.test(chunks.get(node).metadata()))
+                .toList());
+    }
+
+    @Override
+    public List<Document> doSimilaritySearch(SearchRequest request) {
+        float[] query = normalize(this.embeddingModel.embed(request.getQuery()));
+        Filter.Expression expression = request.getFilterExpression();
+        Predicate<Map<String, Object>> filter = expression == null ? null : MetadataFilter.of(expression);
+        String userId = FilterExpressions.requiredValue(expression, FilterExpressions.USER_ID_KEY);
+
+        lock.readLock().lock();
+        try {
+            IntPredicate accept = node -> {
+                StoredChunk chunk = chunks.get(node);
+                return chunk != null && (filter == null || filter.test(chunk.metadata()));
+            };
+            Set<Integer> owned = userId == null ? null : nodesByUser.getOrDefault(userId, Set.of());
+            List<HnswIndex.Candidate> found = owned != null && owned.size() <= exactSearchThreshold
+                    ? exactSearch(query, owned, accept, request.getTopK())
+                    : index.search(query, request.getTopK(), Math.max(efSearch, request.getTopK()), accept);
+            return found.stream()
+                    .filter(candidate -> candidate.similarity() >= request.getSimilarityThreshold())
+                    .map(candidate -> toDocument(chunks.get(candidate.node()), candidate.similarity()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+        return VectorStoreObservationContext.builder(VectorStoreProvider.SIMPLE.value(), operationName)
+                .dimensions(dimensions)
+                .collectionName(directory.getFileName().toString())
+                .similarityMetric(VectorStoreSimilarityMetric.COSINE.value());
+    }
+
+    /**
+     * Writes the graph snapshot and closes the files. Chunks added after the last snapshot would otherwise be
+     * linked into the graph again on the next start.
+     */
+    @Override
+    public void close() throws IOException {
+        writes.lock();
+        lock.writeLock().lock();
+        try {
+            snapshot();
+            closeFiles();
+        } finally {
+            lock.writeLock().unlock();
+            writes.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the live chunks into fresh files and rebuilds the graph over them, which drops every deleted node.
+     * Writes wait for the whole compaction, searches only while the new files are moved into place.
+     */
+    public void compact() {
+        writes.lock();
+        try {
+            Path compaction = directory.resolve(COMPACTION_DIRECTORY);
+            if (Files.exists(compaction))
+                deleteCompaction(compaction);
+            Files.createDirectories(compaction);
+            // Only writers change the chunks, so they can be read without the lock while writes wait
+            var live = new ArrayList<StoredChunk>(nodeById.size());
+            try (var compactedVectors = new VectorFile(compaction.resolve(vectorsFile), dimensions, quantized);
+                 var compactedLinks = new MappedRecordFile(compaction.resolve(LINKS_FILE), HnswIndex.baseLinkBytes(m));
+                 var compactedLog = Files.newBufferedWriter(compaction.resolve(LOG_FILE), StandardCharsets.UTF_8)) {
+                var compactedIndex = new HnswIndex(dimensions, m, efConstruction, compactedVectors, compactedLinks,
+                        new Random(seed));
+                for (int node = 0; node < chunks.size(); node++) {
+                    StoredChunk chunk = chunks.get(node);
+                    if (chunk == null)
+                        continue;
+                    int compactedNode = live.size();
+                    compactedIndex.writeVector(compactedNode, vectors.read(node));
+                    compactedLog.write(objectMapper.writeValueAsString(LogEntry.added(compactedNode, chunk)));
+                    compactedLog.write('\n');
+                    live.add(chunk);
+                }
+                for (int node = 0; node < live.size(); node++) {
+                    compactedIndex.insert(node);
+                }
+                compactedIndex.save(compaction.resolve(SNAPSHOT_FILE));
+            }
+            Files.createFile(compaction.resolve(COMPACTED_MARKER));
+
+            lock.writeLock().lock();
+            try {
+                // A failure past this point leaves the store closed, the next start finishes the compaction
+                closeFiles();
+                finishCompaction(compaction);
+                chunks.clear();
+                nodeById.clear();
+                nodesByUser.clear();
+                for (int node = 0; node < live.size(); node++) {
+                    register(node, live.get(node));
+                }
+                openFiles();
+                insertsSinceSnapshot = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Compacted local vector store at {} to {} live chunks", directory, live.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact vector store at " + directory, e);
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    private List<HnswIndex.Candidate> exactSearch(float[] query, Set<Integer> nodes, IntPredicate accept, int topK) {
+        return nodes.stream()
+                .filter(accept::test)
+                .map(node -> new HnswIndex.Candidate(node, index.similarity(query, node)))
+                .sorted(Comparator.comparingDouble(HnswIndex.Candidate::similarity).reversed())
+                .limit(topK)
+                .toList();
+    }
+
+    private void removeAll(Supplier<List<Integer>> nodes) {
+        writes.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                for (Integer node : nodes.get()) {
+                    remove(node);
+                }
+                chunkLog.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write to vector store at " + directory, e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            compactIfNeeded();
+        } finally {
+            writes.unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        int deleted = chunks.size() - nodeById.size();
+        if (deleted < MIN_COMPACTION_DELETES || deleted < compactionThreshold * chunks.size())
+            return;
+        log.info("Compacting local vector store at {}, {} of {} nodes are deleted", directory, deleted, chunks.size());
+        try {
+            compact();
+        } catch (UncheckedIOException e) {
+            // The write itself went through, the next one tries again
+            log.error("Failed to compact local vector store at {}", directory, e);
+        }
+    }
+
+    private void remove(int node) throws IOException {
+        append(LogEntry.deleted(node));
+        unregister(node);
+    }
+
+    private void register(int node, StoredChunk chunk) {
+        if (node == chunks.size())
+            chunks.add(chunk);
+        else
+            chunks.set(node, chunk);
+        nodeById.put(chunk.id(), node);
+        Object userId = chunk.metadata().get(FilterExpressions.USER_ID_KEY);
+        if (userId != null)
+            nodesByUser.computeIfAbsent(userId.toString(), _ -> new HashSet<>()).add(node);
+    }
+
+    private void unregister(int node) {
+        StoredChunk chunk = chunks.set(node, null);
+        nodeById.remove(chunk.id());
+        Object userId = chunk.metadata().get(FilterExpressions.USER_ID_KEY);
+        if (userId != null) {
+            Set<Integer> owned = nodesByUser.get(userId.toString());
+            owned.remove(node);
+            if (owned.isEmpty())
+                nodesByUser.remove(userId.toString());
+        }
+    }
+
+    private void append(LogEntry entry) throws IOException {
+        chunkLog.write(objectMapper.writeValueAsString(entry));
+        chunkLog.write('\n');
+    }
+
+    private void replayLog(Path file) throws IOException {
+        if (!Files.exists(file))
+            return;
+        long validBytes = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LogEntry entry;
+                try {
+                    entry = objectMapper.readValue(line, LogEntry.class);
+                } catch (JsonProcessingException e) {
+                    if (reader.readLine() != null)
+                        throw new IllegalStateException("Corrupt vector store log " + file + " at byte " + validBytes, e);
+                    // The process died while writing the last line
+                    log.warn("Dropping incomplete last entry of vector store log {}", file);
+                    break;
+                }
+                if (entry.added()) {
+                    if (entry.node() != chunks.size())
+                        throw new IllegalStateException("Vector store log " + file + " skips node " + chunks.size());
+                    register(entry.node(), new StoredChunk(entry.id(), entry.text(), entry.metadata()));
+                } else if (chunks.get(entry.node()) != null) {
+                    unregister(entry.node());
+                }
+                validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > validBytes)
+                channel.truncate(validBytes);
+        }
+    }
+
+    private void openFiles() throws IOException {
+        vectors = new VectorFile(directory.resolve(vectorsFile), dimensions, quantized);
+        links = new MappedRecordFile(directory.resolve(LINKS_FILE), HnswIndex.baseLinkBytes(m));
+        index = new HnswIndex(dimensions, m, efConstruction, vectors, links, new Random(seed));
+        chunkLog = Files.newBufferedWriter(directory.resolve(LOG_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        index.load(directory.resolve(SNAPSHOT_FILE));
+    }
+
+    private void closeFiles() throws IOException {
+        chunkLog.close();
+        vectors.close();
+        links.close();
+    }
+
+    /**
+     * Finishes a compaction that wrote all of its files before the process stopped, and discards one that did not.
+     */
+    private void recoverCompaction() throws IOException {
+        Path compaction = directory.resolve(COMPACTION_DIRECTORY);
+        if (!Files.exists(compaction))
+            return;
+        if (Files.exists(compaction.resolve(COMPACTED_MARKER))) {
+            log.info("Finishing interrupted compaction of vector store {}", directory);
+            finishCompaction(compaction);
+        } else {
+            log.warn("Discarding unfinished compaction of vector store {}", directory);
+            deleteCompaction(compaction);
+        }
+    }
+
+    private void finishCompaction(Path compaction) throws IOException {
+        for (String file : List.of(vectorsFile, LINKS_FILE, SNAPSHOT_FILE, LOG_FILE)) {
+            Path compacted = compaction.resolve(file);
+            if (Files.exists(compacted))
+                Files.move(compacted, directory.resolve(file),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        deleteCompaction(compaction);
+    }
+
+    private static void deleteCompaction(Path compaction) throws IOException {
+        try (Stream<Path> files = Files.list(compaction)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(compaction);
+    }
+
+    private void snapshot() throws IOException {
+        index.save(directory.resolve(SNAPSHOT_FILE));
+        insertsSinceSnapshot = 0;
+    }
+
+    private float[] normalize(float[] embedding) {
+        if (embedding.length != dimensions)
+            throw new IllegalStateException("Expected embeddings with " + dimensions + " dimensions but got " + embedding.length);
+        double norm = 0;
+        for (float value : embedding) {
+            norm += value * value;
+        }
+        float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+        var normalized = new float[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            normalized[i] = embedding[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static Document toDocument(StoredChunk chunk, float similarity) {
+        var metadata = new HashMap<>(chunk.metadata());
+        metadata.put("distance", 1 - similarity);
+        return Document.builder()
+                .id(chunk.id())
+                .text(chunk.text())
+                .metadata(metadata)
+                .score((double) similarity)
+                .build();
+    }
+
+    private record StoredChunk(String id, String text, Map<String, Object> metadata) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record LogEntry(String op, int node, String id, String text, Map<String, Object> metadata) {
+        private static final String ADD = "add";
+        private static final String DELETE = "delete";
+
+        static LogEntry added(int node, StoredChunk chunk) {
+            return new LogEntry(ADD, node, chunk.id(), chunk.text(), chunk.metadata());
+        }
+
+        static LogEntry deleted(int node) {
+            return new LogEntry(DELETE, node, null, null, null);
+        }
+
+        boolean added() {
+            return ADD.equals(op);
+        }
+    }
+
+    public static final class Builder extends AbstractVectorStoreBuilder<Builder> {
+        private final Path directory;
+        private final int dimensions;
+        private int m = 16;
+        private int efConstruction = 200;
+        private int efSearch = 64;
+        private int exactSearchThreshold = 2000;
+        private double compactionThreshold = 0.3;
+        private long seed = 42;
+        private boolean quantized;
+        private ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        private Builder(EmbeddingModel embeddingModel, Path directory, int dimensions) {
+            super(embeddingModel);
+            this.directory = directory;
+            this.dimensions = dimensions;
+        }
+
+        public Builder m(int m) {
+            this.m = m;
+            return this;
+        }
+
+        public Builder efConstruction(int efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        public Builder efSearch(int efSearch) {
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public Builder exactSearchThreshold(int exactSearchThreshold) {
+            this.exactSearchThreshold = exactSearchThreshold;
+            return this;
+        }
+
+        /**
+         * Fraction of deleted nodes at which the store is compacted, once at least a thousand nodes are deleted.
+         */
+        public Builder compactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        /**
+         * Seed of the random graph levels, fixed so that benchmarks over the same data build the same graph.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Stores vectors as int8 instead of floats, a quarter of the memory for slightly less precise ranking.
+         */
+        public Builder quantized(boolean quantized) {
+            this.quantized = quantized;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        @Override
+        public HnswVectorStore build() {
+            return new HnswVectorStore(this);
+        }
+    }
+}
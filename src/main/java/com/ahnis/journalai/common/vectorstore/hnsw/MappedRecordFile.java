@@ -0,0 +1,87 @@
+package com.ahnis.journalai.common.vectorstore.hnsw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file of fixed size records, memory-mapped in segments so it can grow past the 2 GB limit of a single
+ * mapping. Records are read and written in place through the page cache; {@link #force()} makes them durable.
+ */
+class MappedRecordFile implements Closeable {
+    private static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    MappedRecordFile(Path file, int recordBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recordBytes = recordBytes;
+        this.recordsPerSegment = (int) Math.max(1, SEGMENT_BYTES / recordBytes);
+    }
+
+    float getFloat(int record, int index) {
+        return segment(record).getFloat(offset(record) + index * Float.BYTES);
+    }
+
+    void putFloat(int record, int index, float value) {
+        segment(record).putFloat(offset(record) + index * Float.BYTES, value);
+    }
+
+    byte getByte(int record, int offset) {
+        return segment(record).get(offset(record) + offset);
+    }
+
+    void putByte(int record, int offset, byte value) {
+        segment(record).put(offset(record) + offset, value);
+    }
+
+    int getInt(int record, int index) {
+        return segment(record).getInt(offset(record) + index * Integer.BYTES);
+    }
+
+    void putInt(int record, int index, int value) {
+        segment(record).putInt(offset(record) + index * Integer.BYTES, value);
+    }
+
+    void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        segments.clear();
+        channel.close();
+    }
+
+    private int offset(int record) {
+        return (record % recordsPerSegment) * recordBytes;
+    }
+
+    private MappedByteBuffer segment(int record) {
+        int segment = record / recordsPerSegment;
+        if (segment < segments.size())
+            return segments.get(segment);
+        synchronized (segments) {
+            // Mapping past the end of the file grows it
+            long segmentBytes = (long) recordsPerSegment * recordBytes;
+            try {
+                while (segments.size() <= segment) {
+                    segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * segmentBytes, segmentBytes));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map segment " + segment, e);
+            }
+            return segments.get(segment);
+        }
+    }
+}
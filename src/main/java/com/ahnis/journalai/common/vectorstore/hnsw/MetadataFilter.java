@@ -0,0 +1,83 @@
+package com.ahnis.journalai.common.vectorstore.hnsw;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates Spring AI filter expressions against chunk metadata held in memory.
+ */
+final class MetadataFilter {
+
+    private MetadataFilter() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    static Predicate<Map<String, Object>> of(Filter.Expression expression) {
+        return metadata -> matches(expression, metadata);
+    }
+
+    private static boolean matches(Filter.Expression expression, Map<String, Object> metadata) {
+        return switch (expression.type()) {
+            case AND -> matches(operand(expression.left()), metadata) && matches(operand(expression.right()), metadata);
+            case OR -> matches(operand(expression.left()), metadata) || matches(operand(expression.right()), metadata);
+            case NOT -> !matches(operand(expression.left()), metadata);
+            case EQ -> isEqual(actual(expression, metadata), expected(expression));
+            case NE -> !isEqual(actual(expression, metadata), expected(expression));
+            case GT -> compares(expression, metadata, order -> order > 0);
+            case GTE -> compares(expression, metadata, order -> order >= 0);
+            case LT -> compares(expression, metadata, order -> order < 0);
+            case LTE -> compares(expression, metadata, order -> order <= 0);
+            case IN -> expectedList(expression).stream().anyMatch(value -> isEqual(actual(expression, metadata), value));
+            case NIN -> expectedList(expression).stream().noneMatch(value -> isEqual(actual(expression, metadata), value));
+            default -> throw new UnsupportedOperationException("Unsupported filter operation " + expression.type());
+        };
+    }
+
+    private static Filter.Expression operand(Filter.Operand operand) {
+        return switch (operand) {
+            case Filter.Expression expression -> expression;
+            case Filter.Group group -> group.content();
+            default -> throw new IllegalArgumentException("Expected an expression but got " + operand);
+        };
+    }
+
+    private static Object actual(Filter.Expression expression, Map<String, Object> metadata) {
+        if (!(expression.left() instanceof Filter.Key(String key)))
+            throw new IllegalArgumentException("Expected a metadata key but got " + expression.left());
+        return metadata.get(key);
+    }
+
+    private static Object expected(Filter.Expression expression) {
+        if (!(expression.right() instanceof Filter.Value(Object value)))
+            throw new IllegalArgumentException("Expected a value but got " + expression.right());
+        return value;
+    }
+
+    private static List<?> expectedList(Filter.Expression expression) {
+        return expected(expression) instanceof List<?> values ? values : List.of(expected(expression));
+    }
+
+    private static boolean isEqual(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number b)
+            return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+        return Objects.equals(actual, expected);
+    }
+
+    // Chunks without the key never match a range comparison
+    private static boolean compares(Filter.Expression expression, Map<String, Object> metadata, IntPredicate order) {
+        Object actual = actual(expression, metadata);
+        return actual != null && order.test(compare(actual, expected(expression)));
+    }
+
+    private static int compare(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number b)
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        // ISO dates and other strings compare lexicographically
+        return String.valueOf(actual).compareTo(String.valueOf(expected));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ahnis.journalai.common.vectorstore.hnsw;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Unit length vectors stored by node in a {@link MappedRecordFile}, either as floats or quantized to int8.
+ * <p>
+ * A quantized record is the scale of the vector followed by one signed byte per dimension, the value divided by
+ * the scale and rounded. The scale is the largest absolute value over 127, so every vector uses the full byte
+ * range, and the record is a quarter of the float record. Similarities are computed against the float query
+ * without dequantizing the stored vector first.
+ * </p>
+ */
+class VectorFile implements Closeable {
+    private final MappedRecordFile records;
+    private final int dimensions;
+    private final boolean quantized;
+
+    VectorFile(Path file, int dimensions, boolean quantized) throws IOException {
+        this.records = new MappedRecordFile(file, recordBytes(dimensions, quantized));
+        this.dimensions = dimensions;
+        this.quantized = quantized;
+    }
+
+    static int recordBytes(int dimensions, boolean quantized) {
+        return quantized ? Float.BYTES + dimensions : dimensions * Float.BYTES;
+    }
+
+    void write(int node, float[] vector) {
+        if (!quantized) {
+            for (int i = 0; i < dimensions; i++) {
+                records.putFloat(node, i, vector[i]);
+            }
+            return;
+        }
+        float max = 0;
+        for (int i = 0; i < dimensions; i++) {
+            max = Math.max(max, Math.abs(vector[i]));
+        }
+        float scale = max / Byte.MAX_VALUE;
+        records.putFloat(node, 0, scale);
+        for (int i = 0; i < dimensions; i++) {
+            records.putByte(node, Float.BYTES + i, scale == 0 ? 0 : (byte) Math.round(vector[i] / scale));
+        }
+    }
+
+    float[] read(int node) {
+        var vector = new float[dimensions];
+        if (!quantized) {
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] = records.getFloat(node, i);
+            }
+            return vector;
+        }
+        float scale = records.getFloat(node, 0);
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = records.getByte(node, Float.BYTES + i) * scale;
+        }
+        return vector;
+    }
+
+    float dot(float[] query, int node) {
+        float sum = 0;
+        if (!quantized) {
+            for (int i = 0; i < dimensions; i++) {
+                sum += query[i] * records.getFloat(node, i);
+            }
+            return sum;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            sum += query[i] * records.getByte(node, Float.BYTES + i);
+        }
+        return sum * records.getFloat(node, 0);
+    }
+
+    void force() {
+        records.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A chunk with its vector, in the shape it is stored in Milvus.
+ */
+public record EmbeddedChunk(String id, String content, Map<String, Object> metadata, List<Float> embedding) {
+
+    public EmbeddedChunk withEmbedding(List<Float> embedding) {
+        return new EmbeddedChunk(id, content, metadata, embedding);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.client.MilvusClient;
+import io.milvus.param.MetricType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Re-indexes a collection of full size embeddings into the active collection at {@code embedding-dimension}.
+ * <p>
+ * The {@code text-embedding-3} models are trained so that a prefix of an embedding, scaled back to unit length,
+ * is the embedding the model returns when asked for that many dimensions. The stored vectors are therefore
+ * truncated in place of calling the model again. Once the copy is complete the job measures recall: for sampled
+ * source chunks it compares the nearest neighbours found in the source with the ones found in the target, and
+ * stores the result with the {@link VectorStoreMigration}.
+ * </p>
+ * <p>
+ * The copy runs under a scheduler lock, so when several nodes start together only one of them writes to the
+ * target collection and the others leave the re-index to it. Live writes already go to the target while it
+ * runs, so only chunks still in the registry are copied, see {@link MilvusCollectionCopier}, and recall is
+ * measured over those chunks as well.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${vector.store.reindex.enabled:false} and '${vector.store.type:milvus}' == 'milvus'")
+public class EmbeddingReindexJob {
+    static final String LOCK_NAME = "reindexEmbeddings";
+
+    private final MilvusCollectionCopier collectionCopier;
+    private final MilvusClient milvusClient;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final ObjectMapper objectMapper;
+    private final SchedulerLockService schedulerLockService;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindex() {
+        schedulerLockService.runLocked(LOCK_NAME, _ -> copyAndMeasure());
+    }
+
+    private void copyAndMeasure() {
+        var reindex = vectorStoreProperties.getReindex();
+        String source = reindex.getSourceCollectionName();
+        String target = vectorStoreProperties.activeCollectionName();
+        int dimensions = vectorStoreProperties.getEmbeddingDimension();
+        VectorStoreMigration migration = collectionCopier.copy(source, target,
+                chunk -> chunk.withEmbedding(truncate(chunk.embedding(), dimensions)), reindex.getPageSize());
+        if (migration.getRecall() == null) {
+            migration.setRecall(measureRecall(source, target, dimensions, reindex.getRecallSamples(), reindex.getRecallTopK()));
+            migration.setRecallTopK(reindex.getRecallTopK());
+            migration.setRecallSamples(reindex.getRecallSamples());
+            collectionCopier.save(migration);
+        }
+        log.info("Collection {} holds {} chunks at {} dimensions, recall@{} against {} is {}", target,
+                migration.getMigratedChunks(), dimensions, migration.getRecallTopK(), source, migration.getRecall());
+    }
+
+    private double measureRecall(String source, String target, int dimensions, int samples, int topK) {
+        String databaseName = vectorStoreProperties.getDatabaseName();
+        var metricType = MetricType.valueOf(vectorStoreProperties.getMetricType());
+        // Chunk ids are random, so the first chunks in id order are a fair sample
+        List<EmbeddedChunk> queries = MilvusChunks.fetchPage(milvusClient, databaseName, source, "", samples, objectMapper);
+        Set<String> sampled = collectionCopier.registeredIds(queries.stream().map(EmbeddedChunk::id).toList());
+        double total = 0;
+        int measured = 0;
+        for (EmbeddedChunk query : queries) {
+            if (!sampled.contains(query.id()))
+                continue;
+            // Chunks of journals edited or deleted since were not copied and cannot be found in the target
+            List<String> sourceNeighbours = neighbours(source, metricType, query.embedding(), query.id(), topK);
+            Set<String> live = collectionCopier.registeredIds(sourceNeighbours);
+            List<String> expected = sourceNeighbours.stream().filter(live::contains).toList();
+            if (expected.isEmpty())
+                continue;
+            var found = new HashSet<>(neighbours(target, metricType, truncate(query.embedding(), dimensions), query.id(), topK));
+            total += expected.stream().filter(found::contains).count() / (double) expected.size();
+            measured++;
+        }
+        return measured == 0 ? 1 : total / measured;
+    }
+
+    // The query chunk itself is always its own nearest neighbour and says nothing about the index
+    private List<String> neighbours(String collection, MetricType metricType, List<Float> vector, String exclude, int topK) {
+        return MilvusChunks.nearestIds(milvusClient, vectorStoreProperties.getDatabaseName(), collection, metricType, vector, topK + 1)
+                .stream()
+                .filter(id -> !id.equals(exclude))
+                .limit(topK)
+                .toList();
+    }
+
+    /**
+     * The first {@code dimensions} values of {@code embedding}, scaled back to unit length.
+     */
+    static List<Float> truncate(List<Float> embedding, int dimensions) {
+        if (embedding.size() < dimensions)
+            throw new IllegalStateException("Cannot grow an embedding of " + embedding.size() + " dimensions to " + dimensions);
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            norm += embedding.get(i) * embedding.get(i);
+        }
+        double scale = norm == 0 ? 0 : 1 / Math.sqrt(norm);
+        var truncated = new ArrayList<Float>(dimensions);
+        for (int i = 0; i < dimensions; i++) {
+            truncated.add((float) (embedding.get(i) * scale));
+        }
+        return truncated;
+    }
+}
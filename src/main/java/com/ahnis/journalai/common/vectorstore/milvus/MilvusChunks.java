@@ -0,0 +1,184 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import com.ahnis.journalai.common.vectorstore.FilterExpressions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.milvus.client.MilvusClient;
+import io.milvus.common.clientenum.ConsistencyLevelEnum;
+import io.milvus.grpc.QueryResults;
+import io.milvus.grpc.SearchResults;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.dml.DeleteParam;
+import io.milvus.param.dml.InsertParam;
+import io.milvus.param.dml.QueryParam;
+import io.milvus.param.dml.SearchParam;
+import io.milvus.response.QueryResultsWrapper;
+import io.milvus.response.SearchResultsWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes journal chunks in Milvus collections directly, in the schema of the Spring AI Milvus store
+ * plus the {@code user_id} partition key of partitioned collections.
+ */
+@Slf4j
+public final class MilvusChunks {
+    // Field names used by the Spring AI Milvus vector store schema
+    public static final String DOC_ID_FIELD = "doc_id";
+    public static final String CONTENT_FIELD = "content";
+    public static final String METADATA_FIELD = "metadata";
+    public static final String EMBEDDING_FIELD = "embedding";
+    // Partition key of partitioned collections
+    public static final String USER_ID_FIELD = "user_id";
+    // Partition key of chunks without an owner
+    public static final String SHARED_OWNER = "_shared";
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private MilvusChunks() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * Chunks with an id greater than {@code afterId} in primary key order, including their vectors.
+     */
+    public static List<EmbeddedChunk> fetchPage(MilvusClient milvusClient, String databaseName, String collectionName,
+                                                 String afterId, int limit, ObjectMapper objectMapper) {
+        R<QueryResults> response = milvusClient.query(QueryParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withExpr(DOC_ID_FIELD + " > " + quote(afterId))
+                .withOutFields(List.of(DOC_ID_FIELD, CONTENT_FIELD, METADATA_FIELD, EMBEDDING_FIELD))
+                .withLimit((long) limit)
+                .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                .build());
+        check(response, "query");
+        return new QueryResultsWrapper(response.getData()).getRowRecords().stream()
+                .map(row -> toChunk(row, objectMapper))
+                .toList();
+    }
+
+    /**
+     * The ones of {@code ids} that are stored in the collection.
+     */
+    public static Set<String> existingIds(MilvusClient milvusClient, String databaseName, String collectionName,
+                                          Collection<String> ids) {
+        if (ids.isEmpty())
+            return Set.of();
+        R<QueryResults> response = milvusClient.query(QueryParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withExpr(DOC_ID_FIELD + " in [" + ids.stream().map(MilvusChunks::quote).collect(Collectors.joining(",")) + "]")
+                .withOutFields(List.of(DOC_ID_FIELD))
+                .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                .build());
+        check(response, "query");
+        return new QueryResultsWrapper(response.getData()).getRowRecords().stream()
+                .map(row -> String.valueOf(row.get(DOC_ID_FIELD)))
+                .collect(Collectors.toSet());
+    }
+
+    public static void insert(MilvusClient milvusClient, String databaseName, String collectionName,
+                              List<EmbeddedChunk> chunks, boolean partitioned, ObjectMapper objectMapper) {
+        List<String> ids = new ArrayList<>(chunks.size());
+        List<String> owners = new ArrayList<>(chunks.size());
+        List<String> contents = new ArrayList<>(chunks.size());
+        List<JsonObject> metadata = new ArrayList<>(chunks.size());
+        List<List<Float>> embeddings = new ArrayList<>(chunks.size());
+        for (EmbeddedChunk chunk : chunks) {
+            ids.add(chunk.id());
+            Object owner = chunk.metadata().get(FilterExpressions.USER_ID_KEY);
+            owners.add(owner == null ? SHARED_OWNER : owner.toString());
+            contents.add(chunk.content());
+            metadata.add(toJson(chunk.metadata(), objectMapper));
+            embeddings.add(chunk.embedding());
+        }
+        var fields = new ArrayList<InsertParam.Field>();
+        fields.add(new InsertParam.Field(DOC_ID_FIELD, ids));
+        if (partitioned)
+            fields.add(new InsertParam.Field(USER_ID_FIELD, owners));
+        fields.add(new InsertParam.Field(CONTENT_FIELD, contents));
+        fields.add(new InsertParam.Field(METADATA_FIELD, metadata));
+        fields.add(new InsertParam.Field(EMBEDDING_FIELD, embeddings));
+        check(milvusClient.insert(InsertParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withFields(fields)
+                .build()), "insert");
+    }
+
+    public static void delete(MilvusClient milvusClient, String databaseName, String collectionName, List<String> ids) {
+        if (ids.isEmpty())
+            return;
+        check(milvusClient.delete(DeleteParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withExpr(DOC_ID_FIELD + " in [" + ids.stream().map(MilvusChunks::quote).collect(Collectors.joining(",")) + "]")
+                .build()), "delete");
+    }
+
+    /**
+     * Ids of the {@code topK} chunks nearest to {@code vector}, nearest first.
+     */
+    public static List<String> nearestIds(MilvusClient milvusClient, String databaseName, String collectionName,
+                                          MetricType metricType, List<Float> vector, int topK) {
+        R<SearchResults> response = milvusClient.search(SearchParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withMetricType(metricType)
+                .withOutFields(List.of(DOC_ID_FIELD))
+                .withTopK(topK)
+                .withFloatVectors(List.of(vector))
+                .withVectorFieldName(EMBEDDING_FIELD)
+                .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                .build());
+        check(response, "search");
+        return new SearchResultsWrapper(response.getData().getResults()).getRowRecords(0).stream()
+                .map(row -> String.valueOf(row.get(DOC_ID_FIELD)))
+                .toList();
+    }
+
+    public static Map<String, Object> parseMetadata(Object metadata, ObjectMapper objectMapper) {
+        if (metadata == null)
+            return Map.of();
+        try {
+            return objectMapper.readValue(metadata.toString(), METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable chunk metadata {}", metadata);
+            return Map.of();
+        }
+    }
+
+    public static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    public static void check(R<?> response, String operation) {
+        if (response.getStatus() != R.Status.Success.getCode())
+            throw new IllegalStateException("Milvus " + operation + " failed: " + response.getMessage(), response.getException());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EmbeddedChunk toChunk(QueryResultsWrapper.RowRecord row, ObjectMapper objectMapper) {
+        return new EmbeddedChunk(String.valueOf(row.get(DOC_ID_FIELD)), (String) row.get(CONTENT_FIELD),
+                parseMetadata(row.get(METADATA_FIELD), objectMapper), (List<Float>) row.get(EMBEDDING_FIELD));
+    }
+
+    private static JsonObject toJson(Map<String, Object> metadata, ObjectMapper objectMapper) {
+        try {
+            return JsonParser.parseString(objectMapper.writeValueAsString(metadata)).getAsJsonObject();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Chunk metadata is not serializable: " + e.getOriginalMessage(), e);
+        }
+    }
+}
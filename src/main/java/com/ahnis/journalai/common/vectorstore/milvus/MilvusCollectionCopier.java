@@ -0,0 +1,120 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import com.ahnis.journalai.journal.repository.JournalChunkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.client.MilvusClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Copies the chunks of one Milvus collection into another with their stored vectors, so nothing is embedded
+ * again.
+ * <p>
+ * The source is walked in primary key order and progress is checkpointed in {@link VectorStoreMigration} after
+ * every page. The source collection is never modified.
+ * </p>
+ * <p>
+ * Live writes and deletes already go to the target while the copy runs, so the source can hold chunks of
+ * journals that were edited or deleted since. Only chunks still in the {@link JournalChunk} registry are copied,
+ * and a chunk whose id is already in the target is left alone, as it was written there by a live write or by an
+ * earlier run of the same page. Chunks written before the registry existed are not copied either; the vector
+ * store backfill embeds their journals again.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MilvusCollectionCopier {
+    private final MilvusClient milvusClient;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final JournalChunkRepository journalChunkRepository;
+
+    /**
+     * Copies {@code source} into {@code target}, resuming after the last checkpointed chunk.
+     *
+     * @param transform Applied to every chunk before it is written.
+     * @param pageSize  Number of chunks read and written at a time.
+     * @return The finished migration, or the one that had finished before.
+     */
+    public VectorStoreMigration copy(String source, String target, UnaryOperator<EmbeddedChunk> transform, int pageSize) {
+        if (source.equals(target))
+            throw new IllegalStateException("Cannot copy collection " + source + " into itself");
+        String id = VectorStoreMigration.idOf(source, target);
+        VectorStoreMigration migration = mongoTemplate.findById(id, VectorStoreMigration.class);
+        if (migration == null)
+            migration = VectorStoreMigration.builder()
+                    .id(id)
+                    .sourceCollection(source)
+                    .targetCollection(target)
+                    .startedAt(Instant.now())
+                    .build();
+        if (migration.getCompletedAt() != null) {
+            log.info("Collection {} was already copied into {}", source, target);
+            return migration;
+        }
+        log.info("Copying collection {} into {} after chunk {}", source, target, migration.getLastDocId());
+
+        String databaseName = vectorStoreProperties.getDatabaseName();
+        boolean partitioned = vectorStoreProperties.getPartitioning().isEnabled()
+                && target.equals(vectorStoreProperties.getPartitioning().getCollectionName());
+        List<EmbeddedChunk> page;
+        while (!(page = MilvusChunks.fetchPage(milvusClient, databaseName, source, migration.getLastDocId(), pageSize, objectMapper)).isEmpty()) {
+            List<EmbeddedChunk> copies = missingLiveChunks(page, target).stream().map(transform).toList();
+            if (!copies.isEmpty())
+                MilvusChunks.insert(milvusClient, databaseName, target, copies, partitioned, objectMapper);
+            migration.setLastDocId(page.stream().map(EmbeddedChunk::id).max(String::compareTo).orElseThrow());
+            migration.setMigratedChunks(migration.getMigratedChunks() + copies.size());
+            migration.setUpdatedAt(Instant.now());
+            mongoTemplate.save(migration);
+        }
+        migration.setCompletedAt(Instant.now());
+        mongoTemplate.save(migration);
+        log.info("Copied {} chunks from {} into {}", migration.getMigratedChunks(), source, target);
+        return migration;
+    }
+
+    /**
+     * The chunks of {@code page} that are still registered and not yet in {@code target}.
+     */
+    List<EmbeddedChunk> missingLiveChunks(List<EmbeddedChunk> page, String target) {
+        Set<String> registered = registeredIds(page.stream().map(EmbeddedChunk::id).toList());
+        Set<String> existing = existingIds(target, registered);
+        return page.stream()
+                .filter(chunk -> registered.contains(chunk.id()) && !existing.contains(chunk.id()))
+                .toList();
+    }
+
+    /**
+     * The ones of {@code chunkIds} that belong to a journal as it is now.
+     */
+    public Set<String> registeredIds(Collection<String> chunkIds) {
+        return journalChunkRepository.findAllById(chunkIds).stream()
+                .map(JournalChunk::getId)
+                .collect(Collectors.toSet());
+    }
+
+    Set<String> existingIds(String collection, Collection<String> chunkIds) {
+        return MilvusChunks.existingIds(milvusClient, vectorStoreProperties.getDatabaseName(), collection, chunkIds);
+    }
+
+    /**
+     * Stores a result computed after the copy, such as its measured recall.
+     */
+    public void save(VectorStoreMigration migration) {
+        migration.setUpdatedAt(Instant.now());
+        mongoTemplate.save(migration);
+    }
+}
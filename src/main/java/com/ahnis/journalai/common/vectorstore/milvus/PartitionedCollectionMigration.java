@@ -0,0 +1,51 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Copies the chunks of the unpartitioned collection into the partitioned one after startup.
+ * <p>
+ * New writes already go to the partitioned collection while the copy runs, so the copy skips chunks that are no
+ * longer registered and never overwrites a chunk already in the partitioned collection. It is resumable and
+ * idempotent, see {@link MilvusCollectionCopier}, and the source collection is left in place to be dropped
+ * by hand once the migration has completed. The copy runs under a scheduler lock, so only one node of the
+ * cluster writes to the partitioned collection at a time.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${vector.store.partitioning.enabled:false} and ${vector.store.partitioning.migrate:false}"
+        + " and '${vector.store.type:milvus}' == 'milvus'")
+public class PartitionedCollectionMigration {
+    static final String LOCK_NAME = "migratePartitionedCollection";
+
+    private final MilvusCollectionCopier collectionCopier;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final SchedulerLockService schedulerLockService;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        schedulerLockService.runLocked(LOCK_NAME, _ -> copy());
+    }
+
+    private void copy() {
+        String source = vectorStoreProperties.getCollectionName();
+        var partitioning = vectorStoreProperties.getPartitioning();
+        VectorStoreMigration migration = collectionCopier.copy(source, partitioning.getCollectionName(),
+                UnaryOperator.identity(), partitioning.getMigrationPageSize());
+        log.info("Partitioned collection holds {} chunks of {}, the source collection can be dropped",
+                migration.getMigratedChunks(), source);
+    }
+}
@@ -0,0 +1,300 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import com.ahnis.journalai.common.vectorstore.FilterExpressions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.grpc.DataType;
+import io.milvus.grpc.SearchResults;
+import io.milvus.param.IndexType;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.collection.CreateCollectionParam;
+import io.milvus.param.collection.FieldType;
+import io.milvus.param.collection.HasCollectionParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.dml.DeleteParam;
+import io.milvus.param.dml.SearchParam;
+import io.milvus.param.index.CreateIndexParam;
+import io.milvus.response.SearchResultsWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.observation.conventions.VectorStoreProvider;
+import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.milvus.MilvusFilterExpressionConverter;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+import org.springframework.beans.factory.InitializingBean;
+
+import static com.ahnis.journalai.common.vectorstore.milvus.MilvusChunks.*;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Milvus vector store whose collection is partitioned by user.
+ * <p>
+ * Every chunk carries its owner in a {@code user_id} partition key field, which Milvus hashes into a fixed
+ * number of partitions. A request filtered on one {@code userId} gets {@code user_id == ...} prepended to its
+ * expression, so Milvus only searches the partition holding that user instead of the whole collection and
+ * post-filtering the result. The other fields use the names of the Spring AI Milvus store, so tools reading the
+ * collection work on both layouts.
+ * </p>
+ */
+@Slf4j
+public class PartitionedMilvusVectorStore extends AbstractObservationVectorStore implements InitializingBean {
+    private static final String DISTANCE_FIELD = "distance";
+    private static final int MAX_CONTENT_LENGTH = 65535;
+
+    private final MilvusServiceClient milvusClient;
+    private final String databaseName;
+    private final String collectionName;
+    private final int dimensions;
+    private final int numPartitions;
+    private final MetricType metricType;
+    private final IndexType indexType;
+    private final boolean initializeSchema;
+    private final ObjectMapper objectMapper;
+    private final MilvusFilterExpressionConverter filterConverter = new MilvusFilterExpressionConverter();
+
+    protected PartitionedMilvusVectorStore(Builder builder) {
+        super(builder);
+        this.milvusClient = builder.milvusClient;
+        this.databaseName = builder.databaseName;
+        this.collectionName = builder.collectionName;
+        this.dimensions = builder.dimensions;
+        this.numPartitions = builder.numPartitions;
+        this.metricType = builder.metricType;
+        this.indexType = builder.indexType;
+        this.initializeSchema = builder.initializeSchema;
+        this.objectMapper = builder.objectMapper;
+    }
+
+    public static Builder builder(MilvusServiceClient milvusClient, EmbeddingModel embeddingModel) {
+        return new Builder(milvusClient, embeddingModel);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!initializeSchema)
+            return;
+        R<Boolean> exists = milvusClient.hasCollection(HasCollectionParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .build());
+        check(exists, "check collection");
+        if (!exists.getData())
+            createCollection();
+        check(milvusClient.loadCollection(LoadCollectionParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .build()), "load collection");
+    }
+
+    @Override
+    public void doAdd(List<Document> documents) {
+        if (documents.isEmpty())
+            return;
+        List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(), this.batchingStrategy);
+        MilvusChunks.insert(milvusClient, databaseName, collectionName, IntStream.range(0, documents.size())
+                .mapToObj(i -> new EmbeddedChunk(documents.get(i).getId(), documents.get(i).getText(),
+                        documents.get(i).getMetadata(), toList(embeddings.get(i))))
+                .toList(), true, objectMapper);
+    }
+
+    @Override
+    public void doDelete(List<String> idList) {
+        MilvusChunks.delete(milvusClient, databaseName, collectionName, idList);
+    }
+
+    @Override
+    protected void doDelete(Filter.Expression filterExpression) {
+        check(milvusClient.delete(DeleteParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withExpr(routedExpression(filterExpression))
+                .build()), "delete");
+    }
+
+    @Override
+    public List<Document> doSimilaritySearch(SearchRequest request) {
+        float[] embedding = this.embeddingModel.embed(request.getQuery());
+        var search = SearchParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withMetricType(metricType)
+                .withOutFields(List.of(DOC_ID_FIELD, CONTENT_FIELD, METADATA_FIELD))
+                .withTopK(request.getTopK())
+                .withFloatVectors(List.of(toList(embedding)))
+                .withVectorFieldName(EMBEDDING_FIELD);
+        String expression = routedExpression(request.getFilterExpression());
+        if (expression != null)
+            search.withExpr(expression);
+        R<SearchResults> response = milvusClient.search(search.build());
+        check(response, "search");
+
+        return new SearchResultsWrapper(response.getData().getResults()).getRowRecords(0).stream()
+                .map(row -> {
+                    float similarity = similarity((Float) row.get(DISTANCE_FIELD));
+                    var metadata = new HashMap<>(MilvusChunks.parseMetadata(row.get(METADATA_FIELD), objectMapper));
+                    metadata.put(DISTANCE_FIELD, 1 - similarity);
+                    return Document.builder()
+                            .id(String.valueOf(row.get(DOC_ID_FIELD)))
+                            .text((String) row.get(CONTENT_FIELD))
+                            .metadata(metadata)
+                            .score((double) similarity)
+                            .build();
+                })
+                .filter(document -> document.getScore() >= request.getSimilarityThreshold())
+                .toList();
+    }
+
+    @Override
+    public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+        return VectorStoreObservationContext.builder(VectorStoreProvider.MILVUS.value(), operationName)
+                .collectionName(collectionName)
+                .dimensions(dimensions)
+                .namespace(databaseName)
+                .similarityMetric(switch (metricType) {
+                    case IP -> VectorStoreSimilarityMetric.DOT.value();
+                    case L2 -> VectorStoreSimilarityMetric.EUCLIDEAN.value();
+                    default -> VectorStoreSimilarityMetric.COSINE.value();
+                });
+    }
+
+    /**
+     * Converts a filter to a Milvus expression, leading with the partition key when the filter pins one user.
+     */
+    String routedExpression(Filter.Expression filterExpression) {
+        if (filterExpression == null)
+            return null;
+        String expression = filterConverter.convertExpression(filterExpression);
+        String userId = FilterExpressions.requiredValue(filterExpression, FilterExpressions.USER_ID_KEY);
+        return userId == null ? expression : USER_ID_FIELD + " == " + quote(userId) + " && (" + expression + ")";
+    }
+
+    private void createCollection() {
+        log.info("Creating collection {} with {} partitions keyed by {}", collectionName, numPartitions, USER_ID_FIELD);
+        check(milvusClient.createCollection(CreateCollectionParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withDescription("Journal chunks partitioned by user")
+                .withPartitionsNum(numPartitions)
+                .addFieldType(FieldType.newBuilder()
+                        .withName(DOC_ID_FIELD)
+                        .withDataType(DataType.VarChar)
+                        .withMaxLength(36)
+                        .withPrimaryKey(true)
+                        .withAutoID(false)
+                        .build())
+                .addFieldType(FieldType.newBuilder()
+                        .withName(USER_ID_FIELD)
+                        .withDataType(DataType.VarChar)
+                        .withMaxLength(64)
+                        .withPartitionKey(true)
+                        .build())
+                .addFieldType(FieldType.newBuilder()
+                        .withName(CONTENT_FIELD)
+                        .withDataType(DataType.VarChar)
+                        .withMaxLength(MAX_CONTENT_LENGTH)
+                        .build())
+                .addFieldType(FieldType.newBuilder()
+                        .withName(METADATA_FIELD)
+                        .withDataType(DataType.JSON)
+                        .build())
+                .addFieldType(FieldType.newBuilder()
+                        .withName(EMBEDDING_FIELD)
+                        .withDataType(DataType.FloatVector)
+                        .withDimension(dimensions)
+                        .build())
+                .build()), "create collection");
+        check(milvusClient.createIndex(CreateIndexParam.newBuilder()
+                .withDatabaseName(databaseName)
+                .withCollectionName(collectionName)
+                .withFieldName(EMBEDDING_FIELD)
+                .withIndexType(indexType)
+                .withMetricType(metricType)
+                .withExtraParam("{\"nlist\":1024}")
+                .withSyncMode(Boolean.FALSE)
+                .build()), "create index");
+    }
+
+    private float similarity(Float distance) {
+        // Milvus returns the similarity itself for inner product and cosine, a distance for L2
+        return metricType == MetricType.L2 ? 1 - distance : distance;
+    }
+
+    private static List<Float> toList(float[] embedding) {
+        var values = new ArrayList<Float>(embedding.length);
+        for (float value : embedding) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    public static final class Builder extends AbstractVectorStoreBuilder<Builder> {
+        private final MilvusServiceClient milvusClient;
+        private String databaseName = "default";
+        private String collectionName;
+        private int dimensions = 1536;
+        private int numPartitions = 64;
+        private MetricType metricType = MetricType.COSINE;
+        private IndexType indexType = IndexType.IVF_FLAT;
+        private boolean initializeSchema;
+        private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        private Builder(MilvusServiceClient milvusClient, EmbeddingModel embeddingModel) {
+            super(embeddingModel);
+            this.milvusClient = milvusClient;
+        }
+
+        public Builder databaseName(String databaseName) {
+            this.databaseName = databaseName;
+            return this;
+        }
+
+        public Builder collectionName(String collectionName) {
+            this.collectionName = collectionName;
+            return this;
+        }
+
+        public Builder embeddingDimension(int dimensions) {
+            this.dimensions = dimensions;
+            return this;
+        }
+
+        public Builder numPartitions(int numPartitions) {
+            this.numPartitions = numPartitions;
+            return this;
+        }
+
+        public Builder metricType(MetricType metricType) {
+            this.metricType = metricType;
+            return this;
+        }
+
+        public Builder indexType(IndexType indexType) {
+            this.indexType = indexType;
+            return this;
+        }
+
+        public Builder initializeSchema(boolean initializeSchema) {
+            this.initializeSchema = initializeSchema;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        @Override
+        public PartitionedMilvusVectorStore build() {
+            return new PartitionedMilvusVectorStore(this);
+        }
+    }
+}
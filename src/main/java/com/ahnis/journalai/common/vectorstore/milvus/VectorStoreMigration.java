@@ -0,0 +1,46 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of copying one Milvus collection into another.
+ * <p>
+ * {@code lastDocId} is the highest source chunk id copied so far and is persisted after every page, so a
+ * restarted copy continues from there. Copies that change the vectors record how well searches on the target
+ * agree with the source in {@code recall}.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "vector_store_migrations")
+public class VectorStoreMigration {
+    @Id
+    private String id;
+    private String sourceCollection;
+    private String targetCollection;
+    @Builder.Default
+    private String lastDocId = "";
+    private long migratedChunks;
+    /**
+     * Mean share of the {@code recallTopK} nearest source chunks that the target also returns, over
+     * {@code recallSamples} sampled queries.
+     */
+    private Double recall;
+    private Integer recallTopK;
+    private Integer recallSamples;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+
+    public static String idOf(String source, String target) {
+        return source + "->" + target;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ahnis.journalai.export.controller;
+
+import com.ahnis.journalai.export.enums.ExportFormat;
+import com.ahnis.journalai.export.service.ExportService;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.util.EnumUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+public class ExportController {
+    private final ExportService exportService;
+
+    // Download all journals, mood reports and chat sessions of the authenticated user
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportUserData(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        ExportFormat exportFormat = EnumUtils.fromString(ExportFormat.class, format);
+        String userId = user.getId();
+        StreamingResponseBody body = switch (exportFormat) {
+            case NDJSON -> out -> exportService.writeNdjson(userId, out);
+            case ZIP -> out -> exportService.writeZip(userId, out);
+        };
+        String fileName = "journalai-export-" + LocalDate.now() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
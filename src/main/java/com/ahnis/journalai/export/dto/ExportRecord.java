@@ -0,0 +1,10 @@
+package com.ahnis.journalai.export.dto;
+
+/**
+ * One line of a combined NDJSON export, tagged with the collection it came from.
+ */
+public record ExportRecord(
+        String type,
+        Object data
+) {
+}
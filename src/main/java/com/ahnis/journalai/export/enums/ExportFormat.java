@@ -0,0 +1,14 @@
+package com.ahnis.journalai.export.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    ZIP("application/zip", "zip");
+
+    private final String contentType;
+    private final String extension;
+}
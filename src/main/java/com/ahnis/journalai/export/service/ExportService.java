@@ -0,0 +1,122 @@
+package com.ahnis.journalai.export.service;
+
+import com.ahnis.journalai.analysis.entity.MoodReportEntity;
+import com.ahnis.journalai.analysis.mapper.ReportMapper;
+import com.ahnis.journalai.chatbot.entity.ChatSession;
+import com.ahnis.journalai.export.dto.ExportRecord;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.mapper.JournalMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Streams all data of a user out of Mongo.
+ * <p>
+ * Every collection is read through a server side cursor and written one document at a time, so memory use
+ * does not grow with the amount of data. NDJSON exports put all collections into one stream, tagging every
+ * line with its type; ZIP exports hold one plain NDJSON entry per collection.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ExportService {
+    static final int CURSOR_BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final JournalMapper journalMapper;
+    private final ReportMapper reportMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public ExportService(MongoTemplate mongoTemplate, JournalMapper journalMapper, ReportMapper reportMapper,
+                         ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.journalMapper = journalMapper;
+        this.reportMapper = reportMapper;
+        this.objectMapper = objectMapper;
+        // The generator buffers and flushes on its own, flushing every line would send tiny chunks
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void writeNdjson(String userId, OutputStream out) throws IOException {
+        try (JsonGenerator generator = newGenerator(out)) {
+            writeJournals(userId, generator, "journal");
+            writeReports(userId, generator, "mood_report");
+            writeChatSessions(userId, generator, "chat_session");
+        }
+    }
+
+    public void writeZip(String userId, OutputStream out) throws IOException {
+        try (var zip = new ZipOutputStream(out)) {
+            writeZipEntry(zip, "journals.ndjson", generator -> writeJournals(userId, generator, null));
+            writeZipEntry(zip, "mood_reports.ndjson", generator -> writeReports(userId, generator, null));
+            writeZipEntry(zip, "chat_sessions.ndjson", generator -> writeChatSessions(userId, generator, null));
+        }
+    }
+
+    private void writeZipEntry(ZipOutputStream zip, String name, GeneratorWriter content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        try (JsonGenerator generator = newGenerator(zip)) {
+            content.write(generator);
+        }
+        zip.closeEntry();
+    }
+
+    private void writeJournals(String userId, JsonGenerator generator, String type) throws IOException {
+        writeCollection(userId, Journal.class, "createdAt", journalMapper::toDto, type, generator);
+    }
+
+    private void writeReports(String userId, JsonGenerator generator, String type) throws IOException {
+        writeCollection(userId, MoodReportEntity.class, "createdAt", reportMapper::toApiResponse, type, generator);
+    }
+
+    private void writeChatSessions(String userId, JsonGenerator generator, String type) throws IOException {
+        writeCollection(userId, ChatSession.class, "updatedAt", Function.identity(), type, generator);
+    }
+
+    private <T> void writeCollection(String userId, Class<T> entityType, String sortField, Function<T, ?> toExport,
+                                     String type, JsonGenerator generator) throws IOException {
+        var userDocuments = query(where("userId").is(userId))
+                .with(Sort.by(sortField))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        long count = 0;
+        try (Stream<T> documents = mongoTemplate.stream(userDocuments, entityType)) {
+            for (Iterator<T> iterator = documents.iterator(); iterator.hasNext(); count++) {
+                Object value = toExport.apply(iterator.next());
+                writer.writeValue(generator, type == null ? value : new ExportRecord(type, value));
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
+        log.info("Exported {} {} documents for user {}", count, entityType.getSimpleName(), userId);
+    }
+
+    private JsonGenerator newGenerator(OutputStream out) throws IOException {
+        // Lines are separated explicitly, and the zip stream must stay open between entries
+        return objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+    }
+
+    @FunctionalInterface
+    private interface GeneratorWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
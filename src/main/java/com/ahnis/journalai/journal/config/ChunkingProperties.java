@@ -0,0 +1,38 @@
+package com.ahnis.journalai.journal.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for splitting journals into chunks before they are embedded.
+ * <p>
+ * Sizes are counted in tokens of the embedding model's encoding. Changing them changes the chunk ids of every
+ * journal, so existing journals keep their old chunks until they are edited or a backfill re-embeds them.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "journal.embedding.chunking")
+public class ChunkingProperties {
+
+    /**
+     * Maximum tokens per chunk. Journals up to this size are embedded as one chunk.
+     */
+    private int chunkSize = 512;
+
+    /**
+     * Tokens of trailing sentences repeated at the start of the next chunk, so a thought that crosses a chunk
+     * boundary is found from either side.
+     */
+    private int overlap = 64;
+
+    /**
+     * Chunks smaller than this are merged into the previous chunk instead of being embedded on their own.
+     */
+    private int minChunkSize = 96;
+}
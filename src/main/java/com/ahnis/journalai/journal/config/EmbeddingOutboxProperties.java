@@ -0,0 +1,64 @@
+package com.ahnis.journalai.journal.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the journal embedding outbox.
+ * <p>
+ * Journal writes enqueue an embedding job in Mongo and a pool of workers drains the queue in batches.
+ * These properties control batch size, worker parallelism, leasing and the retry policy.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "journal.embedding.outbox")
+public class EmbeddingOutboxProperties {
+
+    /**
+     * Maximum number of jobs a worker claims per batch.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Number of workers draining the queue in parallel.
+     */
+    private int workers = 4;
+
+    /**
+     * How long a claimed batch stays locked before another worker may reclaim it.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    /**
+     * Attempts after which a job is marked as failed and no longer retried.
+     */
+    private int maxAttempts = 8;
+
+    /**
+     * Delay before the first retry, doubled on every further attempt.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(5);
+
+    /**
+     * Upper bound for the retry delay.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(30);
+
+    /**
+     * Quiet period after an autosave edit before the journal is re-embedded.
+     */
+    private Duration debounceWindow = Duration.ofSeconds(15);
+
+    /**
+     * Longest a continuously autosaved journal waits for a re-embed.
+     */
+    private Duration maxDebounceDelay = Duration.ofMinutes(2);
+}
@@ -0,0 +1,54 @@
+package com.ahnis.journalai.journal.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for scoring journals on the six report emotions when they are written.
+ * <p>
+ * {@code scorer} selects the implementation: {@code lexicon} scores locally from word lists and costs nothing,
+ * {@code llm} asks {@code model} for every journal, from a background worker instead of the write path.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "journal.emotion")
+public class EmotionScoringProperties {
+
+    /**
+     * The emotion scorer, {@code lexicon} or {@code llm}.
+     */
+    private String scorer = "lexicon";
+
+    /**
+     * Chat model of the {@code llm} scorer.
+     */
+    private String model = "gpt-4o-mini";
+
+    /**
+     * Completion tokens of one score, reserved from the shared LLM rate limit with the prompt.
+     */
+    private int maxScoreTokens = 200;
+
+    /**
+     * How long the worker waits between passes over the unscored journals.
+     */
+    private Duration workerInterval = Duration.ofMinutes(1);
+
+    /**
+     * Number of journals read per page by the worker.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Failed scoring attempts after which a journal is left unscored until its content changes.
+     */
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,55 @@
+package com.ahnis.journalai.journal.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for syncing the vector store from the change stream of the journals collection.
+ * <p>
+ * Change streams need a replica set, so the sync is off by default and journal writes enqueue their embedding
+ * jobs themselves. When it is enabled against a standalone Mongo, it turns itself off at startup and the write
+ * path takes over again.
+ * </p>
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "journal.embedding.change-stream")
+public class JournalChangeStreamProperties {
+
+    /**
+     * Whether embedding jobs are derived from the change stream instead of being enqueued by the write path.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of change events turned into embedding jobs with one bulk write.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long the stream waits for further events before a partial batch is applied.
+     */
+    private Duration maxAwaitTime = Duration.ofSeconds(1);
+
+    /**
+     * How often the resume token is persisted while no journal changes.
+     */
+    private Duration checkpointInterval = Duration.ofSeconds(30);
+
+    /**
+     * Delay before the stream is reopened after an error.
+     */
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    /**
+     * How often a node that does not tail the stream checks whether the tailing node's lease ran out.
+     */
+    private Duration standbyInterval = Duration.ofSeconds(30);
+}
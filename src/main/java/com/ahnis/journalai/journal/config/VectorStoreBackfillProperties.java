@@ -0,0 +1,36 @@
+package com.ahnis.journalai.journal.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the vector store backfill, which re-embeds every journal on demand.
+ *
+ * @author Ahnis Singh Aneja
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "journal.embedding.backfill")
+public class VectorStoreBackfillProperties {
+
+    /**
+     * Number of journals embedded with one vector store write.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Maximum number of batches being embedded at the same time.
+     */
+    private int concurrency = 4;
+
+    /**
+     * How long a running backfill stays locked to its node without a checkpoint. Must be well above the time one
+     * batch takes to embed.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+}
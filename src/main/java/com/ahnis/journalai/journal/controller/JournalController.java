@@ -1,18 +1,28 @@
 package com.ahnis.journalai.journal.controller;
 
 import com.ahnis.journalai.common.dto.ApiResponse;
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.journal.dto.request.JournalPatchRequest;
 import com.ahnis.journalai.journal.dto.request.JournalRequest;
+import com.ahnis.journalai.journal.dto.response.JournalImportResponse;
 import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.dto.response.JournalSearchResult;
+import com.ahnis.journalai.journal.dto.response.JournalSummaryResponse;
 import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.journal.service.JournalImportService;
+import com.ahnis.journalai.journal.service.JournalSearchService;
 import com.ahnis.journalai.journal.service.JournalService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -21,6 +31,8 @@ import java.util.List;
 public class JournalController {
 
     private final JournalService journalService;
+    private final JournalImportService journalImportService;
+    private final JournalSearchService journalSearchService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<Void>> createJournal(
@@ -31,16 +43,58 @@ public class JournalController {
         return ResponseEntity.ok(new ApiResponse<>(HttpStatus.OK, "Posted Journal", null));
     }
 
+    /**
+     * Imports journals from an NDJSON body, one {@code {"title", "content", "createdAt"}} object per line.
+     * Pass the returned {@code importId} and the entry the body starts at as {@code offset} to resume.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ApiResponse<JournalImportResponse>> importJournals(
+            InputStream body,
+            @RequestParam(required = false) String importId,
+            @RequestParam(defaultValue = "0") long offset,
+            @AuthenticationPrincipal User user
+    ) throws IOException {
+        JournalImportResponse result = journalImportService.importJournals(user.getId(), body, importId, offset);
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK, "Import " + result.status().name().toLowerCase(), result));
+    }
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<ApiResponse<JournalImportResponse>> getImport(
+            @PathVariable String importId,
+            @AuthenticationPrincipal User user
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(journalImportService.getImport(importId, user.getId())));
+    }
+
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<JournalResponse>>> getAllJournals(
+    public ResponseEntity<ApiResponse<Page<JournalSummaryResponse>>> getAllJournals(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        Page<JournalResponse> journals = journalService.getAllJournals(user.getId(), page, size);
+        Page<JournalSummaryResponse> journals = journalService.getAllJournals(user.getId(), page, size);
+        return ResponseEntity.ok(ApiResponse.success(journals));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<JournalSummaryResponse>>> scrollJournals(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<JournalSummaryResponse> journals = journalService.scrollJournals(user.getId(), cursor, size);
         return ResponseEntity.ok(ApiResponse.success(journals));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<JournalSearchResult>>> searchJournals(
+            @AuthenticationPrincipal User user,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<JournalSearchResult> results = journalSearchService.search(user.getId(), q, limit);
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<JournalResponse>> getJournalById(
@@ -61,6 +115,16 @@ public class JournalController {
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.ACCEPTED, "Journal updated successfully", updatedJournal));
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<JournalResponse>> autosaveJournal(
+            @PathVariable String id,
+            @Valid @RequestBody JournalPatchRequest dto,
+            @AuthenticationPrincipal User user
+    ) {
+        JournalResponse savedJournal = journalService.patchJournal(id, dto, user.getId());
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.ACCEPTED, "Journal autosaved", savedJournal));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteJournal(
             @PathVariable String id,
@@ -0,0 +1,16 @@
+package com.ahnis.journalai.journal.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.time.Instant;
+
+/**
+ * One line of an NDJSON journal import. {@code createdAt} keeps the original date of the entry, entries
+ * without one are dated at the start of the import, so a resumed import gives them the same ids again.
+ */
+public record JournalImportEntry(
+        @NotBlank String title,
+        @NotBlank String content,
+        Instant createdAt
+) {
+}
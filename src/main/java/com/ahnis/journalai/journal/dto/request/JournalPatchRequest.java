@@ -0,0 +1,17 @@
+package com.ahnis.journalai.journal.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Autosave request carrying only the text delta since {@code baseRevision}.
+ * Edits are applied in order, each against the result of the previous one.
+ */
+public record JournalPatchRequest(
+        Long baseRevision,
+        String title,
+        @NotNull List<@Valid TextEdit> edits
+) {
+}
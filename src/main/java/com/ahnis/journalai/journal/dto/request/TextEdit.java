@@ -0,0 +1,14 @@
+package com.ahnis.journalai.journal.dto.request;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * A single splice on the journal content: delete {@code deleteCount} characters at {@code offset} and insert
+ * {@code insert} in their place. Offsets count UTF-16 code units, like JavaScript string indices.
+ */
+public record TextEdit(
+        @PositiveOrZero int offset,
+        @PositiveOrZero int deleteCount,
+        String insert
+) {
+}
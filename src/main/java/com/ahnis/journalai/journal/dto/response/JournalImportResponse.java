@@ -0,0 +1,15 @@
+package com.ahnis.journalai.journal.dto.response;
+
+import com.ahnis.journalai.journal.enums.JournalImportStatus;
+
+import java.util.List;
+
+public record JournalImportResponse(
+        String importId,
+        JournalImportStatus status,
+        long processedEntries,
+        long importedEntries,
+        long skippedEntries,
+        List<String> errors
+) {
+}
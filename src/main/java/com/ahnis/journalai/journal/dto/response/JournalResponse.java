@@ -10,7 +10,8 @@ public record JournalResponse(
         Instant createdAt,
 
         Instant modifiedAt,
-        String userId
+        String userId,
+        long revision
 ) {
 
 }
@@ -0,0 +1,19 @@
+package com.ahnis.journalai.journal.dto.response;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A journal search hit. {@code highlight} is an HTML escaped excerpt with the matched terms wrapped in
+ * {@code <mark>} tags, {@code matchedBy} lists the retrievers that found the journal.
+ */
+public record JournalSearchResult(
+        String id,
+        String title,
+        String highlight,
+
+        Instant createdAt,
+        double score,
+        List<String> matchedBy
+) {
+}
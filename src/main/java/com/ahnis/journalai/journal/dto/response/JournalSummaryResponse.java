@@ -0,0 +1,21 @@
+package com.ahnis.journalai.journal.dto.response;
+
+import java.time.Instant;
+
+/**
+ * List view of a journal. Carries a short preview instead of the full content, which is only returned by the
+ * single journal endpoint.
+ */
+public record JournalSummaryResponse(
+        String id,
+        String title,
+        String snippet,
+        int wordCount,
+
+        Instant createdAt,
+
+        Instant modifiedAt,
+        long revision
+) {
+
+}
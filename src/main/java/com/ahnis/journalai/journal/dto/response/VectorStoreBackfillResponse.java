@@ -0,0 +1,19 @@
+package com.ahnis.journalai.journal.dto.response;
+
+import com.ahnis.journalai.journal.enums.VectorStoreBackfillStatus;
+
+import java.time.Instant;
+
+public record VectorStoreBackfillResponse(
+        String backfillId,
+        String collectionName,
+        VectorStoreBackfillStatus status,
+        long totalJournals,
+        long processedJournals,
+        double journalsPerSecond,
+        Long etaSeconds,
+        Instant startedAt,
+        Instant completedAt,
+        String error
+) {
+}
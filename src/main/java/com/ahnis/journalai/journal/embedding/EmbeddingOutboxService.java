@@ -0,0 +1,264 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.journal.config.EmbeddingOutboxProperties;
+import com.ahnis.journalai.journal.entity.EmbeddingJob;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.enums.EmbeddingJobStatus;
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+import com.ahnis.journalai.journal.repository.EmbeddingJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Mongo backed outbox for vector store work.
+ * <p>
+ * Journal writes enqueue a job here instead of talking to the vector store directly. Jobs are claimed in
+ * batches under a time limited lock, so a crashed worker only delays its batch until the lease runs out.
+ * Failed batches are retried with exponential backoff and dead-lettered after {@code maxAttempts}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class EmbeddingOutboxService {
+    private final MongoTemplate mongoTemplate;
+    private final EmbeddingJobRepository embeddingJobRepository;
+    private final EmbeddingOutboxProperties properties;
+
+    private final AtomicLong pendingJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter completedCounter;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+
+    public EmbeddingOutboxService(MongoTemplate mongoTemplate,
+                                  EmbeddingJobRepository embeddingJobRepository,
+                                  EmbeddingOutboxProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.embeddingJobRepository = embeddingJobRepository;
+        this.properties = properties;
+
+        Gauge.builder("journal.embedding.outbox.depth", pendingJobs, AtomicLong::get)
+                .description("Embedding jobs waiting to be processed")
+                .tag("status", "pending")
+                .register(meterRegistry);
+        Gauge.builder("journal.embedding.outbox.depth", failedJobs, AtomicLong::get)
+                .description("Embedding jobs that exhausted their retries")
+                .tag("status", "failed")
+                .register(meterRegistry);
+        Gauge.builder("journal.embedding.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest pending embedding job")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.completedCounter = meterRegistry.counter("journal.embedding.outbox.jobs", "outcome", "completed");
+        this.retriedCounter = meterRegistry.counter("journal.embedding.outbox.jobs", "outcome", "retried");
+        this.deadLetteredCounter = meterRegistry.counter("journal.embedding.outbox.jobs", "outcome", "failed");
+    }
+
+    public void enqueueUpsert(Journal journal) {
+        enqueue(journal.getId(), journal.getUserId(), EmbeddingJobType.UPSERT);
+    }
+
+    /**
+     * Enqueues an upsert that only becomes due once the journal has not changed for the debounce window.
+     * Every further call pushes the job back, but never beyond {@code maxDebounceDelay} after the first
+     * unprocessed change, so a client that autosaves continuously still gets fresh vectors.
+     */
+    public void enqueueDebouncedUpsert(Journal journal) {
+        Instant now = Instant.now();
+        mongoTemplate.upsert(query(where("journalId").is(journal.getId())),
+                pendingUpdate(journal.getUserId(), EmbeddingJobType.UPSERT, now, now.plus(properties.getDebounceWindow())),
+                EmbeddingJob.class);
+    }
+
+    public void enqueueDelete(String journalId, String userId) {
+        enqueue(journalId, userId, EmbeddingJobType.DELETE);
+    }
+
+    public void enqueue(String journalId, String userId, EmbeddingJobType type) {
+        mongoTemplate.upsert(query(where("journalId").is(journalId)),
+                pendingUpdate(userId, type, Instant.now(), null), EmbeddingJob.class);
+    }
+
+    /**
+     * Enqueues upserts for many journals with a single unordered bulk write.
+     */
+    public void enqueueUpserts(Collection<Journal> journals) {
+        if (journals.isEmpty())
+            return;
+        Instant now = Instant.now();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmbeddingJob.class);
+        journals.forEach(journal -> bulkOps.upsert(query(where("journalId").is(journal.getId())),
+                pendingUpdate(journal.getUserId(), EmbeddingJobType.UPSERT, now, null)));
+        bulkOps.execute();
+    }
+
+    /**
+     * Enqueues the changes read from the journals change stream with a single unordered bulk write.
+     */
+    public void enqueueChanges(Collection<JournalChange> changes) {
+        if (changes.isEmpty())
+            return;
+        Instant now = Instant.now();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmbeddingJob.class);
+        changes.forEach(change -> bulkOps.upsert(query(where("journalId").is(change.journalId())),
+                pendingUpdate(change.userId(), change.type(), now,
+                        change.debounced() ? now.plus(properties.getDebounceWindow()) : null)));
+        bulkOps.execute();
+    }
+
+    private Update pendingUpdate(String userId, EmbeddingJobType type, Instant now, Instant notBefore) {
+        var update = new Update()
+                .set("type", type)
+                .set("status", EmbeddingJobStatus.PENDING)
+                .set("attempts", 0)
+                .set("nextAttemptAt", now)
+                .unset("lastError")
+                .inc("version", 1)
+                .min("enqueuedAt", now);
+        // Change events of updates and deletes do not carry the owner, keep the one already recorded
+        if (userId != null)
+            update.set("userId", userId);
+        return notBefore != null ? update.set("notBefore", notBefore) : update.unset("notBefore");
+    }
+
+    /**
+     * Claims up to {@code batchSize} due jobs for the caller.
+     *
+     * @return The claimed jobs, all locked with the same claim token.
+     */
+    public List<EmbeddingJob> claimBatch() {
+        Instant now = Instant.now();
+        var candidates = query(claimableCriteria(now))
+                .with(Sort.by("nextAttemptAt"))
+                .limit(properties.getBatchSize());
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, EmbeddingJob.class).stream()
+                .map(EmbeddingJob::getId)
+                .toList();
+        if (ids.isEmpty())
+            return List.of();
+
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                query(new Criteria().andOperator(where("_id").in(ids), claimableCriteria(now))),
+                new Update()
+                        .set("lockedBy", claimToken)
+                        .set("lockedUntil", now.plus(properties.getLeaseDuration())),
+                EmbeddingJob.class);
+        return mongoTemplate.find(query(where("lockedBy").is(claimToken)), EmbeddingJob.class);
+    }
+
+    private Criteria claimableCriteria(Instant now) {
+        return new Criteria().andOperator(
+                where("status").is(EmbeddingJobStatus.PENDING).and("nextAttemptAt").lte(now),
+                new Criteria().orOperator(
+                        where("notBefore").is(null),
+                        where("notBefore").lte(now),
+                        where("enqueuedAt").lte(now.minus(properties.getMaxDebounceDelay()))),
+                new Criteria().orOperator(where("lockedUntil").is(null), where("lockedUntil").lt(now)));
+    }
+
+    /**
+     * Marks jobs as done. A job that was re-enqueued while it was being processed only has its lock released,
+     * so the newer version is picked up by the next batch.
+     */
+    public void complete(List<EmbeddingJob> jobs) {
+        if (jobs.isEmpty())
+            return;
+        Instant now = Instant.now();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmbeddingJob.class);
+        jobs.forEach(job -> bulkOps.updateOne(
+                query(where("_id").is(job.getId())
+                        .and("lockedBy").is(job.getLockedBy())
+                        .and("version").is(job.getVersion())),
+                new Update()
+                        .set("status", EmbeddingJobStatus.DONE)
+                        .set("completedAt", now)
+                        .unset("enqueuedAt")
+                        .unset("lockedBy")
+                        .unset("lockedUntil")));
+        bulkOps.execute();
+        releaseLocks(jobs);
+        completedCounter.increment(jobs.size());
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or dead-letters jobs that ran out of attempts.
+     */
+    public void fail(List<EmbeddingJob> jobs, Exception error) {
+        if (jobs.isEmpty())
+            return;
+        Instant now = Instant.now();
+        String message = String.valueOf(error.getMessage());
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmbeddingJob.class);
+        for (EmbeddingJob job : jobs) {
+            int attempts = job.getAttempts() + 1;
+            var update = new Update()
+                    .set("attempts", attempts)
+                    .set("lastError", message)
+                    .unset("lockedBy")
+                    .unset("lockedUntil");
+            if (attempts >= properties.getMaxAttempts()) {
+                update.set("status", EmbeddingJobStatus.FAILED);
+                deadLetteredCounter.increment();
+                log.error("Embedding job for journal {} failed after {} attempts: {}", job.getJournalId(), attempts, message);
+            } else {
+                update.set("nextAttemptAt", now.plus(backoff(attempts)));
+                retriedCounter.increment();
+            }
+            bulkOps.updateOne(query(where("_id").is(job.getId())
+                    .and("lockedBy").is(job.getLockedBy())
+                    .and("version").is(job.getVersion())), update);
+        }
+        bulkOps.execute();
+        releaseLocks(jobs);
+    }
+
+    private void releaseLocks(List<EmbeddingJob> jobs) {
+        mongoTemplate.updateMulti(query(where("lockedBy").is(jobs.getFirst().getLockedBy())),
+                new Update().unset("lockedBy").unset("lockedUntil"), EmbeddingJob.class);
+    }
+
+    Duration backoff(int attempts) {
+        long initialMillis = properties.getInitialBackoff().toMillis();
+        long maxMillis = properties.getMaxBackoff().toMillis();
+        long exponential = initialMillis << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxMillis);
+        // Full jitter on the upper half so a burst of failures does not retry in lockstep
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    /**
+     * Refreshes the queue depth and lag gauges.
+     */
+    public void refreshMetrics() {
+        pendingJobs.set(embeddingJobRepository.countByStatus(EmbeddingJobStatus.PENDING));
+        failedJobs.set(embeddingJobRepository.countByStatus(EmbeddingJobStatus.FAILED));
+        lagSeconds.set(embeddingJobRepository.findFirstByStatusOrderByEnqueuedAtAsc(EmbeddingJobStatus.PENDING)
+                .map(EmbeddingJob::getEnqueuedAt)
+                .map(enqueuedAt -> Math.max(0, Duration.between(enqueuedAt, Instant.now()).toSeconds()))
+                .orElse(0L));
+    }
+}
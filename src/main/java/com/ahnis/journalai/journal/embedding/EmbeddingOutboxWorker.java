@@ -0,0 +1,105 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.journal.config.EmbeddingOutboxProperties;
+import com.ahnis.journalai.journal.entity.EmbeddingJob;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+import com.ahnis.journalai.journal.repository.JournalRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the embedding outbox.
+ * <p>
+ * Every tick starts {@code workers} parallel loops on a shared virtual thread executor. Each loop claims a
+ * batch, embeds all journals of the batch with a single vector store write and acknowledges the jobs, until
+ * the queue is empty.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingOutboxWorker {
+    private final EmbeddingOutboxService embeddingOutboxService;
+    private final JournalEmbeddingService journalEmbeddingService;
+    private final JournalRepository journalRepository;
+    private final EmbeddingOutboxProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Scheduled(fixedDelayString = "${journal.embedding.outbox.poll-interval:PT2S}")
+    public void drain() {
+        var loops = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            loops.add(CompletableFuture.runAsync(this::drainUntilEmpty, executor));
+        }
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+        embeddingOutboxService.refreshMetrics();
+    }
+
+    private void drainUntilEmpty() {
+        List<EmbeddingJob> batch;
+        while (!(batch = embeddingOutboxService.claimBatch()).isEmpty()) {
+            processBatch(batch);
+        }
+    }
+
+    /**
+     * Embeds and acknowledges a batch. When the batch fails, its jobs are retried one by one so a single bad
+     * journal only fails its own job instead of the whole batch.
+     */
+    void processBatch(List<EmbeddingJob> batch) {
+        try {
+            embed(batch);
+            embeddingOutboxService.complete(batch);
+            log.debug("Processed embedding batch of {} jobs", batch.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                log.warn("Embedding job for journal {} failed: {}", batch.getFirst().getJournalId(), e.getMessage());
+                embeddingOutboxService.fail(batch, e);
+                return;
+            }
+            log.warn("Embedding batch of {} jobs failed, retrying them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(job -> processBatch(List.of(job)));
+        }
+    }
+
+    private void embed(List<EmbeddingJob> batch) {
+        Map<EmbeddingJobType, List<EmbeddingJob>> byType = batch.stream()
+                .collect(Collectors.groupingBy(EmbeddingJob::getType));
+        List<String> upsertIds = ids(byType.getOrDefault(EmbeddingJobType.UPSERT, List.of()));
+        List<String> deleteIds = new ArrayList<>(ids(byType.getOrDefault(EmbeddingJobType.DELETE, List.of())));
+
+        Map<String, Journal> journals = journalRepository.findAllById(upsertIds).stream()
+                .collect(Collectors.toMap(Journal::getId, Function.identity()));
+        // A journal deleted after its upsert was enqueued only needs its vectors removed
+        upsertIds.stream()
+                .filter(id -> !journals.containsKey(id))
+                .forEach(deleteIds::add);
+
+        if (!deleteIds.isEmpty())
+            journalEmbeddingService.deleteJournalEmbeddings(deleteIds);
+        if (!journals.isEmpty())
+            journalEmbeddingService.saveJournalEmbeddings(List.copyOf(journals.values()));
+    }
+
+    private static List<String> ids(List<EmbeddingJob> jobs) {
+        return jobs.stream().map(EmbeddingJob::getJournalId).toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,16 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+
+/**
+ * A journal write that needs vector store work, as read from the journals change stream.
+ *
+ * @param userId    Owner of the journal, {@code null} when the event does not carry it.
+ * @param debounced Whether the write was an autosave, whose re-embed waits for the debounce window.
+ */
+public record JournalChange(String journalId, String userId, EmbeddingJobType type, boolean debounced) {
+
+    JournalChange withUserIdOf(JournalChange earlier) {
+        return userId != null ? this : new JournalChange(journalId, earlier.userId(), type, debounced);
+    }
+}
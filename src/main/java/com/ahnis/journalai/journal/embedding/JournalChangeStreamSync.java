@@ -0,0 +1,236 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.ahnis.journalai.journal.config.JournalChangeStreamProperties;
+import com.ahnis.journalai.journal.entity.ChangeStreamCheckpoint;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the vector store in sync with the journals collection by tailing its change stream.
+ * <p>
+ * Inserts, replacements, deletes and updates that touch embedded fields are turned into embedding outbox jobs,
+ * one bulk write per batch of events, and the outbox workers do the embedding with their usual retries. Because
+ * the jobs are derived from the committed writes, a journal write can no longer succeed without its vector
+ * work being recorded, and request threads never wait for the outbox.
+ * </p>
+ * <p>
+ * The resume token is persisted after every applied batch, so a restart continues where the stream stopped and
+ * replays at most one batch, which is harmless because enqueueing is idempotent. If the token has fallen off
+ * the oplog, the stream starts over from now and a vector store backfill re-embeds every journal.
+ * </p>
+ * <p>
+ * Only the node holding the {@value #LOCK_NAME} lock tails the stream, the others stand by and take over once
+ * its lease runs out. Against a standalone Mongo, which has no change streams, the sync disables itself at
+ * startup so journal writes go back to enqueueing their own jobs.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "journal.embedding.change-stream", name = "enabled", havingValue = "true")
+public class JournalChangeStreamSync {
+    static final String STREAM_ID = "journals-embedding";
+    static final String LOCK_NAME = "journalChangeStream";
+    // Fields that end up in chunk text or metadata, other updates leave the vectors as they are
+    private static final Set<String> EMBEDDED_FIELDS = Set.of("content", "userId", "createdAt");
+    // Only set by autosave patches
+    private static final String AUTOSAVE_FIELD = "autosavedAt";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final EmbeddingOutboxService embeddingOutboxService;
+    private final VectorStoreBackfillService vectorStoreBackfillService;
+    private final JournalChangeStreamProperties properties;
+    private final SchedulerLockService schedulerLockService;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("journal-change-stream").factory());
+    private volatile boolean running = true;
+    private boolean backfillPending;
+
+    /**
+     * Turns the sync off when Mongo is not a replica set, before any journal write depends on it.
+     */
+    @PostConstruct
+    void checkReplicaSet() {
+        Document hello = mongoTemplate.executeCommand(new Document("hello", 1));
+        if (hello.getString("setName") == null) {
+            log.error("Mongo is not a replica set, so change stream {} cannot run; journal writes enqueue their embedding jobs instead", STREAM_ID);
+            properties.setEnabled(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.isEnabled())
+            executor.execute(this::run);
+    }
+
+    private void run() {
+        while (running) {
+            boolean tailed = schedulerLockService.runLocked(LOCK_NAME, this::tailWhileHeld);
+            if (!tailed && !pause(properties.getStandbyInterval()))
+                return;
+        }
+    }
+
+    private void tailWhileHeld(SchedulerLease lease) {
+        while (running && lease.isHeld()) {
+            try {
+                tail(lease);
+            } catch (MongoException e) {
+                if (!running)
+                    return;
+                if (e.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.error("Resume token of change stream {} is no longer in the oplog, re-embedding all journals", STREAM_ID);
+                    mongoTemplate.remove(ChangeStreamCheckpoint.builder().id(STREAM_ID).build());
+                    backfillPending = true;
+                    continue;
+                }
+                log.warn("Change stream {} failed, reopening in {}: {}", STREAM_ID, properties.getRetryDelay(), e.getMessage());
+                if (!pause(properties.getRetryDelay()))
+                    return;
+            } catch (Exception e) {
+                log.error("Change stream {} failed, reopening in {}", STREAM_ID, properties.getRetryDelay(), e);
+                if (!pause(properties.getRetryDelay()))
+                    return;
+            }
+        }
+    }
+
+    private void tail(SchedulerLease lease) {
+        ChangeStreamCheckpoint checkpoint = mongoTemplate.findById(STREAM_ID, ChangeStreamCheckpoint.class);
+        BsonDocument savedToken = checkpoint != null ? BsonDocument.parse(checkpoint.getResumeToken()) : null;
+        var stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Journal.class))
+                .watch(List.of(Aggregates.match(Filters.in("operationType", "insert", "replace", "update", "delete"))))
+                .batchSize(properties.getBatchSize())
+                .maxAwaitTime(properties.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        if (savedToken != null)
+            stream.resumeAfter(savedToken);
+
+        try (var cursor = stream.cursor()) {
+            log.info("Tailing change stream {}{}", STREAM_ID, savedToken != null ? " from its checkpoint" : "");
+            if (backfillPending) {
+                // Started after the stream is open, so no write falls between the two
+                vectorStoreBackfillService.startBackfill();
+                backfillPending = false;
+            }
+            Instant savedAt = Instant.now();
+            // Stops once the lease is lost, the node that took the lock over resumes from the checkpoint
+            while (running && lease.isHeld()) {
+                var batch = new ArrayList<ChangeStreamDocument<Document>>();
+                ChangeStreamDocument<Document> event;
+                while (batch.size() < properties.getBatchSize() && (event = cursor.tryNext()) != null) {
+                    batch.add(event);
+                }
+                apply(batch);
+
+                // Advances on idle polls as well, which keeps a quiet stream's token inside the oplog window
+                BsonDocument token = cursor.getResumeToken();
+                if (token == null || token.equals(savedToken))
+                    continue;
+                if (!batch.isEmpty() || Duration.between(savedAt, Instant.now()).compareTo(properties.getCheckpointInterval()) >= 0) {
+                    mongoTemplate.save(new ChangeStreamCheckpoint(STREAM_ID, token.toJson(), Instant.now()));
+                    savedToken = token;
+                    savedAt = Instant.now();
+                }
+            }
+        }
+    }
+
+    /**
+     * Enqueues the embedding jobs of a batch of events, keeping only the last change of every journal.
+     */
+    void apply(List<ChangeStreamDocument<Document>> batch) {
+        Map<String, JournalChange> changes = new LinkedHashMap<>();
+        for (var event : batch) {
+            JournalChange change = toChange(event);
+            if (change != null)
+                changes.merge(change.journalId(), change, (earlier, later) -> later.withUserIdOf(earlier));
+        }
+        embeddingOutboxService.enqueueChanges(changes.values());
+        if (!changes.isEmpty())
+            log.debug("Enqueued {} journal changes from {} change events", changes.size(), batch.size());
+    }
+
+    private static JournalChange toChange(ChangeStreamDocument<Document> event) {
+        String journalId = id(event.getDocumentKey().get("_id"));
+        return switch (event.getOperationType()) {
+            case INSERT, REPLACE -> new JournalChange(journalId, userId(event.getFullDocument()), EmbeddingJobType.UPSERT, false);
+            case UPDATE -> touchesEmbeddedFields(event.getUpdateDescription())
+                    ? new JournalChange(journalId, null, EmbeddingJobType.UPSERT, isAutosave(event.getUpdateDescription()))
+                    : null;
+            case DELETE -> new JournalChange(journalId, null, EmbeddingJobType.DELETE, false);
+            default -> null;
+        };
+    }
+
+    private static boolean touchesEmbeddedFields(UpdateDescription description) {
+        var fields = new ArrayList<String>();
+        if (description.getUpdatedFields() != null)
+            fields.addAll(description.getUpdatedFields().keySet());
+        if (description.getRemovedFields() != null)
+            fields.addAll(description.getRemovedFields());
+        return fields.stream().anyMatch(field -> EMBEDDED_FIELDS.contains(field.split("\\.")[0]));
+    }
+
+    private static boolean isAutosave(UpdateDescription description) {
+        return description.getUpdatedFields() != null && description.getUpdatedFields().containsKey(AUTOSAVE_FIELD);
+    }
+
+    private static String id(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private static String userId(Document journal) {
+        if (journal == null)
+            return null;
+        Object userId = journal.get("userId");
+        return userId instanceof ObjectId objectId ? objectId.toHexString() : (String) userId;
+    }
+
+    private boolean pause(Duration delay) {
+        try {
+            Thread.sleep(delay);
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,173 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.journal.config.ChunkingProperties;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits journal text into chunks along paragraph and sentence boundaries.
+ * <p>
+ * The text is cut into sentences, and paragraphs are kept whole whenever they fit into the chunk that is being
+ * filled. Sentences longer than a whole chunk fall back to word boundaries. Every chunk after the first starts
+ * with the last sentences of the previous one, up to {@code overlap} tokens, and a final chunk below
+ * {@code minChunkSize} is folded into the one before it, which may then exceed the chunk size by that much.
+ * Chunks are cut from the original text, so line breaks and punctuation survive.
+ * </p>
+ * <p>
+ * The chunker holds no per-call state and is shared by all embedding workers.
+ * </p>
+ */
+@Component
+public class JournalChunker {
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern WORD = Pattern.compile("\\S+");
+
+    private final ChunkingProperties properties;
+    private final ToIntFunction<String> tokenCounter;
+
+    public JournalChunker(ChunkingProperties properties) {
+        this(properties, Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    private JournalChunker(ChunkingProperties properties, Encoding encoding) {
+        this(properties, encoding::countTokens);
+    }
+
+    JournalChunker(ChunkingProperties properties, ToIntFunction<String> tokenCounter) {
+        if (properties.getChunkSize() <= 0 || properties.getOverlap() < 0 || properties.getOverlap() >= properties.getChunkSize())
+            throw new IllegalArgumentException("Chunk overlap must be between 0 and the chunk size");
+        this.properties = properties;
+        this.tokenCounter = tokenCounter;
+    }
+
+    public List<String> split(String text) {
+        if (text == null || text.isBlank())
+            return List.of();
+        List<Span> spans = spans(text);
+        int chunkSize = properties.getChunkSize();
+        if (tokens(spans, 0, spans.size()) <= chunkSize)
+            return List.of(text.strip());
+
+        // Chunks as [from, to) ranges over the spans, filled greedily
+        List<int[]> chunks = new ArrayList<>();
+        int from = 0;
+        while (from < spans.size()) {
+            int to = from;
+            int size = 0;
+            while (to < spans.size()) {
+                int paragraphEnd = paragraphEnd(spans, to);
+                int paragraphTokens = tokens(spans, to, paragraphEnd);
+                if (size + paragraphTokens <= chunkSize) {
+                    size += paragraphTokens;
+                    to = paragraphEnd;
+                } else if (size + spans.get(to).tokens() <= chunkSize || to == from) {
+                    size += spans.get(to).tokens();
+                    to++;
+                } else {
+                    break;
+                }
+            }
+            chunks.add(new int[]{from, to});
+            if (to == spans.size())
+                break;
+            from = overlapStart(spans, from, to);
+        }
+
+        // Fold a tiny last chunk into the previous one when both fit together
+        if (chunks.size() > 1) {
+            int[] last = chunks.getLast();
+            int[] previous = chunks.get(chunks.size() - 2);
+            if (tokens(spans, previous[1], last[1]) < properties.getMinChunkSize()
+                    && tokens(spans, previous[0], last[1]) <= chunkSize + properties.getMinChunkSize()) {
+                chunks.removeLast();
+                previous[1] = last[1];
+            }
+        }
+        return chunks.stream()
+                .map(chunk -> text.substring(spans.get(chunk[0]).start(), spans.get(chunk[1] - 1).end()).strip())
+                .toList();
+    }
+
+    /**
+     * First span of the next chunk: as many trailing sentences of the current chunk as fit into the overlap,
+     * leaving room for the sentence at {@code to} so that every chunk adds new text.
+     */
+    private int overlapStart(List<Span> spans, int from, int to) {
+        int budget = Math.min(properties.getOverlap(), properties.getChunkSize() - spans.get(to).tokens());
+        int start = to;
+        int size = 0;
+        while (start - 1 > from && size + spans.get(start - 1).tokens() <= budget) {
+            size += spans.get(--start).tokens();
+        }
+        return start;
+    }
+
+    private List<Span> spans(String text) {
+        List<Span> spans = new ArrayList<>();
+        int paragraphStart = 0;
+        Matcher paragraphBreak = PARAGRAPH_BREAK.matcher(text);
+        while (paragraphStart < text.length()) {
+            int paragraphEnd = paragraphBreak.find() ? paragraphBreak.start() : text.length();
+            addSentences(text, paragraphStart, paragraphEnd, spans);
+            paragraphStart = paragraphEnd == text.length() ? paragraphEnd : paragraphBreak.end();
+        }
+        return spans;
+    }
+
+    private void addSentences(String text, int start, int end, List<Span> spans) {
+        int firstSentence = spans.size();
+        var sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+        sentences.setText(text.substring(start, end));
+        for (int from = sentences.first(), to = sentences.next(); to != BreakIterator.DONE; from = to, to = sentences.next()) {
+            String sentence = text.substring(start + from, start + to);
+            if (sentence.isBlank())
+                continue;
+            int tokens = tokenCounter.applyAsInt(sentence);
+            if (tokens <= properties.getChunkSize())
+                spans.add(new Span(start + from, start + to, tokens, false));
+            else
+                addWords(text, start + from, start + to, spans);
+        }
+        if (spans.size() > firstSentence)
+            spans.set(spans.size() - 1, spans.getLast().endingParagraph());
+    }
+
+    // Only sentences longer than a chunk get here, a whole chunk of words is far from a single word
+    private void addWords(String text, int start, int end, List<Span> spans) {
+        Matcher word = WORD.matcher(text).region(start, end);
+        while (word.find()) {
+            spans.add(new Span(word.start(), word.end(), tokenCounter.applyAsInt(" " + word.group()), false));
+        }
+    }
+
+    private static int paragraphEnd(List<Span> spans, int from) {
+        int to = from;
+        while (!spans.get(to).paragraphEnd())
+            to++;
+        return to + 1;
+    }
+
+    private static int tokens(List<Span> spans, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += spans.get(i).tokens();
+        }
+        return sum;
+    }
+
+    private record Span(int start, int end, int tokens, boolean paragraphEnd) {
+        Span endingParagraph() {
+            return new Span(start, end, tokens, true);
+        }
+    }
+}
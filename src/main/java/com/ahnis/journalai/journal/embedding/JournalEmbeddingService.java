@@ -1,71 +1,163 @@
 package com.ahnis.journalai.journal.embedding;
 
+import com.ahnis.journalai.common.config.vectorstore.InstrumentedVectorStoreConfig;
 import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import com.ahnis.journalai.journal.repository.JournalChunkRepository;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Writes journal chunks to the vector store.
+ * <p>
+ * Methods work on whole batches so that the vector store can pack the chunks of many journals into as few
+ * embedding requests as the configured {@link org.springframework.ai.embedding.BatchingStrategy} allows.
+ * Failures are propagated to the caller, which is responsible for retrying.
+ * </p>
+ * <p>
+ * Chunks are content addressed: the chunk id is derived from the journal id and the hash of the chunk text.
+ * Re-embedding an edited journal only sends new or changed chunks to the embedding model, unchanged chunks
+ * keep their existing vectors and chunks that disappeared are deleted. Every chunk id is recorded in the
+ * {@link JournalChunk} registry before it reaches the vector store, so updates and deletes can always remove
+ * the complete set of chunks of a journal.
+ * </p>
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class JournalEmbeddingService {
+    static final int DELETE_BATCH_SIZE = 500;
+
+    @Qualifier(InstrumentedVectorStoreConfig.EMBEDDING)
     private final VectorStore vectorStore;
+    private final JournalChunkRepository journalChunkRepository;
+    private final JournalChunker journalChunker;
 
-    @Async
-    public void saveJournalEmbeddings(Journal journal) {
-
-        try {
-            var document = new Document(
-                    journal.getId(),
-                    journal.getContent(),
-                    Map.of(
-                            "title", journal.getTitle(),
-                            "userId", journal.getUserId(),
-                            "createdAt", journal.getCreatedAt(),
-                            "modifiedAt", journal.getModifiedAt()
-
-                    )
-            );
-            var textSplitter = new TokenTextSplitter();
-            var splitDocuments = textSplitter.apply(List.of(document));
-            log.info("Adding document {} ", document);
-            vectorStore.add(splitDocuments);
-
-            log.info("Added document {} ", document);
-
-        } catch (Exception e) {
-            log.error("Failed to save journal embedding {} error {} ", journal, e);
-        }
+    public void saveJournalEmbeddings(List<Journal> journals) {
+        save(journals, false);
+    }
+
+    /**
+     * Embeds every chunk of the journals again, including chunks the registry lists as embedded. Used to fill a
+     * new collection, or one whose chunks were lost, in which the registry cannot be trusted.
+     */
+    public void rebuildJournalEmbeddings(List<Journal> journals) {
+        save(journals, true);
     }
 
-    @Async
-    public void updateJournalEmbeddings(Journal journal) {
-        try {
-            deleteJournalEmbeddings(journal.getId());
-            saveJournalEmbeddings(journal);
-            log.info("Updated embeddings for journal {} ", journal);
-        } catch (Exception e) {
-            log.error("Failed to update journal embedding {} error {} ", journal, e);
+    private void save(List<Journal> journals, boolean rebuild) {
+        var ids = journals.stream().map(Journal::getId).toList();
+        Map<String, JournalChunk> previousChunks = journalChunkRepository.findByJournalIdIn(ids).stream()
+                .collect(Collectors.toMap(JournalChunk::getId, Function.identity()));
+
+        List<Document> chunks = journals.stream()
+                .flatMap(journal -> split(journal).stream())
+                .toList();
+        List<Document> freshChunks = chunks.stream()
+                .filter(chunk -> rebuild || !isEmbedded(previousChunks.get(chunk.getId())))
+                .toList();
+
+        if (!freshChunks.isEmpty()) {
+            // Register first: a crash after this point leaves pending registry rows, never untracked vectors
+            Instant now = Instant.now();
+            journalChunkRepository.saveAll(freshChunks.stream().map(chunk -> toChunk(chunk, now, false)).toList());
+            // A pending chunk may have reached the vector store before a previous attempt failed, and a rebuilt
+            // chunk may still be there
+            var retriedIds = freshChunks.stream()
+                    .map(Document::getId)
+                    .filter(previousChunks::containsKey)
+                    .toList();
+            if (!retriedIds.isEmpty())
+                vectorStore.delete(retriedIds);
+            vectorStore.add(freshChunks);
+            journalChunkRepository.saveAll(freshChunks.stream().map(chunk -> toChunk(chunk, now, true)).toList());
         }
+
+        var currentIds = chunks.stream().map(Document::getId).collect(Collectors.toSet());
+        removeChunks(previousChunks.values().stream()
+                .filter(chunk -> !currentIds.contains(chunk.getId()))
+                .toList());
+        log.info("Embedded {} new chunks and reused {} for {} journals",
+                freshChunks.size(), chunks.size() - freshChunks.size(), journals.size());
+    }
+
+    public void deleteJournalEmbeddings(List<String> journalIds) {
+        removeChunks(journalChunkRepository.findByJournalIdIn(journalIds));
+        log.info("Deleted embeddings for journals {}", journalIds);
     }
 
-    @Async
-    public void deleteJournalEmbeddings(String journalId) {
-        try {
-            // Delete embeddings by userId and journalId
-            vectorStore.delete(List.of(journalId)); // Assuming journalId is the document ID in the vector store
-            log.info("Deleted embeddings for journalId {} ", journalId);
-        } catch (Exception e) {
-            log.error("Failed to delete journal embedding for journalId {} error {} ", journalId, e);
+    /**
+     * Removes vectors by chunk id in bounded batches, then drops their registry entries.
+     */
+    void deleteChunkIds(Collection<String> chunkIds) {
+        for (List<String> batch : Lists.partition(List.copyOf(chunkIds), DELETE_BATCH_SIZE)) {
+            vectorStore.delete(batch);
         }
+        journalChunkRepository.deleteAllById(chunkIds);
     }
 
-}
+    private void removeChunks(List<JournalChunk> chunks) {
+        if (chunks.isEmpty())
+            return;
+        deleteChunkIds(chunks.stream().map(JournalChunk::getId).toList());
+    }
 
+    /**
+     * Splits a journal and gives every chunk a deterministic id. Identical paragraphs within one journal
+     * are told apart by their occurrence count.
+     */
+    private List<Document> split(Journal journal) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        return journalChunker.split(journal.getContent()).stream()
+                .map(text -> {
+                    String hash = contentHash(text);
+                    int occurrence = occurrences.merge(hash, 1, Integer::sum);
+                    String chunkId = UUID.nameUUIDFromBytes((journal.getId() + ":" + hash + ":" + occurrence)
+                            .getBytes(StandardCharsets.UTF_8)).toString();
+                    var metadata = new HashMap<>(metadata(journal));
+                    metadata.put("contentHash", hash);
+                    return new Document(chunkId, text, metadata);
+                })
+                .toList();
+    }
+
+    static String contentHash(String text) {
+        return Hashing.sha256().hashString(text, StandardCharsets.UTF_8).toString();
+    }
+
+    private static boolean isEmbedded(JournalChunk chunk) {
+        return chunk != null && chunk.isEmbedded();
+    }
+
+    // Only fields that never change with an edit, reused chunks keep the metadata they were first written with
+    private static Map<String, Object> metadata(Journal journal) {
+        return Map.of(
+                "journalId", journal.getId(),
+                "userId", journal.getUserId(),
+                "createdAt", journal.getCreatedAt()
+        );
+    }
+
+    private JournalChunk toChunk(Document chunk, Instant now, boolean embedded) {
+        return JournalChunk.builder()
+                .id(chunk.getId())
+                .journalId((String) chunk.getMetadata().get("journalId"))
+                .userId((String) chunk.getMetadata().get("userId"))
+                .contentHash((String) chunk.getMetadata().get("contentHash"))
+                .embedded(embedded)
+                .createdAt(now)
+                .build();
+    }
+}
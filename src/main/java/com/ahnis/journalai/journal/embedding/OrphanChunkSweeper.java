@@ -0,0 +1,110 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.ahnis.journalai.common.vectorstore.milvus.EmbeddedChunk;
+import com.ahnis.journalai.common.vectorstore.milvus.MilvusChunks;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import com.ahnis.journalai.journal.repository.JournalChunkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.client.MilvusClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Background job that purges vectors without a {@link JournalChunk} registry entry.
+ * <p>
+ * The collection is walked in primary key order. A chunk that carries a {@code journalId} but is not
+ * registered was left behind by an earlier update or delete and is removed. Chunks written before the
+ * registry existed carry no {@code journalId} at all; they are removed as well and every journal of their
+ * owner is re-enqueued, so those users end up with a complete, tracked set of chunks.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+// Walks the Milvus collection directly, so it only runs against Milvus
+@ConditionalOnExpression("${journal.embedding.sweeper.enabled:false} and '${vector.store.type:milvus}' == 'milvus'")
+public class OrphanChunkSweeper {
+    static final String LOCK_NAME = "sweepOrphanChunks";
+
+    private final MilvusClient milvusClient;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final JournalChunkRepository journalChunkRepository;
+    private final JournalEmbeddingService journalEmbeddingService;
+    private final EmbeddingOutboxService embeddingOutboxService;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${journal.embedding.sweeper.page-size:1000}")
+    private int pageSize;
+
+    @Scheduled(cron = "${journal.embedding.sweeper.cron}", zone = "${journal.embedding.sweeper.zone:UTC}")
+    public void sweep() {
+        schedulerLockService.runLocked(LOCK_NAME, this::sweep);
+    }
+
+    void sweep(SchedulerLease lease) {
+        log.info("Starting orphan chunk sweep of collection {}", vectorStoreProperties.activeCollectionName());
+        String lastId = "";
+        int scanned = 0;
+        int purged = 0;
+        Set<String> legacyOwners = new HashSet<>();
+        List<EmbeddedChunk> chunks;
+        while (lease.isHeld() && !(chunks = fetchPage(lastId)).isEmpty()) {
+            Set<String> chunkIds = chunks.stream().map(EmbeddedChunk::id).collect(Collectors.toSet());
+            Set<String> registered = journalChunkRepository.findAllById(chunkIds).stream()
+                    .map(JournalChunk::getId)
+                    .collect(Collectors.toSet());
+
+            List<String> orphans = new ArrayList<>();
+            for (EmbeddedChunk chunk : chunks) {
+                if (registered.contains(chunk.id()))
+                    continue;
+                orphans.add(chunk.id());
+                Map<String, Object> metadata = chunk.metadata();
+                if (!metadata.containsKey("journalId") && metadata.get("userId") != null)
+                    legacyOwners.add(metadata.get("userId").toString());
+            }
+            if (!orphans.isEmpty())
+                journalEmbeddingService.deleteChunkIds(orphans);
+
+            scanned += chunks.size();
+            purged += orphans.size();
+            lastId = chunkIds.stream().max(Comparator.naturalOrder()).orElseThrow();
+        }
+        legacyOwners.forEach(this::reenqueueJournalsOf);
+        log.info("Orphan chunk sweep finished: scanned {}, purged {}, re-enqueued journals of {} users",
+                scanned, purged, legacyOwners.size());
+    }
+
+    /**
+     * The next {@code pageSize} chunks after {@code afterId} in primary key order.
+     */
+    List<EmbeddedChunk> fetchPage(String afterId) {
+        return MilvusChunks.fetchPage(milvusClient, vectorStoreProperties.getDatabaseName(),
+                vectorStoreProperties.activeCollectionName(), afterId, pageSize, objectMapper);
+    }
+
+    private void reenqueueJournalsOf(String userId) {
+        var journalQuery = query(where("userId").is(userId));
+        journalQuery.fields().include("_id", "userId");
+        List<Journal> journals = mongoTemplate.find(journalQuery, Journal.class);
+        embeddingOutboxService.enqueueUpserts(journals);
+        log.info("Re-enqueued {} journals of user {} after purging untracked chunks", journals.size(), userId);
+    }
+}
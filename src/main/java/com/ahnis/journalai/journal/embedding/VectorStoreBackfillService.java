@@ -0,0 +1,322 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.journal.config.VectorStoreBackfillProperties;
+import com.ahnis.journalai.journal.dto.response.VectorStoreBackfillResponse;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.VectorStoreBackfill;
+import com.ahnis.journalai.journal.enums.VectorStoreBackfillStatus;
+import com.ahnis.journalai.journal.exception.VectorStoreBackfillNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Re-embeds every journal into the configured vector store collection.
+ * <p>
+ * After a change of chunking, embedding dimensions or index type, point {@code vector.store.collection-name}
+ * at a new collection and start a backfill. Journal ids are streamed in id order with a Mongo cursor and
+ * re-embedded in batches, with at most {@code concurrency} batches in flight. Writes made while the backfill
+ * runs reach the collection through the embedding outbox as usual; each batch is read again right before it is
+ * embedded, so a batch that waited for its turn never puts back the text of an edited or deleted journal.
+ * </p>
+ * <p>
+ * Batches finish out of order, so the checkpoint only advances over the longest run of finished batches. A
+ * backfill that was running when its node stopped is resumed once its lease ran out, by whichever node claims
+ * it first; the few batches past the checkpoint are embedded again, which is harmless because chunk ids are
+ * content addressed.
+ * </p>
+ * <p>
+ * A backfill is claimed with a find-and-modify that only matches while it is not leased, and every checkpoint
+ * is written only if the claim is still held, so two nodes never run the same backfill at once.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VectorStoreBackfillService {
+    private final MongoTemplate mongoTemplate;
+    private final JournalEmbeddingService journalEmbeddingService;
+    private final VectorStoreProperties vectorStoreProperties;
+    private final VectorStoreBackfillProperties properties;
+    private final NodeIdentity nodeIdentity;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Starts a backfill of the configured collection. Returns the backfill already running for it instead, and
+     * continues a failed one, or one whose node stopped, from its checkpoint.
+     */
+    public VectorStoreBackfillResponse startBackfill() {
+        String collectionName = vectorStoreProperties.activeCollectionName();
+        VectorStoreBackfill unfinished = mongoTemplate.findOne(query(where("collectionName").is(collectionName)
+                .and("status").ne(VectorStoreBackfillStatus.COMPLETED)), VectorStoreBackfill.class);
+        if (unfinished == null)
+            return toResponse(insertBackfill(collectionName));
+
+        Instant now = Instant.now();
+        boolean inProgress = unfinished.getStatus() == VectorStoreBackfillStatus.IN_PROGRESS;
+        if (inProgress && unfinished.getLockedUntil() != null && unfinished.getLockedUntil().isAfter(now))
+            return toResponse(unfinished);
+        Criteria claimable = inProgress ? leaseExpired(now) : where("status").is(VectorStoreBackfillStatus.FAILED);
+        VectorStoreBackfill claimed = claim(unfinished, claimable, now);
+        if (claimed == null)
+            return toResponse(mongoTemplate.findById(unfinished.getId(), VectorStoreBackfill.class));
+        log.info("Retrying vector store backfill {} after journal {}", claimed.getId(), claimed.getLastJournalId());
+        executor.execute(() -> run(claimed));
+        return toResponse(claimed);
+    }
+
+    private VectorStoreBackfill insertBackfill(String collectionName) {
+        Instant now = Instant.now();
+        VectorStoreBackfill backfill;
+        try {
+            backfill = mongoTemplate.insert(VectorStoreBackfill.builder()
+                    .collectionName(collectionName)
+                    .status(VectorStoreBackfillStatus.IN_PROGRESS)
+                    .totalJournals(mongoTemplate.estimatedCount(Journal.class))
+                    .lockedBy(nodeIdentity.getId())
+                    .claimId(UUID.randomUUID().toString())
+                    .lockedUntil(now.plus(properties.getLeaseDuration()))
+                    .startedAt(now)
+                    .resumedAt(now)
+                    .updatedAt(now)
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // Another node started one at the same time, the partial unique index lets only one run
+            return mongoTemplate.findOne(query(where("collectionName").is(collectionName)
+                    .and("status").is(VectorStoreBackfillStatus.IN_PROGRESS)), VectorStoreBackfill.class);
+        }
+        log.info("Starting vector store backfill {} of collection {} for about {} journals",
+                backfill.getId(), collectionName, backfill.getTotalJournals());
+        executor.execute(() -> run(backfill));
+        return backfill;
+    }
+
+    public VectorStoreBackfillResponse getBackfill(String backfillId) {
+        VectorStoreBackfill backfill = mongoTemplate.findById(backfillId, VectorStoreBackfill.class);
+        if (backfill == null)
+            throw new VectorStoreBackfillNotFoundException("Backfill not found with id: " + backfillId);
+        return toResponse(backfill);
+    }
+
+    /**
+     * Takes over backfills of the configured collection whose node stopped without finishing them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedBackfills() {
+        Instant now = Instant.now();
+        List<VectorStoreBackfill> interrupted = mongoTemplate.find(query(where("collectionName")
+                .is(vectorStoreProperties.activeCollectionName())
+                .andOperator(leaseExpired(now))), VectorStoreBackfill.class);
+        for (VectorStoreBackfill backfill : interrupted) {
+            VectorStoreBackfill claimed = claim(backfill, leaseExpired(now), now);
+            if (claimed == null)
+                continue;
+            log.info("Resuming vector store backfill {} after journal {}", claimed.getId(), claimed.getLastJournalId());
+            executor.execute(() -> run(claimed));
+        }
+    }
+
+    /**
+     * Leases the backfill to this node if it still matches {@code claimable} and nobody checkpointed it since it
+     * was read.
+     *
+     * @return The claimed backfill, or {@code null} if another node got it first.
+     */
+    VectorStoreBackfill claim(VectorStoreBackfill backfill, Criteria claimable, Instant now) {
+        try {
+            return mongoTemplate.findAndModify(
+                    query(where("_id").is(backfill.getId())
+                            .and("processedJournals").is(backfill.getProcessedJournals())
+                            .andOperator(claimable)),
+                    new Update()
+                            .set("status", VectorStoreBackfillStatus.IN_PROGRESS)
+                            .set("lockedBy", nodeIdentity.getId())
+                            .set("claimId", UUID.randomUUID().toString())
+                            .set("lockedUntil", now.plus(properties.getLeaseDuration()))
+                            .set("resumedAt", now)
+                            .set("processedAtResume", backfill.getProcessedJournals())
+                            .set("updatedAt", now)
+                            .unset("error"),
+                    FindAndModifyOptions.options().returnNew(true),
+                    VectorStoreBackfill.class);
+        } catch (DuplicateKeyException e) {
+            // Another backfill of the collection is already in progress
+            return null;
+        }
+    }
+
+    private static Criteria leaseExpired(Instant now) {
+        return where("status").is(VectorStoreBackfillStatus.IN_PROGRESS)
+                .orOperator(where("lockedUntil").is(null), where("lockedUntil").lt(now));
+    }
+
+    void run(VectorStoreBackfill backfill) {
+        var checkpoint = new Checkpoint(backfill);
+        var inFlight = new Semaphore(properties.getConcurrency());
+        var failure = new AtomicReference<Exception>();
+        try (var journals = mongoTemplate.stream(remainingJournals(backfill), Journal.class)) {
+            var batch = new ArrayList<String>(properties.getBatchSize());
+            long sequence = 0;
+            for (var iterator = journals.iterator(); iterator.hasNext() && failure.get() == null; ) {
+                batch.add(iterator.next().getId());
+                if (batch.size() == properties.getBatchSize() || !iterator.hasNext()) {
+                    List<String> journalIds = List.copyOf(batch);
+                    long batchSequence = sequence++;
+                    batch.clear();
+                    inFlight.acquire();
+                    executor.execute(() -> {
+                        try {
+                            // Read now rather than from the cursor, the outbox may have embedded newer text meanwhile
+                            List<Journal> current = findJournals(journalIds);
+                            if (!current.isEmpty())
+                                journalEmbeddingService.rebuildJournalEmbeddings(current);
+                            checkpoint.finished(batchSequence, journalIds.getLast(), journalIds.size());
+                        } catch (Exception e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            inFlight.acquire(properties.getConcurrency());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        }
+
+        if (failure.get() != null) {
+            log.error("Vector store backfill {} failed after {} journals", backfill.getId(), backfill.getProcessedJournals(), failure.get());
+            checkpoint.close(VectorStoreBackfillStatus.FAILED, failure.get().getMessage());
+        } else {
+            log.info("Vector store backfill {} re-embedded {} journals", backfill.getId(), backfill.getProcessedJournals());
+            checkpoint.close(VectorStoreBackfillStatus.COMPLETED, null);
+        }
+    }
+
+    private List<Journal> findJournals(List<String> journalIds) {
+        return mongoTemplate.find(query(where("_id").in(journalIds)), Journal.class);
+    }
+
+    private static Query remainingJournals(VectorStoreBackfill backfill) {
+        Query journals = backfill.getLastJournalId() == null
+                ? new Query()
+                : query(where("_id").gt(new ObjectId(backfill.getLastJournalId())));
+        journals.fields().include("_id");
+        return journals.with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    static VectorStoreBackfillResponse toResponse(VectorStoreBackfill backfill) {
+        Instant end = backfill.getCompletedAt() != null ? backfill.getCompletedAt() : Instant.now();
+        double seconds = Duration.between(backfill.getResumedAt(), end).toMillis() / 1000.0;
+        long processedInRun = backfill.getProcessedJournals() - backfill.getProcessedAtResume();
+        double journalsPerSecond = seconds > 0 ? processedInRun / seconds : 0;
+        long remaining = Math.max(0, backfill.getTotalJournals() - backfill.getProcessedJournals());
+        Long etaSeconds = null;
+        if (backfill.getStatus() == VectorStoreBackfillStatus.IN_PROGRESS && journalsPerSecond > 0)
+            etaSeconds = Math.round(remaining / journalsPerSecond);
+        return new VectorStoreBackfillResponse(
+                backfill.getId(),
+                backfill.getCollectionName(),
+                backfill.getStatus(),
+                backfill.getTotalJournals(),
+                backfill.getProcessedJournals(),
+                journalsPerSecond,
+                etaSeconds,
+                backfill.getStartedAt(),
+                backfill.getCompletedAt(),
+                backfill.getError()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Advances the persisted position over batches that finished, in the order they were read, and renews the
+     * lease with every batch. Throws once the lease was taken over by another node.
+     */
+    private class Checkpoint {
+        private final VectorStoreBackfill backfill;
+        private final TreeMap<Long, FinishedBatch> finished = new TreeMap<>();
+        private long next;
+
+        Checkpoint(VectorStoreBackfill backfill) {
+            this.backfill = backfill;
+        }
+
+        synchronized void finished(long sequence, String lastJournalId, int journals) {
+            finished.put(sequence, new FinishedBatch(lastJournalId, journals));
+            while (finished.containsKey(next)) {
+                FinishedBatch batch = finished.remove(next++);
+                backfill.setLastJournalId(batch.lastJournalId());
+                backfill.setProcessedJournals(backfill.getProcessedJournals() + batch.journals());
+            }
+            backfill.setUpdatedAt(Instant.now());
+            backfill.setLockedUntil(backfill.getUpdatedAt().plus(properties.getLeaseDuration()));
+            var update = new Update()
+                    .set("lastJournalId", backfill.getLastJournalId())
+                    .set("processedJournals", backfill.getProcessedJournals())
+                    .set("lockedUntil", backfill.getLockedUntil())
+                    .set("updatedAt", backfill.getUpdatedAt());
+            if (mongoTemplate.updateFirst(leased(), update, VectorStoreBackfill.class).getMatchedCount() == 0)
+                throw new IllegalStateException("Lease of backfill " + backfill.getId() + " was taken over");
+        }
+
+        synchronized void close(VectorStoreBackfillStatus status, String error) {
+            backfill.setStatus(status);
+            backfill.setError(error);
+            backfill.setUpdatedAt(Instant.now());
+            var update = new Update()
+                    .set("status", status)
+                    .set("error", error)
+                    .set("updatedAt", backfill.getUpdatedAt())
+                    .unset("lockedBy")
+                    .unset("claimId")
+                    .unset("lockedUntil");
+            if (status == VectorStoreBackfillStatus.COMPLETED) {
+                backfill.setCompletedAt(backfill.getUpdatedAt());
+                update.set("completedAt", backfill.getCompletedAt());
+            }
+            mongoTemplate.updateFirst(leased(), update, VectorStoreBackfill.class);
+        }
+
+        private Query leased() {
+            return query(where("_id").is(backfill.getId()).and("claimId").is(backfill.getClaimId()));
+        }
+    }
+
+    private record FinishedBatch(String lastJournalId, int journals) {
+    }
+}
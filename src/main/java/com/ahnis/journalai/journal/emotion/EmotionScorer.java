@@ -0,0 +1,28 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.journal.entity.EmotionScores;
+
+/**
+ * Scores journal text on happiness, sadness, anger, fear, surprise and disgust.
+ * <p>
+ * The implementation is chosen with {@code journal.emotion.scorer}. Scorers that are cheap enough score
+ * journals on the write path; the others leave them to the {@link EmotionScoringWorker}. Implementations
+ * must be safe to call concurrently.
+ * </p>
+ */
+public interface EmotionScorer {
+
+    /**
+     * @return The normalized scores of the text, or {@code null} when it could not be scored; the worker tries
+     * such journals again a limited number of times.
+     */
+    EmotionScores score(String text);
+
+    /**
+     * Scores the text of a journal that is being written, or returns {@code null} to have the worker score it
+     * later. Scorers that make remote calls must not block journal writes and autosaves on them.
+     */
+    default EmotionScores scoreOnWrite(String text) {
+        return score(text);
+    }
+}
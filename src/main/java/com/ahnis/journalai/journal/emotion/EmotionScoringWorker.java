@@ -0,0 +1,82 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.ahnis.journalai.common.util.BatchedBackfill;
+import com.ahnis.journalai.journal.config.EmotionScoringProperties;
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import com.ahnis.journalai.journal.entity.Journal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.ahnis.journalai.journal.util.JournalCriteria.revisionIs;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Scores the journals that have no emotion scores yet.
+ * <p>
+ * These are journals written before scores were stored, journals left to the worker by a scorer that does not
+ * score on the write path, and journals whose scoring failed. A pass runs on one node at a time under the
+ * {@value #LOCK_NAME} lock and reads the journals page by page, so a slow scorer never holds a cursor open. A
+ * score is only written if the journal's revision is unchanged, and a journal whose scoring failed
+ * {@code maxAttempts} times is left alone until its content changes.
+ * </p>
+ * <p>
+ * The pass runs every {@code worker-interval} also when nothing is pending, so it reads the journals through the
+ * partial {@code unscored_idx} index that only holds journals without scores.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmotionScoringWorker {
+    static final String LOCK_NAME = "scoreJournalEmotions";
+
+    private final MongoTemplate mongoTemplate;
+    private final EmotionScorer emotionScorer;
+    private final SchedulerLockService schedulerLockService;
+    private final EmotionScoringProperties properties;
+
+    @Scheduled(fixedDelayString = "${journal.emotion.worker-interval:PT1M}")
+    public void scoreUnscoredJournals() {
+        schedulerLockService.runLocked(LOCK_NAME, this::scoreUnscoredJournals);
+    }
+
+    void scoreUnscoredJournals(SchedulerLease lease) {
+        Criteria unscored = where("emotions").is(null).and("emotionAttempts").not().gte(properties.getMaxAttempts());
+        var scored = new AtomicLong();
+        long visited = BatchedBackfill.run(mongoTemplate, Journal.class, unscored, properties.getBatchSize(),
+                Journal::getId, lease::isHeld, (journal, bulkOps) -> {
+                    if (score(journal, bulkOps))
+                        scored.incrementAndGet();
+                    return true;
+                }, "content", "revision");
+        if (visited > 0)
+            log.info("Scored emotions of {} of {} unscored journals", scored.get(), visited);
+    }
+
+    /**
+     * Queues the scores of the journal, or one more failed attempt.
+     *
+     * @return Whether the journal was scored.
+     */
+    private boolean score(Journal journal, BulkOperations bulkOps) {
+        EmotionScores emotions = emotionScorer.score(journal.getContent());
+        // An edit while the journal was scored resets its scores and attempts, the next pass scores it again
+        var unchanged = query(where("_id").is(journal.getId()).andOperator(revisionIs(journal.getRevision())));
+        if (emotions != null)
+            bulkOps.updateOne(unchanged, new Update().set("emotions", emotions).set("emotionAttempts", 0));
+        else
+            bulkOps.updateOne(unchanged, new Update().inc("emotionAttempts", 1));
+        return emotions != null;
+    }
+}
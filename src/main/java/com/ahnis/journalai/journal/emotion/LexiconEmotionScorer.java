@@ -0,0 +1,102 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Scores journals locally by counting words of a small emotion lexicon.
+ * <p>
+ * Words are matched after lower casing and stripping common inflections, and a word within three words after
+ * a negation such as "not" or "never" is ignored, so "not happy" does not count as happiness. The scores are
+ * the share of each emotion among the matched words. It is crude next to a model, but free, deterministic and
+ * fast enough to run on every autosave.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "journal.emotion.scorer", havingValue = "lexicon", matchIfMissing = true)
+public class LexiconEmotionScorer implements EmotionScorer {
+    private static final Pattern WORD = Pattern.compile("[\\p{L}']+");
+    private static final int NEGATION_WINDOW = 3;
+    private static final Set<String> NEGATIONS = Set.of("not", "no", "never", "nothing", "without", "hardly",
+            "don't", "didn't", "doesn't", "isn't", "wasn't", "aren't", "weren't", "can't", "couldn't", "won't");
+
+    private static final Map<String, Set<String>> LEXICON = Map.of(
+            "happiness", Set.of("happy", "happiness", "joy", "joyful", "glad", "grateful", "thankful", "excite",
+                    "cheerful", "delight", "delighted", "content", "proud", "love", "enjoy", "fun", "smile", "laugh",
+                    "hopeful", "relieve", "calm", "peaceful", "great", "wonderful", "amazing"),
+            "sadness", Set.of("sad", "sadness", "unhappy", "cry", "tear", "lonely", "alone", "miss", "grief",
+                    "grieve", "depress", "down", "hopeless", "heartbroken", "disappoint", "empty", "lost", "hurt",
+                    "regret", "sorrow", "gloomy", "miserable", "tired", "exhaust"),
+            "anger", Set.of("angry", "anger", "mad", "furious", "rage", "annoy", "irritate", "frustrate", "hate",
+                    "resent", "bitter", "outrage", "yell", "shout", "argue", "fight", "upset"),
+            "fear", Set.of("afraid", "fear", "scare", "scared", "terrify", "anxious", "anxiety", "worry", "nervous",
+                    "panic", "dread", "stress", "overwhelm", "insecure", "uneasy", "tense", "frighten"),
+            "surprise", Set.of("surprise", "shock", "astonish", "amaze", "unexpected", "suddenly", "sudden",
+                    "stun", "startle", "wow", "unbelievable"),
+            "disgust", Set.of("disgust", "gross", "sick", "revolt", "nasty", "awful", "repulsive", "vile",
+                    "ashamed", "shame", "embarrass", "cringe")
+    );
+
+    @Override
+    public EmotionScores score(String text) {
+        if (text == null || text.isBlank())
+            return EmotionScores.NONE;
+        var counts = new HashMap<String, Integer>();
+        int negatedWords = 0;
+        var words = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (words.find()) {
+            String word = words.group();
+            if (NEGATIONS.contains(word)) {
+                negatedWords = NEGATION_WINDOW;
+                continue;
+            }
+            if (negatedWords > 0) {
+                negatedWords--;
+                continue;
+            }
+            String emotion = emotionOf(word);
+            if (emotion != null)
+                counts.merge(emotion, 1, Integer::sum);
+        }
+        return new EmotionScores(
+                counts.getOrDefault("happiness", 0),
+                counts.getOrDefault("sadness", 0),
+                counts.getOrDefault("anger", 0),
+                counts.getOrDefault("fear", 0),
+                counts.getOrDefault("surprise", 0),
+                counts.getOrDefault("disgust", 0)
+        ).normalized();
+    }
+
+    private static String emotionOf(String word) {
+        for (String form : forms(word)) {
+            for (var entry : LEXICON.entrySet()) {
+                if (entry.getValue().contains(form))
+                    return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // The word itself and the word without a common inflection, "worried" -> "worri" -> "worry"
+    private static List<String> forms(String word) {
+        String stem = word;
+        for (String suffix : new String[]{"ing", "ed", "es", "s", "ly"}) {
+            if (word.length() > suffix.length() + 2 && word.endsWith(suffix)) {
+                stem = word.substring(0, word.length() - suffix.length());
+                break;
+            }
+        }
+        if (stem.endsWith("i"))
+            stem = stem.substring(0, stem.length() - 1) + "y";
+        return List.of(word, stem, stem + "e");
+    }
+}
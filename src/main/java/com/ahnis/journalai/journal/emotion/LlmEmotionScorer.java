@@ -0,0 +1,95 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.common.ratelimit.LlmRateLimiter;
+import com.ahnis.journalai.journal.config.EmotionScoringProperties;
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Scores journals with a chat model, which reads context and sarcasm the lexicon cannot.
+ * <p>
+ * Journals are never scored on the write path, where a chat completion per autosave or imported entry would
+ * block the request; the {@link EmotionScoringWorker} scores them in the background. Every score takes one
+ * request and its prompt and completion tokens from the {@link LlmRateLimiter} shared with reports and
+ * summaries, so a backlog of unscored journals cannot use up the budget the reports need.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "journal.emotion.scorer", havingValue = "llm")
+public class LlmEmotionScorer implements EmotionScorer {
+    private final ChatModel chatModel;
+    private final EmotionScoringProperties properties;
+    private final LlmRateLimiter llmRateLimiter;
+    private final ToIntFunction<String> tokenCounter;
+    private final BeanOutputConverter<EmotionScores> outputConverter = new BeanOutputConverter<>(EmotionScores.class);
+
+    public LlmEmotionScorer(ChatModel chatModel, EmotionScoringProperties properties, LlmRateLimiter llmRateLimiter) {
+        this(chatModel, properties, llmRateLimiter,
+                Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    private LlmEmotionScorer(ChatModel chatModel, EmotionScoringProperties properties, LlmRateLimiter llmRateLimiter,
+                             Encoding encoding) {
+        this(chatModel, properties, llmRateLimiter, encoding::countTokens);
+    }
+
+    LlmEmotionScorer(ChatModel chatModel, EmotionScoringProperties properties, LlmRateLimiter llmRateLimiter,
+                     ToIntFunction<String> tokenCounter) {
+        this.chatModel = chatModel;
+        this.properties = properties;
+        this.llmRateLimiter = llmRateLimiter;
+        this.tokenCounter = tokenCounter;
+    }
+
+    @Override
+    public EmotionScores scoreOnWrite(String text) {
+        return null;
+    }
+
+    @Override
+    public EmotionScores score(String text) {
+        if (text == null || text.isBlank())
+            return EmotionScores.NONE;
+        String promptText = generatePrompt(text);
+        try {
+            llmRateLimiter.acquire(tokenCounter.applyAsInt(promptText) + properties.getMaxScoreTokens());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the LLM rate limit", e);
+        }
+        var options = ChatOptions.builder()
+                .model(properties.getModel())
+                .maxTokens(properties.getMaxScoreTokens())
+                .temperature(0.0)
+                .build();
+        try {
+            var response = chatModel.call(new Prompt(promptText, options));
+            return outputConverter.convert(response.getResult().getOutput().getText()).normalized();
+        } catch (Exception e) {
+            log.warn("Failed to score a journal with {}: {}", properties.getModel(), e.getMessage());
+            return null;
+        }
+    }
+
+    String generatePrompt(String text) {
+        return String.format("""
+                Rate how strongly the following journal entry expresses happiness, sadness, anger, fear, surprise and disgust.
+                Give each emotion its share of what the entry expresses, as a number between 0 and 1, with the shares adding up to 1.
+                Give 0 for every emotion if the entry expresses none of them.
+                Entry:
+                %s
+                """, text) + "\n" + outputConverter.getFormat();
+    }
+}
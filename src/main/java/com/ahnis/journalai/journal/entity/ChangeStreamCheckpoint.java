@@ -0,0 +1,24 @@
+package com.ahnis.journalai.journal.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Resume token of a change stream, stored as extended JSON once the events before it have been applied.
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "change_stream_checkpoints")
+public class ChangeStreamCheckpoint {
+    @Id
+    private String id;
+    private String resumeToken;
+    private Instant updatedAt;
+}
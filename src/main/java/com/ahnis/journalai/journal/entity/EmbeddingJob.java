@@ -0,0 +1,50 @@
+package com.ahnis.journalai.journal.entity;
+
+import com.ahnis.journalai.journal.enums.EmbeddingJobStatus;
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry describing pending vector store work for a single journal.
+ * <p>
+ * There is at most one job per journal: repeated writes to the same journal collapse into the existing
+ * job and bump its {@code version}, so a worker that finishes an outdated snapshot leaves the job pending.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "embedding_jobs")
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class EmbeddingJob {
+    @Id
+    private String id;
+    @Indexed(unique = true)
+    private String journalId;
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String userId;
+    private EmbeddingJobType type;
+    private EmbeddingJobStatus status;
+    private long version;
+    private int attempts;
+    // Oldest enqueue not yet processed, used for lag reporting
+    private Instant enqueuedAt;
+    private Instant nextAttemptAt;
+    // Debounce deadline for autosave edits, unset for regular writes
+    private Instant notBefore;
+    private String lockedBy;
+    private Instant lockedUntil;
+    private String lastError;
+    private Instant completedAt;
+}
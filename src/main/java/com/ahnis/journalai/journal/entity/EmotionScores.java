@@ -0,0 +1,63 @@
+package com.ahnis.journalai.journal.entity;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Strength of the six emotions a journal is scored on.
+ * <p>
+ * Every value is the share of that emotion in what the entry expresses, between 0 and 1, and the values of an
+ * emotional entry add up to 1. An entry without any recognisable emotion scores 0 on all six.
+ * </p>
+ */
+public record EmotionScores(
+        @JsonPropertyDescription("Share of happiness, between 0 and 1")
+        double happiness,
+        @JsonPropertyDescription("Share of sadness, between 0 and 1")
+        double sadness,
+        @JsonPropertyDescription("Share of anger, between 0 and 1")
+        double anger,
+        @JsonPropertyDescription("Share of fear, between 0 and 1")
+        double fear,
+        @JsonPropertyDescription("Share of surprise, between 0 and 1")
+        double surprise,
+        @JsonPropertyDescription("Share of disgust, between 0 and 1")
+        double disgust
+) {
+    public static final EmotionScores NONE = new EmotionScores(0, 0, 0, 0, 0, 0);
+
+    /**
+     * Clamps every value to [0, 1] and rescales them to add up to 1, leaving an all zero score as it is.
+     */
+    public EmotionScores normalized() {
+        double h = clamp(happiness), s = clamp(sadness), a = clamp(anger), f = clamp(fear), su = clamp(surprise), d = clamp(disgust);
+        double total = h + s + a + f + su + d;
+        if (total == 0)
+            return NONE;
+        return new EmotionScores(h / total, s / total, a / total, f / total, su / total, d / total);
+    }
+
+    /**
+     * The scores as whole percentages keyed by emotion, in the style of the key emotions of a report.
+     */
+    public Map<String, String> asPercentages() {
+        var percentages = new LinkedHashMap<String, String>();
+        percentages.put("happiness", percent(happiness));
+        percentages.put("sadness", percent(sadness));
+        percentages.put("anger", percent(anger));
+        percentages.put("fear", percent(fear));
+        percentages.put("surprise", percent(surprise));
+        percentages.put("disgust", percent(disgust));
+        return percentages;
+    }
+
+    private static double clamp(double value) {
+        return Double.isNaN(value) ? 0 : Math.clamp(value, 0.0, 1.0);
+    }
+
+    private static String percent(double value) {
+        return Math.round(value * 100) + "%";
+    }
+}
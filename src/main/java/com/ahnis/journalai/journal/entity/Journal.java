@@ -5,6 +5,7 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -20,12 +21,24 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "journals")
+@CompoundIndex(name = "user_created_id_idx", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+// Text searches always filter by owner, the userId prefix keeps them inside one user's entries
+@CompoundIndex(name = "user_text_idx", def = "{'userId': 1, 'title': 'text', 'content': 'text'}")
+// Only journals without emotion scores, which the scoring worker pages through in id order
+@CompoundIndex(name = "unscored_idx", def = "{'_id': 1, 'emotionAttempts': 1}", partialFilter = "{'emotions': null}")
 public class Journal {
 
     @Id
     private String id;
     private String title;
     private String content;
+    // Precomputed on write so list views never have to load the content
+    private String snippet;
+    private int wordCount;
+    // Scored on write by the configured EmotionScorer, aggregated into trends and reports
+    private EmotionScores emotions;
+    // Failed scoring attempts since the content last changed, the worker gives up after a few
+    private int emotionAttempts;
     @Indexed
     @CreatedDate
     private Instant createdAt;
@@ -34,5 +47,8 @@ public class Journal {
     @Indexed
     @Field(targetType = FieldType.OBJECT_ID)
     private String userId;
+    // Incremented on every content change, lets autosave clients detect concurrent edits
+    private long revision;
+    private Instant autosavedAt;
 }
 
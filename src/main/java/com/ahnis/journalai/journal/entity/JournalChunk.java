@@ -0,0 +1,38 @@
+package com.ahnis.journalai.journal.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+
+/**
+ * Registry entry for one vector store chunk of a journal.
+ * <p>
+ * The id is the document id used in the vector store, so every chunk of a journal can be removed by id
+ * without relying on the vector store's filter support. Ids are derived from the journal id and the hash
+ * of the chunk text, so an unchanged chunk keeps its id, and its vector, across edits.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "journal_chunks")
+public class JournalChunk {
+    @Id
+    private String id;
+    @Indexed
+    private String journalId;
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String userId;
+    private String contentHash;
+    // False while the chunk is registered but not yet confirmed in the vector store
+    private boolean embedded;
+    private Instant createdAt;
+}
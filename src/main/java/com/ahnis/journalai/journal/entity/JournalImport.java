@@ -0,0 +1,44 @@
+package com.ahnis.journalai.journal.entity;
+
+import com.ahnis.journalai.journal.enums.JournalImportStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a bulk journal import.
+ * <p>
+ * {@code processedEntries} counts the entries of the upload that have been handled, imported or skipped.
+ * It is persisted after every batch, so an interrupted upload can be resumed from that offset.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "journal_imports")
+public class JournalImport {
+    @Id
+    private String id;
+    @Indexed
+    @Field(targetType = FieldType.OBJECT_ID)
+    private String userId;
+    private JournalImportStatus status;
+    private long processedEntries;
+    private long importedEntries;
+    private long skippedEntries;
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+}
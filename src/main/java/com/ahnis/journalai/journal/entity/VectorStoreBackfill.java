@@ -0,0 +1,51 @@
+package com.ahnis.journalai.journal.entity;
+
+import com.ahnis.journalai.journal.enums.VectorStoreBackfillStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of re-embedding every journal into the vector store.
+ * <p>
+ * Journals are processed in id order. {@code lastJournalId} is the last journal of the longest run of finished
+ * batches and is persisted whenever that run grows, so a backfill interrupted by a crash continues after it.
+ * {@code resumedAt} and {@code processedAtResume} mark where the current run started, for its throughput.
+ * </p>
+ * <p>
+ * The node running a backfill holds a lease identified by {@code claimId} and renews it with every checkpoint.
+ * Only one backfill per collection can be in progress, and a node whose lease ran out and was taken over cannot
+ * write the checkpoints of its successor.
+ * </p>
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "vector_store_backfills")
+@CompoundIndex(name = "collection_in_progress_idx", def = "{'collectionName': 1}", unique = true,
+        partialFilter = "{'status': 'IN_PROGRESS'}")
+public class VectorStoreBackfill {
+    @Id
+    private String id;
+    private String collectionName;
+    private VectorStoreBackfillStatus status;
+    private long totalJournals;
+    private long processedJournals;
+    private String lastJournalId;
+    private String error;
+    // Node holding the lease and the claim it was taken with
+    private String lockedBy;
+    private String claimId;
+    private Instant lockedUntil;
+    private Instant startedAt;
+    private Instant resumedAt;
+    private long processedAtResume;
+    private Instant updatedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,5 @@
+package com.ahnis.journalai.journal.enums;
+
+public enum EmbeddingJobStatus {
+    PENDING, DONE, FAILED
+}
@@ -0,0 +1,7 @@
+package com.ahnis.journalai.journal.enums;
+
+public enum VectorStoreBackfillStatus {
+    IN_PROGRESS,
+    COMPLETED,
+    FAILED
+}
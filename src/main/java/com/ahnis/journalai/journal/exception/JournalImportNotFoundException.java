@@ -0,0 +1,7 @@
+package com.ahnis.journalai.journal.exception;
+
+public class JournalImportNotFoundException extends RuntimeException {
+    public JournalImportNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ahnis.journalai.journal.exception;
+
+public class JournalRevisionConflictException extends RuntimeException {
+    public JournalRevisionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ahnis.journalai.journal.exception;
+
+public class VectorStoreBackfillNotFoundException extends RuntimeException {
+    public VectorStoreBackfillNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package com.ahnis.journalai.journal.mapper;
 
 import com.ahnis.journalai.journal.dto.request.JournalRequest;
 import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.dto.response.JournalSummaryResponse;
 import com.ahnis.journalai.journal.entity.Journal;
 import org.mapstruct.*;
 
@@ -14,6 +15,12 @@ public interface JournalMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "modifiedAt", ignore = true)
+    @Mapping(target = "revision", ignore = true)
+    @Mapping(target = "autosavedAt", ignore = true)
+    @Mapping(target = "snippet", ignore = true)
+    @Mapping(target = "wordCount", ignore = true)
+    @Mapping(target = "emotions", ignore = true)
+    @Mapping(target = "emotionAttempts", ignore = true)
     @Mapping(target = "userId", source = "userId")
     Journal toEntity(JournalRequest dto, String userId);
 
@@ -24,6 +31,9 @@ public interface JournalMapper {
     @Mapping(target = "createdAt", source = "createdAt")
     @Mapping(target = "modifiedAt", source = "modifiedAt")
     @Mapping(target = "userId", source = "userId")
+    @Mapping(target = "revision", source = "revision")
     JournalResponse toDto(Journal journal);
 
+    JournalSummaryResponse toSummary(Journal journal);
+
 }
@@ -0,0 +1,15 @@
+package com.ahnis.journalai.journal.repository;
+
+import com.ahnis.journalai.journal.entity.EmbeddingJob;
+import com.ahnis.journalai.journal.enums.EmbeddingJobStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface EmbeddingJobRepository extends MongoRepository<EmbeddingJob, String> {
+    long countByStatus(EmbeddingJobStatus status);
+
+    Optional<EmbeddingJob> findFirstByStatusOrderByEnqueuedAtAsc(EmbeddingJobStatus status);
+
+    Optional<EmbeddingJob> findByJournalId(String journalId);
+}
@@ -0,0 +1,11 @@
+package com.ahnis.journalai.journal.repository;
+
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface JournalChunkRepository extends MongoRepository<JournalChunk, String> {
+    List<JournalChunk> findByJournalIdIn(Collection<String> journalIds);
+}
@@ -0,0 +1,10 @@
+package com.ahnis.journalai.journal.repository;
+
+import com.ahnis.journalai.journal.entity.JournalImport;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface JournalImportRepository extends MongoRepository<JournalImport, String> {
+    Optional<JournalImport> findByIdAndUserId(String id, String userId);
+}
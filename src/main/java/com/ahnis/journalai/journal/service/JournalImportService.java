@@ -0,0 +1,229 @@
+package com.ahnis.journalai.journal.service;
+
+import com.ahnis.journalai.journal.config.JournalChangeStreamProperties;
+import com.ahnis.journalai.journal.dto.request.JournalImportEntry;
+import com.ahnis.journalai.journal.dto.response.JournalImportResponse;
+import com.ahnis.journalai.journal.embedding.EmbeddingOutboxService;
+import com.ahnis.journalai.journal.emotion.EmotionScorer;
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.JournalImport;
+import com.ahnis.journalai.journal.enums.JournalImportStatus;
+import com.ahnis.journalai.journal.exception.JournalImportNotFoundException;
+import com.ahnis.journalai.journal.repository.JournalImportRepository;
+import com.ahnis.journalai.journal.util.JournalTextUtils;
+import com.ahnis.journalai.user.service.JournalingActivityService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports journals from an NDJSON upload.
+ * <p>
+ * The upload is parsed one entry at a time and written in unordered bulk inserts of {@link #BATCH_SIZE}
+ * journals, so memory use does not depend on the size of the upload. Embeddings are queued on the outbox with
+ * one bulk write per batch instead of one call per entry.
+ * </p>
+ * <p>
+ * Progress is stored after every batch. An interrupted import is resumed by uploading again with its
+ * {@code importId}; {@code offset} says at which entry the new upload starts, and entries that were already
+ * processed are skipped. Journal ids are derived from the import id and entry position, so a batch that was
+ * written just before the interruption is not duplicated.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JournalImportService {
+    static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final JournalImportRepository journalImportRepository;
+    private final EmbeddingOutboxService embeddingOutboxService;
+    private final JournalChangeStreamProperties changeStreamProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final JournalingActivityService journalingActivityService;
+    private final EmotionScorer emotionScorer;
+
+    public JournalImportResponse importJournals(String userId, InputStream body, String importId, long offset) throws IOException {
+        JournalImport journalImport = importId == null ? start(userId) : findImport(importId, userId);
+        long processed = journalImport.getProcessedEntries();
+        if (offset < 0 || offset > processed)
+            throw new IllegalArgumentException("Offset must be between 0 and the " + processed + " entries already processed");
+        journalImport.setStatus(JournalImportStatus.IN_PROGRESS);
+        journalImport.setCompletedAt(null);
+
+        long position = offset;
+        List<Journal> batch = new ArrayList<>(BATCH_SIZE);
+        try (MappingIterator<JournalImportEntry> entries = objectMapper.readerFor(JournalImportEntry.class).readValues(body)) {
+            for (; entries.hasNextValue(); position++) {
+                JournalImportEntry entry;
+                try {
+                    entry = entries.nextValue();
+                } catch (JsonMappingException e) {
+                    if (position >= processed)
+                        skip(journalImport, position, e.getOriginalMessage());
+                    continue;
+                }
+                if (position < processed)
+                    continue;
+
+                if (entry == null) {
+                    skip(journalImport, position, "empty entry");
+                    continue;
+                }
+                var violations = validator.validate(entry);
+                if (violations.isEmpty())
+                    batch.add(toJournal(entry, userId, journalImport, position, emotionScorer.scoreOnWrite(entry.content())));
+                else
+                    skip(journalImport, position, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .collect(Collectors.joining(", ")));
+
+                if (position + 1 - journalImport.getProcessedEntries() >= BATCH_SIZE)
+                    flush(journalImport, batch, position + 1);
+            }
+            flush(journalImport, batch, position);
+            journalImport.setStatus(JournalImportStatus.COMPLETED);
+            journalImport.setCompletedAt(Instant.now());
+        } catch (JsonParseException e) {
+            // The rest of the upload cannot be parsed, keep what was read so far and let the client resume
+            flush(journalImport, batch, position);
+            addError(journalImport, "Entry " + position + ": malformed JSON, " + e.getOriginalMessage());
+            journalImport.setStatus(JournalImportStatus.FAILED);
+        } catch (RuntimeException | IOException e) {
+            journalImport.setStatus(JournalImportStatus.FAILED);
+            addError(journalImport, "Import interrupted: " + e.getMessage());
+            save(journalImport);
+            throw e;
+        }
+        save(journalImport);
+        log.info("Import {} for user {} {}: {} imported, {} skipped", journalImport.getId(), userId,
+                journalImport.getStatus(), journalImport.getImportedEntries(), journalImport.getSkippedEntries());
+        return toResponse(journalImport);
+    }
+
+    public JournalImportResponse getImport(String importId, String userId) {
+        return toResponse(findImport(importId, userId));
+    }
+
+    private JournalImport start(String userId) {
+        Instant now = Instant.now();
+        return journalImportRepository.save(JournalImport.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .status(JournalImportStatus.IN_PROGRESS)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private JournalImport findImport(String importId, String userId) {
+        return journalImportRepository.findByIdAndUserId(importId, userId)
+                .orElseThrow(() -> new JournalImportNotFoundException("Import not found"));
+    }
+
+    private void flush(JournalImport journalImport, List<Journal> batch, long position) {
+        if (!batch.isEmpty()) {
+            journalImport.setImportedEntries(journalImport.getImportedEntries() + insert(batch));
+            if (!changeStreamProperties.isEnabled())
+                embeddingOutboxService.enqueueUpserts(batch);
+            // Imported days are picked up when the activity is rebuilt from the journals
+            journalingActivityService.invalidate(journalImport.getUserId());
+            batch.clear();
+        }
+        journalImport.setProcessedEntries(Math.max(position, journalImport.getProcessedEntries()));
+        save(journalImport);
+    }
+
+    private long insert(List<Journal> batch) {
+        try {
+            return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Journal.class)
+                    .insert(batch)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            // Entries written right before an interrupted import already exist under the same id
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY))
+                throw e;
+            return e.getResult().getInsertedCount() + e.getErrors().size();
+        }
+    }
+
+    private void skip(JournalImport journalImport, long position, String reason) {
+        journalImport.setSkippedEntries(journalImport.getSkippedEntries() + 1);
+        addError(journalImport, "Entry " + position + ": " + reason);
+    }
+
+    private static void addError(JournalImport journalImport, String error) {
+        if (journalImport.getErrors().size() < MAX_REPORTED_ERRORS)
+            journalImport.getErrors().add(error);
+    }
+
+    private void save(JournalImport journalImport) {
+        journalImport.setUpdatedAt(Instant.now());
+        journalImportRepository.save(journalImport);
+    }
+
+    private static Journal toJournal(JournalImportEntry entry, String userId, JournalImport journalImport, long position,
+                                     EmotionScores emotions) {
+        // Entries without a date take the start of the import, so a replayed entry gets the same id again
+        Instant createdAt = entry.createdAt() != null ? entry.createdAt() : journalImport.getStartedAt();
+        return Journal.builder()
+                .id(importedJournalId(journalImport.getId(), position, createdAt))
+                .title(entry.title())
+                .content(entry.content())
+                .snippet(JournalTextUtils.snippet(entry.content()))
+                .wordCount(JournalTextUtils.wordCount(entry.content()))
+                .emotions(emotions)
+                .userId(userId)
+                .createdAt(createdAt)
+                .modifiedAt(createdAt)
+                .build();
+    }
+
+    /**
+     * Deterministic ObjectId for an imported entry: the original creation time followed by a hash of the
+     * import id and entry position.
+     */
+    static String importedJournalId(String importId, long position, Instant createdAt) {
+        byte[] hash = Hashing.sha256().hashString(importId + ":" + position, StandardCharsets.UTF_8).asBytes();
+        return new ObjectId(ByteBuffer.allocate(12)
+                .putInt((int) createdAt.getEpochSecond())
+                .put(hash, 0, 8)
+                .array()).toHexString();
+    }
+
+    private static JournalImportResponse toResponse(JournalImport journalImport) {
+        return new JournalImportResponse(
+                journalImport.getId(),
+                journalImport.getStatus(),
+                journalImport.getProcessedEntries(),
+                journalImport.getImportedEntries(),
+                journalImport.getSkippedEntries(),
+                List.copyOf(journalImport.getErrors()));
+    }
+}
@@ -0,0 +1,211 @@
+package com.ahnis.journalai.journal.service;
+
+import com.ahnis.journalai.common.config.vectorstore.InstrumentedVectorStoreConfig;
+import com.ahnis.journalai.journal.dto.response.JournalSearchResult;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.util.JournalTextUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Hybrid search over a user's journals.
+ * <p>
+ * A Mongo text index query and a vector store similarity query run in parallel, and their rankings are merged
+ * with reciprocal rank fusion: every journal scores {@code 1 / (k + rank)} for each list it appears in. Exact
+ * keywords rank high through the text index, paraphrases through the vectors, and journals found by both rank
+ * highest. If the vector store or embedding model is unavailable, text results are returned alone.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JournalSearchService {
+    static final int RRF_K = 60;
+    static final int CANDIDATES = 50;
+    private static final int MAX_RESULTS = 50;
+    private static final int HIGHLIGHT_CONTEXT = 80;
+    private static final String TEXT = "text";
+    private static final String VECTOR = "vector";
+
+    private final MongoTemplate mongoTemplate;
+    @Qualifier(InstrumentedVectorStoreConfig.SEARCH)
+    private final VectorStore vectorStore;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public List<JournalSearchResult> search(String userId, String queryText, int limit) {
+        if (queryText == null || queryText.isBlank())
+            throw new IllegalArgumentException("Search query must not be empty");
+
+        var lexical = CompletableFuture.supplyAsync(() -> lexicalSearch(userId, queryText), executor);
+        var semantic = CompletableFuture.supplyAsync(() -> semanticSearch(userId, queryText), executor)
+                .exceptionally(e -> {
+                    log.warn("Vector search failed, answering from the text index only: {}", e.getMessage());
+                    return List.of();
+                });
+        List<String> lexicalIds = lexical.join();
+        List<String> semanticIds = semantic.join();
+
+        Map<String, Double> scores = fuse(lexicalIds, semanticIds);
+        List<String> topIds = scores.keySet().stream()
+                .limit(Math.clamp(limit, 1, MAX_RESULTS))
+                .toList();
+        Map<String, Journal> journals = loadJournals(userId, topIds);
+        Pattern terms = termPattern(queryText);
+        return topIds.stream()
+                .map(journals::get)
+                .filter(Objects::nonNull)
+                .map(journal -> new JournalSearchResult(
+                        journal.getId(),
+                        journal.getTitle(),
+                        highlight(journal.getContent(), terms),
+                        journal.getCreatedAt(),
+                        scores.get(journal.getId()),
+                        matchedBy(journal.getId(), lexicalIds, semanticIds)))
+                .toList();
+    }
+
+    private List<String> lexicalSearch(String userId, String queryText) {
+        var textQuery = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(queryText))
+                .sortByScore()
+                .addCriteria(where("userId").is(userId))
+                .limit(CANDIDATES);
+        textQuery.fields().include("_id");
+        return mongoTemplate.find(textQuery, Journal.class).stream()
+                .map(Journal::getId)
+                .toList();
+    }
+
+    private List<String> semanticSearch(String userId, String queryText) {
+        List<Document> chunks = vectorStore.similaritySearch(SearchRequest.builder()
+                .query(queryText)
+                .topK(CANDIDATES)
+                .filterExpression("userId == '" + userId + "'")
+                .build());
+        // Several chunks of one journal can match, the journal ranks at its best chunk
+        return Optional.ofNullable(chunks).orElse(List.of()).stream()
+                .map(chunk -> chunk.getMetadata().get("journalId"))
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Reciprocal rank fusion of ranked id lists.
+     *
+     * @return Fused scores, highest first.
+     */
+    @SafeVarargs
+    static Map<String, Double> fuse(List<String>... rankings) {
+        Map<String, Double> scores = new HashMap<>();
+        for (List<String> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                scores.merge(ranking.get(rank), 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, _) -> a, LinkedHashMap::new));
+    }
+
+    private Map<String, Journal> loadJournals(String userId, List<String> ids) {
+        if (ids.isEmpty())
+            return Map.of();
+        var journalQuery = query(where("_id").in(ids).and("userId").is(userId));
+        journalQuery.fields().include("_id", "title", "content", "createdAt");
+        return mongoTemplate.find(journalQuery, Journal.class).stream()
+                .collect(Collectors.toMap(Journal::getId, Function.identity()));
+    }
+
+    private static List<String> matchedBy(String id, List<String> lexicalIds, List<String> semanticIds) {
+        var retrievers = new ArrayList<String>(2);
+        if (lexicalIds.contains(id))
+            retrievers.add(TEXT);
+        if (semanticIds.contains(id))
+            retrievers.add(VECTOR);
+        return retrievers;
+    }
+
+    /**
+     * Matches the query words and longer words starting with them, since the text index matches word stems.
+     */
+    static Pattern termPattern(String queryText) {
+        String alternatives = Arrays.stream(queryText.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> term.length() > 1)
+                .distinct()
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        if (alternatives.isEmpty())
+            return null;
+        return Pattern.compile("\\b(?:" + alternatives + ")\\w*", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS);
+    }
+
+    /**
+     * Cuts an excerpt around the first matched term and marks all matches in it. Journals found only by meaning
+     * get their regular snippet.
+     */
+    static String highlight(String content, Pattern terms) {
+        String text = content == null ? "" : content.strip().replaceAll("\\s+", " ");
+        Matcher matcher = terms == null ? null : terms.matcher(text);
+        if (matcher == null || !matcher.find())
+            return HtmlUtils.htmlEscape(JournalTextUtils.snippet(text));
+
+        int start = wordStart(text, Math.max(0, matcher.start() - HIGHLIGHT_CONTEXT), matcher.start());
+        int end = wordEnd(text, Math.min(text.length(), matcher.end() + 2 * HIGHLIGHT_CONTEXT), matcher.end());
+        var excerpt = new StringBuilder(start > 0 ? "…" : "");
+        int position = start;
+        matcher.region(start, end);
+        while (matcher.find()) {
+            excerpt.append(HtmlUtils.htmlEscape(text.substring(position, matcher.start())))
+                    .append("<mark>")
+                    .append(HtmlUtils.htmlEscape(matcher.group()))
+                    .append("</mark>");
+            position = matcher.end();
+        }
+        excerpt.append(HtmlUtils.htmlEscape(text.substring(position, end)));
+        return end < text.length() ? excerpt.append("…").toString() : excerpt.toString();
+    }
+
+    // Moves the excerpt start forward to the next word, as long as that does not cut into the match
+    private static int wordStart(String text, int index, int matchStart) {
+        if (index == 0)
+            return 0;
+        int space = text.indexOf(' ', index);
+        return space < 0 || space >= matchStart ? index : space + 1;
+    }
+
+    // Moves the excerpt end back to the previous word, as long as that does not cut into the match
+    private static int wordEnd(String text, int index, int matchEnd) {
+        if (index >= text.length())
+            return text.length();
+        int space = text.lastIndexOf(' ', index);
+        return space < matchEnd ? index : space;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,16 +1,21 @@
 package com.ahnis.journalai.journal.service;
 
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.journal.dto.request.JournalPatchRequest;
 import com.ahnis.journalai.journal.dto.request.JournalRequest;
 import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.dto.response.JournalSummaryResponse;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
 
 public interface JournalService {
     void createJournal(JournalRequest dto, String userId);
-    Page<JournalResponse> getAllJournals(String userId, int page, int size);
+    Page<JournalSummaryResponse> getAllJournals(String userId, int page, int size);
+    CursorPage<JournalSummaryResponse> scrollJournals(String userId, String cursor, int size);
 
     JournalResponse getJournalById(String id, String userId);
     JournalResponse updateJournal(String id, JournalRequest dto, String userId);
+    JournalResponse patchJournal(String id, JournalPatchRequest dto, String userId);
     void deleteJournal(String id, String userId);
 }
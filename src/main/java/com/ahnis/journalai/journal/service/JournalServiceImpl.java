@@ -1,71 +1,103 @@
 package com.ahnis.journalai.journal.service;
 
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.common.util.KeysetPagination;
+import com.ahnis.journalai.journal.config.JournalChangeStreamProperties;
+import com.ahnis.journalai.journal.dto.request.JournalPatchRequest;
 import com.ahnis.journalai.journal.dto.request.JournalRequest;
 import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.dto.response.JournalSummaryResponse;
 import com.ahnis.journalai.journal.entity.Journal;
 import com.ahnis.journalai.journal.exception.JournalNotFoundException;
+import com.ahnis.journalai.journal.exception.JournalRevisionConflictException;
 import com.ahnis.journalai.journal.mapper.JournalMapper;
 import com.ahnis.journalai.journal.repository.JournalRepository;
-import com.ahnis.journalai.journal.embedding.JournalEmbeddingService;
+import com.ahnis.journalai.journal.embedding.EmbeddingOutboxService;
+import com.ahnis.journalai.journal.emotion.EmotionScorer;
+import com.ahnis.journalai.journal.util.JournalTextUtils;
+import com.ahnis.journalai.journal.util.TextDeltaUtils;
 import com.ahnis.journalai.notification.service.NotificationService;
 import com.ahnis.journalai.user.entity.User;
-import com.ahnis.journalai.user.exception.UserNotFoundException;
-import com.ahnis.journalai.user.repository.UserRepository;
+import com.ahnis.journalai.user.service.JournalingActivityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+
+import static com.ahnis.journalai.journal.util.JournalCriteria.revisionIs;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class JournalServiceImpl implements JournalService {
+    private static final Set<Integer> MILESTONES = Set.of(2, 3, 7, 14, 30);
+    // Everything a list view renders, the content stays in Mongo
+    private static final String[] SUMMARY_FIELDS = {"_id", "title", "snippet", "wordCount", "createdAt", "modifiedAt", "revision"};
+
     private final JournalRepository journalRepository;
-    private final JournalEmbeddingService journalEmbeddingService;
+    private final EmbeddingOutboxService embeddingOutboxService;
+    private final JournalChangeStreamProperties changeStreamProperties;
     private final JournalMapper journalMapper;
-    private final UserRepository userRepository;
+    private final JournalingActivityService journalingActivityService;
     private final NotificationService notificationService;
+    private final MongoTemplate mongoTemplate;
+    private final EmotionScorer emotionScorer;
 
     @Override
     @Async
     public void createJournal(JournalRequest dto, String userId) { //v2
         // Map DTO to entity
         Journal journal = journalMapper.toEntity(dto, userId);
-
-        // Save the journal and generate embeddings concurrently
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            // Submit tasks for concurrent execution
-            CompletableFuture<Journal> saveJournalFuture = CompletableFuture.supplyAsync(
-                    () -> journalRepository.save(journal), executor);
-
-            CompletableFuture<Void> saveEmbeddingsFuture = saveJournalFuture.thenAcceptAsync(
-                    savedJournal -> {
-                        journalEmbeddingService.saveJournalEmbeddings(savedJournal);
-                        updateUsersStreak(userId);
-                    }, executor);
-            // Wait for both tasks to complete
-            CompletableFuture.allOf(saveJournalFuture, saveEmbeddingsFuture).join();
+        journal.setSnippet(JournalTextUtils.snippet(journal.getContent()));
+        journal.setWordCount(JournalTextUtils.wordCount(journal.getContent()));
+        journal.setEmotions(emotionScorer.scoreOnWrite(journal.getContent()));
+
+        try {
+            var savedJournal = journalRepository.save(journal);
+            // Embeddings are produced by the outbox workers, the job survives OpenAI or Milvus outages. With the
+            // change stream sync the job is derived from the write itself and must not be enqueued here
+            if (!changeStreamProperties.isEnabled())
+                embeddingOutboxService.enqueueUpsert(savedJournal);
+            // Later entries of the same day keep the streak and must not repeat the notification
+            journalingActivityService.recordEntry(userId, savedJournal.getCreatedAt())
+                    .ifPresent(this::checkForMilestones);
         } catch (Exception e) {
             log.error("Failed to create journal: {}", e.getMessage());
         }
     }
+
     @Override
-    public Page<JournalResponse> getAllJournals(String userId, int page, int size) {
+    public Page<JournalSummaryResponse> getAllJournals(String userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")); // Optional sort
-        Page<Journal> journalPage = journalRepository.findByUserId(userId, pageable);
-        return journalPage.map(journalMapper::toDto);
+        var journalQuery = query(where("userId").is(userId)).with(pageable);
+        journalQuery.fields().include(SUMMARY_FIELDS);
+        List<Journal> journals = mongoTemplate.find(journalQuery, Journal.class);
+        Page<Journal> journalPage = PageableExecutionUtils.getPage(journals, pageable,
+                () -> mongoTemplate.count(Query.of(journalQuery).limit(-1).skip(-1), Journal.class));
+        return journalPage.map(journalMapper::toSummary);
+    }
+
+    @Override
+    public CursorPage<JournalSummaryResponse> scrollJournals(String userId, String cursor, int size) {
+        return KeysetPagination.find(mongoTemplate, where("userId").is(userId), Journal.class,
+                        "createdAt", Sort.Direction.DESC, cursor, size,
+                        Journal::getCreatedAt, Journal::getId, SUMMARY_FIELDS)
+                .map(journalMapper::toSummary);
     }
 
 
@@ -83,21 +115,82 @@ public class JournalServiceImpl implements JournalService {
                 .orElseThrow(() -> new JournalNotFoundException("Journal not found"));
         validateJournalOwnership(journal, userId);
 
-        journal.setTitle(dto.title());
-        journal.setContent(dto.content());
-        var updatedJournal = journalRepository.save(journal);
-        journalEmbeddingService.updateJournalEmbeddings(updatedJournal);
+        var update = new Update()
+                .set("title", dto.title())
+                .set("content", dto.content())
+                .set("snippet", JournalTextUtils.snippet(dto.content()))
+                .set("wordCount", JournalTextUtils.wordCount(dto.content()))
+                .set("emotions", emotionScorer.scoreOnWrite(dto.content()))
+                .set("emotionAttempts", 0)
+                .set("modifiedAt", Instant.now())
+                .inc("revision", 1);
+        // Same compare-and-set as autosave, an autosave between the read and this write is not overwritten
+        var updatedJournal = mongoTemplate.findAndModify(
+                query(where("_id").is(id).andOperator(revisionIs(journal.getRevision()))),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Journal.class);
+        if (updatedJournal == null)
+            throw new JournalRevisionConflictException("Journal was changed since revision " + journal.getRevision());
+        if (!changeStreamProperties.isEnabled())
+            embeddingOutboxService.enqueueUpsert(updatedJournal);
         return journalMapper.toDto(updatedJournal);
     }
 
+    @Override
+    public JournalResponse patchJournal(String id, JournalPatchRequest dto, String userId) {
+        Journal journal = journalRepository.findById(id)
+                .orElseThrow(() -> new JournalNotFoundException("Journal not found"));
+        validateJournalOwnership(journal, userId);
+
+        long baseRevision = dto.baseRevision() != null ? dto.baseRevision() : journal.getRevision();
+        if (baseRevision != journal.getRevision())
+            throw new JournalRevisionConflictException("Journal was changed since revision " + baseRevision);
+        String content = TextDeltaUtils.apply(journal.getContent(), dto.edits());
+        // Full updates require content, an autosave must not leave less
+        if (content.isBlank())
+            throw new IllegalArgumentException("Journal content must not be blank");
+
+        var update = new Update()
+                .set("content", content)
+                .set("snippet", JournalTextUtils.snippet(content))
+                .set("wordCount", JournalTextUtils.wordCount(content))
+                .set("emotions", emotionScorer.scoreOnWrite(content))
+                .set("emotionAttempts", 0)
+                .set("modifiedAt", Instant.now())
+                .set("autosavedAt", Instant.now())
+                .inc("revision", 1);
+        if (dto.title() != null && !dto.title().isBlank())
+            update.set("title", dto.title());
+        // Compare-and-set on the revision so two autosave loops cannot overwrite each other's deltas
+        var savedJournal = mongoTemplate.findAndModify(
+                query(where("_id").is(id).andOperator(revisionIs(baseRevision))),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Journal.class);
+        if (savedJournal == null)
+            throw new JournalRevisionConflictException("Journal was changed since revision " + baseRevision);
+
+        if (!changeStreamProperties.isEnabled())
+            embeddingOutboxService.enqueueDebouncedUpsert(savedJournal);
+        return journalMapper.toDto(savedJournal);
+    }
+
     @Override
     public void deleteJournal(String id, String userId) {
         Journal journal = journalRepository.findById(id)
                 .orElseThrow(() -> new JournalNotFoundException("Journal not found"));
         validateJournalOwnership(journal, userId);
         journalRepository.delete(journal);
-        journalEmbeddingService.deleteJournalEmbeddings(id);
-
+        if (!changeStreamProperties.isEnabled())
+            embeddingOutboxService.enqueueDelete(id, userId);
+        try {
+            journalingActivityService.removeEntry(userId, journal.getCreatedAt());
+        } catch (Exception e) {
+            // The journal is gone either way, the activity is rebuilt from the journals on next use
+            log.error("Failed to update journaling activity of user {}: {}", userId, e.getMessage());
+            journalingActivityService.invalidate(userId);
+        }
     }
 
 
@@ -107,35 +200,9 @@ public class JournalServiceImpl implements JournalService {
     }
 
 
-    private void updateUsersStreak(String userId) {
-        var user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found", userId));
-        Instant now = Instant.now();
-        Instant lastJournalEntryDate = user.getLastJournalEntryDate();
-        if (lastJournalEntryDate != null && isYesterday(lastJournalEntryDate, now)) {
-            user.setCurrentStreak(user.getCurrentStreak() + 1);
-
-        } else {
-            user.setCurrentStreak(1);
-        }
-        user.setLastJournalEntryDate(now);
-        // Update longestStreak if currentStreak exceeds it
-        if (user.getCurrentStreak() > user.getLongestStreak()) {
-            user.setLongestStreak(user.getCurrentStreak());
-        }
-        checkForMilestones(user);
-        userRepository.save(user);
-    }
-
-    private boolean isYesterday(Instant lastEntryDate, Instant now) {
-        LocalDate lastEntryLocalDate = lastEntryDate.atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate nowLocalDate = now.atZone(ZoneId.systemDefault()).toLocalDate();
-        return lastEntryLocalDate.plusDays(1).isEqual(nowLocalDate);
-    }
-
     private void checkForMilestones(User user) {
         int currentStreak = user.getCurrentStreak();
-        if (currentStreak == 2 || currentStreak == 3 || currentStreak == 7 || currentStreak == 14 || currentStreak == 30) {
+        if (MILESTONES.contains(currentStreak)) {
             sendMilestoneNotification(user, currentStreak);
         }
     }
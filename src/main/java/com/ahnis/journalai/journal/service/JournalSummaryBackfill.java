@@ -0,0 +1,44 @@
+package com.ahnis.journalai.journal.service;
+
+import com.ahnis.journalai.common.util.BatchedBackfill;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.util.JournalTextUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Fills in {@code snippet} and {@code wordCount} for journals written before they were stored, so list views
+ * never need the content. Runs once after startup and is a no-op once every journal has a snippet.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JournalSummaryBackfill {
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long updated = BatchedBackfill.run(mongoTemplate, Journal.class, where("snippet").exists(false), BATCH_SIZE,
+                Journal::getId, () -> true, (journal, bulkOps) -> {
+                    // A journal saved since the page was read already has a snippet of its current content
+                    bulkOps.updateOne(query(where("_id").is(journal.getId()).and("snippet").exists(false)), new Update()
+                            .set("snippet", JournalTextUtils.snippet(journal.getContent()))
+                            .set("wordCount", JournalTextUtils.wordCount(journal.getContent())));
+                    return true;
+                }, "content");
+        if (updated > 0)
+            log.info("Backfilled snippets for {} journals", updated);
+    }
+}
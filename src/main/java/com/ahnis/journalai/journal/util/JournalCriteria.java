@@ -0,0 +1,22 @@
+package com.ahnis.journalai.journal.util;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public final class JournalCriteria {
+
+    private JournalCriteria() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * Matches a journal still at {@code revision}, for writes that must not overwrite a newer edit.
+     */
+    public static Criteria revisionIs(long revision) {
+        // Journals written before revisions existed have no revision field
+        return revision == 0
+                ? new Criteria().orOperator(where("revision").is(0L), where("revision").exists(false))
+                : where("revision").is(revision);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ahnis.journalai.journal.util;
+
+public final class JournalTextUtils {
+    public static final int SNIPPET_LENGTH = 200;
+    private static final String ELLIPSIS = "…";
+
+    private JournalTextUtils() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * Builds the list view preview of a journal: whitespace collapsed, cut at a word boundary and never longer
+     * than {@link #SNIPPET_LENGTH} code points.
+     */
+    public static String snippet(String content) {
+        if (content == null)
+            return "";
+        String text = content.strip().replaceAll("\\s+", " ");
+        if (text.codePointCount(0, text.length()) <= SNIPPET_LENGTH)
+            return text;
+        int limit = text.offsetByCodePoints(0, SNIPPET_LENGTH - ELLIPSIS.length());
+        int wordBoundary = text.lastIndexOf(' ', limit);
+        // Fall back to a hard cut for text without spaces close to the limit
+        int end = wordBoundary > limit / 2 ? wordBoundary : limit;
+        return text.substring(0, end).stripTrailing() + ELLIPSIS;
+    }
+
+    public static int wordCount(String content) {
+        if (content == null || content.isBlank())
+            return 0;
+        return content.strip().split("\\s+").length;
+    }
+}
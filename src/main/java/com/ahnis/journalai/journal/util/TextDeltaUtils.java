@@ -0,0 +1,25 @@
+package com.ahnis.journalai.journal.util;
+
+import com.ahnis.journalai.journal.dto.request.TextEdit;
+
+import java.util.List;
+
+public final class TextDeltaUtils {
+
+    private TextDeltaUtils() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    public static String apply(String content, List<TextEdit> edits) {
+        var text = new StringBuilder(content == null ? "" : content);
+        for (TextEdit edit : edits) {
+            // Compared without adding, a huge deleteCount must not overflow past the check
+            if (edit.offset() > text.length() || edit.deleteCount() > text.length() - edit.offset()) {
+                throw new IllegalArgumentException("Edit deleting " + edit.deleteCount() + " characters at " + edit.offset()
+                        + " is outside the journal content of length " + text.length());
+            }
+            text.replace(edit.offset(), edit.offset() + edit.deleteCount(), edit.insert() == null ? "" : edit.insert());
+        }
+        return text.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package com.ahnis.journalai.user.controller;
 
 import com.ahnis.journalai.common.dto.ApiResponse;
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.journal.dto.response.VectorStoreBackfillResponse;
+import com.ahnis.journalai.journal.embedding.VectorStoreBackfillService;
 import com.ahnis.journalai.user.dto.request.UserRegistrationRequest;
 import com.ahnis.journalai.user.dto.request.UserUpdateRequest;
 import com.ahnis.journalai.user.dto.response.UserResponse;
@@ -25,6 +28,7 @@ import java.util.List;
 public class AdminController {
     private final AdminService adminService;
     private final AuthService authService;
+    private final VectorStoreBackfillService vectorStoreBackfillService;
 
     @GetMapping("/users")
     public ResponseEntity<ApiResponse<Page<UserResponse>>> getAllUsers(
@@ -35,6 +39,14 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    @GetMapping("/users/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<UserResponse> users = adminService.scrollUsers(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
 
     @PostMapping("/users")
     public ResponseEntity<ApiResponse<String>> createUsers(@RequestBody List<UserRegistrationRequest> userRegistrationRequests) {
@@ -82,4 +94,20 @@ public class AdminController {
         adminService.unlockUser(userId);
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK, "User unlocked successfully", null));
     }
+
+    /**
+     * Re-embeds every journal into the configured vector store collection in the background. Poll the returned
+     * {@code backfillId} for progress, throughput and the estimated time left.
+     */
+    @PostMapping("/vector-store/backfills")
+    public ResponseEntity<ApiResponse<VectorStoreBackfillResponse>> startVectorStoreBackfill() {
+        VectorStoreBackfillResponse backfill = vectorStoreBackfillService.startBackfill();
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(HttpStatus.ACCEPTED, "Backfill " + backfill.status().name().toLowerCase(), backfill));
+    }
+
+    @GetMapping("/vector-store/backfills/{backfillId}")
+    public ResponseEntity<ApiResponse<VectorStoreBackfillResponse>> getVectorStoreBackfill(@PathVariable String backfillId) {
+        return ResponseEntity.ok(ApiResponse.success(vectorStoreBackfillService.getBackfill(backfillId)));
+    }
 }
@@ -1,6 +1,7 @@
 package com.ahnis.journalai.user.controller;
 
 import com.ahnis.journalai.common.dto.ApiResponse;
+import com.ahnis.journalai.common.dto.CursorPage;
 import com.ahnis.journalai.user.dto.request.TherapistUpdateRequest;
 import com.ahnis.journalai.user.dto.response.TherapistClientResponse;
 import com.ahnis.journalai.user.dto.response.TherapistProfileResponse;
@@ -51,6 +52,16 @@ public class TherapistManagementController {
         return ResponseEntity.ok(ApiResponse.success(clients));
     }
 
+    @GetMapping("/clients/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<TherapistClientResponse>>> scrollMyClients(
+            @AuthenticationPrincipal Therapist therapist,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<TherapistClientResponse> clients = therapistService.scrollClients(therapist.getClientUserId(), cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(clients));
+    }
+
 
 
 }
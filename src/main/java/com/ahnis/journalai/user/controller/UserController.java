@@ -3,20 +3,26 @@ package com.ahnis.journalai.user.controller;
 
 import com.ahnis.journalai.common.dto.ApiResponse;
 import com.ahnis.journalai.user.dto.request.PreferencesRequest;
+import com.ahnis.journalai.user.dto.response.JournalingActivityResponse;
 import com.ahnis.journalai.user.dto.response.TherapistResponse;
 import com.ahnis.journalai.user.dto.response.UserResponse;
 import com.ahnis.journalai.user.dto.request.UserUpdateRequest;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.service.JournalingActivityService;
 import com.ahnis.journalai.user.service.UserService;
 import com.ahnis.journalai.user.service.impl.UserServiceImpl;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -25,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final JournalingActivityService journalingActivityService;
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(
@@ -64,4 +71,16 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(therapist));
     }
 
+    /**
+     * Days with at least one journal, for a calendar heatmap. Defaults to the last year in the user's timezone.
+     */
+    @GetMapping("/me/activity")
+    public ResponseEntity<ApiResponse<JournalingActivityResponse>> getMyActivity(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        var activity = journalingActivityService.getActivity(user.getId(), from, to);
+        return ResponseEntity.ok(ApiResponse.success(activity));
+    }
+
 }
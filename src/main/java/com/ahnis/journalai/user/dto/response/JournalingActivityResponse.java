@@ -0,0 +1,17 @@
+package com.ahnis.journalai.user.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record JournalingActivityResponse(
+        String timezone,
+        LocalDate from,
+        LocalDate to,
+        List<ActiveDays> activeDays, // Runs of consecutive days with at least one journal
+        int activeDayCount,
+        int currentStreak,
+        int longestStreak
+) {
+    public record ActiveDays(LocalDate from, LocalDate to) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.ahnis.journalai.user.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The local calendar days on which a user wrote at least one journal, stored as sorted runs of consecutive days.
+ * A user journaling daily for a year is a single run, so the document stays a few hundred bytes at most.
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "journaling_activity")
+public class JournalingActivity {
+    @Id
+    private String userId;
+
+    // Zone the days were computed in, taken from the user when the document is built
+    private String timezone;
+
+    @Builder.Default
+    private List<DayRun> runs = new ArrayList<>();
+
+    @Version
+    private Long version;
+
+    /**
+     * Consecutive active days, as inclusive epoch days.
+     */
+    public record DayRun(long start, long end) {
+        public int length() {
+            return (int) (end - start + 1);
+        }
+    }
+}
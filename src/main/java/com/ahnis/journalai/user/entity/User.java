@@ -6,6 +6,7 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -26,6 +27,7 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "users")
+@CompoundIndex(name = "username_id_idx", def = "{'username': 1, '_id': 1}")
 public class User implements UserDetails {
     @Id
     private String id;
@@ -69,6 +71,7 @@ public class User implements UserDetails {
     private int currentStreak; // Current consecutive days of journal writing
     private int longestStreak; // Longest streak achieved
     private Instant lastJournalEntryDate; // Date of the last journal entry
+    private Long activityVersion; // Version of the journaling days the streaks were derived from
 
     @Indexed
     @Field(targetType = FieldType.OBJECT_ID)
@@ -21,6 +21,7 @@ public interface UserMapper {
     @Mapping(target = "currentStreak", ignore = true) // Ignored during registration
     @Mapping(target = "longestStreak", ignore = true) // Ignored during registration
     @Mapping(target = "lastJournalEntryDate", ignore = true)
+    @Mapping(target = "activityVersion", ignore = true)
     @Mapping(target = "firstName", source = "firstName")
     @Mapping(target = "lastName", source = "lastName")
         // Ignored during registration
@@ -0,0 +1,20 @@
+package com.ahnis.journalai.user.repository;
+
+import com.ahnis.journalai.user.entity.Preferences;
+
+import java.time.Instant;
+
+/**
+ * The fields of a user needed to schedule their next report.
+ */
+public interface DueReportProjection {
+    String getId();
+
+    Instant getCreatedAt();
+
+    Instant getNextReportOn();
+
+    Instant getLastReportAt();
+
+    Preferences getPreferences();
+}
@@ -69,6 +69,10 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Update("{ '$set' : { 'lastReportAt' : ?1 } }")
     void updateLastReportAtById(String userId, Instant lastReportAt);
 
+    @Query("{ '_id' : ?0 }")
+    @Update("{ '$set' : { 'lastReportAt' : ?1, 'nextReportOn' : ?2 } }")
+    void updateReportDatesById(String userId, Instant lastReportAt, Instant nextReportOn);
+
     @Transactional
     @Query("{ 'username' : ?0 }")
     @Update("{ '$set' : { 'nextReportOn' : ?1 } }")
@@ -90,6 +94,14 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Query("{ 'preferences.remindersEnabled': ?0 }")
     List<User> findByRemindersEnabled(boolean remindersEnabled);
 
+    /**
+     * Users with the given reminder setting whose id ends in one of the hex suffixes of a shard.
+     *
+     * @see com.ahnis.journalai.common.cluster.Shard#idSuffixes()
+     */
+    @Query("{ 'preferences.remindersEnabled': ?0, '$expr': { '$in': [ { '$substrCP': [ { '$toString': '$_id' }, 22, 2 ] }, ?1 ] } }")
+    List<User> findByRemindersEnabledInShard(boolean remindersEnabled, List<String> idSuffixes);
+
 
     Page<User> findAllByIdIn(Set<String> userIds, Pageable pageable);
 
@@ -1,5 +1,8 @@
 package com.ahnis.journalai.user.scheduler;
 
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.ShardedRunService;
 import com.ahnis.journalai.notification.service.NotificationService;
 import com.ahnis.journalai.user.entity.User;
 import com.ahnis.journalai.user.repository.UserRepository;
@@ -15,14 +18,24 @@ import java.time.temporal.ChronoUnit;
 @RequiredArgsConstructor
 @Slf4j
 public class JournalingReminderScheduler {
+    static final String JOB_NAME = "remindUsersToJournal";
+
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final ShardedRunService shardedRunService;
 
     @Scheduled(cron = "${scheduler.remind-users.cron}", zone = "${scheduler.remind-users.zone}")
     public void remindUsersToJournal() {
         log.info("Running journaling reminder scheduler...");
-        userRepository.findByRemindersEnabled(true)
+        // Every node fires the cron and reminds the users of the shards it gets
+        shardedRunService.run(JOB_NAME, LocalDate.now(ZoneOffset.UTC).toString(), this::remindUsersToJournal);
+    }
+
+    private void remindUsersToJournal(Shard shard, SchedulerLease lease) {
+        userRepository.findByRemindersEnabledInShard(true, shard.idSuffixes())
                 .stream()
+                // Stop once the lease is lost instead of sending reminders next to a new holder
+                .takeWhile(_ -> lease.isHeld())
                 .filter(this::hasUserNotWrittenJournalToday)
                 .forEach(user -> {
                     notificationService.sendEmailJournalReminder(user.getEmail());
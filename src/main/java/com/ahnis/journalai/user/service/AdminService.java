@@ -1,5 +1,6 @@
 package com.ahnis.journalai.user.service;
 
+import com.ahnis.journalai.common.dto.CursorPage;
 import com.ahnis.journalai.user.dto.request.UserRegistrationRequest;
 import com.ahnis.journalai.user.dto.request.UserUpdateRequest;
 import com.ahnis.journalai.user.dto.response.UserResponse;
@@ -12,6 +13,8 @@ public interface AdminService {
     //new methods
     Page<UserResponse> getAllUsers(int page, int size);
 
+    CursorPage<UserResponse> scrollUsers(String cursor, int size);
+
     void enableUser(String userId);
 
     void disableUser(String userId);
@@ -0,0 +1,37 @@
+package com.ahnis.journalai.user.service;
+
+import com.ahnis.journalai.user.dto.response.JournalingActivityResponse;
+import com.ahnis.journalai.user.entity.User;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface JournalingActivityService {
+
+    /**
+     * Marks the local day of a new journal as active and recalculates the user's streaks from the days.
+     *
+     * @return The user with the updated streaks when the journal was the first of its day, which is when
+     * milestones count, empty otherwise.
+     */
+    Optional<User> recordEntry(String userId, Instant entryAt);
+
+    /**
+     * Marks the local day of a deleted journal as inactive when no other journal was written on it, and
+     * recalculates the user's streaks from the remaining days.
+     */
+    void removeEntry(String userId, Instant entryAt);
+
+    /**
+     * Drops the stored days so they are rebuilt from the journals on next use, for writes that bypass
+     * {@link #recordEntry} such as imports.
+     */
+    void invalidate(String userId);
+
+    /**
+     * @param from First day to include, a year before {@code to} when null.
+     * @param to   Last day to include, today in the user's timezone when null.
+     */
+    JournalingActivityResponse getActivity(String userId, LocalDate from, LocalDate to);
+}
@@ -1,5 +1,6 @@
 package com.ahnis.journalai.user.service;
 
+import com.ahnis.journalai.common.dto.CursorPage;
 import com.ahnis.journalai.user.dto.request.TherapistUpdateRequest;
 import com.ahnis.journalai.user.dto.response.TherapistClientResponse;
 import com.ahnis.journalai.user.dto.response.TherapistProfileResponse;
@@ -30,4 +31,6 @@ public interface TherapistService {
     void updateProfile(String therapistId, TherapistUpdateRequest request);
 
     Page<TherapistClientResponse> getClients(Set<String> clientUserIds, int page, int size);
+
+    CursorPage<TherapistClientResponse> scrollClients(Set<String> clientUserIds, String cursor, int size);
 }
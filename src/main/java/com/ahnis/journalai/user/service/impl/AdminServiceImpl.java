@@ -1,5 +1,7 @@
 package com.ahnis.journalai.user.service.impl;
 
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.common.util.KeysetPagination;
 import com.ahnis.journalai.user.dto.request.UserRegistrationRequest;
 import com.ahnis.journalai.user.dto.request.UserUpdateRequest;
 import com.ahnis.journalai.user.dto.response.UserResponse;
@@ -18,6 +20,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +40,7 @@ public class AdminServiceImpl implements AdminService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     @Transactional(readOnly = true)
@@ -45,6 +50,14 @@ public class AdminServiceImpl implements AdminService {
         return userPage.map(userMapper::toResponseDto);
     }
 
+    @Override
+    public CursorPage<UserResponse> scrollUsers(String cursor, int size) {
+        return KeysetPagination.find(mongoTemplate, new Criteria(), User.class,
+                        "username", Sort.Direction.ASC, cursor, size,
+                        User::getUsername, User::getId)
+                .map(userMapper::toResponseDto);
+    }
+
 
     @Override
     public void enableUser(String userId) {
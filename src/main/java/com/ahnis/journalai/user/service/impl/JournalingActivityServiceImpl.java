@@ -0,0 +1,224 @@
+package com.ahnis.journalai.user.service.impl;
+
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.user.dto.response.JournalingActivityResponse;
+import com.ahnis.journalai.user.entity.JournalingActivity;
+import com.ahnis.journalai.user.entity.JournalingActivity.DayRun;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.exception.UserNotFoundException;
+import com.ahnis.journalai.user.service.JournalingActivityService;
+import com.ahnis.journalai.user.util.DayRuns;
+import com.ahnis.journalai.user.util.UserUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Keeps the run-length set of journaling days per user.
+ * <p>
+ * The document is built once from the journals the first time it is needed, and afterwards kept up to date by
+ * journal creation and deletion. Concurrent writers are serialized with the document version and retried.
+ * </p>
+ * <p>
+ * The days are the only source of the streaks on {@link User}: whenever they change, the streaks are read from
+ * the last run and the longest run and written to the user together with the version of the days they came
+ * from. A write carrying an older version than the one already on the user is dropped, so concurrent creates
+ * and deletes cannot overwrite each other's streaks with stale ones.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JournalingActivityServiceImpl implements JournalingActivityService {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int DEFAULT_RANGE_DAYS = 365;
+    private static final int MAX_RANGE_DAYS = 3 * 366;
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<User> recordEntry(String userId, Instant entryAt) {
+        // The journal is saved already, a freshly built document leaves it out so adding its day is seen as a change
+        Change change = modify(userId, entryAt,
+                activity -> DayRuns.add(activity.getRuns(), localDay(activity, entryAt)));
+        // Later entries of an active day change neither the days nor the streaks
+        if (!change.changed() && !change.built())
+            return Optional.empty();
+        Optional<User> user = recalculateStreaks(userId, change.activity());
+        return change.changed() ? user : Optional.empty();
+    }
+
+    @Override
+    public void removeEntry(String userId, Instant entryAt) {
+        Change change = modify(userId, null, current -> {
+            ZoneId zone = UserUtils.zoneOf(current.getTimezone());
+            LocalDate day = entryAt.atZone(zone).toLocalDate();
+            // The day stays active while another journal was written on it
+            return !hasJournalOn(userId, day, zone) && DayRuns.remove(current.getRuns(), day.toEpochDay());
+        });
+        // A freshly built document never had the deleted journal, but the streaks on the user still count it
+        if (change.changed() || change.built())
+            recalculateStreaks(userId, change.activity());
+    }
+
+    @Override
+    public void invalidate(String userId) {
+        mongoTemplate.remove(query(where("_id").is(userId)), JournalingActivity.class);
+        // The rebuilt days start over at version 0
+        mongoTemplate.updateFirst(query(where("_id").is(userId)), new Update().unset("activityVersion"), User.class);
+    }
+
+    @Override
+    public JournalingActivityResponse getActivity(String userId, LocalDate from, LocalDate to) {
+        JournalingActivity activity = load(userId, null).activity();
+        ZoneId zone = UserUtils.zoneOf(activity.getTimezone());
+        LocalDate today = LocalDate.now(zone);
+        LocalDate end = to == null ? today : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_RANGE_DAYS - 1) : from;
+        if (start.isAfter(end))
+            throw new IllegalArgumentException("from must not be after to");
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS)
+            throw new IllegalArgumentException("Activity can be requested for at most " + MAX_RANGE_DAYS + " days");
+
+        List<DayRun> runs = DayRuns.between(activity.getRuns(), start.toEpochDay(), end.toEpochDay());
+        return new JournalingActivityResponse(
+                zone.getId(),
+                start,
+                end,
+                runs.stream()
+                        .map(run -> new JournalingActivityResponse.ActiveDays(
+                                LocalDate.ofEpochDay(run.start()), LocalDate.ofEpochDay(run.end())))
+                        .toList(),
+                runs.stream().mapToInt(DayRun::length).sum(),
+                DayRuns.currentStreak(activity.getRuns(), today.toEpochDay()),
+                DayRuns.longestStreak(activity.getRuns()));
+    }
+
+    /**
+     * Applies a change to the stored days, retrying when another request saved them in between.
+     *
+     * @param excluded Creation time of one journal to leave out if the document has to be built first.
+     * @param change   Changes the runs in place and tells whether anything changed.
+     */
+    private Change modify(String userId, Instant excluded, Predicate<JournalingActivity> change) {
+        boolean built = false;
+        for (int attempt = 1; ; attempt++) {
+            Loaded loaded = load(userId, excluded);
+            built |= loaded.built();
+            JournalingActivity activity = loaded.activity();
+            if (!change.test(activity))
+                return new Change(activity, false, built);
+            try {
+                return new Change(mongoTemplate.save(activity), true, built);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS)
+                    throw e;
+                log.debug("Journaling activity of user {} changed concurrently, retrying", userId);
+            }
+        }
+    }
+
+    private Loaded load(String userId, Instant excluded) {
+        JournalingActivity activity = mongoTemplate.findById(userId, JournalingActivity.class);
+        if (activity != null)
+            return new Loaded(activity, false);
+        try {
+            return new Loaded(mongoTemplate.insert(build(userId, excluded)), true);
+        } catch (DuplicateKeyException e) {
+            // Built by a concurrent request
+            return new Loaded(mongoTemplate.findById(userId, JournalingActivity.class), false);
+        }
+    }
+
+    private JournalingActivity build(String userId, Instant excluded) {
+        var userQuery = query(where("_id").is(userId));
+        userQuery.fields().include("timezone");
+        User user = mongoTemplate.findOne(userQuery, User.class);
+        if (user == null)
+            throw new UserNotFoundException("User not found", userId);
+
+        var activity = JournalingActivity.builder()
+                .userId(userId)
+                .timezone(UserUtils.zoneOf(user.getTimezone()).getId())
+                .build();
+        var journalQuery = query(where("userId").is(userId)).cursorBatchSize(CURSOR_BATCH_SIZE);
+        journalQuery.fields().include("createdAt");
+        // Mongo keeps milliseconds, the excluded time may come from an entity that was never read back
+        Instant excludedAt = excluded == null ? null : excluded.truncatedTo(ChronoUnit.MILLIS);
+        var excludedPending = new AtomicBoolean(excludedAt != null);
+        try (Stream<Journal> journals = mongoTemplate.stream(journalQuery, Journal.class)) {
+            journals.map(Journal::getCreatedAt)
+                    .filter(Objects::nonNull)
+                    .filter(createdAt -> !(createdAt.equals(excludedAt) && excludedPending.getAndSet(false)))
+                    .forEach(createdAt -> DayRuns.add(activity.getRuns(), localDay(activity, createdAt)));
+        }
+        log.info("Built journaling activity of user {}: {} runs of days", userId, activity.getRuns().size());
+        return activity;
+    }
+
+    private boolean hasJournalOn(String userId, LocalDate day, ZoneId zone) {
+        return mongoTemplate.exists(query(where("userId").is(userId)
+                .and("createdAt").gte(day.atStartOfDay(zone).toInstant()).lt(day.plusDays(1).atStartOfDay(zone).toInstant())),
+                Journal.class);
+    }
+
+    /**
+     * Writes the streaks of the saved days to the user, unless streaks of a newer version were written already.
+     *
+     * @return The updated user, empty when a concurrent change got there first.
+     */
+    private Optional<User> recalculateStreaks(String userId, JournalingActivity activity) {
+        ZoneId zone = UserUtils.zoneOf(activity.getTimezone());
+        List<DayRun> runs = activity.getRuns();
+        var update = new Update()
+                .set("currentStreak", DayRuns.currentStreak(runs, LocalDate.now(zone).toEpochDay()))
+                .set("longestStreak", DayRuns.longestStreak(runs))
+                .set("activityVersion", activity.getVersion());
+        if (runs.isEmpty())
+            update.unset("lastJournalEntryDate");
+        else
+            update.set("lastJournalEntryDate", LocalDate.ofEpochDay(runs.getLast().end()).atStartOfDay(zone).toInstant());
+        User user = mongoTemplate.findAndModify(
+                query(where("_id").is(userId).orOperator(
+                        where("activityVersion").exists(false),
+                        where("activityVersion").lt(activity.getVersion()))),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+        return Optional.ofNullable(user);
+    }
+
+    private static long localDay(JournalingActivity activity, Instant instant) {
+        return instant.atZone(UserUtils.zoneOf(activity.getTimezone())).toLocalDate().toEpochDay();
+    }
+
+    private record Loaded(JournalingActivity activity, boolean built) {
+    }
+
+    /**
+     * @param built Whether the document was built from the journals by this request, so the streaks on the user
+     *              may not match it yet.
+     */
+    private record Change(JournalingActivity activity, boolean changed, boolean built) {
+    }
+}
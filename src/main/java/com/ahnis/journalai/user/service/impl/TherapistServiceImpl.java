@@ -1,5 +1,7 @@
 package com.ahnis.journalai.user.service.impl;
 
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.common.util.KeysetPagination;
 import com.ahnis.journalai.user.dto.request.TherapistUpdateRequest;
 import com.ahnis.journalai.user.dto.response.TherapistClientResponse;
 import com.ahnis.journalai.user.dto.response.TherapistProfileResponse;
@@ -141,5 +143,13 @@ public class TherapistServiceImpl implements TherapistService {
         return clientsPage.map(therapistMapper::toClientResponse);
     }
 
+    @Override
+    public CursorPage<TherapistClientResponse> scrollClients(Set<String> clientUserIds, String cursor, int size) {
+        return KeysetPagination.find(mongoTemplate, Criteria.where("_id").in(clientUserIds), User.class,
+                        "_id", Sort.Direction.ASC, cursor, size,
+                        User::getId, User::getId)
+                .map(therapistMapper::toClientResponse);
+    }
+
 
 }
@@ -0,0 +1,117 @@
+package com.ahnis.journalai.user.util;
+
+import com.ahnis.journalai.user.entity.JournalingActivity.DayRun;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operations on sorted, non-overlapping and non-adjacent runs of epoch days. Lookups are binary searches over
+ * the runs, so their cost depends on how often a user broke a streak, not on how many journals they wrote.
+ */
+public final class DayRuns {
+
+    private DayRuns() {
+        throw new UnsupportedOperationException("Cannot initialise Utility class");
+    }
+
+    /**
+     * Marks a day as active, joining it with the runs right before and after it.
+     *
+     * @return Whether the day was not active before.
+     */
+    public static boolean add(List<DayRun> runs, long day) {
+        int index = search(runs, day);
+        if (index >= 0)
+            return false;
+        int next = -index - 1;
+        int previous = next - 1;
+        boolean joinsPrevious = previous >= 0 && runs.get(previous).end() == day - 1;
+        boolean joinsNext = next < runs.size() && runs.get(next).start() == day + 1;
+        if (joinsPrevious && joinsNext) {
+            runs.set(previous, new DayRun(runs.get(previous).start(), runs.get(next).end()));
+            runs.remove(next);
+        } else if (joinsPrevious) {
+            runs.set(previous, new DayRun(runs.get(previous).start(), day));
+        } else if (joinsNext) {
+            runs.set(next, new DayRun(day, runs.get(next).end()));
+        } else {
+            runs.add(next, new DayRun(day, day));
+        }
+        return true;
+    }
+
+    /**
+     * Marks a day as inactive, splitting the run it was part of.
+     *
+     * @return Whether the day was active before.
+     */
+    public static boolean remove(List<DayRun> runs, long day) {
+        int index = search(runs, day);
+        if (index < 0)
+            return false;
+        DayRun run = runs.get(index);
+        if (run.start() == run.end()) {
+            runs.remove(index);
+        } else if (day == run.start()) {
+            runs.set(index, new DayRun(day + 1, run.end()));
+        } else if (day == run.end()) {
+            runs.set(index, new DayRun(run.start(), day - 1));
+        } else {
+            runs.set(index, new DayRun(run.start(), day - 1));
+            runs.add(index + 1, new DayRun(day + 1, run.end()));
+        }
+        return true;
+    }
+
+    public static boolean contains(List<DayRun> runs, long day) {
+        return search(runs, day) >= 0;
+    }
+
+    /**
+     * Length of the streak that is still alive on {@code today}: the run containing today, or yesterday when
+     * today has no entry yet.
+     */
+    public static int currentStreak(List<DayRun> runs, long today) {
+        int index = search(runs, today);
+        if (index < 0)
+            index = search(runs, today - 1);
+        return index < 0 ? 0 : (int) (Math.min(runs.get(index).end(), today) - runs.get(index).start() + 1);
+    }
+
+    public static int longestStreak(List<DayRun> runs) {
+        return runs.stream().mapToInt(DayRun::length).max().orElse(0);
+    }
+
+    /**
+     * The runs overlapping {@code [from, to]}, cut to that range.
+     */
+    public static List<DayRun> between(List<DayRun> runs, long from, long to) {
+        int index = search(runs, from);
+        var result = new ArrayList<DayRun>();
+        for (int i = index >= 0 ? index : -index - 1; i < runs.size() && runs.get(i).start() <= to; i++) {
+            DayRun run = runs.get(i);
+            result.add(new DayRun(Math.max(run.start(), from), Math.min(run.end(), to)));
+        }
+        return result;
+    }
+
+    /**
+     * @return The index of the run containing the day, or {@code -(insertion point) - 1} when no run does.
+     */
+    private static int search(List<DayRun> runs, long day) {
+        int low = 0;
+        int high = runs.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            DayRun run = runs.get(middle);
+            if (run.end() < day)
+                low = middle + 1;
+            else if (run.start() > day)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -low - 1;
+    }
+}
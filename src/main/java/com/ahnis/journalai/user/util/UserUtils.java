@@ -2,7 +2,9 @@ package com.ahnis.journalai.user.util;
 
 import com.ahnis.journalai.user.enums.ReportFrequency;
 
+import java.time.DateTimeException;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
@@ -30,4 +32,17 @@ public final class UserUtils {
             }
         };
     }
+
+    /**
+     * The zone of a user's {@code timezone} field, UTC when it is missing or not a valid zone id.
+     */
+    public static ZoneId zoneOf(String timezone) {
+        if (timezone == null)
+            return ZoneOffset.UTC;
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
+    }
 }
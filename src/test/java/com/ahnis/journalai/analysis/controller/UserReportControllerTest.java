@@ -1,7 +1,11 @@
 package com.ahnis.journalai.analysis.controller;
 
+import com.ahnis.journalai.analysis.dto.EmotionTrendPoint;
 import com.ahnis.journalai.analysis.dto.MoodReportApiResponse;
+import com.ahnis.journalai.analysis.enums.TrendGranularity;
+import com.ahnis.journalai.analysis.service.EmotionTrendService;
 import com.ahnis.journalai.analysis.service.ReportService;
+import com.ahnis.journalai.journal.entity.EmotionScores;
 import com.ahnis.journalai.user.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,6 +27,7 @@ import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +46,9 @@ class UserReportControllerTest {
     @Mock
     private ReportService reportService;
 
+    @Mock
+    private EmotionTrendService emotionTrendService;
+
     @InjectMocks
     private UserReportController userReportController;
 
@@ -99,6 +107,7 @@ class UserReportControllerTest {
                 List.of("Your mood has improved", "You're handling stress better"),
                 List.of("Keep up the good work", "Try new relaxation techniques"),
                 "Every day is a new beginning.",
+                null,
                 Instant.now()
         );
     }
@@ -138,6 +147,26 @@ class UserReportControllerTest {
                 .andExpect(jsonPath("$.data.moodSummary").value(testApiResponse.moodSummary()));
     }
 
+    @Test
+    @DisplayName("Should get the emotion trend of the requested period")
+    void getEmotionTrends_ShouldReturnTrendPoints() throws Exception {
+        // Given
+        var point = new EmotionTrendPoint(Instant.parse("2025-05-05T00:00:00Z"), 3,
+                new EmotionScores(0.5, 0.25, 0, 0.25, 0, 0));
+        when(emotionTrendService.trendFor(any(User.class), eq(LocalDate.of(2025, 5, 1)), eq(LocalDate.of(2025, 5, 31)),
+                eq(TrendGranularity.WEEK))).thenReturn(List.of(point));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/reports/trends")
+                        .param("from", "2025-05-01")
+                        .param("to", "2025-05-31")
+                        .param("granularity", "WEEK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].journalCount").value(3))
+                .andExpect(jsonPath("$.data[0].averages.happiness").value(0.5))
+                .andExpect(jsonPath("$.data[0].averages.fear").value(0.25));
+    }
+
     @Test
     @DisplayName("Should get latest report successfully")
     void getLatestReport_ShouldReturnLatestReport() throws Exception {
@@ -0,0 +1,132 @@
+package com.ahnis.journalai.analysis.scheduler;
+
+import com.ahnis.journalai.analysis.config.ReportJobProperties;
+import com.ahnis.journalai.analysis.entity.ReportJob;
+import com.ahnis.journalai.analysis.enums.ReportJobStatus;
+import com.ahnis.journalai.analysis.service.ReportJobService;
+import com.ahnis.journalai.analysis.service.ReportService;
+import com.ahnis.journalai.common.ratelimit.LlmRateLimiter;
+import com.ahnis.journalai.user.entity.User;
+import com.ahnis.journalai.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobWorkerTest {
+
+    @Mock
+    private ReportJobService reportJobService;
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LlmRateLimiter llmRateLimiter;
+
+    private ReportJobWorker worker;
+
+    private User user;
+    private ReportJob job;
+
+    @BeforeEach
+    void setUp() {
+        worker = new ReportJobWorker(reportJobService, reportService, userRepository, new ReportJobProperties(), llmRateLimiter);
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        user = User.builder().id("user1").username("user1").build();
+        job = ReportJob.builder()
+                .id(ReportJob.idOf("user1", today))
+                .userId("user1")
+                .periodStart(today.minus(7, ChronoUnit.DAYS))
+                .periodEnd(today)
+                .nextReportOn(today.plus(7, ChronoUnit.DAYS))
+                .status(ReportJobStatus.RUNNING)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should generate the report, move the user's report dates in one update and complete the job")
+    void run_ShouldGenerateReport() throws Exception {
+        // Given
+        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
+        when(reportService.generateReport(eq(user), eq(job.getPeriodStart()), eq(job.getPeriodEnd()), any(BooleanSupplier.class)))
+                .thenReturn(true);
+
+        // When
+        worker.run(job);
+
+        // Then
+        verify(llmRateLimiter).acquire(new ReportJobProperties().getEstimatedTokensPerReport());
+        verify(reportService).generateReport(eq(user), eq(job.getPeriodStart()), eq(job.getPeriodEnd()), any(BooleanSupplier.class));
+        verify(userRepository).updateReportDatesById("user1", job.getPeriodEnd(), job.getNextReportOn());
+        verify(reportJobService).complete(eq(job), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Should schedule a retry and keep the user's report dates when the report fails")
+    void run_ShouldRetryFailedReport() {
+        // Given
+        var error = new RuntimeException("429 Too Many Requests");
+        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
+        doThrow(error).when(reportService).generateReport(any(User.class), any(Instant.class), any(Instant.class), any(BooleanSupplier.class));
+
+        // When
+        worker.run(job);
+
+        // Then
+        verify(reportJobService).fail(eq(job), any(Duration.class), eq(error), eq(true));
+        verify(userRepository, never()).updateReportDatesById(anyString(), any(Instant.class), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should leave a job taken over by another node alone instead of sending its report again")
+    void run_ShouldLeaveJobTakenOver() {
+        // Given
+        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
+        when(reportJobService.renewLease(job)).thenReturn(false);
+        when(reportService.generateReport(eq(user), eq(job.getPeriodStart()), eq(job.getPeriodEnd()), any(BooleanSupplier.class)))
+                .thenAnswer(invocation -> invocation.<BooleanSupplier>getArgument(3).getAsBoolean());
+
+        // When
+        worker.run(job);
+
+        // Then
+        verify(reportJobService).renewLease(job);
+        verify(userRepository, never()).updateReportDatesById(anyString(), any(Instant.class), any(Instant.class));
+        verify(reportJobService, never()).complete(any(ReportJob.class), any(Duration.class));
+        verify(reportJobService, never()).fail(any(ReportJob.class), any(Duration.class), any(Exception.class), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Should fail without retrying when the user no longer exists")
+    void run_ShouldNotRetryForDeletedUser() {
+        // Given
+        when(userRepository.findById("user1")).thenReturn(Optional.empty());
+
+        // When
+        worker.run(job);
+
+        // Then
+        verify(reportJobService).fail(eq(job), any(Duration.class), any(NoSuchElementException.class), eq(false));
+        verifyNoInteractions(reportService);
+    }
+}
@@ -1,10 +1,9 @@
 package com.ahnis.journalai.analysis.scheduler;
 
-import com.ahnis.journalai.analysis.service.ReportService;
-import com.ahnis.journalai.user.entity.Preferences;
-import com.ahnis.journalai.user.entity.User;
-import com.ahnis.journalai.user.enums.ReportFrequency;
-import com.ahnis.journalai.user.repository.UserRepository;
+import com.ahnis.journalai.analysis.service.ReportJobService;
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.ShardedRunService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,132 +15,79 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.function.BiConsumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ReportSchedulerTest {
+    private static final Shard SHARD = new Shard(3, 8);
 
     @Mock
-    private UserRepository userRepository;
+    private ReportJobService reportJobService;
 
     @Mock
-    private ReportService reportService;
+    private ShardedRunService shardedRunService;
+
+    @Mock
+    private SchedulerLease lease;
 
     @InjectMocks
     private ReportScheduler reportScheduler;
 
-    private User testUser1;
-    private User testUser2;
-    private List<User> testUsers;
-    private Instant today;
-    private Instant tomorrow;
-
     @BeforeEach
     void setUp() {
-        // Set up test dates
-        LocalDate todayDate = LocalDate.now(ZoneOffset.UTC);
-        today = todayDate.atStartOfDay(ZoneOffset.UTC).toInstant();
-        tomorrow = todayDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
-
-        // Create test preferences
-        Preferences preferences = new Preferences();
-        preferences.setReportFrequency(ReportFrequency.WEEKLY);
-
-        // Create test users
-        testUser1 = User.builder()
-                .id("user1")
-                .username("user1")
-                .email("user1@example.com")
-                .preferences(preferences)
-                .nextReportOn(today)
-                .lastReportAt(today.minus(7, ChronoUnit.DAYS))
-                .createdAt(today.minus(30, ChronoUnit.DAYS))
-                .build();
-
-        testUser2 = User.builder()
-                .id("user2")
-                .username("user2")
-                .email("user2@example.com")
-                .preferences(preferences)
-                .nextReportOn(today)
-                .lastReportAt(null) // New user with no previous report
-                .createdAt(today.minus(1, ChronoUnit.DAYS))
-                .build();
-
-        testUsers = List.of(testUser1, testUser2);
+        // This node gets a single shard of the run unless a test says otherwise
+        lenient().when(shardedRunService.run(eq(ReportScheduler.JOB_NAME), anyString(), any())).thenAnswer(invocation -> {
+            invocation.<BiConsumer<Shard, SchedulerLease>>getArgument(2).accept(SHARD, lease);
+            return 1;
+        });
     }
 
     @Test
-    @DisplayName("Should generate reports for users with reports due today")
-    void checkForReports_ShouldGenerateReportsForUsersDueToday() {
+    @DisplayName("Should enqueue report jobs for users with reports due today")
+    void checkForReports_ShouldEnqueueReportsDueToday() {
         // Given
-        when(userRepository.findByNextReportOn(any(Instant.class), any(Instant.class))).thenReturn(testUsers);
-        doNothing().when(reportService).generateReport(any(User.class), any(Instant.class), any(Instant.class));
-        doNothing().when(userRepository).updateLastReportAtById(anyString(), any(Instant.class));
-        doNothing().when(userRepository).updateNextReportOnById(anyString(), any(Instant.class));
+        LocalDate todayDate = LocalDate.now(ZoneOffset.UTC);
+        Instant today = todayDate.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant tomorrow = todayDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        when(reportJobService.enqueueDueReports(any(Instant.class), any(Instant.class), any(Shard.class))).thenReturn(2L);
 
         // When
         reportScheduler.checkForReports();
 
         // Then
-        verify(userRepository).findByNextReportOn(any(Instant.class), any(Instant.class));
-
-        // Verify report generation for user1 (existing user with previous report)
-        verify(reportService).generateReport(eq(testUser1), eq(testUser1.getLastReportAt()), eq(testUser1.getNextReportOn()));
-        verify(userRepository).updateLastReportAtById(eq(testUser1.getId()), eq(testUser1.getNextReportOn()));
-        verify(userRepository).updateNextReportOnById(eq(testUser1.getId()), any(Instant.class));
-
-        // Verify report generation for user2 (new user with no previous report)
-        verify(reportService).generateReport(eq(testUser2), eq(testUser2.getCreatedAt()), eq(testUser2.getNextReportOn()));
-        verify(userRepository).updateLastReportAtById(eq(testUser2.getId()), eq(testUser2.getNextReportOn()));
-        verify(userRepository).updateNextReportOnById(eq(testUser2.getId()), any(Instant.class));
+        verify(reportJobService).enqueueDueReports(today, tomorrow, SHARD);
+        verify(shardedRunService).run(eq(ReportScheduler.JOB_NAME), eq(todayDate.toString()), any());
+        verifyNoMoreInteractions(reportJobService);
     }
 
     @Test
-    @DisplayName("Should not generate reports when no users have reports due today")
-    void checkForReports_ShouldNotGenerateReports_WhenNoUsersDueToday() {
+    @DisplayName("Should not fail when no users have reports due today")
+    void checkForReports_ShouldHandleNoUsersDueToday() {
         // Given
-        when(userRepository.findByNextReportOn(any(Instant.class), any(Instant.class))).thenReturn(List.of());
+        when(reportJobService.enqueueDueReports(any(Instant.class), any(Instant.class), any(Shard.class))).thenReturn(0L);
 
         // When
         reportScheduler.checkForReports();
 
         // Then
-        verify(userRepository).findByNextReportOn(any(Instant.class), any(Instant.class));
-        verify(reportService, never()).generateReport(any(User.class), any(Instant.class), any(Instant.class));
-        verify(userRepository, never()).updateLastReportAtById(anyString(), any(Instant.class));
-        verify(userRepository, never()).updateNextReportOnById(anyString(), any(Instant.class));
+        verify(reportJobService).enqueueDueReports(any(Instant.class), any(Instant.class));
     }
 
     @Test
-    @DisplayName("Should handle exceptions when generating reports")
-    void checkForReports_ShouldHandleExceptions() {
+    @DisplayName("Should not enqueue reports when other nodes process every shard")
+    void checkForReports_ShouldSkipWhenNoShardIsLeft() {
         // Given
-        when(userRepository.findByNextReportOn(any(Instant.class), any(Instant.class))).thenReturn(testUsers);
-        doThrow(new RuntimeException("Test exception")).when(reportService).generateReport(eq(testUser1), any(Instant.class), any(Instant.class));
-        doNothing().when(reportService).generateReport(eq(testUser2), any(Instant.class), any(Instant.class));
-        doNothing().when(userRepository).updateLastReportAtById(anyString(), any(Instant.class));
-        doNothing().when(userRepository).updateNextReportOnById(anyString(), any(Instant.class));
+        when(shardedRunService.run(eq(ReportScheduler.JOB_NAME), anyString(), any())).thenReturn(0);
 
         // When
         reportScheduler.checkForReports();
 
         // Then
-        verify(userRepository).findByNextReportOn(any(Instant.class), any(Instant.class));
-
-        // Verify report generation attempt for user1 (which throws exception)
-        verify(reportService).generateReport(eq(testUser1), any(Instant.class), any(Instant.class));
-        verify(userRepository, never()).updateLastReportAtById(eq(testUser1.getId()), any(Instant.class));
-        verify(userRepository, never()).updateNextReportOnById(eq(testUser1.getId()), any(Instant.class));
-
-        // Verify report generation for user2 (which succeeds)
-        verify(reportService).generateReport(eq(testUser2), any(Instant.class), any(Instant.class));
-        verify(userRepository).updateLastReportAtById(eq(testUser2.getId()), any(Instant.class));
-        verify(userRepository).updateNextReportOnById(eq(testUser2.getId()), any(Instant.class));
+        verifyNoInteractions(reportJobService);
     }
 }
@@ -0,0 +1,171 @@
+package com.ahnis.journalai.analysis.service;
+
+import com.ahnis.journalai.analysis.config.DailySummaryProperties;
+import com.ahnis.journalai.analysis.entity.DailyJournalSummary;
+import com.ahnis.journalai.common.ratelimit.LlmRateLimiter;
+import com.ahnis.journalai.journal.entity.Journal;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailySummaryServiceTest {
+    private static final String USER_ID = "65c0b8dae8f5a77ac8e6e1a2";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ChatModel chatModel;
+
+    @Mock
+    private LlmRateLimiter llmRateLimiter;
+
+    private final DailySummaryProperties properties = new DailySummaryProperties();
+    private DailySummaryService dailySummaryService;
+
+    @BeforeEach
+    void setUp() {
+        // One token per word keeps the budgets in the tests readable
+        dailySummaryService = new DailySummaryService(mongoTemplate, chatModel, properties, llmRateLimiter,
+                text -> text.split("\\s+").length);
+    }
+
+    @Test
+    @DisplayName("Should reuse up to date summaries and only rewrite days whose journals changed")
+    void summariesFor_ShouldOnlyRewriteChangedDays() {
+        // Given
+        Instant firstModified = Instant.parse("2024-01-05T20:00:00Z");
+        Instant secondModified = Instant.parse("2024-01-06T21:30:00Z");
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Journal.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        activeDay("2024-01-06", 2, secondModified),
+                        activeDay("2024-01-05", 1, firstModified)), new Document()));
+        when(mongoTemplate.find(any(Query.class), eq(DailyJournalSummary.class))).thenReturn(List.of(
+                summary("2024-01-05", "Walked in the park", 1, firstModified),
+                // Written before the second journal of the day
+                summary("2024-01-06", "Quiet evening", 1, secondModified.minusSeconds(3600))));
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class))).thenReturn(List.of(
+                Journal.builder().title("Evening").content("Quiet evening at home").build(),
+                Journal.builder().title("Late").content("Argued with a friend and felt angry").build()));
+        when(chatModel.call(any(Prompt.class))).thenReturn(response("A quiet evening ended in an argument"));
+        when(mongoTemplate.save(any(DailyJournalSummary.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<DailyJournalSummary> summaries = dailySummaryService.summariesFor(USER_ID,
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-02-01T00:00:00Z"));
+
+        // Then
+        assertEquals(List.of("Walked in the park", "A quiet evening ended in an argument"),
+                summaries.stream().map(DailyJournalSummary::getSummary).toList());
+        var prompt = ArgumentCaptor.forClass(Prompt.class);
+        verify(chatModel, times(1)).call(prompt.capture());
+        assertEquals(properties.getModel(), prompt.getValue().getOptions().getModel());
+        assertTrue(prompt.getValue().getContents().contains("Argued with a friend"));
+        DailyJournalSummary rewritten = summaries.getLast();
+        assertEquals(DailyJournalSummary.idOf(USER_ID, LocalDate.parse("2024-01-06")), rewritten.getId());
+        assertEquals(2, rewritten.getJournalCount());
+        assertEquals(secondModified, rewritten.getLastModifiedAt());
+    }
+
+    @Test
+    @DisplayName("Should not call any model for a period without journals")
+    void summariesFor_ShouldReturnNothingWithoutJournals() {
+        // Given
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Journal.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        // When
+        List<DailyJournalSummary> summaries = dailySummaryService.summariesFor(USER_ID,
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-02-01T00:00:00Z"));
+
+        // Then
+        assertTrue(summaries.isEmpty());
+        verifyNoInteractions(chatModel);
+    }
+
+    @Test
+    @DisplayName("Should list the daily summaries as they are when they fit the report budget")
+    void combine_ShouldJoinSummariesWithinBudget() {
+        // Given
+        var summaries = List.of(summary("2024-01-05", "Walked in the park", 1, null),
+                summary("2024-01-06", "Quiet evening", 1, null));
+
+        // When
+        String combined = dailySummaryService.combine(summaries);
+
+        // Then
+        assertEquals("2024-01-05: Walked in the park\n2024-01-06: Quiet evening", combined);
+        verifyNoInteractions(chatModel);
+    }
+
+    @Test
+    @DisplayName("Should condense runs of consecutive days until the summaries fit the report budget")
+    void combine_ShouldCondenseLongPeriods() throws InterruptedException {
+        // Given
+        properties.setReportInputTokens(20);
+        properties.setReduceGroupTokens(15);
+        var summaries = IntStream.rangeClosed(1, 6)
+                .mapToObj(day -> summary("2024-01-0" + day, "wrote about work and sleep", 1, null))
+                .toList();
+        when(chatModel.call(any(Prompt.class))).thenReturn(response("Busy"));
+
+        // When
+        String combined = dailySummaryService.combine(summaries);
+
+        // Then
+        assertEquals("""
+                2024-01-01 to 2024-01-02: Busy
+                2024-01-03 to 2024-01-04: Busy
+                2024-01-05 to 2024-01-06: Busy""", combined);
+        verify(chatModel, times(3)).call(any(Prompt.class));
+        verify(llmRateLimiter, times(3)).acquire(anyLong());
+    }
+
+    private static Document activeDay(String day, int journalCount, Instant lastModifiedAt) {
+        return new Document("_id", day)
+                .append("journalCount", journalCount)
+                .append("lastModifiedAt", Date.from(lastModifiedAt));
+    }
+
+    private static DailyJournalSummary summary(String day, String text, int journalCount, Instant lastModifiedAt) {
+        return DailyJournalSummary.builder()
+                .id(DailyJournalSummary.idOf(USER_ID, LocalDate.parse(day)))
+                .userId(USER_ID)
+                .day(LocalDate.parse(day))
+                .summary(text)
+                .journalCount(journalCount)
+                .lastModifiedAt(lastModifiedAt)
+                .build();
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
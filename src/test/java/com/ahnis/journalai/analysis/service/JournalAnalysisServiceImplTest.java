@@ -1,6 +1,7 @@
 package com.ahnis.journalai.analysis.service;
 
 import com.ahnis.journalai.analysis.dto.MoodReportEmailResponse;
+import com.ahnis.journalai.analysis.entity.DailyJournalSummary;
 import com.ahnis.journalai.user.entity.Preferences;
 
 import com.ahnis.journalai.user.enums.Language;
@@ -19,12 +20,10 @@ import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.converter.BeanOutputConverter;
-import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.testcontainers.shaded.org.checkerframework.checker.units.qual.A;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -32,13 +31,14 @@ import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class JournalAnalysisServiceImplTest {
 
     @Mock
-    private VectorStore vectorStore;
+    private DailySummaryService dailySummaryService;
 
     @Mock
     private ChatModel chatModel;
@@ -62,13 +62,14 @@ class JournalAnalysisServiceImplTest {
 
     @Test
     void analyzeUserMood_shouldReturnCompleteMoodReport() throws ExecutionException, InterruptedException {
-        // Mock VectorStore response
-        Document doc1 = new Document("Had a great day at the park with friends");
-        Document doc2 = new Document("Feeling anxious about upcoming work deadline");
-        List<Document> mockDocuments = List.of(doc1, doc2);
+        // Mock daily summaries
+        List<DailyJournalSummary> summaries = List.of(
+                DailyJournalSummary.builder().day(LocalDate.parse("2024-01-05")).summary("Had a great day at the park with friends").build(),
+                DailyJournalSummary.builder().day(LocalDate.parse("2024-01-20")).summary("Feeling anxious about upcoming work deadline").build());
+        String combinedContent = "2024-01-05: Had a great day at the park with friends\n2024-01-20: Feeling anxious about upcoming work deadline";
 
-        when(vectorStore.similaritySearch(any(SearchRequest.class)))
-                .thenReturn(mockDocuments);
+        when(dailySummaryService.summariesFor(userId, startDate, endDate)).thenReturn(summaries);
+        when(dailySummaryService.combine(summaries)).thenReturn(combinedContent);
 
         // Mock ChatModel response
         String mockJsonResponse = """
@@ -105,8 +106,8 @@ class JournalAnalysisServiceImplTest {
         MoodReportEmailResponse result = future.get();
 
         // Verify interactions
-        verify(vectorStore, times(1)).similaritySearch(any(SearchRequest.class));
-        verify(chatModel, times(1)).call(any(Prompt.class));
+        verify(dailySummaryService, times(1)).summariesFor(userId, startDate, endDate);
+        verify(chatModel, times(1)).call(argThat((Prompt prompt) -> prompt.getContents().contains(combinedContent)));
 
         // Assert results
         assertNotNull(result);
@@ -120,9 +121,9 @@ class JournalAnalysisServiceImplTest {
 
     @Test
     void analyzeUserMood_withNoDocuments_shouldReturnEmptyReport() throws ExecutionException, InterruptedException {
-        // Mock empty VectorStore response
-        when(vectorStore.similaritySearch(any(SearchRequest.class)))
-                .thenReturn(List.of());
+        // Mock a period without journals
+        when(dailySummaryService.summariesFor(userId, startDate, endDate)).thenReturn(List.of());
+        when(dailySummaryService.combine(List.of())).thenReturn("");
 
         // Mock ChatModel response for empty input
         String mockJsonResponse = """
@@ -148,7 +149,7 @@ class JournalAnalysisServiceImplTest {
         MoodReportEmailResponse result = future.get();
 
         // Verify interactions
-        verify(vectorStore, times(1)).similaritySearch(any(SearchRequest.class));
+        verify(dailySummaryService, times(1)).summariesFor(userId, startDate, endDate);
         verify(chatModel, times(1)).call(any(Prompt.class));
 
         // Assert results
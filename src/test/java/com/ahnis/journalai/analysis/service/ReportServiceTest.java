@@ -6,6 +6,7 @@ import com.ahnis.journalai.analysis.entity.MoodReportEntity;
 import com.ahnis.journalai.analysis.exception.ReportNotFoundException;
 import com.ahnis.journalai.analysis.mapper.ReportMapper;
 import com.ahnis.journalai.analysis.repository.ReportRepository;
+import com.ahnis.journalai.journal.entity.EmotionScores;
 import com.ahnis.journalai.notification.service.NotificationService;
 import com.ahnis.journalai.user.entity.Preferences;
 import com.ahnis.journalai.user.entity.User;
@@ -49,6 +50,9 @@ class ReportServiceTest {
     @Mock
     private ReportMapper reportMapper;
 
+    @Mock
+    private EmotionTrendService emotionTrendService;
+
     @InjectMocks
     private ReportService reportService;
 
@@ -105,6 +109,7 @@ class ReportServiceTest {
                 List.of("Your mood has improved", "You're handling stress better"),
                 List.of("Keep up the good work", "Try new relaxation techniques"),
                 "Every day is a new beginning.",
+                null,
                 Instant.now()
         );
     }
@@ -122,6 +127,32 @@ class ReportServiceTest {
         verify(notificationService).sendEmailReport(testUser.getEmail(), testEmailResponse);
     }
 
+    @Test
+    @DisplayName("Should take key emotions from the journals' stored emotion scores")
+    void generateReport_ShouldUseStoredEmotionScores() {
+        // Given
+        Instant startDate = Instant.now().minus(7, java.time.temporal.ChronoUnit.DAYS);
+        Instant endDate = Instant.now();
+        var emotionScores = new EmotionScores(0.3, 0.15, 0, 0.05, 0, 0);
+
+        when(journalAnalysisService.analyzeUserMood(anyString(), anyString(), any(Preferences.class), any(Instant.class), any(Instant.class)))
+                .thenReturn(CompletableFuture.completedFuture(testEmailResponse));
+        when(emotionTrendService.averages(TEST_USER_ID, startDate, endDate)).thenReturn(emotionScores);
+        when(reportMapper.toMoodReportEntity(any(User.class), any(MoodReportEmailResponse.class))).thenReturn(testReportEntity);
+
+        // When
+        reportService.generateReport(testUser, startDate, endDate, () -> true);
+
+        // Then
+        var reportCaptor = ArgumentCaptor.forClass(MoodReportEmailResponse.class);
+        verify(reportMapper).toMoodReportEntity(eq(testUser), reportCaptor.capture());
+        assertEquals(Map.of("happiness", "60%", "sadness", "30%", "anger", "0%", "fear", "10%",
+                "surprise", "0%", "disgust", "0%"), reportCaptor.getValue().keyEmotions());
+        assertEquals(testEmailResponse.moodSummary(), reportCaptor.getValue().moodSummary());
+        assertEquals(emotionScores, testReportEntity.getEmotionScores());
+        verify(notificationService).sendEmailReport(testUser.getEmail(), reportCaptor.getValue());
+    }
+
     @Test
     @DisplayName("Should generate report successfully")
     void generateReport_ShouldGenerateAndSaveReport() {
@@ -136,7 +167,7 @@ class ReportServiceTest {
         doNothing().when(notificationService).sendEmailReport(anyString(), any(MoodReportEmailResponse.class));
 
         // When
-        reportService.generateReport(testUser, startDate, endDate);
+        reportService.generateReport(testUser, startDate, endDate, () -> true);
 
         // Then
         verify(journalAnalysisService).analyzeUserMood(testUser.getId(), testUser.getUsername(), testUser.getPreferences(), startDate, endDate);
@@ -145,6 +176,24 @@ class ReportServiceTest {
         verify(notificationService).sendEmailReport(testUser.getEmail(), testEmailResponse);
     }
 
+    @Test
+    @DisplayName("Should neither save nor send the report once its job was taken over")
+    void generateReport_ShouldSkipReport_WhenNoLongerOwned() {
+        // Given
+        Instant startDate = Instant.now().minus(7, java.time.temporal.ChronoUnit.DAYS);
+        Instant endDate = Instant.now();
+
+        when(journalAnalysisService.analyzeUserMood(anyString(), anyString(), any(Preferences.class), any(Instant.class), any(Instant.class)))
+                .thenReturn(CompletableFuture.completedFuture(testEmailResponse));
+
+        // When
+        boolean sent = reportService.generateReport(testUser, startDate, endDate, () -> false);
+
+        // Then
+        assertFalse(sent);
+        verifyNoInteractions(reportRepository, notificationService);
+    }
+
     @Test
     @DisplayName("Should get all reports by user ID successfully")
     void getAllReportsByUserId_ShouldReturnPageOfReports() {
@@ -0,0 +1,55 @@
+package com.ahnis.journalai.common.cluster;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardTest {
+
+    @Test
+    @DisplayName("Should split the id suffixes into disjoint shards covering every id")
+    void idSuffixes_ShouldPartitionAllIds() {
+        // Given
+        int count = 10;
+
+        // When
+        var suffixes = IntStream.range(0, count)
+                .mapToObj(index -> new Shard(index, count).idSuffixes())
+                .toList();
+
+        // Then
+        var all = new HashSet<String>();
+        suffixes.forEach(all::addAll);
+        assertEquals(256, all.size());
+        assertEquals(256, suffixes.stream().mapToInt(List::size).sum());
+        assertTrue(suffixes.stream().allMatch(shard -> shard.size() == 25 || shard.size() == 26));
+    }
+
+    @Test
+    @DisplayName("Should place an object id in the shard whose suffixes match it")
+    void of_ShouldMatchIdSuffixes() {
+        for (int i = 0; i < 100; i++) {
+            // Given
+            String id = new ObjectId().toHexString();
+
+            // When
+            Shard shard = Shard.of(id, 7);
+
+            // Then
+            assertTrue(shard.idSuffixes().contains(id.substring(22)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject shards outside the count")
+    void constructor_ShouldRejectInvalidShards() {
+        assertThrows(IllegalArgumentException.class, () -> new Shard(4, 4));
+        assertThrows(IllegalArgumentException.class, () -> new Shard(0, 257));
+    }
+}
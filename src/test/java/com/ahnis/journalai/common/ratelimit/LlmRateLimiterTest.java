@@ -0,0 +1,87 @@
+package com.ahnis.journalai.common.ratelimit;
+
+import com.ahnis.journalai.common.config.LlmRateLimitProperties;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmRateLimiterTest {
+    private static final Instant NOW = Instant.parse("2025-05-01T10:15:42Z");
+    private static final long WINDOW_START = Instant.parse("2025-05-01T10:15:00Z").getEpochSecond();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private LlmRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LlmRateLimiter(mongoTemplate, new LlmRateLimitProperties(), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should take permits from the current minute's window while it has room")
+    void tryAcquire_ShouldCountPermitsInCurrentWindow() {
+        // When
+        boolean acquired = limiter.tryAcquire(LlmRateLimiter.TOKENS, 60_000, 3_000, NOW);
+
+        // Then
+        assertTrue(acquired);
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(RateLimitWindow.class));
+        assertEquals(LlmRateLimiter.TOKENS + ":" + WINDOW_START, queryCaptor.getValue().getQueryObject().get("_id"));
+        assertEquals(new Document("$lte", 57_000L), queryCaptor.getValue().getQueryObject().get("used"));
+        assertEquals(new Document("used", 3_000L), updateCaptor.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    @DisplayName("Should refuse permits once the shared window is full")
+    void tryAcquire_ShouldRefuseWhenWindowIsFull() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(RateLimitWindow.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        // When
+        boolean acquired = limiter.tryAcquire(LlmRateLimiter.REQUESTS, 30, 1, NOW);
+
+        // Then
+        assertFalse(acquired);
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(RateLimitWindow.class));
+    }
+
+    @Test
+    @DisplayName("Should let a call above the limit take a whole empty window")
+    void tryAcquire_ShouldCapPermitsAtCapacity() {
+        // When
+        limiter.tryAcquire(LlmRateLimiter.TOKENS, 60_000, 100_000, NOW);
+
+        // Then
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(Update.class),
+                any(FindAndModifyOptions.class), eq(RateLimitWindow.class));
+        assertEquals(new Document("$lte", 0L), queryCaptor.getValue().getQueryObject().get("used"));
+    }
+}
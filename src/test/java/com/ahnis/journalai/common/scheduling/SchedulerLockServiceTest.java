@@ -0,0 +1,94 @@
+package com.ahnis.journalai.common.scheduling;
+
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.config.SchedulerLockProperties;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockServiceTest {
+    private static final String LOCK_NAME = "checkForReports";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        schedulerLockService = new SchedulerLockService(mongoTemplate, new NodeIdentity(), new SchedulerLockProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        schedulerLockService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run the task with the acquired fencing token and release the lock afterwards")
+    void runLocked_ShouldRunTaskAndRelease() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(SchedulerLock.class)))
+                .thenReturn(SchedulerLock.builder().name(LOCK_NAME).fencingToken(7).lockedUntil(Instant.now().plusSeconds(120)).build());
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(SchedulerLock.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        var lease = new AtomicReference<SchedulerLease>();
+
+        // When
+        boolean ran = schedulerLockService.runLocked(LOCK_NAME, lease::set);
+
+        // Then
+        assertTrue(ran);
+        assertEquals(7, lease.get().getFencingToken());
+        verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(SchedulerLock.class));
+    }
+
+    @Test
+    @DisplayName("Should skip the task when another node holds the lock")
+    void runLocked_ShouldSkipWhenLockIsHeld() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(SchedulerLock.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // When
+        boolean ran = schedulerLockService.runLocked(LOCK_NAME, _ -> fail("Task must not run"));
+
+        // Then
+        assertFalse(ran);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(SchedulerLock.class));
+    }
+
+    @Test
+    @DisplayName("Should mark the lease as lost when a heartbeat finds a newer fencing token")
+    void renew_ShouldLoseLeaseTakenOver() {
+        // Given
+        var lease = new SchedulerLease(LOCK_NAME, 7, Instant.now().plusSeconds(120), null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(SchedulerLock.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // When
+        schedulerLockService.renew(lease);
+
+        // Then
+        assertFalse(lease.isHeld());
+    }
+}
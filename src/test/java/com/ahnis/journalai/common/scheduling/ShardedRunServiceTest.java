@@ -0,0 +1,141 @@
+package com.ahnis.journalai.common.scheduling;
+
+import com.ahnis.journalai.common.cluster.ClusterMembershipService;
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.config.ShardingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedRunServiceTest {
+    private static final String JOB = "remindUsersToJournal";
+    private static final String RUN = "2025-05-01";
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private ClusterMembershipService clusterMembershipService;
+
+    private final NodeIdentity nodeIdentity = new NodeIdentity();
+    private final ShardingProperties properties = new ShardingProperties();
+    private ShardedRunService shardedRunService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setCount(4);
+        properties.setRetryInterval(Duration.ofMillis(10));
+        properties.setRunTimeout(Duration.ofSeconds(5));
+        shardedRunService = new ShardedRunService(schedulerLockService, clusterMembershipService, nodeIdentity, properties);
+        lenient().when(clusterMembershipService.liveNodes()).thenReturn(List.of(nodeIdentity.getId()));
+    }
+
+    @Test
+    @DisplayName("Should give every shard to exactly one node and put a node's own shards first")
+    void preferredOrder_ShouldSplitShardsBetweenNodes() {
+        // Given
+        List<String> nodes = List.of("node-a", "node-b", "node-c");
+
+        // When
+        Map<String, List<Shard>> orders = new HashMap<>();
+        nodes.forEach(node -> orders.put(node, ShardedRunService.preferredOrder(node, nodes, 64)));
+
+        // Then
+        var owners = new HashMap<Shard, String>();
+        for (String node : nodes) {
+            List<Shard> order = orders.get(node);
+            assertEquals(64, new HashSet<>(order).size());
+            long owned = order.stream().filter(shard -> ShardedRunService.owner(shard, nodes).equals(node)).count();
+            assertTrue(owned > 10, "Each node should own a fair share, " + node + " owns " + owned);
+            order.stream().limit(owned).forEach(shard -> assertNull(owners.put(shard, node)));
+        }
+        assertEquals(64, owners.size());
+    }
+
+    @Test
+    @DisplayName("Should only move the shards of a node that left")
+    void owner_ShouldKeepShardsOfRemainingNodes() {
+        // Given
+        List<String> before = List.of("node-a", "node-b", "node-c");
+        List<String> after = List.of("node-a", "node-c");
+
+        for (int index = 0; index < 64; index++) {
+            // When
+            var shard = new Shard(index, 64);
+            String ownerBefore = ShardedRunService.owner(shard, before);
+
+            // Then
+            if (!ownerBefore.equals("node-b"))
+                assertEquals(ownerBefore, ShardedRunService.owner(shard, after));
+        }
+    }
+
+    @Test
+    @DisplayName("Should process and complete the shards not yet completed for the run")
+    void run_ShouldSkipCompletedShards() {
+        // Given
+        stubLocks(Map.of("%s:shard-1".formatted(JOB), RUN));
+        var processed = new ArrayList<Integer>();
+
+        // When
+        int count = shardedRunService.run(JOB, RUN, (shard, _) -> processed.add(shard.index()));
+
+        // Then
+        assertEquals(3, count);
+        assertEquals(List.of(0, 2, 3), processed.stream().sorted().toList());
+        verify(schedulerLockService, times(3)).complete(any(SchedulerLease.class), eq(RUN));
+    }
+
+    @Test
+    @DisplayName("Should retry shards held by another node until they are completed")
+    void run_ShouldWaitForShardsHeldElsewhere() {
+        // Given
+        String heldLock = "%s:shard-2".formatted(JOB);
+        var attempts = new HashMap<String, Integer>();
+        when(schedulerLockService.runLocked(anyString(), any())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            int attempt = attempts.merge(name, 1, Integer::sum);
+            if (name.equals(heldLock) && attempt == 1)
+                return false;
+            // The other node completed the shard before releasing it
+            String completedRun = name.equals(heldLock) ? RUN : null;
+            invocation.<Consumer<SchedulerLease>>getArgument(1)
+                    .accept(new SchedulerLease(name, attempt, Instant.now().plusSeconds(60), completedRun));
+            return true;
+        });
+        var processed = new ArrayList<Integer>();
+
+        // When
+        int count = shardedRunService.run(JOB, RUN, (shard, _) -> processed.add(shard.index()));
+
+        // Then
+        assertEquals(3, count);
+        assertFalse(processed.contains(2));
+        assertEquals(2, attempts.get(heldLock));
+    }
+
+    private void stubLocks(Map<String, String> completedRuns) {
+        when(schedulerLockService.runLocked(anyString(), any())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            invocation.<Consumer<SchedulerLease>>getArgument(1)
+                    .accept(new SchedulerLease(name, 1, Instant.now().plusSeconds(60), completedRuns.get(name)));
+            return true;
+        });
+    }
+}
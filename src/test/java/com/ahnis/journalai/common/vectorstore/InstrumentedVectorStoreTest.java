@@ -0,0 +1,68 @@
+package com.ahnis.journalai.common.vectorstore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedVectorStoreTest {
+
+    @Mock
+    private VectorStore delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InstrumentedVectorStore vectorStore;
+
+    @BeforeEach
+    void setUp() {
+        vectorStore = new InstrumentedVectorStore(delegate, "chat", meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should time searches and record the number of documents returned per caller")
+    void similaritySearch_ShouldRecordLatencyAndResultSize() {
+        // Given
+        when(delegate.similaritySearch(any(SearchRequest.class)))
+                .thenReturn(List.of(new Document("chunk-1"), new Document("chunk-2")));
+
+        // When
+        List<Document> results = vectorStore.similaritySearch(SearchRequest.builder().query("mood").build());
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(1, meterRegistry.get(InstrumentedVectorStore.OPERATION_TIMER)
+                .tags("operation", "search", "caller", "chat", "outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get(InstrumentedVectorStore.DOCUMENTS_SUMMARY)
+                .tags("operation", "search", "caller", "chat").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should record failed calls with the exception and rethrow them")
+    void add_ShouldRecordErrors() {
+        // Given
+        doThrow(new IllegalStateException("Milvus down")).when(delegate).add(anyList());
+
+        // When
+        assertThrows(IllegalStateException.class, () -> vectorStore.add(List.of(new Document("chunk-1"))));
+
+        // Then
+        assertEquals(1, meterRegistry.get(InstrumentedVectorStore.OPERATION_TIMER)
+                .tags("operation", "add", "outcome", "error", "exception", "IllegalStateException").timer().count());
+        assertEquals(1, meterRegistry.get(InstrumentedVectorStore.DOCUMENTS_SUMMARY)
+                .tags("operation", "add").summary().totalAmount());
+    }
+}
@@ -0,0 +1,64 @@
+package com.ahnis.journalai.common.vectorstore;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueryEmbeddingCacheTest {
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VectorStoreProperties vectorStoreProperties = new VectorStoreProperties();
+
+    @BeforeEach
+    void setUp() {
+        vectorStoreProperties.setEmbeddingDimension(2);
+    }
+
+    @Test
+    @DisplayName("Should embed a repeated query once and count the hits")
+    void embed_ShouldCallModelOncePerQuery() {
+        // Given
+        when(embeddingModel.embed("mood")).thenReturn(new float[]{0.6f, 0.8f});
+        EmbeddingModel cached = new QueryEmbeddingCache(vectorStoreProperties, meterRegistry, "text-embedding-3-small")
+                .wrap(embeddingModel);
+
+        // When
+        float[] first = cached.embed("mood");
+        first[0] = 0;
+        float[] second = cached.embed("mood");
+        cached.embed("mood");
+
+        // Then
+        verify(embeddingModel, times(1)).embed("mood");
+        assertArrayEquals(new float[]{0.6f, 0.8f}, second);
+        assertEquals(2, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should hand out the model itself when the cache is disabled")
+    void wrap_ShouldReturnModelWhenDisabled() {
+        // Given
+        vectorStoreProperties.getQueryCache().setEnabled(false);
+
+        // When
+        EmbeddingModel wrapped = new QueryEmbeddingCache(vectorStoreProperties, meterRegistry, "text-embedding-3-small")
+                .wrap(embeddingModel);
+
+        // Then
+        assertSame(embeddingModel, wrapped);
+    }
+}
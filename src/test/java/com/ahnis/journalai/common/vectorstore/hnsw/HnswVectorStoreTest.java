@@ -0,0 +1,273 @@
+package com.ahnis.journalai.common.vectorstore.hnsw;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class HnswVectorStoreTest {
+    private static final int DIMENSIONS = 8;
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    @TempDir
+    private Path directory;
+
+    private final Map<String, float[]> embeddings = new HashMap<>();
+    private HnswVectorStore vectorStore;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(embeddingModel.embed(anyList(), any(), any())).thenAnswer(invocation ->
+                ((List<Document>) invocation.getArgument(0)).stream().map(document -> embeddings.get(document.getText())).toList());
+        lenient().when(embeddingModel.embed(anyString())).thenAnswer(invocation -> embeddings.get(invocation.<String>getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vectorStore.close();
+    }
+
+    @Test
+    @DisplayName("Should only return chunks of the filtered user, most similar first")
+    void similaritySearch_ShouldFilterByUser() {
+        // Given
+        vectorStore = open(2000);
+        embeddings.put("hiking", unit(0));
+        embeddings.put("walking", new float[]{0.9f, 0.1f, 0, 0, 0, 0, 0, 0});
+        embeddings.put("cooking", unit(1));
+        vectorStore.add(List.of(
+                chunk("chunk-1", "cooking", "user-1"),
+                chunk("chunk-2", "walking", "user-1"),
+                chunk("chunk-3", "hiking", "user-2")));
+
+        // When
+        List<Document> results = vectorStore.similaritySearch(SearchRequest.builder()
+                .query("hiking")
+                .topK(5)
+                .filterExpression("userId == 'user-1'")
+                .build());
+
+        // Then
+        assertEquals(List.of("chunk-2", "chunk-1"), results.stream().map(Document::getId).toList());
+        assertTrue(results.getFirst().getScore() > results.getLast().getScore());
+    }
+
+    @Test
+    @DisplayName("Should find the same nearest neighbours through the graph as an exact scan")
+    void similaritySearch_ShouldMatchExactScanThroughGraph() {
+        // Given
+        vectorStore = open(0);
+        var random = new Random(7);
+        var documents = new ArrayList<Document>();
+        for (int i = 0; i < 500; i++) {
+            String text = "text-" + i;
+            embeddings.put(text, randomVector(random));
+            documents.add(chunk("chunk-" + i, text, "user-" + (i % 3)));
+        }
+        vectorStore.add(documents);
+
+        for (int q = 0; q < 20; q++) {
+            // When
+            String text = "query-" + q;
+            float[] query = randomVector(random);
+            embeddings.put(text, query);
+            List<Document> results = vectorStore.similaritySearch(SearchRequest.builder()
+                    .query(text)
+                    .topK(1)
+                    .filterExpression("userId == 'user-1'")
+                    .build());
+
+            // Then
+            assertEquals(exactNearest(query, 1), results.getFirst().getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep chunks and deletions after a restart")
+    void reopen_ShouldRestoreChunksFromDisk() throws Exception {
+        // Given
+        vectorStore = open(2000);
+        embeddings.put("hiking", unit(0));
+        embeddings.put("cooking", unit(1));
+        vectorStore.add(List.of(chunk("chunk-1", "hiking", "user-1"), chunk("chunk-2", "cooking", "user-1")));
+        vectorStore.delete(List.of("chunk-2"));
+        vectorStore.close();
+
+        // When
+        vectorStore = open(2000);
+        List<Document> results = vectorStore.similaritySearch(SearchRequest.builder()
+                .query("cooking")
+                .topK(5)
+                .filterExpression("userId == 'user-1'")
+                .build());
+
+        // Then
+        assertEquals(List.of("chunk-1"), results.stream().map(Document::getId).toList());
+        assertEquals("user-1", results.getFirst().getMetadata().get("userId"));
+    }
+
+    @Test
+    @DisplayName("Should rank int8 quantized chunks and keep them after a restart")
+    void similaritySearch_ShouldRankQuantizedChunks() throws Exception {
+        // Given
+        vectorStore = open(0, true);
+        embeddings.put("hiking", unit(0));
+        embeddings.put("walking", new float[]{0.9f, 0.1f, 0, 0, 0, 0, 0, 0});
+        embeddings.put("cooking", unit(1));
+        vectorStore.add(List.of(chunk("chunk-1", "cooking", "user-1"), chunk("chunk-2", "walking", "user-1")));
+        vectorStore.close();
+
+        // When
+        vectorStore = open(0, true);
+        List<Document> results = vectorStore.similaritySearch(SearchRequest.builder()
+                .query("hiking")
+                .topK(5)
+                .build());
+
+        // Then
+        assertEquals(List.of("chunk-2", "chunk-1"), results.stream().map(Document::getId).toList());
+        assertEquals(0.9 / Math.sqrt(0.82), results.getFirst().getScore(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Should refuse to open a store with a different vector encoding")
+    void open_ShouldRejectOtherQuantization() throws Exception {
+        // Given
+        vectorStore = open(2000, false);
+        vectorStore.close();
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> open(2000, true));
+        vectorStore = open(2000, false);
+    }
+
+    @Test
+    @DisplayName("Should drop deleted chunks when compacting and keep the live ones after a restart")
+    void compact_ShouldRebuildOverLiveChunks() throws Exception {
+        // Given
+        vectorStore = open(0);
+        embeddings.put("hiking", unit(0));
+        embeddings.put("walking", new float[]{0.9f, 0.1f, 0, 0, 0, 0, 0, 0});
+        embeddings.put("cooking", unit(1));
+        embeddings.put("reading", unit(2));
+        vectorStore.add(List.of(
+                chunk("chunk-1", "hiking", "user-1"),
+                chunk("chunk-2", "walking", "user-1"),
+                chunk("chunk-3", "cooking", "user-2"),
+                chunk("chunk-4", "reading", "user-2")));
+        vectorStore.delete(List.of("chunk-1", "chunk-3"));
+
+        // When
+        vectorStore.compact();
+        vectorStore.add(List.of(chunk("chunk-5", "hiking", "user-2")));
+        vectorStore.close();
+        vectorStore = open(0);
+        List<Document> results = vectorStore.similaritySearch(SearchRequest.builder()
+                .query("hiking")
+                .topK(5)
+                .build());
+
+        // Then
+        assertEquals(List.of("chunk-5", "chunk-2", "chunk-4"), results.stream().map(Document::getId).toList());
+        assertFalse(Files.exists(directory.resolve("compaction")));
+        assertEquals(3, Files.readAllLines(directory.resolve("chunks.ndjson")).size());
+    }
+
+    @Test
+    @DisplayName("Should discard a compaction that stopped before all of its files were written")
+    void open_ShouldDiscardUnfinishedCompaction() throws Exception {
+        // Given
+        vectorStore = open(2000);
+        embeddings.put("hiking", unit(0));
+        vectorStore.add(List.of(chunk("chunk-1", "hiking", "user-1")));
+        vectorStore.close();
+        Files.createDirectories(directory.resolve("compaction"));
+        Files.writeString(directory.resolve("compaction").resolve("chunks.ndjson"), "{\"op\":\"add\"");
+
+        // When
+        vectorStore = open(2000);
+        List<Document> results = vectorStore.similaritySearch(SearchRequest.builder()
+                .query("hiking")
+                .topK(5)
+                .filterExpression("userId == 'user-1'")
+                .build());
+
+        // Then
+        assertEquals(List.of("chunk-1"), results.stream().map(Document::getId).toList());
+        assertFalse(Files.exists(directory.resolve("compaction")));
+    }
+
+    private HnswVectorStore open(int exactSearchThreshold) {
+        return open(exactSearchThreshold, false);
+    }
+
+    private HnswVectorStore open(int exactSearchThreshold, boolean quantized) {
+        return HnswVectorStore.builder(embeddingModel, directory, DIMENSIONS)
+                .m(8)
+                .efConstruction(64)
+                .efSearch(32)
+                .exactSearchThreshold(exactSearchThreshold)
+                .quantized(quantized)
+                .build();
+    }
+
+    private String exactNearest(float[] query, int user) {
+        String best = null;
+        double bestSimilarity = Double.NEGATIVE_INFINITY;
+        for (int i = user; i < 500; i += 3) {
+            double similarity = cosine(query, embeddings.get("text-" + i));
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = "chunk-" + i;
+            }
+        }
+        return best;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    private static float[] randomVector(Random random) {
+        var vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static float[] unit(int axis) {
+        var vector = new float[DIMENSIONS];
+        vector[axis] = 1;
+        return vector;
+    }
+
+    private static Document chunk(String id, String text, String userId) {
+        return new Document(id, text, Map.of("userId", userId, "journalId", "journal-" + id));
+    }
+}
@@ -0,0 +1,33 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingReindexJobTest {
+
+    @Test
+    @DisplayName("Should keep the leading dimensions scaled back to unit length")
+    void truncate_ShouldRenormalizePrefix() {
+        // Given
+        List<Float> embedding = List.of(0.48f, 0.64f, 0.6f);
+
+        // When
+        List<Float> truncated = EmbeddingReindexJob.truncate(embedding, 2);
+
+        // Then
+        assertEquals(2, truncated.size());
+        assertEquals(0.6f, truncated.get(0), 1e-6);
+        assertEquals(0.8f, truncated.get(1), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should refuse to truncate to more dimensions than the embedding has")
+    void truncate_ShouldRejectLargerDimension() {
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> EmbeddingReindexJob.truncate(List.of(1f, 0f), 3));
+    }
+}
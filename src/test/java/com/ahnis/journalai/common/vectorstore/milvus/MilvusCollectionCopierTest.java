@@ -0,0 +1,69 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import com.ahnis.journalai.journal.repository.JournalChunkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.client.MilvusClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MilvusCollectionCopierTest {
+
+    @Mock
+    private MilvusClient milvusClient;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JournalChunkRepository journalChunkRepository;
+
+    private MilvusCollectionCopier copier;
+
+    @BeforeEach
+    void setUp() {
+        // The Milvus id lookup is stubbed, the filtering around it is real
+        copier = spy(new MilvusCollectionCopier(milvusClient, new VectorStoreProperties(), mongoTemplate,
+                new ObjectMapper(), journalChunkRepository));
+    }
+
+    @Test
+    @DisplayName("Should copy only registered chunks that the target does not hold yet")
+    void missingLiveChunks_ShouldSkipUnregisteredAndExistingChunks() {
+        // Given
+        var live = chunk("chunk-a");
+        var deleted = chunk("chunk-b");
+        var rewritten = chunk("chunk-c");
+        when(journalChunkRepository.findAllById(List.of("chunk-a", "chunk-b", "chunk-c")))
+                .thenReturn(List.of(registered("chunk-a"), registered("chunk-c")));
+        doReturn(Set.of("chunk-c")).when(copier).existingIds("target", Set.of("chunk-a", "chunk-c"));
+
+        // When
+        List<EmbeddedChunk> copies = copier.missingLiveChunks(List.of(live, deleted, rewritten), "target");
+
+        // Then
+        assertEquals(List.of(live), copies);
+    }
+
+    private static EmbeddedChunk chunk(String id) {
+        return new EmbeddedChunk(id, "text", Map.of("userId", "user-1"), List.of(1f, 0f));
+    }
+
+    private static JournalChunk registered(String chunkId) {
+        return JournalChunk.builder().id(chunkId).embedded(true).build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ahnis.journalai.common.vectorstore.milvus;
+
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.grpc.MutationResult;
+import io.milvus.param.R;
+import io.milvus.param.dml.InsertParam;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedMilvusVectorStoreTest {
+
+    @Mock
+    private MilvusServiceClient milvusClient;
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private PartitionedMilvusVectorStore vectorStore;
+
+    @BeforeEach
+    void setUp() {
+        vectorStore = PartitionedMilvusVectorStore.builder(milvusClient, embeddingModel)
+                .collectionName("chunks")
+                .embeddingDimension(2)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should lead the expression with the partition key when the filter pins one user")
+    void routedExpression_ShouldPrependPartitionKey() {
+        // Given
+        var filter = new FilterExpressionTextParser().parse("userId == 'user-1' && journalId == 'journal-1'");
+
+        // When
+        String expression = vectorStore.routedExpression(filter);
+
+        // Then
+        assertTrue(expression.startsWith("user_id == \"user-1\" && ("), expression);
+        assertTrue(expression.contains("journal-1"), expression);
+    }
+
+    @Test
+    @DisplayName("Should not route filters that can match several users")
+    void routedExpression_ShouldNotRouteFiltersAcrossUsers() {
+        // Given
+        var filter = new FilterExpressionTextParser().parse("userId == 'user-1' || userId == 'user-2'");
+
+        // When
+        String expression = vectorStore.routedExpression(filter);
+
+        // Then
+        assertFalse(expression.contains("user_id"), expression);
+    }
+
+    @Test
+    @DisplayName("Should write the owner of each chunk to the partition key field")
+    void add_ShouldWriteOwnerToPartitionKey() {
+        // Given
+        when(embeddingModel.embed(anyList(), any(), any())).thenReturn(List.of(new float[]{1, 0}, new float[]{0, 1}));
+        when(milvusClient.insert(any())).thenReturn(R.success(MutationResult.getDefaultInstance()));
+
+        // When
+        vectorStore.add(List.of(
+                new Document("chunk-1", "hiking", Map.of("userId", "user-1")),
+                new Document("chunk-2", "shared", Map.of())));
+
+        // Then
+        var insert = ArgumentCaptor.forClass(InsertParam.class);
+        verify(milvusClient).insert(insert.capture());
+        var owners = insert.getValue().getFields().stream()
+                .filter(field -> field.getName().equals(MilvusChunks.USER_ID_FIELD))
+                .findFirst()
+                .orElseThrow()
+                .getValues();
+        assertEquals(List.of("user-1", MilvusChunks.SHARED_OWNER), owners);
+    }
+}
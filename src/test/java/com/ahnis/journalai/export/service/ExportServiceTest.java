@@ -0,0 +1,119 @@
+package com.ahnis.journalai.export.service;
+
+import com.ahnis.journalai.analysis.dto.MoodReportApiResponse;
+import com.ahnis.journalai.analysis.entity.MoodReportEntity;
+import com.ahnis.journalai.analysis.mapper.ReportMapper;
+import com.ahnis.journalai.chatbot.entity.ChatSession;
+import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.mapper.JournalMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JournalMapper journalMapper;
+
+    @Mock
+    private ReportMapper reportMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ExportService exportService;
+
+    private final String TEST_USER_ID = "user-123";
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(mongoTemplate, journalMapper, reportMapper, objectMapper);
+
+        var journal = Journal.builder().id("journal-1").userId(TEST_USER_ID).build();
+        var report = MoodReportEntity.builder().id("report-1").userId(TEST_USER_ID).build();
+        var session = ChatSession.builder().id("session-1").userId(TEST_USER_ID).title("Chat").build();
+        when(mongoTemplate.stream(any(Query.class), eq(Journal.class))).thenReturn(Stream.of(journal));
+        when(mongoTemplate.stream(any(Query.class), eq(MoodReportEntity.class))).thenReturn(Stream.of(report));
+        when(mongoTemplate.stream(any(Query.class), eq(ChatSession.class))).thenReturn(Stream.of(session));
+        when(journalMapper.toDto(journal)).thenReturn(new JournalResponse(
+                "journal-1", "Title", "Content", Instant.now(), Instant.now(), TEST_USER_ID, 0L));
+        when(reportMapper.toApiResponse(report)).thenReturn(new MoodReportApiResponse(
+                "report-1", Instant.now(), "Calm", Map.of(), List.of(), List.of(), "Quote", null, Instant.now()));
+    }
+
+    @Test
+    @DisplayName("Should write every document as a tagged NDJSON line")
+    void writeNdjson_ShouldWriteTaggedLines() throws Exception {
+        // Given
+        var out = new ByteArrayOutputStream();
+
+        // When
+        exportService.writeNdjson(TEST_USER_ID, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertLine(lines[0], "journal", "journal-1");
+        assertLine(lines[1], "mood_report", "report-1");
+        assertLine(lines[2], "chat_session", "session-1");
+    }
+
+    @Test
+    @DisplayName("Should write one zip entry per collection")
+    void writeZip_ShouldWriteOneEntryPerCollection() throws Exception {
+        // Given
+        var out = new ByteArrayOutputStream();
+
+        // When
+        exportService.writeZip(TEST_USER_ID, out);
+
+        // Then
+        List<String> entryNames = new ArrayList<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entryNames.add(entry.getName());
+                JsonNode line = objectMapper.readTree(new String(zip.readAllBytes(), StandardCharsets.UTF_8).strip());
+                assertFalse(line.has("type"));
+            }
+        }
+        assertEquals(List.of("journals.ndjson", "mood_reports.ndjson", "chat_sessions.ndjson"), entryNames);
+    }
+
+    private void assertLine(String line, String type, String id) throws Exception {
+        JsonNode node = objectMapper.readTree(line);
+        assertEquals(type, node.get("type").asText());
+        JsonNode data = node.get("data");
+        assertEquals(id, data.has("id") ? data.get("id").asText() : data.get("reportId").asText());
+    }
+}
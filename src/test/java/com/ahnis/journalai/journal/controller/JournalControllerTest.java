@@ -1,7 +1,14 @@
 package com.ahnis.journalai.journal.controller;
 
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.journal.dto.request.JournalPatchRequest;
 import com.ahnis.journalai.journal.dto.request.JournalRequest;
+import com.ahnis.journalai.journal.dto.request.TextEdit;
+import com.ahnis.journalai.journal.dto.response.JournalImportResponse;
 import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.dto.response.JournalSummaryResponse;
+import com.ahnis.journalai.journal.enums.JournalImportStatus;
+import com.ahnis.journalai.journal.service.JournalImportService;
 import com.ahnis.journalai.journal.service.JournalService;
 import com.ahnis.journalai.user.entity.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,6 +50,9 @@ class JournalControllerTest {
     @Mock
     private JournalService journalService;
 
+    @Mock
+    private JournalImportService journalImportService;
+
     @InjectMocks
     private JournalController journalController;
 
@@ -50,6 +60,7 @@ class JournalControllerTest {
 
     private JournalRequest journalRequest;
     private JournalResponse journalResponse;
+    private JournalSummaryResponse journalSummary;
     private User testUser;
     private final String TEST_USER_ID = "user-123";
     private final String TEST_JOURNAL_ID = "journal-123";
@@ -101,7 +112,19 @@ class JournalControllerTest {
                 "This is the content of the test journal",
                 Instant.now(),
                 Instant.now(),
-                TEST_USER_ID
+                TEST_USER_ID,
+                1L
+        );
+
+        // Create test journal summary
+        journalSummary = new JournalSummaryResponse(
+                TEST_JOURNAL_ID,
+                "Test Journal",
+                "This is the content of the test journal",
+                8,
+                Instant.now(),
+                Instant.now(),
+                1L
         );
     }
 
@@ -126,8 +149,8 @@ class JournalControllerTest {
     @DisplayName("Should get all journals successfully")
     void getAllJournals_ShouldReturnJournals() throws Exception {
         // Given
-        Page<JournalResponse> journalPage = new PageImpl<>(
-                List.of(journalResponse),
+        Page<JournalSummaryResponse> journalPage = new PageImpl<>(
+                List.of(journalSummary),
                 PageRequest.of(0, 10),
                 1
         );
@@ -138,13 +161,53 @@ class JournalControllerTest {
                 .param("page", "0")
                 .param("size", "10"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.data.content[0].id").value(journalResponse.id()))
-                .andExpect(jsonPath("$.data.content[0].title").value(journalResponse.title()))
-                .andExpect(jsonPath("$.data.content[0].content").value(journalResponse.content()));
+                .andExpect(jsonPath("$.data.content[0].id").value(journalSummary.id()))
+                .andExpect(jsonPath("$.data.content[0].title").value(journalSummary.title()))
+                .andExpect(jsonPath("$.data.content[0].snippet").value(journalSummary.snippet()))
+                .andExpect(jsonPath("$.data.content[0].wordCount").value(journalSummary.wordCount()))
+                .andExpect(jsonPath("$.data.content[0].content").doesNotExist());
 
         verify(journalService).getAllJournals(TEST_USER_ID, 0, 10);
     }
 
+    @Test
+    @DisplayName("Should scroll journals with a cursor")
+    void scrollJournals_ShouldReturnCursorPage() throws Exception {
+        // Given
+        var journalPage = new CursorPage<>(List.of(journalSummary), "next-cursor", true, 1);
+        when(journalService.scrollJournals(anyString(), anyString(), anyInt())).thenReturn(journalPage);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/journals/scroll")
+                .param("cursor", "previous-cursor")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value(journalSummary.id()))
+                .andExpect(jsonPath("$.data.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.data.hasNext").value(true));
+
+        verify(journalService).scrollJournals(TEST_USER_ID, "previous-cursor", 1);
+    }
+
+    @Test
+    @DisplayName("Should import journals from an NDJSON body")
+    void importJournals_ShouldReturnProgress() throws Exception {
+        // Given
+        var importResponse = new JournalImportResponse("import-1", JournalImportStatus.COMPLETED, 2, 2, 0, List.of());
+        when(journalImportService.importJournals(anyString(), any(), isNull(), anyLong())).thenReturn(importResponse);
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/journals/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"title\":\"a\",\"content\":\"b\"}\n{\"title\":\"c\",\"content\":\"d\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Import completed"))
+                .andExpect(jsonPath("$.data.importId").value("import-1"))
+                .andExpect(jsonPath("$.data.importedEntries").value(2));
+
+        verify(journalImportService).importJournals(eq(TEST_USER_ID), any(), isNull(), eq(0L));
+    }
+
     @Test
     @DisplayName("Should get journal by ID successfully")
     void getJournalById_ShouldReturnJournal() throws Exception {
@@ -181,6 +244,25 @@ class JournalControllerTest {
         verify(journalService).updateJournal(TEST_JOURNAL_ID, journalRequest, TEST_USER_ID);
     }
 
+    @Test
+    @DisplayName("Should autosave a text delta")
+    void autosaveJournal_ShouldReturnSavedJournal() throws Exception {
+        // Given
+        var patchRequest = new JournalPatchRequest(1L, null, List.of(new TextEdit(0, 4, "That")));
+        when(journalService.patchJournal(anyString(), any(JournalPatchRequest.class), anyString())).thenReturn(journalResponse);
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/journals/{id}", TEST_JOURNAL_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACCEPTED"))
+                .andExpect(jsonPath("$.message").value("Journal autosaved"))
+                .andExpect(jsonPath("$.data.revision").value(1));
+
+        verify(journalService).patchJournal(TEST_JOURNAL_ID, patchRequest, TEST_USER_ID);
+    }
+
     @Test
     @DisplayName("Should delete journal successfully")
     void deleteJournal_ShouldReturnSuccessResponse() throws Exception {
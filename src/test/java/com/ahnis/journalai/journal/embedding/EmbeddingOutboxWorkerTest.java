@@ -0,0 +1,123 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.journal.config.EmbeddingOutboxProperties;
+import com.ahnis.journalai.journal.entity.EmbeddingJob;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+import com.ahnis.journalai.journal.repository.JournalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingOutboxWorkerTest {
+
+    @Mock
+    private EmbeddingOutboxService embeddingOutboxService;
+
+    @Mock
+    private JournalEmbeddingService journalEmbeddingService;
+
+    @Mock
+    private JournalRepository journalRepository;
+
+    private EmbeddingOutboxWorker worker;
+
+    private Journal journal;
+    private EmbeddingJob upsertJob;
+    private EmbeddingJob deleteJob;
+
+    @BeforeEach
+    void setUp() {
+        worker = new EmbeddingOutboxWorker(embeddingOutboxService, journalEmbeddingService,
+                journalRepository, new EmbeddingOutboxProperties());
+        journal = Journal.builder().id("journal-1").userId("user-1").title("t").content("c").build();
+        upsertJob = EmbeddingJob.builder().id("job-1").journalId("journal-1").type(EmbeddingJobType.UPSERT).build();
+        deleteJob = EmbeddingJob.builder().id("job-2").journalId("journal-2").type(EmbeddingJobType.DELETE).build();
+    }
+
+    @Test
+    @DisplayName("Should embed and delete a mixed batch, then acknowledge it")
+    void processBatch_ShouldHandleUpsertsAndDeletes() {
+        // Given
+        var batch = List.of(upsertJob, deleteJob);
+        when(journalRepository.findAllById(List.of("journal-1"))).thenReturn(List.of(journal));
+
+        // When
+        worker.processBatch(batch);
+
+        // Then
+        verify(journalEmbeddingService).deleteJournalEmbeddings(List.of("journal-2"));
+        verify(journalEmbeddingService).saveJournalEmbeddings(List.of(journal));
+        verify(embeddingOutboxService).complete(batch);
+        verify(embeddingOutboxService, never()).fail(anyList(), any());
+    }
+
+    @Test
+    @DisplayName("Should treat an upsert of a vanished journal as a delete")
+    void processBatch_ShouldDeleteVectorsOfMissingJournals() {
+        // Given
+        when(journalRepository.findAllById(List.of("journal-1"))).thenReturn(List.of());
+
+        // When
+        worker.processBatch(List.of(upsertJob));
+
+        // Then
+        verify(journalEmbeddingService).deleteJournalEmbeddings(List.of("journal-1"));
+        verify(journalEmbeddingService, never()).saveJournalEmbeddings(anyList());
+    }
+
+    @Test
+    @DisplayName("Should schedule a retry when the vector store fails")
+    void processBatch_ShouldFailBatch_WhenEmbeddingThrows() {
+        // Given
+        var batch = List.of(upsertJob);
+        var error = new RuntimeException("OpenAI unavailable");
+        when(journalRepository.findAllById(List.of("journal-1"))).thenReturn(List.of(journal));
+        doThrow(error).when(journalEmbeddingService).saveJournalEmbeddings(anyList());
+
+        // When
+        worker.processBatch(batch);
+
+        // Then
+        verify(embeddingOutboxService).fail(batch, error);
+        verify(embeddingOutboxService, never()).complete(anyList());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch job by job and fail only the bad journal")
+    void processBatch_ShouldFailOnlyBadJob_WhenBatchThrows() {
+        // Given
+        var badJournal = Journal.builder().id("journal-3").userId("user-1").title("t").content("c").build();
+        var badJob = EmbeddingJob.builder().id("job-3").journalId("journal-3").type(EmbeddingJobType.UPSERT).build();
+        var error = new RuntimeException("Input too long");
+        when(journalRepository.findAllById(List.of("journal-1", "journal-3"))).thenReturn(List.of(journal, badJournal));
+        when(journalRepository.findAllById(List.of("journal-1"))).thenReturn(List.of(journal));
+        when(journalRepository.findAllById(List.of("journal-3"))).thenReturn(List.of(badJournal));
+        doAnswer(invocation -> {
+            List<Journal> journals = invocation.getArgument(0);
+            if (journals.contains(badJournal))
+                throw error;
+            return null;
+        }).when(journalEmbeddingService).saveJournalEmbeddings(anyList());
+
+        // When
+        worker.processBatch(List.of(upsertJob, badJob));
+
+        // Then
+        verify(journalEmbeddingService).saveJournalEmbeddings(List.of(journal));
+        verify(embeddingOutboxService).complete(List.of(upsertJob));
+        verify(embeddingOutboxService).fail(List.of(badJob), error);
+        verify(embeddingOutboxService, never()).fail(eq(List.of(upsertJob, badJob)), any());
+    }
+}
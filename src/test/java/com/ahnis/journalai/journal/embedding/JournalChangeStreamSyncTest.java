@@ -0,0 +1,140 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.ahnis.journalai.journal.config.JournalChangeStreamProperties;
+import com.ahnis.journalai.journal.enums.EmbeddingJobType;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalChangeStreamSyncTest {
+    private static final ObjectId JOURNAL_ID = new ObjectId();
+    private static final ObjectId OTHER_JOURNAL_ID = new ObjectId();
+    private static final ObjectId USER_ID = new ObjectId();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EmbeddingOutboxService embeddingOutboxService;
+
+    @Mock
+    private VectorStoreBackfillService vectorStoreBackfillService;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    private JournalChangeStreamProperties properties;
+    private JournalChangeStreamSync sync;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JournalChangeStreamProperties();
+        properties.setEnabled(true);
+        sync = new JournalChangeStreamSync(mongoTemplate, embeddingOutboxService, vectorStoreBackfillService,
+                properties, schedulerLockService);
+    }
+
+    @Test
+    @DisplayName("Should hand embedding jobs back to the write path when Mongo is not a replica set")
+    void checkReplicaSet_ShouldDisableSyncOnStandaloneMongo() {
+        // Given
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(new Document("isWritablePrimary", true));
+
+        // When
+        sync.checkReplicaSet();
+        sync.start();
+
+        // Then
+        assertFalse(properties.isEnabled());
+        verifyNoInteractions(schedulerLockService);
+    }
+
+    @Test
+    @DisplayName("Should keep the sync enabled on a replica set")
+    void checkReplicaSet_ShouldKeepSyncOnReplicaSet() {
+        // Given
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(new Document("setName", "rs0"));
+
+        // When
+        sync.checkReplicaSet();
+
+        // Then
+        assertTrue(properties.isEnabled());
+    }
+
+    @Test
+    @DisplayName("Should enqueue the last change of every journal and keep the owner of its insert")
+    void apply_ShouldCollapseChangesPerJournal() {
+        // Given
+        var insert = event(OperationType.INSERT, JOURNAL_ID, new Document("userId", USER_ID), null);
+        var autosave = event(OperationType.UPDATE, JOURNAL_ID, null,
+                updated(new BsonDocument("content", new BsonString("edited")).append("autosavedAt", new BsonString("now"))));
+        var delete = event(OperationType.DELETE, OTHER_JOURNAL_ID, null, null);
+
+        // When
+        sync.apply(List.of(insert, autosave, delete));
+
+        // Then
+        assertEquals(List.of(
+                new JournalChange(JOURNAL_ID.toHexString(), USER_ID.toHexString(), EmbeddingJobType.UPSERT, true),
+                new JournalChange(OTHER_JOURNAL_ID.toHexString(), null, EmbeddingJobType.DELETE, false)
+        ), List.copyOf(enqueuedChanges()));
+    }
+
+    @Test
+    @DisplayName("Should ignore updates that leave the embedded fields untouched")
+    void apply_ShouldIgnoreUpdatesOfOtherFields() {
+        // Given
+        var update = event(OperationType.UPDATE, JOURNAL_ID, null,
+                updated(new BsonDocument("wordCount", new BsonString("12"))));
+
+        // When
+        sync.apply(List.of(update));
+
+        // Then
+        assertTrue(enqueuedChanges().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<JournalChange> enqueuedChanges() {
+        ArgumentCaptor<Collection<JournalChange>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(embeddingOutboxService).enqueueChanges(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamDocument<Document> event(OperationType type, ObjectId journalId,
+                                                        Document fullDocument, UpdateDescription updateDescription) {
+        ChangeStreamDocument<Document> event = mock(ChangeStreamDocument.class);
+        lenient().when(event.getOperationType()).thenReturn(type);
+        lenient().when(event.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonObjectId(journalId)));
+        lenient().when(event.getFullDocument()).thenReturn(fullDocument);
+        lenient().when(event.getUpdateDescription()).thenReturn(updateDescription);
+        return event;
+    }
+
+    private static UpdateDescription updated(BsonDocument fields) {
+        return new UpdateDescription(List.of(), fields);
+    }
+}
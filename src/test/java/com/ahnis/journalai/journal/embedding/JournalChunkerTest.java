@@ -0,0 +1,86 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.journal.config.ChunkingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalChunkerTest {
+
+    private JournalChunker journalChunker;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ChunkingProperties();
+        properties.setChunkSize(20);
+        properties.setOverlap(6);
+        properties.setMinChunkSize(5);
+        // One token per word keeps the expected chunks readable
+        journalChunker = new JournalChunker(properties, text -> text.isBlank() ? 0 : text.strip().split("\\s+").length);
+    }
+
+    @Test
+    @DisplayName("Should keep a journal that fits into one chunk whole")
+    void split_ShouldKeepShortJournalWhole() {
+        // When
+        List<String> chunks = journalChunker.split("Short day.\n\nNothing much happened.");
+
+        // Then
+        assertEquals(List.of("Short day.\n\nNothing much happened."), chunks);
+    }
+
+    @Test
+    @DisplayName("Should cut between sentences and repeat the last sentence of the previous chunk")
+    void split_ShouldCutBetweenSentencesWithOverlap() {
+        // Given
+        var text = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            text.append("Sentence number ").append(i).append(" is here. ");
+            if (i % 4 == 3)
+                text.append("\n\n");
+        }
+
+        // When
+        List<String> chunks = journalChunker.split(text.toString());
+
+        // Then
+        assertEquals(4, chunks.size());
+        assertEquals("Sentence number 0 is here. Sentence number 1 is here. Sentence number 2 is here. "
+                + "Sentence number 3 is here.", chunks.getFirst());
+        assertTrue(chunks.get(1).startsWith("Sentence number 3 is here."));
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.endsWith("is here.")));
+    }
+
+    @Test
+    @DisplayName("Should fall back to words for a sentence longer than a chunk and fold a tiny tail into it")
+    void split_ShouldSplitLongSentenceByWords() {
+        // When
+        List<String> chunks = journalChunker.split("word ".repeat(50));
+
+        // Then
+        assertEquals(List.of(20, 20, 22), chunks.stream().map(chunk -> chunk.split(" ").length).toList());
+        assertEquals(50 + 6 + 6, chunks.stream().mapToLong(chunk -> Arrays.stream(chunk.split(" ")).count()).sum());
+    }
+
+    @Test
+    @DisplayName("Should return no chunks for a blank journal")
+    void split_ShouldIgnoreBlankJournal() {
+        assertEquals(List.of(), journalChunker.split("  \n "));
+    }
+
+    @Test
+    @DisplayName("Should reject an overlap as large as the chunk")
+    void constructor_ShouldRejectOverlapNotSmallerThanChunk() {
+        // Given
+        var properties = new ChunkingProperties();
+        properties.setOverlap(properties.getChunkSize());
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> new JournalChunker(properties, String::length));
+    }
+}
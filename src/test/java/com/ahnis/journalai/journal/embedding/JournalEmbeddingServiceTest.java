@@ -1,22 +1,26 @@
 package com.ahnis.journalai.journal.embedding;
 
+import com.ahnis.journalai.journal.config.ChunkingProperties;
 import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import com.ahnis.journalai.journal.repository.JournalChunkRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.ai.vectorstore.VectorStore;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.IntStream;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
@@ -26,16 +30,20 @@ class JournalEmbeddingServiceTest {
     @Mock
     private VectorStore vectorStore;
 
+    @Mock
+    private JournalChunkRepository journalChunkRepository;
+
+    @Spy
+    private JournalChunker journalChunker = new JournalChunker(new ChunkingProperties());
+
     @InjectMocks
     private JournalEmbeddingService journalEmbeddingService;
 
     private Journal testJournal;
-    private Document testDocument;
-    private List<Document> splitDocuments;
+    private Journal otherJournal;
 
     @BeforeEach
     void setUp() {
-        // Create test journal
         testJournal = Journal.builder()
                 .id("journal-123")
                 .title("Test Journal")
@@ -44,105 +52,146 @@ class JournalEmbeddingServiceTest {
                 .createdAt(Instant.now())
                 .modifiedAt(Instant.now())
                 .build();
-
-        // Create test document
-        testDocument = new Document(
-                testJournal.getId(),
-                testJournal.getContent(),
-                Map.of(
-                        "title", testJournal.getTitle(),
-                        "userId", testJournal.getUserId(),
-                        "createdAt", testJournal.getCreatedAt(),
-                        "modifiedAt", testJournal.getModifiedAt()
-                )
-        );
-
-        // Create split documents
-        splitDocuments = List.of(testDocument);
+        otherJournal = Journal.builder()
+                .id("journal-456")
+                .title("Other Journal")
+                .content("Another day, another entry")
+                .userId("user-123")
+                .createdAt(Instant.now())
+                .modifiedAt(Instant.now())
+                .build();
     }
 
     @Test
-    @DisplayName("Should save journal embeddings successfully")
-    void saveJournalEmbeddings_ShouldSaveEmbeddings() {
+    @DisplayName("Should register and write the chunks of a whole batch with one vector store call")
+    void saveJournalEmbeddings_ShouldAddAllChunksInOneCall() {
         // Given
-        doNothing().when(vectorStore).add(anyList());
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(List.of());
 
         // When
-        journalEmbeddingService.saveJournalEmbeddings(testJournal);
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal, otherJournal));
 
         // Then
-        verify(vectorStore).add(anyList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> captor = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore, times(1)).add(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().stream().allMatch(chunk -> chunk.getMetadata().containsKey("journalId")));
+        // Reused chunks are never rewritten, so nothing an edit changes may be stored with them
+        assertTrue(captor.getValue().stream().noneMatch(chunk -> chunk.getMetadata().containsKey("title")
+                || chunk.getMetadata().containsKey("modifiedAt")));
+        verify(journalChunkRepository, times(2)).saveAll(anyList());
+        verify(vectorStore, never()).delete(anyList());
     }
 
     @Test
-    @DisplayName("Should handle exceptions when saving journal embeddings")
-    void saveJournalEmbeddings_ShouldHandleExceptions() {
+    @DisplayName("Should remove every previously registered chunk when re-embedding a journal")
+    void saveJournalEmbeddings_ShouldRemovePreviousChunks() {
         // Given
-        doThrow(new RuntimeException("Test exception")).when(vectorStore).add(anyList());
+        var previous = List.of(chunk("chunk-1"), chunk("chunk-2"));
+        when(journalChunkRepository.findByJournalIdIn(List.of(testJournal.getId()))).thenReturn(previous);
 
         // When
-        journalEmbeddingService.saveJournalEmbeddings(testJournal);
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal));
 
         // Then
-        // The exception is caught in the service, so the test passes if no exception is thrown
-        verify(vectorStore).add(anyList());
+        verify(vectorStore).delete(List.of("chunk-1", "chunk-2"));
+        verify(journalChunkRepository).deleteAllById(List.of("chunk-1", "chunk-2"));
     }
 
     @Test
-    @DisplayName("Should update journal embeddings successfully")
-    void updateJournalEmbeddings_ShouldUpdateEmbeddings() {
+    @DisplayName("Should reuse the vectors of unchanged chunks when a journal is re-embedded")
+    void saveJournalEmbeddings_ShouldSkipUnchangedChunks() {
         // Given
-        doNothing().when(vectorStore).delete(anyList());
-        doNothing().when(vectorStore).add(anyList());
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(List.of());
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> captor = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore).add(captor.capture());
+        var registered = captor.getValue().stream()
+                .map(chunk -> JournalChunk.builder().id(chunk.getId()).journalId(testJournal.getId()).embedded(true).build())
+                .toList();
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(registered);
 
         // When
-        journalEmbeddingService.updateJournalEmbeddings(testJournal);
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal));
 
         // Then
-        verify(vectorStore).delete(List.of(testJournal.getId()));
-        verify(vectorStore).add(anyList());
+        verify(vectorStore, times(1)).add(anyList());
+        verify(vectorStore, never()).delete(anyList());
     }
 
     @Test
-    @DisplayName("Should handle exceptions when updating journal embeddings")
-    void updateJournalEmbeddings_ShouldHandleExceptions() {
+    @DisplayName("Should embed registered chunks again when rebuilding, replacing their old vectors")
+    void rebuildJournalEmbeddings_ShouldReembedRegisteredChunks() {
         // Given
-        doThrow(new RuntimeException("Test exception")).when(vectorStore).delete(anyList());
-        doNothing().when(vectorStore).add(anyList());
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(List.of());
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> captor = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore).add(captor.capture());
+        var registered = captor.getValue().stream()
+                .map(chunk -> JournalChunk.builder().id(chunk.getId()).journalId(testJournal.getId()).embedded(true).build())
+                .toList();
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(registered);
 
         // When
-        journalEmbeddingService.updateJournalEmbeddings(testJournal);
+        journalEmbeddingService.rebuildJournalEmbeddings(List.of(testJournal));
 
         // Then
-        // The exception is caught in deleteJournalEmbeddings, so updateJournalEmbeddings continues
-        // and calls saveJournalEmbeddings
-        verify(vectorStore).delete(List.of(testJournal.getId()));
-        verify(vectorStore).add(anyList());
+        verify(vectorStore, times(2)).add(anyList());
+        verify(vectorStore).delete(registered.stream().map(JournalChunk::getId).toList());
     }
 
     @Test
-    @DisplayName("Should delete journal embeddings successfully")
-    void deleteJournalEmbeddings_ShouldDeleteEmbeddings() {
+    @DisplayName("Should derive the same chunk ids for the same content")
+    void saveJournalEmbeddings_ShouldUseContentAddressedIds() {
         // Given
-        doNothing().when(vectorStore).delete(anyList());
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(List.of());
 
         // When
-        journalEmbeddingService.deleteJournalEmbeddings(testJournal.getId());
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal));
+        journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal));
 
         // Then
-        verify(vectorStore).delete(List.of(testJournal.getId()));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> captor = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore, times(2)).add(captor.capture());
+        assertEquals(captor.getAllValues().get(0).getFirst().getId(), captor.getAllValues().get(1).getFirst().getId());
+        assertEquals(JournalEmbeddingService.contentHash(testJournal.getContent()),
+                captor.getAllValues().get(0).getFirst().getMetadata().get("contentHash"));
     }
 
     @Test
-    @DisplayName("Should handle exceptions when deleting journal embeddings")
-    void deleteJournalEmbeddings_ShouldHandleExceptions() {
+    @DisplayName("Should propagate vector store failures so the outbox can retry")
+    void saveJournalEmbeddings_ShouldPropagateExceptions() {
         // Given
-        doThrow(new RuntimeException("Test exception")).when(vectorStore).delete(anyList());
+        when(journalChunkRepository.findByJournalIdIn(anyList())).thenReturn(List.of());
+        doThrow(new RuntimeException("Test exception")).when(vectorStore).add(anyList());
+
+        // When/Then
+        assertThrows(RuntimeException.class,
+                () -> journalEmbeddingService.saveJournalEmbeddings(List.of(testJournal)));
+    }
+
+    @Test
+    @DisplayName("Should delete all chunks of a journal in bounded batches")
+    void deleteJournalEmbeddings_ShouldDeleteChunksInBatches() {
+        // Given
+        var chunks = IntStream.range(0, JournalEmbeddingService.DELETE_BATCH_SIZE + 1)
+                .mapToObj(i -> chunk("chunk-" + i))
+                .toList();
+        when(journalChunkRepository.findByJournalIdIn(List.of(testJournal.getId()))).thenReturn(chunks);
 
         // When
-        journalEmbeddingService.deleteJournalEmbeddings(testJournal.getId());
+        journalEmbeddingService.deleteJournalEmbeddings(List.of(testJournal.getId()));
 
         // Then
-        verify(vectorStore).delete(List.of(testJournal.getId()));
+        verify(vectorStore, times(2)).delete(anyList());
+        verify(journalChunkRepository).deleteAllById(anyList());
+    }
+
+    private JournalChunk chunk(String id) {
+        return JournalChunk.builder().id(id).journalId(testJournal.getId()).userId("user-123").build();
     }
 }
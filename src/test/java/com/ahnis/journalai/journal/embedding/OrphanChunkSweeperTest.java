@@ -0,0 +1,142 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.ahnis.journalai.common.vectorstore.milvus.EmbeddedChunk;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.JournalChunk;
+import com.ahnis.journalai.journal.repository.JournalChunkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.milvus.client.MilvusClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanChunkSweeperTest {
+
+    @Mock
+    private MilvusClient milvusClient;
+
+    @Mock
+    private JournalChunkRepository journalChunkRepository;
+
+    @Mock
+    private JournalEmbeddingService journalEmbeddingService;
+
+    @Mock
+    private EmbeddingOutboxService embeddingOutboxService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private SchedulerLease lease;
+
+    private OrphanChunkSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        // The Milvus page query is stubbed, the sweep logic around it is real
+        sweeper = spy(new OrphanChunkSweeper(milvusClient, new VectorStoreProperties(), journalChunkRepository,
+                journalEmbeddingService, embeddingOutboxService, mongoTemplate, new ObjectMapper(), schedulerLockService));
+    }
+
+    @Test
+    @DisplayName("Should page after the largest chunk id and purge unregistered chunks")
+    void sweep_ShouldPageByLastChunkId() {
+        // Given
+        when(lease.isHeld()).thenReturn(true);
+        doReturn(page(
+                "chunk-b", Map.of("journalId", "journal-1", "userId", "user-1"),
+                "chunk-a", Map.of("journalId", "journal-2", "userId", "user-1")))
+                .when(sweeper).fetchPage("");
+        doReturn(page("chunk-c", Map.of("journalId", "journal-3", "userId", "user-1"))).when(sweeper).fetchPage("chunk-b");
+        doReturn(List.of()).when(sweeper).fetchPage("chunk-c");
+        when(journalChunkRepository.findAllById(Set.of("chunk-a", "chunk-b"))).thenReturn(List.of(registered("chunk-a")));
+        when(journalChunkRepository.findAllById(Set.of("chunk-c"))).thenReturn(List.of(registered("chunk-c")));
+
+        // When
+        sweeper.sweep(lease);
+
+        // Then
+        verify(journalEmbeddingService).deleteChunkIds(List.of("chunk-b"));
+        verifyNoMoreInteractions(journalEmbeddingService);
+        // Orphans of a tracked journal were left behind by an edit, the journal itself is already embedded
+        verifyNoInteractions(embeddingOutboxService, mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should re-enqueue the journals of owners whose chunks predate the registry")
+    void sweep_ShouldReembedOwnersOfLegacyChunks() {
+        // Given
+        var journals = List.of(Journal.builder().id("journal-1").userId("user-1").build());
+        when(lease.isHeld()).thenReturn(true);
+        doReturn(page(
+                "chunk-a", Map.of("userId", "user-1"),
+                "chunk-b", Map.of("userId", "user-1")))
+                .when(sweeper).fetchPage("");
+        doReturn(List.of()).when(sweeper).fetchPage("chunk-b");
+        when(journalChunkRepository.findAllById(Set.of("chunk-a", "chunk-b"))).thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class))).thenReturn(journals);
+
+        // When
+        sweeper.sweep(lease);
+
+        // Then
+        verify(journalEmbeddingService).deleteChunkIds(List.of("chunk-a", "chunk-b"));
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).find(queryCaptor.capture(), eq(Journal.class));
+        assertEquals("user-1", queryCaptor.getValue().getQueryObject().get("userId"));
+        verify(embeddingOutboxService).enqueueUpserts(journals);
+    }
+
+    @Test
+    @DisplayName("Should stop paging once the lock was lost")
+    void sweep_ShouldStopWithoutLease() {
+        // Given
+        when(lease.isHeld()).thenReturn(false);
+
+        // When
+        sweeper.sweep(lease);
+
+        // Then
+        verify(sweeper, never()).fetchPage(anyString());
+        verifyNoInteractions(journalEmbeddingService, embeddingOutboxService);
+    }
+
+    private static List<EmbeddedChunk> page(Object... chunks) {
+        List<EmbeddedChunk> page = new ArrayList<>();
+        for (int i = 0; i < chunks.length; i += 2) {
+            @SuppressWarnings("unchecked")
+            var metadata = (Map<String, Object>) chunks[i + 1];
+            page.add(new EmbeddedChunk((String) chunks[i], "", metadata, List.of()));
+        }
+        return page;
+    }
+
+    private static JournalChunk registered(String chunkId) {
+        return JournalChunk.builder().id(chunkId).embedded(true).build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.ahnis.journalai.journal.embedding;
+
+import com.ahnis.journalai.common.cluster.NodeIdentity;
+import com.ahnis.journalai.common.config.vectorstore.properties.VectorStoreProperties;
+import com.ahnis.journalai.journal.config.VectorStoreBackfillProperties;
+import com.ahnis.journalai.journal.dto.response.VectorStoreBackfillResponse;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.VectorStoreBackfill;
+import com.ahnis.journalai.journal.enums.VectorStoreBackfillStatus;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VectorStoreBackfillServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JournalEmbeddingService journalEmbeddingService;
+
+    private VectorStoreBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        var vectorStoreProperties = new VectorStoreProperties();
+        vectorStoreProperties.setCollectionName("journal_chunks_v2");
+        backfillService = new VectorStoreBackfillService(mongoTemplate, journalEmbeddingService, vectorStoreProperties,
+                new VectorStoreBackfillProperties(), new NodeIdentity());
+    }
+
+    @Test
+    @DisplayName("Should leave a backfill alone while another node holds its lease")
+    void startBackfill_ShouldReturnBackfillLeasedByAnotherNode() {
+        // Given
+        var running = VectorStoreBackfill.builder()
+                .id("backfill-1")
+                .status(VectorStoreBackfillStatus.IN_PROGRESS)
+                .lockedBy("other-node")
+                .claimId("claim-1")
+                .lockedUntil(Instant.now().plusSeconds(60))
+                .resumedAt(Instant.now())
+                .build();
+        when(mongoTemplate.findOne(any(Query.class), eq(VectorStoreBackfill.class))).thenReturn(running);
+
+        // When
+        VectorStoreBackfillResponse response = backfillService.startBackfill();
+
+        // Then
+        assertEquals("backfill-1", response.backfillId());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(VectorStoreBackfill.class));
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Journal.class));
+    }
+
+    @Test
+    @DisplayName("Should only resume backfills whose lease ran out and that this node managed to claim")
+    void resumeInterruptedBackfills_ShouldOnlyClaimExpiredLeases() {
+        // Given
+        var interrupted = VectorStoreBackfill.builder()
+                .id("backfill-1")
+                .status(VectorStoreBackfillStatus.IN_PROGRESS)
+                .processedJournals(500)
+                .build();
+        when(mongoTemplate.find(any(Query.class), eq(VectorStoreBackfill.class))).thenReturn(List.of(interrupted));
+
+        // When
+        backfillService.resumeInterruptedBackfills();
+
+        // Then
+        var findCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(findCaptor.capture(), eq(VectorStoreBackfill.class));
+        assertTrue(findCaptor.getValue().getQueryObject().toString().contains("lockedUntil"));
+        var claimCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(claimCaptor.capture(), any(Update.class),
+                any(FindAndModifyOptions.class), eq(VectorStoreBackfill.class));
+        String claim = claimCaptor.getValue().getQueryObject().toString();
+        assertTrue(claim.contains("lockedUntil"));
+        assertEquals(500L, claimCaptor.getValue().getQueryObject().get("processedJournals"));
+        // Another node claimed it first, so nothing runs here
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Journal.class));
+    }
+
+    @Test
+    @DisplayName("Should write checkpoints only while the claim is held")
+    void run_ShouldStopCheckpointingOnceLeaseIsTakenOver() {
+        // Given
+        var backfill = VectorStoreBackfill.builder()
+                .id("backfill-1")
+                .status(VectorStoreBackfillStatus.IN_PROGRESS)
+                .claimId("claim-1")
+                .build();
+        var journal = Journal.builder().id(new ObjectId().toHexString()).build();
+        when(mongoTemplate.stream(any(Query.class), eq(Journal.class))).thenReturn(Stream.of(journal));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(VectorStoreBackfill.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // When
+        backfillService.run(backfill);
+
+        // Then
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+                eq(VectorStoreBackfill.class));
+        assertTrue(queryCaptor.getAllValues().stream()
+                .allMatch(query -> "claim-1".equals(query.getQueryObject().get("claimId"))));
+        Document close = (Document) updateCaptor.getAllValues().getLast().getUpdateObject().get("$set");
+        assertEquals(VectorStoreBackfillStatus.FAILED, close.get("status"));
+        verify(mongoTemplate, never()).save(any(VectorStoreBackfill.class));
+    }
+
+    @Test
+    @DisplayName("Should embed each batch as it is when its turn comes, skipping journals deleted since")
+    void run_ShouldRereadBatchBeforeEmbedding() {
+        // Given
+        var backfill = VectorStoreBackfill.builder()
+                .id("backfill-1")
+                .status(VectorStoreBackfillStatus.IN_PROGRESS)
+                .claimId("claim-1")
+                .build();
+        String editedId = new ObjectId().toHexString();
+        String deletedId = new ObjectId().toHexString();
+        var edited = Journal.builder().id(editedId).content("edited").build();
+        when(mongoTemplate.stream(any(Query.class), eq(Journal.class))).thenReturn(Stream.of(
+                Journal.builder().id(editedId).build(),
+                Journal.builder().id(deletedId).build()));
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class))).thenReturn(List.of(edited));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(VectorStoreBackfill.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        backfillService.run(backfill);
+
+        // Then
+        verify(journalEmbeddingService).rebuildJournalEmbeddings(List.of(edited));
+        var findCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(findCaptor.capture(), eq(Journal.class));
+        assertTrue(findCaptor.getValue().toString().contains(deletedId));
+        assertEquals(2, backfill.getProcessedJournals());
+    }
+
+    @Test
+    @DisplayName("Should derive throughput and time left from the journals processed since the last resume")
+    void toResponse_ShouldEstimateTimeLeft() {
+        // Given
+        var backfill = VectorStoreBackfill.builder()
+                .id("backfill-1")
+                .status(VectorStoreBackfillStatus.IN_PROGRESS)
+                .totalJournals(10_000)
+                .processedJournals(3_000)
+                .processedAtResume(1_000)
+                .startedAt(Instant.now().minusSeconds(3_600))
+                .resumedAt(Instant.now().minusSeconds(100))
+                .build();
+
+        // When
+        VectorStoreBackfillResponse response = VectorStoreBackfillService.toResponse(backfill);
+
+        // Then
+        assertEquals(20, response.journalsPerSecond(), 0.5);
+        assertEquals(350, response.etaSeconds(), 10);
+    }
+
+    @Test
+    @DisplayName("Should report no time left once the backfill has finished")
+    void toResponse_ShouldOmitEtaWhenFinished() {
+        // Given
+        var backfill = VectorStoreBackfill.builder()
+                .status(VectorStoreBackfillStatus.COMPLETED)
+                .totalJournals(100)
+                .processedJournals(100)
+                .resumedAt(Instant.now().minusSeconds(10))
+                .completedAt(Instant.now())
+                .build();
+
+        // When
+        VectorStoreBackfillResponse response = VectorStoreBackfillService.toResponse(backfill);
+
+        // Then
+        assertNull(response.etaSeconds());
+        assertEquals(10, response.journalsPerSecond(), 0.5);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.SchedulerLockService;
+import com.ahnis.journalai.journal.config.EmotionScoringProperties;
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import com.ahnis.journalai.journal.entity.Journal;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmotionScoringWorkerTest {
+    private static final String FIRST_ID = "507f1f77bcf86cd799439011";
+    private static final String SECOND_ID = "507f1f77bcf86cd799439012";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EmotionScorer emotionScorer;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private SchedulerLease lease;
+
+    private EmotionScoringWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new EmotionScoringProperties();
+        properties.setBatchSize(2);
+        worker = new EmotionScoringWorker(mongoTemplate, emotionScorer, schedulerLockService, properties);
+    }
+
+    @Test
+    @DisplayName("Should page through unscored journals by id and count failed attempts")
+    void scoreUnscoredJournals_ShouldScorePageByPage() {
+        // Given
+        var scores = new EmotionScores(1, 0, 0, 0, 0, 0);
+        when(lease.isHeld()).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class))).thenReturn(
+                List.of(journal(FIRST_ID, "happy"), journal(SECOND_ID, "unreachable")),
+                List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Journal.class)).thenReturn(bulkOperations);
+        when(emotionScorer.score("happy")).thenReturn(scores);
+        when(emotionScorer.score("unreachable")).thenReturn(null);
+
+        // When
+        worker.scoreUnscoredJournals(lease);
+
+        // Then
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), updateCaptor.capture());
+        assertEquals(scores, updateCaptor.getAllValues().getFirst().getUpdateObject().get("$set", Document.class).get("emotions"));
+        assertEquals(1, updateCaptor.getAllValues().getLast().getUpdateObject().get("$inc", Document.class).get("emotionAttempts"));
+        verify(bulkOperations).execute();
+
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Journal.class));
+        assertEquals(new Document("$gt", SECOND_ID), queryCaptor.getAllValues().getLast().getQueryObject().get("_id"));
+    }
+
+    @Test
+    @DisplayName("Should stop before the next page once the lease is lost")
+    void scoreUnscoredJournals_ShouldStopWhenLeaseIsLost() {
+        // Given
+        when(lease.isHeld()).thenReturn(false);
+
+        // When
+        worker.scoreUnscoredJournals(lease);
+
+        // Then
+        verifyNoInteractions(mongoTemplate, emotionScorer);
+    }
+
+    private static Journal journal(String id, String content) {
+        return Journal.builder().id(id).content(content).revision(1).build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LexiconEmotionScorerTest {
+    private final LexiconEmotionScorer scorer = new LexiconEmotionScorer();
+
+    @Test
+    @DisplayName("Should score each emotion by its share of the matched words")
+    void score_ShouldReturnSharesOfMatchedWords() {
+        // When
+        EmotionScores scores = scorer.score("I was happy and grateful today, but a little worried about work.");
+
+        // Then
+        assertEquals(2.0 / 3, scores.happiness(), 1e-9);
+        assertEquals(1.0 / 3, scores.fear(), 1e-9);
+        assertEquals(0, scores.sadness());
+        assertEquals(1.0, scores.happiness() + scores.sadness() + scores.anger() + scores.fear()
+                + scores.surprise() + scores.disgust(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should ignore emotion words right after a negation")
+    void score_ShouldIgnoreNegatedWords() {
+        // When
+        EmotionScores scores = scorer.score("I am not happy, I am sad.");
+
+        // Then
+        assertEquals(0, scores.happiness());
+        assertEquals(1.0, scores.sadness(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should score entries without emotion words as zero")
+    void score_ShouldReturnNoneForNeutralText() {
+        // When / Then
+        assertEquals(EmotionScores.NONE, scorer.score("Went to the store and bought milk."));
+        assertEquals(EmotionScores.NONE, scorer.score("  "));
+    }
+}
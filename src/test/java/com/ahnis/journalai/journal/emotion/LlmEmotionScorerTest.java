@@ -0,0 +1,71 @@
+package com.ahnis.journalai.journal.emotion;
+
+import com.ahnis.journalai.common.ratelimit.LlmRateLimiter;
+import com.ahnis.journalai.journal.config.EmotionScoringProperties;
+import com.ahnis.journalai.journal.entity.EmotionScores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmEmotionScorerTest {
+
+    @Mock
+    private ChatModel chatModel;
+
+    @Mock
+    private LlmRateLimiter llmRateLimiter;
+
+    private LlmEmotionScorer scorer;
+
+    @BeforeEach
+    void setUp() {
+        // One token per character keeps the expected charge easy to compute
+        scorer = new LlmEmotionScorer(chatModel, new EmotionScoringProperties(), llmRateLimiter, String::length);
+    }
+
+    @Test
+    @DisplayName("Should take the prompt and completion tokens from the shared rate limit before every score")
+    void score_ShouldChargeRateLimiter() throws InterruptedException {
+        // Given
+        String text = "Spent the afternoon at the beach with friends";
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage("""
+                {"happiness": 1, "sadness": 0, "anger": 0, "fear": 0, "surprise": 0, "disgust": 0}
+                """)))));
+
+        // When
+        EmotionScores scores = scorer.score(text);
+
+        // Then
+        assertNotNull(scores);
+        InOrder inOrder = inOrder(llmRateLimiter, chatModel);
+        inOrder.verify(llmRateLimiter).acquire(scorer.generatePrompt(text).length() + new EmotionScoringProperties().getMaxScoreTokens());
+        inOrder.verify(chatModel).call(any(Prompt.class));
+    }
+
+    @Test
+    @DisplayName("Should not call the model for empty journals")
+    void score_ShouldSkipBlankText() {
+        // When
+        EmotionScores scores = scorer.score(" ");
+
+        // Then
+        assertEquals(EmotionScores.NONE, scores);
+        verifyNoInteractions(llmRateLimiter, chatModel);
+    }
+}
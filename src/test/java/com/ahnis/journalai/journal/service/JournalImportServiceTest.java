@@ -0,0 +1,231 @@
+package com.ahnis.journalai.journal.service;
+
+import com.ahnis.journalai.journal.config.JournalChangeStreamProperties;
+import com.ahnis.journalai.journal.dto.response.JournalImportResponse;
+import com.ahnis.journalai.journal.embedding.EmbeddingOutboxService;
+import com.ahnis.journalai.journal.emotion.LexiconEmotionScorer;
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.journal.entity.JournalImport;
+import com.ahnis.journalai.journal.enums.JournalImportStatus;
+import com.ahnis.journalai.journal.exception.JournalImportNotFoundException;
+import com.ahnis.journalai.journal.repository.JournalImportRepository;
+import com.ahnis.journalai.user.service.JournalingActivityService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JournalImportRepository journalImportRepository;
+
+    @Mock
+    private EmbeddingOutboxService embeddingOutboxService;
+
+    @Mock
+    private JournalingActivityService journalingActivityService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+
+    private JournalImportService journalImportService;
+    private final List<List<Journal>> insertedBatches = new ArrayList<>();
+
+    private final String TEST_USER_ID = "user-123";
+
+    @BeforeEach
+    void setUp() {
+        var changeStreamProperties = new JournalChangeStreamProperties();
+        changeStreamProperties.setEnabled(false);
+        journalImportService = new JournalImportService(mongoTemplate, journalImportRepository, embeddingOutboxService,
+                changeStreamProperties, new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(), journalingActivityService,
+                new LexiconEmotionScorer());
+        lenient().when(journalImportRepository.save(any(JournalImport.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Should import valid entries in one bulk insert and skip invalid ones")
+    void importJournals_ShouldImportValidEntries() throws Exception {
+        // Given
+        stubBulkInsert(2);
+        var body = ndjson(
+                "{\"title\":\"First\",\"content\":\"one two\",\"createdAt\":\"2020-01-01T10:00:00Z\"}",
+                "{\"title\":\"\",\"content\":\"no title\"}",
+                "{\"title\":\"Second\",\"content\":\"three\"}");
+
+        // When
+        JournalImportResponse result = journalImportService.importJournals(TEST_USER_ID, body, null, 0);
+
+        // Then
+        assertEquals(JournalImportStatus.COMPLETED, result.status());
+        assertEquals(3, result.processedEntries());
+        assertEquals(2, result.importedEntries());
+        assertEquals(1, result.skippedEntries());
+        assertTrue(result.errors().getFirst().startsWith("Entry 1:"));
+
+        assertEquals(1, insertedBatches.size());
+        List<Journal> inserted = insertedBatches.getFirst();
+        assertEquals(List.of("First", "Second"), inserted.stream().map(Journal::getTitle).toList());
+        assertEquals(Instant.parse("2020-01-01T10:00:00Z"), inserted.getFirst().getCreatedAt());
+        assertEquals(2, inserted.getFirst().getWordCount());
+        assertEquals(TEST_USER_ID, inserted.getFirst().getUserId());
+        verify(embeddingOutboxService).enqueueUpserts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should skip entries that were processed before the import was interrupted")
+    void importJournals_ShouldResumeAfterProcessedEntries() throws Exception {
+        // Given
+        var journalImport = JournalImport.builder()
+                .id("import-1")
+                .userId(TEST_USER_ID)
+                .status(JournalImportStatus.FAILED)
+                .processedEntries(2)
+                .importedEntries(2)
+                .startedAt(Instant.parse("2025-01-01T00:00:00Z"))
+                .build();
+        when(journalImportRepository.findByIdAndUserId("import-1", TEST_USER_ID)).thenReturn(Optional.of(journalImport));
+        stubBulkInsert(1);
+        var body = ndjson(
+                "{\"title\":\"Second\",\"content\":\"two\"}",
+                "{\"title\":\"Third\",\"content\":\"three\"}");
+
+        // When
+        JournalImportResponse result = journalImportService.importJournals(TEST_USER_ID, body, "import-1", 1);
+
+        // Then
+        assertEquals(JournalImportStatus.COMPLETED, result.status());
+        assertEquals(3, result.processedEntries());
+        assertEquals(3, result.importedEntries());
+        assertEquals(1, insertedBatches.size());
+        assertEquals(List.of("Third"), insertedBatches.getFirst().stream().map(Journal::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("Should give an undated entry the same id when its batch is replayed")
+    void importJournals_ShouldReuseIdsOfReplayedUndatedEntries() throws Exception {
+        // Given
+        Instant startedAt = Instant.parse("2025-01-01T00:00:00Z");
+        var journalImport = JournalImport.builder()
+                .id("import-1")
+                .userId(TEST_USER_ID)
+                .status(JournalImportStatus.FAILED)
+                .startedAt(startedAt)
+                .build();
+        when(journalImportRepository.findByIdAndUserId("import-1", TEST_USER_ID)).thenReturn(Optional.of(journalImport));
+        stubBulkInsert(1);
+        String entry = "{\"title\":\"First\",\"content\":\"one\"}";
+
+        // When
+        journalImportService.importJournals(TEST_USER_ID, ndjson(entry), "import-1", 0);
+        // The batch was written but its progress was not saved
+        journalImport.setProcessedEntries(0);
+        journalImportService.importJournals(TEST_USER_ID, ndjson(entry), "import-1", 0);
+
+        // Then
+        assertEquals(2, insertedBatches.size());
+        Journal first = insertedBatches.getFirst().getFirst();
+        Journal replayed = insertedBatches.getLast().getFirst();
+        assertEquals(first.getId(), replayed.getId());
+        assertEquals(startedAt, replayed.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should stop at malformed JSON and keep the entries read so far")
+    void importJournals_ShouldFailOnMalformedJson() throws Exception {
+        // Given
+        stubBulkInsert(1);
+        var body = ndjson(
+                "{\"title\":\"First\",\"content\":\"one\"}",
+                "{not json");
+
+        // When
+        JournalImportResponse result = journalImportService.importJournals(TEST_USER_ID, body, null, 0);
+
+        // Then
+        assertEquals(JournalImportStatus.FAILED, result.status());
+        assertEquals(1, result.processedEntries());
+        assertEquals(1, result.importedEntries());
+        assertTrue(result.errors().getLast().startsWith("Entry 1: malformed JSON"));
+    }
+
+    @Test
+    @DisplayName("Should reject an offset past the processed entries")
+    void importJournals_ShouldRejectOffsetPastProgress() {
+        // Given
+        var journalImport = JournalImport.builder().id("import-1").userId(TEST_USER_ID).processedEntries(2).build();
+        when(journalImportRepository.findByIdAndUserId("import-1", TEST_USER_ID)).thenReturn(Optional.of(journalImport));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class,
+                () -> journalImportService.importJournals(TEST_USER_ID, ndjson(), "import-1", 5));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should throw when the import belongs to another user")
+    void getImport_ShouldThrow_WhenNotFound() {
+        // Given
+        when(journalImportRepository.findByIdAndUserId("import-1", TEST_USER_ID)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThrows(JournalImportNotFoundException.class, () -> journalImportService.getImport("import-1", TEST_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Should derive the same journal id for the same import entry")
+    void importedJournalId_ShouldBeDeterministic() {
+        Instant createdAt = Instant.parse("2020-01-01T10:00:00Z");
+
+        String id = JournalImportService.importedJournalId("import-1", 7, createdAt);
+
+        assertEquals(id, JournalImportService.importedJournalId("import-1", 7, createdAt));
+        assertNotEquals(id, JournalImportService.importedJournalId("import-1", 8, createdAt));
+        assertEquals(24, id.length());
+    }
+
+    private void stubBulkInsert(int insertedCount) {
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Journal.class))).thenReturn(bulkOperations);
+        // The service clears its batch list after the insert, keep a copy of what was written
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            insertedBatches.add(List.copyOf(invocation.<List<Journal>>getArgument(0)));
+            return bulkOperations;
+        });
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getInsertedCount()).thenReturn(insertedCount);
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.ahnis.journalai.journal.service;
+
+import com.ahnis.journalai.journal.dto.response.JournalSearchResult;
+import com.ahnis.journalai.journal.entity.Journal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalSearchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private VectorStore vectorStore;
+
+    @InjectMocks
+    private JournalSearchService journalSearchService;
+
+    private final String TEST_USER_ID = "user-123";
+
+    @Test
+    @DisplayName("Should rank journals found by both retrievers first")
+    void search_ShouldFuseTextAndVectorRankings() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class)))
+                .thenReturn(List.of(idOnly("journal-1"), idOnly("journal-2")))
+                .thenReturn(List.of(journal("journal-1", "I went hiking today"),
+                        journal("journal-2", "Hiking boots are worn out"),
+                        journal("journal-3", "A long walk in the mountains")));
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(
+                chunk("journal-2"), chunk("journal-2"), chunk("journal-3")));
+
+        // When
+        List<JournalSearchResult> results = journalSearchService.search(TEST_USER_ID, "hiking", 10);
+
+        // Then
+        assertEquals(List.of("journal-2", "journal-1", "journal-3"), results.stream().map(JournalSearchResult::id).toList());
+        assertEquals(List.of("text", "vector"), results.getFirst().matchedBy());
+        assertEquals(List.of("vector"), results.getLast().matchedBy());
+        assertEquals("<mark>Hiking</mark> boots are worn out", results.getFirst().highlight());
+    }
+
+    @Test
+    @DisplayName("Should fall back to text results when the vector search fails")
+    void search_ShouldReturnTextResults_WhenVectorSearchFails() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class)))
+                .thenReturn(List.of(idOnly("journal-1")))
+                .thenReturn(List.of(journal("journal-1", "I went hiking today")));
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenThrow(new RuntimeException("Milvus down"));
+
+        // When
+        List<JournalSearchResult> results = journalSearchService.search(TEST_USER_ID, "hiking", 10);
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(List.of("text"), results.getFirst().matchedBy());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty query")
+    void search_ShouldRejectBlankQuery() {
+        assertThrows(IllegalArgumentException.class, () -> journalSearchService.search(TEST_USER_ID, " ", 10));
+        verifyNoInteractions(mongoTemplate, vectorStore);
+    }
+
+    @Test
+    @DisplayName("Should score by reciprocal rank")
+    void fuse_ShouldSumReciprocalRanks() {
+        Map<String, Double> scores = JournalSearchService.fuse(List.of("a", "b"), List.of("b"));
+
+        assertEquals(List.of("b", "a"), List.copyOf(scores.keySet()));
+        assertEquals(1.0 / 62 + 1.0 / 61, scores.get("b"), 1e-9);
+        assertEquals(1.0 / 61, scores.get("a"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should escape content and mark matched words")
+    void highlight_ShouldEscapeAndMarkMatches() {
+        String highlight = JournalSearchService.highlight("Feeling <b>anxious</b> about anxiety",
+                JournalSearchService.termPattern("anxious"));
+
+        assertEquals("Feeling &lt;b&gt;<mark>anxious</mark>&lt;/b&gt; about anxiety", highlight);
+    }
+
+    private Journal idOnly(String id) {
+        return Journal.builder().id(id).build();
+    }
+
+    private Journal journal(String id, String content) {
+        return Journal.builder()
+                .id(id)
+                .title("Title " + id)
+                .content(content)
+                .userId(TEST_USER_ID)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private Document chunk(String journalId) {
+        return new Document("chunk of " + journalId, Map.of("journalId", journalId, "userId", TEST_USER_ID));
+    }
+}
@@ -1,15 +1,23 @@
 package com.ahnis.journalai.journal.service;
 
+import com.ahnis.journalai.common.dto.CursorPage;
+import com.ahnis.journalai.journal.config.JournalChangeStreamProperties;
+import com.ahnis.journalai.journal.dto.request.JournalPatchRequest;
 import com.ahnis.journalai.journal.dto.request.JournalRequest;
+import com.ahnis.journalai.journal.dto.request.TextEdit;
 import com.ahnis.journalai.journal.dto.response.JournalResponse;
+import com.ahnis.journalai.journal.dto.response.JournalSummaryResponse;
+import com.ahnis.journalai.journal.emotion.EmotionScorer;
 import com.ahnis.journalai.journal.entity.Journal;
 import com.ahnis.journalai.journal.exception.JournalNotFoundException;
+import com.ahnis.journalai.journal.exception.JournalRevisionConflictException;
 import com.ahnis.journalai.journal.mapper.JournalMapper;
 import com.ahnis.journalai.journal.repository.JournalRepository;
-import com.ahnis.journalai.journal.embedding.JournalEmbeddingService;
+import com.ahnis.journalai.journal.embedding.EmbeddingOutboxService;
 import com.ahnis.journalai.notification.service.NotificationService;
 import com.ahnis.journalai.user.entity.User;
-import com.ahnis.journalai.user.repository.UserRepository;
+import com.ahnis.journalai.user.service.JournalingActivityService;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,10 +27,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.Instant;
 import java.util.List;
@@ -31,6 +39,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,23 +49,33 @@ class JournalServiceImplTest {
     private JournalRepository journalRepository;
 
     @Mock
-    private JournalEmbeddingService journalEmbeddingService;
+    private EmbeddingOutboxService embeddingOutboxService;
+
+    @Mock
+    private JournalChangeStreamProperties changeStreamProperties;
 
     @Mock
     private JournalMapper journalMapper;
 
     @Mock
-    private UserRepository userRepository;
+    private JournalingActivityService journalingActivityService;
 
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EmotionScorer emotionScorer;
+
     @InjectMocks
     private JournalServiceImpl journalService;
 
     private Journal testJournal;
     private JournalRequest journalRequest;
     private JournalResponse journalResponse;
+    private JournalSummaryResponse journalSummary;
     private User testUser;
     private final String TEST_USER_ID = "user-123";
     private final String TEST_JOURNAL_ID = "journal-123";
@@ -83,7 +102,19 @@ class JournalServiceImplTest {
                 "This is the content of the test journal",
                 Instant.now(),
                 Instant.now(),
-                TEST_USER_ID
+                TEST_USER_ID,
+                0L
+        );
+
+        // Create test journal summary
+        journalSummary = new JournalSummaryResponse(
+                TEST_JOURNAL_ID,
+                "Test Journal",
+                "This is the content of the test journal",
+                8,
+                Instant.now(),
+                Instant.now(),
+                0L
         );
 
         // Create test user
@@ -103,8 +134,9 @@ class JournalServiceImplTest {
         // Given
         when(journalMapper.toEntity(any(JournalRequest.class), anyString())).thenReturn(testJournal);
         when(journalRepository.save(any(Journal.class))).thenReturn(testJournal);
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
-        doNothing().when(journalEmbeddingService).saveJournalEmbeddings(any(Journal.class));
+        when(journalingActivityService.recordEntry(TEST_USER_ID, testJournal.getCreatedAt()))
+                .thenReturn(Optional.of(testUser));
+        doNothing().when(embeddingOutboxService).enqueueUpsert(any(Journal.class));
 
         // When
         journalService.createJournal(journalRequest, TEST_USER_ID);
@@ -112,9 +144,8 @@ class JournalServiceImplTest {
         // Then
         verify(journalMapper).toEntity(journalRequest, TEST_USER_ID);
         verify(journalRepository).save(testJournal);
-        verify(journalEmbeddingService).saveJournalEmbeddings(testJournal);
-        verify(userRepository).findById(TEST_USER_ID);
-        verify(userRepository).save(testUser);
+        verify(embeddingOutboxService).enqueueUpsert(testJournal);
+        verify(journalingActivityService).recordEntry(TEST_USER_ID, testJournal.getCreatedAt());
     }
 
     @Test
@@ -123,21 +154,60 @@ class JournalServiceImplTest {
         // Given
         int page = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Journal> journalPage = new PageImpl<>(List.of(testJournal), pageable, 1);
-
-        when(journalRepository.findByUserId(anyString(), any(Pageable.class))).thenReturn(journalPage);
-        when(journalMapper.toDto(any(Journal.class))).thenReturn(journalResponse);
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class))).thenReturn(List.of(testJournal));
+        when(journalMapper.toSummary(any(Journal.class))).thenReturn(journalSummary);
 
         // When
-        Page<JournalResponse> result = journalService.getAllJournals(TEST_USER_ID, page, size);
+        Page<JournalSummaryResponse> result = journalService.getAllJournals(TEST_USER_ID, page, size);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        assertEquals(journalResponse, result.getContent().get(0));
-        verify(journalRepository).findByUserId(TEST_USER_ID, pageable);
-        verify(journalMapper).toDto(testJournal);
+        assertEquals(journalSummary, result.getContent().get(0));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Journal.class));
+        Document fields = queryCaptor.getValue().getFieldsObject();
+        assertEquals(1, fields.get("snippet"));
+        assertFalse(fields.containsKey("content"));
+        assertEquals(size, queryCaptor.getValue().getLimit());
+        verify(journalMapper).toSummary(testJournal);
+        verifyNoInteractions(journalRepository);
+    }
+
+    @Test
+    @DisplayName("Should scroll journals and return a cursor when more rows exist")
+    void scrollJournals_ShouldReturnNextCursor() {
+        // Given
+        Journal olderJournal = Journal.builder()
+                .id("journal-122")
+                .userId(TEST_USER_ID)
+                .createdAt(Instant.parse("2025-01-01T00:00:00Z"))
+                .build();
+        testJournal.setCreatedAt(Instant.parse("2025-01-02T00:00:00Z"));
+        when(mongoTemplate.find(any(Query.class), eq(Journal.class))).thenReturn(List.of(testJournal, olderJournal));
+        when(journalMapper.toSummary(any(Journal.class))).thenReturn(journalSummary);
+
+        // When
+        CursorPage<JournalSummaryResponse> result = journalService.scrollJournals(TEST_USER_ID, null, 1);
+
+        // Then
+        assertEquals(List.of(journalSummary), result.content());
+        assertTrue(result.hasNext());
+        assertNotNull(result.nextCursor());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Journal.class));
+        assertEquals(2, queryCaptor.getValue().getLimit());
+        assertFalse(queryCaptor.getValue().getFieldsObject().containsKey("content"));
+        verify(journalMapper).toSummary(testJournal);
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void scrollJournals_ShouldRejectInvalidCursor() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class,
+                () -> journalService.scrollJournals(TEST_USER_ID, "not-a-cursor", 10));
+        verifyNoInteractions(mongoTemplate);
     }
 
     @Test
@@ -191,9 +261,10 @@ class JournalServiceImplTest {
     void updateJournal_ShouldUpdateJournal() {
         // Given
         when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
-        when(journalRepository.save(any(Journal.class))).thenReturn(testJournal);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Journal.class)))
+                .thenReturn(testJournal);
         when(journalMapper.toDto(any(Journal.class))).thenReturn(journalResponse);
-        doNothing().when(journalEmbeddingService).updateJournalEmbeddings(any(Journal.class));
+        doNothing().when(embeddingOutboxService).enqueueUpsert(any(Journal.class));
 
         // When
         JournalResponse result = journalService.updateJournal(TEST_JOURNAL_ID, journalRequest, TEST_USER_ID);
@@ -202,13 +273,100 @@ class JournalServiceImplTest {
         assertNotNull(result);
         assertEquals(journalResponse, result);
         verify(journalRepository).findById(TEST_JOURNAL_ID);
-        verify(journalRepository).save(testJournal);
-        verify(journalEmbeddingService).updateJournalEmbeddings(testJournal);
+        verify(journalRepository, never()).save(any(Journal.class));
+        verify(embeddingOutboxService).enqueueUpsert(testJournal);
         verify(journalMapper).toDto(testJournal);
 
-        // Verify journal was updated with new values
-        assertEquals(journalRequest.title(), testJournal.getTitle());
-        assertEquals(journalRequest.content(), testJournal.getContent());
+        // Verify the update carries the new values and increments the revision
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(Journal.class));
+        Document set = updateCaptor.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(journalRequest.title(), set.get("title"));
+        assertEquals(journalRequest.content(), set.get("content"));
+        assertEquals(new Document("revision", 1), updateCaptor.getValue().getUpdateObject().get("$inc", Document.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a full update when an autosave landed after the journal was read")
+    void updateJournal_ShouldThrowConflict_WhenRevisionChanged() {
+        // Given
+        when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Journal.class)))
+                .thenReturn(null);
+
+        // When/Then
+        assertThrows(JournalRevisionConflictException.class, () ->
+                journalService.updateJournal(TEST_JOURNAL_ID, journalRequest, TEST_USER_ID)
+        );
+        verifyNoInteractions(embeddingOutboxService);
+    }
+
+    @Test
+    @DisplayName("Should apply an autosave delta and debounce the embedding refresh")
+    void patchJournal_ShouldApplyDeltaAndDebounceEmbedding() {
+        // Given
+        var patchRequest = new JournalPatchRequest(0L, null, List.of(new TextEdit(0, 4, "That")));
+        when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Journal.class)))
+                .thenReturn(testJournal);
+        when(journalMapper.toDto(any(Journal.class))).thenReturn(journalResponse);
+
+        // When
+        journalService.patchJournal(TEST_JOURNAL_ID, patchRequest, TEST_USER_ID);
+
+        // Then
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(Journal.class));
+        Document set = updateCaptor.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals("That is the content of the test journal", set.get("content"));
+        assertEquals("That is the content of the test journal", set.get("snippet"));
+        assertEquals(8, set.get("wordCount"));
+        verify(embeddingOutboxService).enqueueDebouncedUpsert(testJournal);
+        verify(embeddingOutboxService, never()).enqueueUpsert(any(Journal.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an autosave delta based on a stale revision")
+    void patchJournal_ShouldThrowConflict_WhenRevisionIsStale() {
+        // Given
+        testJournal.setRevision(3);
+        var patchRequest = new JournalPatchRequest(2L, null, List.of(new TextEdit(0, 4, "That")));
+        when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
+
+        // When/Then
+        assertThrows(JournalRevisionConflictException.class, () ->
+                journalService.patchJournal(TEST_JOURNAL_ID, patchRequest, TEST_USER_ID)
+        );
+        verifyNoInteractions(mongoTemplate, embeddingOutboxService);
+    }
+
+    @Test
+    @DisplayName("Should reject an autosave delta that deletes past the end of the content")
+    void patchJournal_ShouldRejectEditPastContent_WhenDeleteCountOverflows() {
+        // Given
+        var patchRequest = new JournalPatchRequest(0L, null, List.of(new TextEdit(4, Integer.MAX_VALUE, "")));
+        when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () ->
+                journalService.patchJournal(TEST_JOURNAL_ID, patchRequest, TEST_USER_ID)
+        );
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should reject an autosave delta that leaves the content blank")
+    void patchJournal_ShouldRejectBlankContent() {
+        // Given
+        int length = testJournal.getContent().length();
+        var patchRequest = new JournalPatchRequest(0L, null, List.of(new TextEdit(0, length, " ")));
+        when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () ->
+                journalService.patchJournal(TEST_JOURNAL_ID, patchRequest, TEST_USER_ID)
+        );
+        verifyNoInteractions(mongoTemplate);
     }
 
     @Test
@@ -217,7 +375,7 @@ class JournalServiceImplTest {
         // Given
         when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
         doNothing().when(journalRepository).delete(any(Journal.class));
-        doNothing().when(journalEmbeddingService).deleteJournalEmbeddings(anyString());
+        doNothing().when(embeddingOutboxService).enqueueDelete(anyString(), anyString());
 
         // When
         journalService.deleteJournal(TEST_JOURNAL_ID, TEST_USER_ID);
@@ -225,78 +383,74 @@ class JournalServiceImplTest {
         // Then
         verify(journalRepository).findById(TEST_JOURNAL_ID);
         verify(journalRepository).delete(testJournal);
-        verify(journalEmbeddingService).deleteJournalEmbeddings(TEST_JOURNAL_ID);
+        verify(embeddingOutboxService).enqueueDelete(TEST_JOURNAL_ID, TEST_USER_ID);
+        verify(journalingActivityService).removeEntry(TEST_USER_ID, testJournal.getCreatedAt());
     }
 
     @Test
-    @DisplayName("Should update user streak when creating journal")
-    void createJournal_ShouldUpdateUserStreak() {
+    @DisplayName("Should leave the embedding job to the change stream sync when it is enabled")
+    void deleteJournal_ShouldNotEnqueueWithChangeStream() {
         // Given
+        when(changeStreamProperties.isEnabled()).thenReturn(true);
+        when(journalRepository.findById(anyString())).thenReturn(Optional.of(testJournal));
+
+        // When
+        journalService.deleteJournal(TEST_JOURNAL_ID, TEST_USER_ID);
+
+        // Then
+        verify(journalRepository).delete(testJournal);
+        verifyNoInteractions(embeddingOutboxService);
+    }
+
+    @Test
+    @DisplayName("Should record the entry on the user's streak when creating journal")
+    void createJournal_ShouldRecordStreak() {
+        // Given
+        testUser.setCurrentStreak(4);
         when(journalMapper.toEntity(any(JournalRequest.class), anyString())).thenReturn(testJournal);
         when(journalRepository.save(any(Journal.class))).thenReturn(testJournal);
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
-        doNothing().when(journalEmbeddingService).saveJournalEmbeddings(any(Journal.class));
+        when(journalingActivityService.recordEntry(TEST_USER_ID, testJournal.getCreatedAt()))
+                .thenReturn(Optional.of(testUser));
 
         // When
         journalService.createJournal(journalRequest, TEST_USER_ID);
 
         // Then
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-
-        User savedUser = userCaptor.getValue();
-        assertEquals(2, savedUser.getCurrentStreak()); // Streak should be incremented
-        assertNotNull(savedUser.getLastJournalEntryDate()); // Last journal date should be updated
+        verify(journalingActivityService).recordEntry(TEST_USER_ID, testJournal.getCreatedAt());
+        verifyNoInteractions(notificationService);
     }
 
     @Test
-    @DisplayName("Should reset user streak when last entry is not from yesterday")
-    void createJournal_ShouldResetUserStreak_WhenLastEntryNotFromYesterday() {
+    @DisplayName("Should send a milestone notification on the first entry of a milestone day")
+    void createJournal_ShouldNotifyMilestone_WhenFirstEntryOfDay() {
         // Given
+        testUser.setCurrentStreak(7);
         when(journalMapper.toEntity(any(JournalRequest.class), anyString())).thenReturn(testJournal);
         when(journalRepository.save(any(Journal.class))).thenReturn(testJournal);
-
-        // Set last journal entry date to more than 1 day ago
-        testUser.setLastJournalEntryDate(Instant.now().minusSeconds(172800)); // 2 days ago
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
-
-        doNothing().when(journalEmbeddingService).saveJournalEmbeddings(any(Journal.class));
+        when(journalingActivityService.recordEntry(TEST_USER_ID, testJournal.getCreatedAt()))
+                .thenReturn(Optional.of(testUser));
 
         // When
         journalService.createJournal(journalRequest, TEST_USER_ID);
 
         // Then
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-
-        User savedUser = userCaptor.getValue();
-        assertEquals(1, savedUser.getCurrentStreak()); // Streak should be reset to 1
-        assertNotNull(savedUser.getLastJournalEntryDate()); // Last journal date should be updated
+        verify(notificationService).sendMilestoneNotification(testUser, 7);
     }
 
     @Test
-    @DisplayName("Should update longest streak when current streak exceeds it")
-    void createJournal_ShouldUpdateLongestStreak_WhenCurrentStreakExceedsIt() {
+    @DisplayName("Should not repeat the milestone notification for later entries of the same day")
+    void createJournal_ShouldNotNotifyMilestone_WhenNotFirstEntryOfDay() {
         // Given
+        testUser.setCurrentStreak(7);
         when(journalMapper.toEntity(any(JournalRequest.class), anyString())).thenReturn(testJournal);
         when(journalRepository.save(any(Journal.class))).thenReturn(testJournal);
-
-        // Set current streak to equal longest streak
-        testUser.setCurrentStreak(5);
-        testUser.setLongestStreak(5);
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
-
-        doNothing().when(journalEmbeddingService).saveJournalEmbeddings(any(Journal.class));
+        when(journalingActivityService.recordEntry(TEST_USER_ID, testJournal.getCreatedAt()))
+                .thenReturn(Optional.empty());
 
         // When
         journalService.createJournal(journalRequest, TEST_USER_ID);
 
         // Then
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-
-        User savedUser = userCaptor.getValue();
-        assertEquals(6, savedUser.getCurrentStreak()); // Streak should be incremented
-        assertEquals(6, savedUser.getLongestStreak()); // Longest streak should be updated
+        verifyNoInteractions(notificationService);
     }
 }
@@ -1,5 +1,6 @@
 package com.ahnis.journalai.user.repository;
 
+import com.ahnis.journalai.common.cluster.Shard;
 import com.ahnis.journalai.config.MongoTestConfig;
 import com.ahnis.journalai.user.entity.Preferences;
 import com.ahnis.journalai.user.entity.User;
@@ -344,6 +345,25 @@ class UserRepositoryTest {
                      updatedUser.get().getLastReportAt().truncatedTo(ChronoUnit.MILLIS));
     }
 
+    @Test
+    @DisplayName("Should update last and next report date by ID in one update")
+    void updateReportDatesById_ShouldUpdateBothDates() {
+        // Given
+        Instant lastReportAt = Instant.now();
+        Instant nextReportOn = lastReportAt.plus(7, ChronoUnit.DAYS);
+
+        // When
+        userRepository.updateReportDatesById(testUser.getId(), lastReportAt, nextReportOn);
+
+        // Then
+        Optional<User> updatedUser = userRepository.findById(testUser.getId());
+        assertTrue(updatedUser.isPresent());
+        assertEquals(lastReportAt.truncatedTo(ChronoUnit.MILLIS),
+                     updatedUser.get().getLastReportAt().truncatedTo(ChronoUnit.MILLIS));
+        assertEquals(nextReportOn.truncatedTo(ChronoUnit.MILLIS),
+                     updatedUser.get().getNextReportOn().truncatedTo(ChronoUnit.MILLIS));
+    }
+
     @Test
     @DisplayName("Should update next report date by username")
     void updateNextReportOnByUsername_ShouldUpdateDate() {
@@ -452,6 +472,22 @@ class UserRepositoryTest {
         assertTrue(usersWithoutReminders.stream().noneMatch(u -> u.getPreferences().isRemindersEnabled()));
     }
 
+    @Test
+    @DisplayName("Should find users with reminders enabled only in the shard of their id")
+    void findByRemindersEnabledInShard_ShouldReturnUsersOfShard() {
+        // Given
+        Shard shard = Shard.of(testUser.getId(), 4);
+        Shard otherShard = new Shard((shard.index() + 1) % 4, 4);
+
+        // When
+        List<User> inShard = userRepository.findByRemindersEnabledInShard(true, shard.idSuffixes());
+        List<User> inOtherShard = userRepository.findByRemindersEnabledInShard(true, otherShard.idSuffixes());
+
+        // Then
+        assertEquals(List.of(testUser.getId()), inShard.stream().map(User::getId).toList());
+        assertTrue(inOtherShard.isEmpty());
+    }
+
     @Test
     @DisplayName("Should find users by IDs with pagination")
     void findAllByIdIn_ShouldReturnPageOfUsers() {
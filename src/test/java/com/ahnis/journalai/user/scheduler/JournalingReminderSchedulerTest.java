@@ -1,5 +1,8 @@
 package com.ahnis.journalai.user.scheduler;
 
+import com.ahnis.journalai.common.cluster.Shard;
+import com.ahnis.journalai.common.scheduling.SchedulerLease;
+import com.ahnis.journalai.common.scheduling.ShardedRunService;
 import com.ahnis.journalai.notification.service.NotificationService;
 import com.ahnis.journalai.user.entity.User;
 import com.ahnis.journalai.user.repository.UserRepository;
@@ -16,12 +19,16 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.function.BiConsumer;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class JournalingReminderSchedulerTest {
+    private static final Shard SHARD = new Shard(3, 8);
 
     @Mock
     private UserRepository userRepository;
@@ -29,6 +36,12 @@ class JournalingReminderSchedulerTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ShardedRunService shardedRunService;
+
+    @Mock
+    private SchedulerLease lease;
+
     @InjectMocks
     private JournalingReminderScheduler scheduler;
 
@@ -38,6 +51,13 @@ class JournalingReminderSchedulerTest {
 
     @BeforeEach
     void setUp() {
+        // This node gets a single shard of the run
+        lenient().when(shardedRunService.run(eq(JournalingReminderScheduler.JOB_NAME), anyString(), any())).thenAnswer(invocation -> {
+            invocation.<BiConsumer<Shard, SchedulerLease>>getArgument(2).accept(SHARD, lease);
+            return 1;
+        });
+        lenient().when(lease.isHeld()).thenReturn(true);
+
         // User who has never written a journal
         userWithNoJournal = new User();
         userWithNoJournal.setEmail("neverjournal@example.com");
@@ -66,7 +86,7 @@ class JournalingReminderSchedulerTest {
     @DisplayName("Should send reminders to users who haven't journaled today")
     void remindUsersToJournal_ShouldSendReminders_ToUsersWhoHaventJournaledToday() {
         // Given
-        when(userRepository.findByRemindersEnabled(true))
+        when(userRepository.findByRemindersEnabledInShard(true, SHARD.idSuffixes()))
                 .thenReturn(List.of(userWithNoJournal, userWithOldJournal, userWithTodayJournal));
 
         // When
@@ -82,7 +102,7 @@ class JournalingReminderSchedulerTest {
     @DisplayName("Should not send reminders when no users have reminders enabled")
     void remindUsersToJournal_ShouldNotSendReminders_WhenNoUsersHaveRemindersEnabled() {
         // Given
-        when(userRepository.findByRemindersEnabled(true)).thenReturn(List.of());
+        when(userRepository.findByRemindersEnabledInShard(true, SHARD.idSuffixes())).thenReturn(List.of());
 
         // When
         scheduler.remindUsersToJournal();
@@ -105,7 +125,7 @@ class JournalingReminderSchedulerTest {
         Instant tokyoTodayInstant = tokyoToday.atStartOfDay(tokyoZone).toInstant();
         userInDifferentTimezone.setLastJournalEntryDate(tokyoTodayInstant);
 
-        when(userRepository.findByRemindersEnabled(true))
+        when(userRepository.findByRemindersEnabledInShard(true, SHARD.idSuffixes()))
                 .thenReturn(List.of(userInDifferentTimezone));
 
         // When
@@ -115,5 +135,32 @@ class JournalingReminderSchedulerTest {
         verify(notificationService, never()).sendEmailJournalReminder(userInDifferentTimezone.getEmail());
     }
 
+    @Test
+    @DisplayName("Should stop sending reminders once the lock is lost")
+    void remindUsersToJournal_ShouldStopWhenLockIsLost() {
+        // Given
+        when(lease.isHeld()).thenReturn(true, false);
+        when(userRepository.findByRemindersEnabledInShard(true, SHARD.idSuffixes()))
+                .thenReturn(List.of(userWithNoJournal, userWithOldJournal));
+
+        // When
+        scheduler.remindUsersToJournal();
+
+        // Then
+        verify(notificationService).sendEmailJournalReminder(userWithNoJournal.getEmail());
+        verify(notificationService, never()).sendEmailJournalReminder(userWithOldJournal.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should not remind anyone when other nodes process every shard")
+    void remindUsersToJournal_ShouldSkipWhenNoShardIsLeft() {
+        // Given
+        when(shardedRunService.run(eq(JournalingReminderScheduler.JOB_NAME), anyString(), any())).thenReturn(0);
 
+        // When
+        scheduler.remindUsersToJournal();
+
+        // Then
+        verifyNoInteractions(userRepository, notificationService);
+    }
 }
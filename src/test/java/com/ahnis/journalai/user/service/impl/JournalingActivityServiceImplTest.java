@@ -0,0 +1,186 @@
+package com.ahnis.journalai.user.service.impl;
+
+import com.ahnis.journalai.journal.entity.Journal;
+import com.ahnis.journalai.user.entity.JournalingActivity;
+import com.ahnis.journalai.user.entity.JournalingActivity.DayRun;
+import com.ahnis.journalai.user.entity.User;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalingActivityServiceImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private JournalingActivityServiceImpl journalingActivityService;
+
+    private final String TEST_USER_ID = "user-123";
+
+    @Test
+    @DisplayName("Should write the streaks of the saved days guarded by their version")
+    void recordEntry_ShouldWriteStreaksFromDays() {
+        // Given
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        var activity = activity(3L, new DayRun(today - 2, today - 1));
+        var user = User.builder().id(TEST_USER_ID).currentStreak(3).build();
+        when(mongoTemplate.findById(TEST_USER_ID, JournalingActivity.class)).thenReturn(activity);
+        when(mongoTemplate.save(activity)).thenAnswer(invocation -> {
+            activity.setVersion(4L);
+            return activity;
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(user);
+
+        // When
+        Optional<User> result = journalingActivityService.recordEntry(TEST_USER_ID, Instant.now());
+
+        // Then
+        assertEquals(Optional.of(user), result);
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(User.class));
+        assertTrue(queryCaptor.getValue().getQueryObject().containsKey("$or"));
+        var set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(3, set.get("currentStreak"));
+        assertEquals(3, set.get("longestStreak"));
+        assertEquals(4L, set.get("activityVersion"));
+    }
+
+    @Test
+    @DisplayName("Should leave the streaks alone for later entries of an active day")
+    void recordEntry_ShouldReturnEmpty_WhenDayAlreadyActive() {
+        // Given
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        when(mongoTemplate.findById(TEST_USER_ID, JournalingActivity.class))
+                .thenReturn(activity(3L, new DayRun(today - 1, today)));
+
+        // When
+        Optional<User> result = journalingActivityService.recordEntry(TEST_USER_ID, Instant.now());
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(mongoTemplate, never()).save(any(JournalingActivity.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class));
+    }
+
+    @Test
+    @DisplayName("Should keep the day active while another journal was written on it")
+    void removeEntry_ShouldKeepDay_WhenOtherJournalExists() {
+        // Given
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        when(mongoTemplate.findById(TEST_USER_ID, JournalingActivity.class))
+                .thenReturn(activity(3L, new DayRun(today - 1, today)));
+        when(mongoTemplate.exists(any(Query.class), eq(Journal.class))).thenReturn(true);
+
+        // When
+        journalingActivityService.removeEntry(TEST_USER_ID, Instant.now());
+
+        // Then
+        verify(mongoTemplate, never()).save(any(JournalingActivity.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class));
+    }
+
+    @Test
+    @DisplayName("Should count the first entry as a new day when the days are built from the journals")
+    void recordEntry_ShouldRecalculateStreaks_WhenActivityIsBuilt() {
+        // Given
+        Instant entryAt = Instant.now();
+        var user = User.builder().id(TEST_USER_ID).timezone("UTC").currentStreak(2).build();
+        when(mongoTemplate.findById(TEST_USER_ID, JournalingActivity.class)).thenReturn(null);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(user);
+        // The new journal is already saved, read back with Mongo's millisecond precision
+        when(mongoTemplate.stream(any(Query.class), eq(Journal.class))).thenReturn(Stream.of(
+                Journal.builder().createdAt(entryAt.minus(1, ChronoUnit.DAYS)).build(),
+                Journal.builder().createdAt(entryAt.truncatedTo(ChronoUnit.MILLIS)).build()));
+        when(mongoTemplate.insert(any(JournalingActivity.class))).thenAnswer(invocation -> {
+            JournalingActivity built = invocation.getArgument(0);
+            built.setVersion(0L);
+            return built;
+        });
+        when(mongoTemplate.save(any(JournalingActivity.class))).thenAnswer(invocation -> {
+            JournalingActivity saved = invocation.getArgument(0);
+            saved.setVersion(1L);
+            return saved;
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(user);
+
+        // When
+        Optional<User> result = journalingActivityService.recordEntry(TEST_USER_ID, entryAt);
+
+        // Then
+        assertEquals(Optional.of(user), result);
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(User.class));
+        var set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(2, set.get("currentStreak"));
+        assertEquals(1L, set.get("activityVersion"));
+    }
+
+    @Test
+    @DisplayName("Should recalculate the streaks after a delete when the days are built from the journals")
+    void removeEntry_ShouldRecalculateStreaks_WhenActivityIsBuilt() {
+        // Given
+        Instant deletedAt = Instant.now();
+        when(mongoTemplate.findById(TEST_USER_ID, JournalingActivity.class)).thenReturn(null);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class)))
+                .thenReturn(User.builder().id(TEST_USER_ID).timezone("UTC").build());
+        when(mongoTemplate.stream(any(Query.class), eq(Journal.class))).thenReturn(Stream.of(
+                Journal.builder().createdAt(deletedAt.minus(1, ChronoUnit.DAYS)).build()));
+        when(mongoTemplate.insert(any(JournalingActivity.class))).thenAnswer(invocation -> {
+            JournalingActivity built = invocation.getArgument(0);
+            built.setVersion(0L);
+            return built;
+        });
+        when(mongoTemplate.exists(any(Query.class), eq(Journal.class))).thenReturn(false);
+
+        // When
+        journalingActivityService.removeEntry(TEST_USER_ID, deletedAt);
+
+        // Then
+        verify(mongoTemplate, never()).save(any(JournalingActivity.class));
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(User.class));
+        var set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(1, set.get("currentStreak"));
+        assertEquals(0L, set.get("activityVersion"));
+    }
+
+    private JournalingActivity activity(Long version, DayRun... runs) {
+        return JournalingActivity.builder()
+                .userId(TEST_USER_ID)
+                .timezone("UTC")
+                .runs(new ArrayList<>(List.of(runs)))
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ahnis.journalai.user.util;
+
+import com.ahnis.journalai.user.entity.JournalingActivity.DayRun;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DayRunsTest {
+
+    @Test
+    @DisplayName("Should join a day with the runs around it")
+    void add_ShouldMergeAdjacentRuns() {
+        // Given
+        var runs = new ArrayList<>(List.of(new DayRun(1, 3), new DayRun(5, 6)));
+
+        // When
+        boolean added = DayRuns.add(runs, 4);
+
+        // Then
+        assertTrue(added);
+        assertEquals(List.of(new DayRun(1, 6)), runs);
+        assertFalse(DayRuns.add(runs, 2));
+    }
+
+    @Test
+    @DisplayName("Should keep runs sorted when adding a separate day")
+    void add_ShouldInsertNewRun() {
+        var runs = new ArrayList<>(List.of(new DayRun(1, 2), new DayRun(10, 11)));
+
+        DayRuns.add(runs, 5);
+        DayRuns.add(runs, 9);
+
+        assertEquals(List.of(new DayRun(1, 2), new DayRun(5, 5), new DayRun(9, 11)), runs);
+    }
+
+    @Test
+    @DisplayName("Should split a run when removing a day inside it")
+    void remove_ShouldSplitRun() {
+        // Given
+        var runs = new ArrayList<>(List.of(new DayRun(1, 5)));
+
+        // When
+        boolean removed = DayRuns.remove(runs, 3);
+
+        // Then
+        assertTrue(removed);
+        assertEquals(List.of(new DayRun(1, 2), new DayRun(4, 5)), runs);
+        assertFalse(DayRuns.remove(runs, 3));
+        assertEquals(2, DayRuns.longestStreak(runs));
+    }
+
+    @Test
+    @DisplayName("Should count the current streak until yesterday and reset it after a missed day")
+    void currentStreak_ShouldEndTodayOrYesterday() {
+        var runs = List.of(new DayRun(1, 3), new DayRun(7, 10));
+
+        assertEquals(4, DayRuns.currentStreak(runs, 10));
+        assertEquals(4, DayRuns.currentStreak(runs, 11));
+        assertEquals(0, DayRuns.currentStreak(runs, 12));
+        assertEquals(4, DayRuns.longestStreak(runs));
+    }
+
+    @Test
+    @DisplayName("Should cut runs to the requested range")
+    void between_ShouldClipRuns() {
+        var runs = List.of(new DayRun(1, 3), new DayRun(7, 10), new DayRun(20, 25));
+
+        assertEquals(List.of(new DayRun(2, 3), new DayRun(7, 10), new DayRun(20, 21)), DayRuns.between(runs, 2, 21));
+        assertEquals(List.of(), DayRuns.between(runs, 11, 19));
+    }
+}